@@ -0,0 +1,78 @@
+package com.pickleball_backend.pickleball.config;
+
+import com.pickleball_backend.pickleball.repository.GroupMemberRepository;
+import com.pickleball_backend.pickleball.service.GroupChatPublisher;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.MessagingException;
+import org.springframework.messaging.simp.stomp.StompCommand;
+import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
+import org.springframework.messaging.support.ChannelInterceptor;
+import org.springframework.messaging.support.MessageHeaderAccessor;
+
+import java.security.Principal;
+import java.util.regex.Pattern;
+
+/**
+ * 只有群組的有效成員才能訂閱 /topic/groups/{groupId}；每次訂閱檢查一次，推送時不必再逐一確認。
+ * SimpleBroker 會把含 * ? { 的訂閱當成路徑樣式比對（例如 /topic/**），所以一律拒絕；
+ * /topic 只由伺服器推送，客戶端不能直接 SEND。
+ */
+public class GroupTopicSubscriptionInterceptor implements ChannelInterceptor {
+
+    private static final String TOPIC_ROOT = "/topic";
+    private static final Pattern GROUP_ID = Pattern.compile("\\d{1,18}");
+
+    private final GroupMemberRepository groupMemberRepository;
+
+    public GroupTopicSubscriptionInterceptor(GroupMemberRepository groupMemberRepository) {
+        this.groupMemberRepository = groupMemberRepository;
+    }
+
+    @Override
+    public Message<?> preSend(Message<?> message, MessageChannel channel) {
+        StompHeaderAccessor accessor = MessageHeaderAccessor.getAccessor(message, StompHeaderAccessor.class);
+        if (accessor == null) {
+            return message;
+        }
+        StompCommand command = accessor.getCommand();
+        if (!StompCommand.SUBSCRIBE.equals(command) && !StompCommand.SEND.equals(command)) {
+            return message;
+        }
+        Principal user = accessor.getUser();
+        if (user == null) {
+            throw new MessagingException("Not authenticated");
+        }
+        String destination = accessor.getDestination();
+        if (destination == null) {
+            throw new MessagingException("Missing destination");
+        }
+
+        if (StompCommand.SEND.equals(command)) {
+            if (isTopic(destination)) {
+                throw new MessagingException("Cannot send to " + destination);
+            }
+            return message;
+        }
+
+        if (destination.indexOf('*') >= 0 || destination.indexOf('?') >= 0 || destination.indexOf('{') >= 0) {
+            throw new MessagingException("Pattern subscriptions are not allowed: " + destination);
+        }
+        if (!destination.startsWith(GroupChatPublisher.TOPIC_PREFIX)) {
+            return message;
+        }
+        String id = destination.substring(GroupChatPublisher.TOPIC_PREFIX.length());
+        if (!GROUP_ID.matcher(id).matches()) {
+            throw new MessagingException("Invalid group destination: " + destination);
+        }
+        Long groupId = Long.valueOf(id);
+        if (!groupMemberRepository.isUsernameMemberOfGroup(groupId, user.getName())) {
+            throw new MessagingException("Not a member of group " + groupId);
+        }
+        return message;
+    }
+
+    private static boolean isTopic(String destination) {
+        return destination.equals(TOPIC_ROOT) || destination.startsWith(TOPIC_ROOT + "/");
+    }
+}
@@ -0,0 +1,63 @@
+package com.pickleball_backend.pickleball.config;
+
+import org.springframework.boot.jdbc.init.DataSourceScriptDatabaseInitializer;
+import org.springframework.boot.sql.init.DatabaseInitializationMode;
+import org.springframework.boot.sql.init.DatabaseInitializationSettings;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.List;
+
+/**
+ * 在 EntityManagerFactory 建立（ddl-auto=update 建立唯一鍵）之前刪除重複的 join request 並重算比賽人數，
+ * 否則舊資料有重複時 uk_joinrequest_member_match 無法建立。
+ * Spring Boot 會讓 JPA 等待所有 DataSourceScriptDatabaseInitializer 完成；新的資料庫還沒有資料表時不執行。
+ */
+@Component
+public class JoinRequestDedupeInitializer extends DataSourceScriptDatabaseInitializer {
+
+    private static final String SCRIPT = "classpath:db/dedupe_join_requests.sql";
+
+    private final DataSource dataSource;
+
+    public JoinRequestDedupeInitializer(DataSource dataSource) {
+        super(dataSource, settings());
+        this.dataSource = dataSource;
+    }
+
+    private static DatabaseInitializationSettings settings() {
+        DatabaseInitializationSettings settings = new DatabaseInitializationSettings();
+        settings.setSchemaLocations(List.of(SCRIPT));
+        settings.setMode(DatabaseInitializationMode.ALWAYS);
+        return settings;
+    }
+
+    @Override
+    public boolean initializeDatabase() {
+        if (!joinRequestTableExists()) {
+            return false;
+        }
+        return super.initializeDatabase();
+    }
+
+    // MySQL 保留原本的大小寫，H2 預設轉成大寫
+    private boolean joinRequestTableExists() {
+        try (Connection connection = dataSource.getConnection()) {
+            DatabaseMetaData metaData = connection.getMetaData();
+            for (String name : List.of("joinrequest", "JOINREQUEST")) {
+                try (ResultSet tables = metaData.getTables(connection.getCatalog(), null, name, new String[]{"TABLE"})) {
+                    if (tables.next()) {
+                        return true;
+                    }
+                }
+            }
+            return false;
+        } catch (SQLException e) {
+            throw new IllegalStateException("Failed to check for the joinrequest table", e);
+        }
+    }
+}
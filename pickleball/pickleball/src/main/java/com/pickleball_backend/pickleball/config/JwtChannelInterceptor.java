@@ -3,12 +3,12 @@ package com.pickleball_backend.pickleball.config;
 import com.pickleball_backend.pickleball.security.JwtAuthFilter;
 import org.springframework.messaging.Message;
 import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.MessagingException;
 import org.springframework.messaging.simp.stomp.StompCommand;
 import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
 import org.springframework.messaging.support.ChannelInterceptor;
 import org.springframework.messaging.support.MessageHeaderAccessor;
 import org.springframework.security.core.Authentication;
-import org.springframework.security.core.context.SecurityContextHolder;
 
 public class JwtChannelInterceptor implements ChannelInterceptor {
 
@@ -22,16 +22,17 @@ public class JwtChannelInterceptor implements ChannelInterceptor {
     public Message<?> preSend(Message<?> message, MessageChannel channel) {
         StompHeaderAccessor accessor = MessageHeaderAccessor.getAccessor(message, StompHeaderAccessor.class);
 
-        if (accessor != null && StompCommand.CONNECT.equals(accessor.getCommand())) {
+        // STOMP 1.2 的客戶端可能以 STOMP 代替 CONNECT
+        if (accessor != null && (StompCommand.CONNECT.equals(accessor.getCommand())
+                || StompCommand.STOMP.equals(accessor.getCommand()))) {
             String token = accessor.getFirstNativeHeader("Authorization");
-            if (token != null && token.startsWith("Bearer ")) {
-                token = token.substring(7);
-                if (jwtAuthFilter.isValid(token)) {
-                    Authentication auth = jwtAuthFilter.getAuthentication(token);
-                    SecurityContextHolder.getContext().setAuthentication(auth);
-                    accessor.setUser(auth);
-                }
+            if (token == null || !token.startsWith("Bearer ") || !jwtAuthFilter.isValid(token.substring(7))) {
+                // /ws 本身是 permitAll，沒有有效 JWT 的連線在這裡就拒絕，之後的 SUBSCRIBE / SEND 一律有使用者
+                throw new MessagingException("Missing or invalid token");
             }
+            // 只綁在 STOMP session 上；clientInboundChannel 是共用執行緒池，不能寫入 SecurityContextHolder
+            Authentication auth = jwtAuthFilter.getAuthentication(token.substring(7));
+            accessor.setUser(auth);
         }
         return message;
     }
@@ -93,6 +93,7 @@ public class SecurityConfig {
                         .requestMatchers(HttpMethod.GET, "/api/friendly-matches/open").permitAll()
                         .requestMatchers(HttpMethod.GET, "/api/friendly-matches/all").permitAll()
                         .requestMatchers(HttpMethod.GET, "/api/friendly-matches/invitations").permitAll()
+                        .requestMatchers(HttpMethod.GET, "/api/friendly-matches/discover").permitAll()
 
                         // Public venue access for unauthenticated users
                         .requestMatchers(HttpMethod.GET, "/api/venues").permitAll()
@@ -0,0 +1,29 @@
+package com.pickleball_backend.pickleball.config;
+
+import com.pickleball_backend.pickleball.storage.BlobStore;
+import com.pickleball_backend.pickleball.storage.LocalDiskBlobStore;
+import com.pickleball_backend.pickleball.storage.ObjectStoreBlobStore;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.nio.file.Paths;
+
+/**
+ * 上傳檔案的儲存後端：app.storage.backend=local（預設，直接放在 file.upload-dir）
+ * 或 object（S3 相容物件儲存的本機替身，放在 app.storage.object.root 下的 bucket）
+ */
+@Configuration
+public class StorageConfig {
+
+    @Bean
+    public BlobStore blobStore(@Value("${app.storage.backend:local}") String backend,
+                               @Value("${file.upload-dir:uploads/}") String uploadDir,
+                               @Value("${app.storage.object.root:object-storage}") String objectRoot,
+                               @Value("${app.storage.object.bucket:uploads}") String bucket) {
+        if ("object".equalsIgnoreCase(backend)) {
+            return new ObjectStoreBlobStore(Paths.get(objectRoot), bucket);
+        }
+        return new LocalDiskBlobStore(Paths.get(uploadDir));
+    }
+}
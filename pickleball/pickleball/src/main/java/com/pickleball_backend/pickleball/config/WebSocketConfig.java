@@ -1,6 +1,10 @@
 package com.pickleball_backend.pickleball.config;
 
+import com.pickleball_backend.pickleball.repository.GroupMemberRepository;
+import com.pickleball_backend.pickleball.security.JwtAuthFilter;
+import lombok.RequiredArgsConstructor;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.messaging.simp.config.ChannelRegistration;
 import org.springframework.messaging.simp.config.MessageBrokerRegistry;
 import org.springframework.web.socket.config.annotation.EnableWebSocketMessageBroker;
 import org.springframework.web.socket.config.annotation.StompEndpointRegistry;
@@ -8,7 +12,12 @@ import org.springframework.web.socket.config.annotation.WebSocketMessageBrokerCo
 
 @Configuration
 @EnableWebSocketMessageBroker
+@RequiredArgsConstructor
 public class WebSocketConfig implements WebSocketMessageBrokerConfigurer {
+
+    private final JwtAuthFilter jwtAuthFilter;
+    private final GroupMemberRepository groupMemberRepository;
+
     @Override
     public void registerStompEndpoints(StompEndpointRegistry registry) {
         registry.addEndpoint("/ws").setAllowedOriginPatterns("*").withSockJS();
@@ -20,4 +29,12 @@ public class WebSocketConfig implements WebSocketMessageBrokerConfigurer {
         registry.enableSimpleBroker("/topic", "/queue");
         registry.setUserDestinationPrefix("/user");
     }
-}
\ No newline at end of file
+
+    // CONNECT 時以 JWT 設定使用者，之後訂閱群組主題時才能確認成員身分
+    @Override
+    public void configureClientInboundChannel(ChannelRegistration registration) {
+        registration.interceptors(
+                new JwtChannelInterceptor(jwtAuthFilter),
+                new GroupTopicSubscriptionInterceptor(groupMemberRepository));
+    }
+}
@@ -4,11 +4,16 @@ import com.pickleball_backend.pickleball.dto.AboutUsStatisticsDto;
 import com.pickleball_backend.pickleball.service.AboutUsService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 
+import java.util.concurrent.TimeUnit;
+
 @RestController
 @RequestMapping("/api/about-us")
 @RequiredArgsConstructor
@@ -20,9 +25,18 @@ public class AboutUsController {
     @GetMapping("/statistics")
     public ResponseEntity<AboutUsStatisticsDto> getAboutUsStatistics() {
         try {
-            log.info("Fetching About Us statistics");
             AboutUsStatisticsDto statistics = aboutUsService.getAboutUsStatistics();
-            return ResponseEntity.ok(statistics);
+            // 統計每五分鐘才重算一次，瀏覽器及 CDN 可以直接沿用
+            return ResponseEntity.ok()
+                    .cacheControl(CacheControl.maxAge(5, TimeUnit.MINUTES).cachePublic())
+                    .body(statistics);
+        } catch (IllegalStateException e) {
+            // 還沒有成功算出統計：不可被快取，讓用戶端稍後重試
+            log.warn("About Us statistics unavailable: {}", e.getMessage());
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .cacheControl(CacheControl.noStore())
+                    .header(HttpHeaders.RETRY_AFTER, Long.toString(AboutUsService.RETRY_AFTER_FAILURE_MS / 1000))
+                    .build();
         } catch (Exception e) {
             log.error("Error fetching About Us statistics", e);
             return ResponseEntity.internalServerError().build();
@@ -3,6 +3,7 @@ package com.pickleball_backend.pickleball.controller;
 import com.pickleball_backend.pickleball.dto.*;
 import com.pickleball_backend.pickleball.repository.*;
 import com.pickleball_backend.pickleball.service.AdminUserService;
+import com.pickleball_backend.pickleball.service.MemberActivityLeaderboardService;
 import com.pickleball_backend.pickleball.dto.UserStatisticsDto;
 import com.pickleball_backend.pickleball.dto.UserStatusUpdateDto;
 import lombok.RequiredArgsConstructor;
@@ -28,6 +29,7 @@ public class AdminUserController {
     private final AdminUserService adminUserService;
     private final UserRepository userRepository;
     private final UserAccountRepository userAccountRepository;
+    private final MemberActivityLeaderboardService leaderboardService;
 
     // 获取所有用户（分页+搜索+过滤）
     @GetMapping
@@ -196,8 +198,11 @@ public class AdminUserController {
     @GetMapping("/top-users")
     @PreAuthorize("hasRole('ADMIN')")
     public ResponseEntity<List<UserStatisticsDto>> getTopUsersByActivity(
-            @RequestParam(defaultValue = "10") int limit) {
-        List<UserStatisticsDto> topUsers = adminUserService.getTopUsersByActivity(limit);
+            @RequestParam(defaultValue = "10") int limit,
+            @RequestParam(defaultValue = "all") String window) {
+        // window: 7d / 30d / all
+        List<UserStatisticsDto> topUsers = leaderboardService.getTopUsers(
+                MemberActivityLeaderboardService.Window.fromParam(window), limit);
         return ResponseEntity.ok(topUsers);
     }
 
@@ -11,6 +11,9 @@ import com.pickleball_backend.pickleball.repository.UserAccountRepository;
 import com.pickleball_backend.pickleball.service.BookingService;
 import com.pickleball_backend.pickleball.service.MemberService;
 import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
@@ -44,7 +47,11 @@ public class BookingController {
 
     @PostMapping("/bookings")
     @PreAuthorize("hasRole('USER')")
-    public ResponseEntity<?> bookCourt(@RequestBody BookingRequestDto request) {
+    public ResponseEntity<?> bookCourt(@RequestBody BookingRequestDto request,
+                                       @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey) {
+        if (request.getIdempotencyKey() == null) {
+            request.setIdempotencyKey(idempotencyKey);
+        }
         try {
             BookingResponseDto response = bookingService.bookCourt(request);
             return ResponseEntity.ok(response);
@@ -67,6 +74,19 @@ public class BookingController {
         return ResponseEntity.ok(bookingService.getBookingHistory(memberId, status));
     }
 
+    @GetMapping("/bookings/page")
+    @PreAuthorize("hasRole('USER')")
+    public ResponseEntity<Page<BookingHistoryDto>> getBookingHistoryPage(
+            @RequestParam(required = false) String status,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "10") int size) {
+        String username = SecurityContextHolder.getContext().getAuthentication().getName();
+        Integer memberId = memberService.getMemberIdByUsername(username);
+
+        Pageable pageable = PageRequest.of(Math.max(page, 0), Math.min(Math.max(size, 1), 100));
+        return ResponseEntity.ok(bookingService.getBookingHistoryPage(memberId, status, pageable));
+    }
+
 /*    @GetMapping("/bookings/{id}")
     @PreAuthorize("hasRole('USER')")
     public ResponseEntity<BookingHistoryDto> getBookingDetails(@PathVariable Integer id) {
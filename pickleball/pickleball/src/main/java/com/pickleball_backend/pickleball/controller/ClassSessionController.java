@@ -11,7 +11,9 @@ import com.pickleball_backend.pickleball.service.EscrowAccountService;
 import com.pickleball_backend.pickleball.entity.Feedback;
 import java.time.LocalDateTime;
 import com.pickleball_backend.pickleball.repository.FeedbackRepository;
+import com.pickleball_backend.pickleball.service.ClassSessionBatchScheduler;
 import com.pickleball_backend.pickleball.service.ClassSessionService;
+import com.pickleball_backend.pickleball.service.CoachDirectoryService;
 import com.pickleball_backend.pickleball.service.EmailService;
 import com.pickleball_backend.pickleball.service.LeaveRequestService;
 import com.pickleball_backend.pickleball.repository.*;
@@ -45,9 +47,11 @@ public class ClassSessionController {
     private final EscrowAccountService escrowAccountService;
     private final FeedbackRepository feedbackRepository;
     private final UserAccountRepository userAccountRepository;
+    private final ClassSessionBatchScheduler classSessionBatchScheduler;
+    private final CoachDirectoryService coachDirectoryService;
 
     @Autowired
-    public ClassSessionController(ClassSessionService classSessionService, UserRepository userRepository, ClassRegistrationRepository classRegistrationRepository, PaymentRepository paymentRepository, EmailService emailService, ClassSessionRepository classSessionRepository, MemberRepository memberRepository, LeaveRequestService leaveRequestService, EscrowAccountService escrowAccountService, FeedbackRepository feedbackRepository, UserAccountRepository userAccountRepository) {
+    public ClassSessionController(ClassSessionService classSessionService, UserRepository userRepository, ClassRegistrationRepository classRegistrationRepository, PaymentRepository paymentRepository, EmailService emailService, ClassSessionRepository classSessionRepository, MemberRepository memberRepository, LeaveRequestService leaveRequestService, EscrowAccountService escrowAccountService, FeedbackRepository feedbackRepository, UserAccountRepository userAccountRepository, ClassSessionBatchScheduler classSessionBatchScheduler, CoachDirectoryService coachDirectoryService) {
         this.classSessionService = classSessionService;
         this.userRepository = userRepository;
         this.classRegistrationRepository = classRegistrationRepository;
@@ -59,6 +63,8 @@ public class ClassSessionController {
         this.escrowAccountService = escrowAccountService;
         this.feedbackRepository = feedbackRepository;
         this.userAccountRepository = userAccountRepository;
+        this.classSessionBatchScheduler = classSessionBatchScheduler;
+        this.coachDirectoryService = coachDirectoryService;
     }
 
     // 教练创建课程
@@ -308,8 +314,7 @@ public class ClassSessionController {
             String username = SecurityContextHolder.getContext().getAuthentication().getName();
             User coach = userRepository.findByUserAccount_Username(username)
                     .orElseThrow(() -> new ResourceNotFoundException("Coach not found"));
-            List<ClassSession> sessions = classSessionService.createRecurringSessions(request, coach);
-            return ResponseEntity.ok(sessions);
+            return ResponseEntity.ok(classSessionBatchScheduler.scheduleRecurring(request, coach));
         } catch (Exception e) {
             e.printStackTrace();
             return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
@@ -323,15 +328,18 @@ public class ClassSessionController {
         try {
             Integer courtId = (Integer) body.get("courtId");
             List<Map<String, String>> dateTimes = (List<Map<String, String>>) body.get("dateTimes");
-            List<String> conflicts = new java.util.ArrayList<>();
+            List<java.time.LocalDateTime[]> ranges = new java.util.ArrayList<>();
+            Map<java.time.LocalDateTime, String> rawStartTimes = new HashMap<>();
             for (Map<String, String> dt : dateTimes) {
                 java.time.LocalDateTime start = java.time.LocalDateTime.parse(dt.get("startTime"));
                 java.time.LocalDateTime end = java.time.LocalDateTime.parse(dt.get("endTime"));
-                boolean conflict = classSessionService.hasCourtConflict(courtId, start, end);
-                if (conflict) {
-                    conflicts.add(dt.get("startTime"));
-                }
+                ranges.add(new java.time.LocalDateTime[]{start, end});
+                rawStartTimes.put(start, dt.get("startTime"));
             }
+            // 一次查詢整段期間，於記憶體中比對所有日期
+            List<String> conflicts = classSessionBatchScheduler.findCourtConflicts(courtId, ranges).stream()
+                    .map(rawStartTimes::get)
+                    .collect(Collectors.toList());
             return ResponseEntity.ok(Map.of("conflicts", conflicts));
         } catch (Exception e) {
             e.printStackTrace();
@@ -677,69 +685,8 @@ public class ClassSessionController {
     @GetMapping("/coaches")
     public ResponseEntity<?> getAllCoaches() {
         try {
-            System.out.println("=== getAllCoaches called ===");
-            
-            // 獲取所有用戶類型為 COACH 的用戶
-            List<User> coaches = userRepository.findByUserTypeIn(List.of("COACH"));
-            System.out.println("Found " + coaches.size() + " coaches");
-            
-            coaches.forEach(coach -> {
-                System.out.println("Coach: " + coach.getName() + " (ID: " + coach.getId() + ", Type: " + coach.getUserType() + ")");
-            });
-            
-            List<Map<String, Object>> coachData = coaches.stream().map(coach -> {
-                Map<String, Object> coachInfo = new HashMap<>();
-                coachInfo.put("id", coach.getId());
-                coachInfo.put("name", coach.getName());
-                coachInfo.put("email", coach.getEmail());
-                coachInfo.put("rating", 4.5); // 默認評分
-                coachInfo.put("avatar", coach.getName().substring(0, 2).toUpperCase()); // 取名字前兩個字母
-                
-                // 獲取教練的場地信息 - 使用更寬泛的查詢
-                                        List<ClassSession> allSessions = classSessionRepository.findAll();
-                        List<ClassSession> coachSessions = allSessions.stream()
-                            .filter(s -> s.getCoach() != null && s.getCoach().getId().equals(coach.getId()))
-                            .collect(Collectors.toList());
-
-                        // 計算可用的課程數量
-                        long availableSessionsCount = coachSessions.stream()
-                            .filter(s -> "AVAILABLE".equals(s.getStatus()))
-                            .count();
-
-                        System.out.println("Coach " + coach.getName() + " has " + coachSessions.size() + " total sessions, " + availableSessionsCount + " available");
-                
-                // 獲取場地信息
-                Set<String> venues = new HashSet<>();
-                Set<String> states = new HashSet<>();
-                
-                coachSessions.forEach(session -> {
-                    if (session.getVenue() != null) {
-                        venues.add(session.getVenue().getName());
-                        states.add(session.getVenue().getState());
-                        System.out.println("  - Session " + session.getId() + " at venue: " + session.getVenue().getName() + ", state: " + session.getVenue().getState());
-                    } else if (session.getCourt() != null && session.getCourt().getVenue() != null) {
-                        venues.add(session.getCourt().getVenue().getName());
-                        states.add(session.getCourt().getVenue().getState());
-                        System.out.println("  - Session " + session.getId() + " at court venue: " + session.getCourt().getVenue().getName() + ", state: " + session.getCourt().getVenue().getState());
-                    }
-                });
-                
-                String venue = venues.isEmpty() ? "Sunway Arena" : venues.iterator().next();
-                String state = states.isEmpty() ? "Selangor" : states.iterator().next();
-                
-                coachInfo.put("venue", venue);
-                coachInfo.put("state", state);
-                coachInfo.put("specialties", List.of("Pickleball", "Training")); // 默認專長
-                coachInfo.put("sessionsCount", (int) availableSessionsCount);
-                
-                System.out.println("Coach info: " + coachInfo);
-                return coachInfo;
-            }).collect(Collectors.toList());
-            
-            System.out.println("Returning " + coachData.size() + " coaches");
-            return ResponseEntity.ok(coachData);
+            return ResponseEntity.ok(coachDirectoryService.getCoachDirectory());
         } catch (Exception e) {
-            System.out.println("Error in getAllCoaches: " + e.getMessage());
             e.printStackTrace();
             return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
         }
@@ -7,6 +7,7 @@ import com.pickleball_backend.pickleball.exception.*;
 import com.pickleball_backend.pickleball.repository.*;
 import com.pickleball_backend.pickleball.service.CoachCourtService;
 import com.pickleball_backend.pickleball.service.ClassSessionServiceImpl;
+import com.pickleball_backend.pickleball.service.WalletLedgerService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
@@ -50,6 +51,7 @@ public class CoachController {
     private final MemberRepository memberRepository;
     private final MembershipTierRepository membershipTierRepository;
     private final ClassSessionServiceImpl classSessionService;
+    private final WalletLedgerService walletLedgerService;
 
     // 獲取教練可用的球場
     @GetMapping("/available-courts")
@@ -1005,25 +1007,11 @@ public class CoachController {
                     .sum();
 
             double oldBalance = coachWallet.getBalance();
-            double newBalance = oldBalance + totalIncome; // 累加而不是覆蓋
-            coachWallet.setBalance(newBalance);
-            walletRepository.save(coachWallet);
 
-            // 創建一筆總的交易記錄
+            // 原子累加總收入（而不是覆蓋）並創建一筆總的交易記錄
             if (totalIncome > 0) {
-                WalletTransaction totalTransaction = new WalletTransaction();
-                totalTransaction.setWalletId(coachWallet.getId());
-                totalTransaction.setTransactionType("COACH_INCOME");
-                totalTransaction.setAmount(totalIncome);
-                totalTransaction.setBalanceBefore(oldBalance);
-                totalTransaction.setBalanceAfter(newBalance);
-                totalTransaction.setFrozenBefore(coachWallet.getFrozenBalance());
-                totalTransaction.setFrozenAfter(coachWallet.getFrozenBalance());
-                totalTransaction.setReferenceType("SYSTEM_ADJUSTMENT");
-                totalTransaction.setReferenceId(0);
-                totalTransaction.setDescription("System adjustment: Total income from " + coachIncomePayments.size() + " sessions");
-                totalTransaction.setStatus("COMPLETED");
-                walletTransactionRepository.save(totalTransaction);
+                walletLedgerService.credit(coachWallet, totalIncome, "COACH_INCOME", "SYSTEM_ADJUSTMENT", 0,
+                        "System adjustment: Total income from " + coachIncomePayments.size() + " sessions");
             }
 
             Map<String, Object> response = new HashMap<>();
@@ -3,8 +3,10 @@ package com.pickleball_backend.pickleball.controller;
 import com.pickleball_backend.pickleball.dto.CourtDto;
 import com.pickleball_backend.pickleball.dto.CourtPricingDto;
 import com.pickleball_backend.pickleball.dto.CourtDeletePreviewDto;
+import com.pickleball_backend.pickleball.dto.CourtImageDto;
 import com.pickleball_backend.pickleball.entity.Court;
 import com.pickleball_backend.pickleball.service.CourtService;
+import com.pickleball_backend.pickleball.service.FileStorageService;
 import jakarta.persistence.EntityNotFoundException;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
@@ -17,7 +19,6 @@ import com.pickleball_backend.pickleball.entity.Venue;
 import com.pickleball_backend.pickleball.repository.CourtRepository;
 import com.pickleball_backend.pickleball.repository.VenueRepository;
 import org.springframework.web.multipart.MultipartFile;
-import java.nio.file.*;
 import com.pickleball_backend.pickleball.entity.CourtImage;
 import com.pickleball_backend.pickleball.repository.CourtImageRepository;
 
@@ -25,7 +26,6 @@ import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
 import java.time.LocalDateTime;
-import java.util.UUID;
 import com.pickleball_backend.pickleball.entity.CourtType;
 
 @RestController
@@ -39,6 +39,8 @@ public class CourtController {
     private VenueRepository venueRepository;
     @Autowired
     private CourtImageRepository courtImageRepository;
+    @Autowired
+    private FileStorageService fileStorageService;
 
     @PostMapping
     @PreAuthorize("hasAuthority('ROLE_ADMIN')")
@@ -184,24 +186,8 @@ public class CourtController {
                 return ResponseEntity.badRequest().body("File is empty");
             }
             
-            // 保存文件到 uploads 目录
-            String uploadsDir = "uploads/";
-            Path uploadPath = Paths.get(uploadsDir).toAbsolutePath().normalize();
-            System.out.println("Upload path: " + uploadPath);
-            
-            if (!Files.exists(uploadPath)) {
-                Files.createDirectories(uploadPath);
-                System.out.println("Created uploads directory");
-            }
-            
-            String originalFilename = file.getOriginalFilename();
-            String extension = originalFilename.substring(originalFilename.lastIndexOf("."));
-            String filename = UUID.randomUUID().toString() + extension;
-            Path filePath = uploadPath.resolve(filename);
-            System.out.println("File path: " + filePath);
-            
-            Files.copy(file.getInputStream(), filePath, StandardCopyOption.REPLACE_EXISTING);
-            System.out.println("File saved to disk successfully");
+            // 保存文件（以内容 hash 命名，相同图片只存一份）
+            String filename = fileStorageService.store(file);
 
             // 保存到 court_image 表
             CourtImage courtImage = new CourtImage();
@@ -230,9 +216,9 @@ public class CourtController {
     @PreAuthorize("hasAuthority('ROLE_ADMIN')")
     public ResponseEntity<?> getCourtImages(@PathVariable Integer courtId) {
         System.out.println("=== Getting images for court ID: " + courtId + " ===");
-        List<CourtImage> images = courtImageRepository.findByCourtId(courtId);
+        List<CourtImageDto> images = courtService.getCourtImages(courtId);
         System.out.println("Found " + images.size() + " images in database");
-        for (CourtImage image : images) {
+        for (CourtImageDto image : images) {
             System.out.println("  - Image ID: " + image.getId() + ", Path: " + image.getImagePath());
         }
         return ResponseEntity.ok(images);
@@ -241,8 +227,7 @@ public class CourtController {
     // 允许所有人访问的球场图片接口
     @GetMapping("/public/{courtId}/images")
     public ResponseEntity<?> getCourtImagesPublic(@PathVariable Integer courtId) {
-        List<CourtImage> images = courtImageRepository.findByCourtId(courtId);
-        return ResponseEntity.ok(images);
+        return ResponseEntity.ok(courtService.getCourtImages(courtId));
     }
 
     @PutMapping("/{id}/type")
@@ -1,9 +1,9 @@
 package com.pickleball_backend.pickleball.controller;
 
+import com.pickleball_backend.pickleball.dto.CourtImageDto;
 import com.pickleball_backend.pickleball.entity.Court;
-import com.pickleball_backend.pickleball.entity.CourtImage;
 import com.pickleball_backend.pickleball.repository.CourtRepository;
-import com.pickleball_backend.pickleball.repository.CourtImageRepository;
+import com.pickleball_backend.pickleball.service.CourtService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
@@ -16,7 +16,7 @@ public class CourtPublicController {
     private CourtRepository courtRepository;
     
     @Autowired
-    private CourtImageRepository courtImageRepository;
+    private CourtService courtService;
 
     @GetMapping("/api/courts")
     public ResponseEntity<List<Court>> getAllCourtsForAllRoles() {
@@ -57,8 +57,7 @@ public class CourtPublicController {
     
     // 真正的公开图片接口 - 所有人都可以访问
     @GetMapping("/api/courts/{courtId}/images")
-    public ResponseEntity<List<CourtImage>> getCourtImagesPublic(@PathVariable Integer courtId) {
-        List<CourtImage> images = courtImageRepository.findByCourtId(courtId);
-        return ResponseEntity.ok(images);
+    public ResponseEntity<List<CourtImageDto>> getCourtImagesPublic(@PathVariable Integer courtId) {
+        return ResponseEntity.ok(courtService.getCourtImages(courtId));
     }
 } 
\ No newline at end of file
@@ -0,0 +1,145 @@
+package com.pickleball_backend.pickleball.controller;
+
+import com.pickleball_backend.pickleball.service.FileStorageService;
+import com.pickleball_backend.pickleball.service.ImageVariantService;
+import com.pickleball_backend.pickleball.storage.BlobStore;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpRange;
+import org.springframework.http.MediaType;
+import org.springframework.http.MediaTypeFactory;
+import org.springframework.stereotype.Controller;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestMethod;
+
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 提供 /uploads/{filename}：支援單一 Range（206）、ETag / If-None-Match（304）及 If-Range。
+ * 內容定址的檔名及其縮圖內容不會變，以檔名當 ETag 並可永久快取；舊檔名快取一小時。
+ * 本機檔案交給 Tomcat sendfile 由核心直接送出，其餘以 FileChannel.transferTo 寫出。
+ */
+@Controller
+@RequiredArgsConstructor
+public class FileDownloadController {
+
+    // Tomcat 的 sendfile 介面（與 DefaultServlet 相同）
+    private static final String SENDFILE_SUPPORT = "org.apache.tomcat.sendfile.support";
+    private static final String SENDFILE_FILENAME = "org.apache.tomcat.sendfile.filename";
+    private static final String SENDFILE_START = "org.apache.tomcat.sendfile.start";
+    private static final String SENDFILE_END = "org.apache.tomcat.sendfile.end";
+    // 小檔案走 sendfile 反而較慢，門檻與 Tomcat DefaultServlet 預設相同
+    private static final long SENDFILE_MIN_BYTES = 48 * 1024;
+
+    private static final String IMMUTABLE_CACHE = CacheControl.maxAge(365, TimeUnit.DAYS).cachePublic().immutable().getHeaderValue();
+    private static final String DEFAULT_CACHE = CacheControl.maxAge(1, TimeUnit.HOURS).cachePublic().getHeaderValue();
+
+    private final BlobStore blobStore;
+
+    @RequestMapping(value = "/uploads/{filename}", method = {RequestMethod.GET, RequestMethod.HEAD})
+    public void download(@PathVariable String filename,
+                         HttpServletRequest request,
+                         HttpServletResponse response) throws IOException {
+        Optional<BlobStore.BlobStat> found;
+        try {
+            found = blobStore.stat(filename);
+        } catch (IllegalArgumentException e) {
+            found = Optional.empty();
+        }
+        if (found.isEmpty()) {
+            response.sendError(HttpServletResponse.SC_NOT_FOUND);
+            return;
+        }
+        BlobStore.BlobStat stat = found.get();
+
+        long length = stat.size();
+        // 縮圖由原圖內容決定，同樣不會變
+        boolean contentAddressed = FileStorageService.isContentAddressed(filename) || ImageVariantService.isVariant(filename);
+        String etag = contentAddressed
+                ? "\"" + filename.substring(0, filename.lastIndexOf('.')) + "\""
+                : "\"" + Long.toHexString(length) + "-" + Long.toHexString(stat.lastModified()) + "\"";
+
+        response.setHeader(HttpHeaders.ETAG, etag);
+        response.setDateHeader(HttpHeaders.LAST_MODIFIED, stat.lastModified());
+        response.setHeader(HttpHeaders.CACHE_CONTROL, contentAddressed ? IMMUTABLE_CACHE : DEFAULT_CACHE);
+        response.setHeader(HttpHeaders.ACCEPT_RANGES, "bytes");
+
+        if (matches(request.getHeader(HttpHeaders.IF_NONE_MATCH), etag)) {
+            response.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+            return;
+        }
+
+        long start = 0;
+        long end = length - 1;
+        String rangeHeader = request.getHeader(HttpHeaders.RANGE);
+        String ifRange = request.getHeader(HttpHeaders.IF_RANGE);
+        // 檔案已變更（If-Range 不符）、格式錯誤或多段範圍時忽略 Range，回傳完整內容
+        if (rangeHeader != null && (ifRange == null || ifRange.equals(etag))) {
+            List<HttpRange> ranges = parseRanges(rangeHeader);
+            if (ranges.size() == 1) {
+                HttpRange range = ranges.get(0);
+                long rangeStart = length > 0 ? range.getRangeStart(length) : 0;
+                if (length == 0 || rangeStart >= length) {
+                    response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes */" + length);
+                    response.setStatus(HttpServletResponse.SC_REQUESTED_RANGE_NOT_SATISFIABLE);
+                    return;
+                }
+                start = rangeStart;
+                end = range.getRangeEnd(length);
+                response.setStatus(HttpServletResponse.SC_PARTIAL_CONTENT);
+                response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes " + start + "-" + end + "/" + length);
+            }
+        }
+
+        long count = end - start + 1;
+        response.setContentType(MediaTypeFactory.getMediaType(filename)
+                .orElse(MediaType.APPLICATION_OCTET_STREAM).toString());
+        response.setContentLengthLong(count);
+        if (count <= 0 || "HEAD".equals(request.getMethod())) {
+            return;
+        }
+
+        Path localPath = blobStore.localPath(filename);
+        if (localPath != null && count >= SENDFILE_MIN_BYTES && Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORT))) {
+            request.setAttribute(SENDFILE_FILENAME, localPath.toString());
+            request.setAttribute(SENDFILE_START, start);
+            // end 不含
+            request.setAttribute(SENDFILE_END, end + 1);
+            return;
+        }
+        blobStore.transferTo(filename, start, count, Channels.newChannel(response.getOutputStream()));
+    }
+
+    private static List<HttpRange> parseRanges(String header) {
+        try {
+            return HttpRange.parseRanges(header);
+        } catch (IllegalArgumentException e) {
+            return List.of();
+        }
+    }
+
+    private static boolean matches(String ifNoneMatch, String etag) {
+        if (ifNoneMatch == null) {
+            return false;
+        }
+        for (String candidate : ifNoneMatch.split(",")) {
+            String tag = candidate.trim();
+            if (tag.startsWith("W/")) {
+                tag = tag.substring(2);
+            }
+            if (tag.equals("*") || tag.equals(etag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
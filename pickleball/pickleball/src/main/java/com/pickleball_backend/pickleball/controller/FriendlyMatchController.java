@@ -6,6 +6,7 @@ import com.pickleball_backend.pickleball.exception.UnauthorizedException;
 import com.pickleball_backend.pickleball.repository.MemberRepository;
 import com.pickleball_backend.pickleball.repository.UserAccountRepository;
 import com.pickleball_backend.pickleball.service.FriendlyMatchService;
+import com.pickleball_backend.pickleball.service.MatchDiscoveryService;
 import com.pickleball_backend.pickleball.dto.FriendlyMatchInvitationDto;
 import com.pickleball_backend.pickleball.dto.FriendlyMatchPaymentDto;
 import com.pickleball_backend.pickleball.dto.BookingResponseDto;
@@ -13,6 +14,9 @@ import com.pickleball_backend.pickleball.dto.JoinRequestDto;
 import com.pickleball_backend.pickleball.dto.FriendlyMatchResponseDto;
 import com.pickleball_backend.pickleball.dto.JoinRequestResponseDto;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
@@ -73,6 +77,45 @@ public class FriendlyMatchController {
         return friendlyMatchService.getAllMatchesDto();
     }
 
+    /**
+     * 分頁的比賽列表，type：upcoming（預設）、open、mine（需登入）、all
+     */
+    @GetMapping("/feed")
+    public ResponseEntity<Page<FriendlyMatchInvitationDto>> getMatchFeed(
+            @RequestParam(defaultValue = FriendlyMatchService.FEED_UPCOMING) String type,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "20") int size,
+            Principal principal) {
+        Integer memberId = null;
+        if (FriendlyMatchService.FEED_MINE.equalsIgnoreCase(type)) {
+            if (principal == null) {
+                throw new UnauthorizedException("Login required for the mine feed");
+            }
+            memberId = getCurrentMember(principal).getId();
+        }
+        Pageable pageable = PageRequest.of(Math.max(page, 0), Math.min(Math.max(size, 1), 100));
+        return ResponseEntity.ok(friendlyMatchService.getMatchFeed(type, memberId, pageable));
+    }
+
+    /**
+     * 探索尚未開始、還有空位的 OPEN 比賽，依開始時間排序；nearby=true 時一併列出與 venueId 同州的 venue
+     */
+    @GetMapping("/discover")
+    public ResponseEntity<Page<FriendlyMatchInvitationDto>> discoverMatches(
+            @RequestParam(required = false) Integer venueId,
+            @RequestParam(defaultValue = "false") boolean nearby,
+            @RequestParam(defaultValue = "" + MatchDiscoveryService.DEFAULT_DAYS) int days,
+            @RequestParam(defaultValue = "1") int minSpots,
+            @RequestParam(required = false) String skillLevel,
+            @RequestParam(required = false) Boolean invitation,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "20") int size) {
+        Pageable pageable = PageRequest.of(Math.max(page, 0), Math.min(Math.max(size, 1), 100));
+        int window = Math.min(Math.max(days, 1), MatchDiscoveryService.MAX_DAYS);
+        String skill = skillLevel != null && !skillLevel.isBlank() ? skillLevel.trim() : null;
+        return ResponseEntity.ok(friendlyMatchService.discoverMatches(venueId, nearby, window, minSpots, skill, invitation, pageable));
+    }
+
     @DeleteMapping("/{matchId}")
     @PreAuthorize("hasRole('USER')")
     public ResponseEntity<String> deleteFriendlyMatch(@PathVariable Integer matchId, Principal principal) {
@@ -183,9 +183,12 @@ public class GroupController {
 
     // Get group messages
     @GetMapping("/{groupId}/messages")
+    // beforeId：往前載入較舊的訊息；afterId：重連後補抓較新的訊息；兩者皆無且 page > 0 時沿用舊的 offset 分頁
     public ResponseEntity<?> getGroupMessages(@PathVariable Long groupId, 
                                             @RequestParam(defaultValue = "0") int page,
                                             @RequestParam(defaultValue = "50") int size,
+                                            @RequestParam(required = false) Long beforeId,
+                                            @RequestParam(required = false) Long afterId,
                                             Authentication authentication) {
         try {
             String currentUsername = authentication.getName();
@@ -199,7 +202,15 @@ public class GroupController {
                 ));
             }
 
-            List<GroupMessage> messages = groupService.getGroupMessages(groupId, page, size);
+            int limit = Math.max(1, Math.min(size, 100));
+            List<GroupMessage> messages;
+            if (afterId != null) {
+                messages = groupService.getGroupMessagesAfter(groupId, afterId, limit);
+            } else if (beforeId != null || page == 0) {
+                messages = groupService.getGroupMessagesBefore(groupId, beforeId, limit);
+            } else {
+                messages = groupService.getGroupMessages(groupId, page, limit);
+            }
             return ResponseEntity.ok(messages);
         } catch (Exception e) {
             log.error("Error fetching group messages: {}", e.getMessage());
@@ -229,6 +240,24 @@ public class GroupController {
         }
     }
 
+    // Unread counts for all of the user's groups, keyed by group id
+    @GetMapping("/unread-counts")
+    public ResponseEntity<?> getUnreadCounts(Authentication authentication) {
+        try {
+            String currentUsername = authentication.getName();
+            User currentUser = userRepository.findByUserAccount_Username(currentUsername)
+                    .orElseThrow(() -> new RuntimeException("User not found"));
+
+            return ResponseEntity.ok(groupService.getUnreadCounts(currentUser.getId()));
+        } catch (Exception e) {
+            log.error("Error fetching unread counts: {}", e.getMessage());
+            return ResponseEntity.badRequest().body(Map.of(
+                "error", "Failed to fetch unread counts",
+                "message", e.getMessage()
+            ));
+        }
+    }
+
     // Mark messages as read
     @PostMapping("/{groupId}/messages/read")
     public ResponseEntity<?> markMessagesAsRead(@PathVariable Long groupId, @RequestBody MarkAsReadRequest request, Authentication authentication) {
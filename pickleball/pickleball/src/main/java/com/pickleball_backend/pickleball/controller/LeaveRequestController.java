@@ -3,8 +3,10 @@ package com.pickleball_backend.pickleball.controller;
 import com.pickleball_backend.pickleball.dto.LeaveRequestDto;
 import com.pickleball_backend.pickleball.entity.LeaveRequest;
 import com.pickleball_backend.pickleball.service.LeaveRequestService;
-import com.pickleball_backend.pickleball.repository.LeaveRequestRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
@@ -17,7 +19,6 @@ import java.util.HashMap;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.stream.Collectors;
-import com.pickleball_backend.pickleball.entity.ClassSession;
 import com.pickleball_backend.pickleball.repository.ClassSessionRepository;
 
 @RestController
@@ -27,9 +28,6 @@ public class LeaveRequestController {
     @Autowired
     private LeaveRequestService leaveRequestService;
     
-    @Autowired
-    private LeaveRequestRepository leaveRequestRepository;
-    
     @Autowired
     private ClassSessionRepository classSessionRepository;
     
@@ -200,56 +198,50 @@ public class LeaveRequestController {
     public ResponseEntity<List<Map<String, Object>>> getAvailableReplacementSessions(
             @RequestParam Integer coachId,
             @RequestParam Integer studentId) {
-        try {
-            System.out.println("=== Controller: getAvailableReplacementSessions ===");
-            System.out.println("coachId: " + coachId + ", studentId: " + studentId);
-            
-            List<Map<String, Object>> availableSessions = leaveRequestService.getAvailableReplacementSessions(coachId, studentId);
-            System.out.println("Controller returning " + availableSessions.size() + " sessions");
-            
-            return ResponseEntity.ok(availableSessions);
-        } catch (Exception e) {
-            System.out.println("Controller error: " + e.getMessage());
-            e.printStackTrace();
-            return ResponseEntity.badRequest().build();
-        }
+        return ResponseEntity.ok(leaveRequestService.getAvailableReplacementSessions(coachId, studentId));
+    }
+
+    // 分頁獲取可用的補課時間
+    @GetMapping("/available-replacement-sessions/page")
+    @PreAuthorize("hasRole('USER')")
+    public ResponseEntity<Page<Map<String, Object>>> getAvailableReplacementSessionsPage(
+            @RequestParam Integer coachId,
+            @RequestParam Integer studentId,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "20") int size) {
+        Pageable pageable = PageRequest.of(Math.max(page, 0), Math.min(Math.max(size, 1), 100));
+        return ResponseEntity.ok(leaveRequestService.getAvailableReplacementSessions(coachId, studentId, pageable));
     }
     
-    // 調試端點：檢查所有請假請求
+    // 調試端點：檢查請假請求（可依教練、狀態篩選，分頁）
     @GetMapping("/debug/all-requests")
     @PreAuthorize("hasRole('USER')")
-    public ResponseEntity<Map<String, Object>> debugAllRequests() {
-        try {
-            System.out.println("=== Debug: All Leave Requests ===");
-            List<LeaveRequest> allRequests = leaveRequestRepository.findAll();
-            System.out.println("Total leave requests in database: " + allRequests.size());
-            
-            Map<String, Object> result = new HashMap<>();
-            result.put("totalRequests", allRequests.size());
-            
-            List<Map<String, Object>> requestsData = new ArrayList<>();
-            for (LeaveRequest request : allRequests) {
-                Map<String, Object> requestData = new HashMap<>();
-                requestData.put("id", request.getId());
-                requestData.put("coachId", request.getCoach() != null ? request.getCoach().getId() : "null");
-                requestData.put("studentId", request.getStudent() != null ? request.getStudent().getId() : "null");
-                requestData.put("studentName", request.getStudent() != null ? request.getStudent().getName() : "null");
-                requestData.put("status", request.getStatus());
-                requestData.put("reason", request.getReason());
-                requestData.put("requestDate", request.getRequestDate());
-                requestsData.add(requestData);
-                
-                System.out.println("Request " + request.getId() + ": Coach=" + requestData.get("coachId") + 
-                                 ", Student=" + requestData.get("studentName") + ", Status=" + request.getStatus());
-            }
-            result.put("requests", requestsData);
-            
-            return ResponseEntity.ok(result);
-        } catch (Exception e) {
-            System.out.println("Debug error: " + e.getMessage());
-            e.printStackTrace();
-            return ResponseEntity.badRequest().build();
+    public ResponseEntity<Map<String, Object>> debugAllRequests(
+            @RequestParam(required = false) Integer coachId,
+            @RequestParam(required = false) LeaveRequest.LeaveRequestStatus status,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "50") int size) {
+        Pageable pageable = PageRequest.of(Math.max(page, 0), Math.min(Math.max(size, 1), 100));
+        Page<LeaveRequest> requests = leaveRequestService.findRequests(coachId, status, pageable);
+
+        List<Map<String, Object>> requestsData = new ArrayList<>();
+        for (LeaveRequest request : requests.getContent()) {
+            Map<String, Object> requestData = new HashMap<>();
+            requestData.put("id", request.getId());
+            requestData.put("coachId", request.getCoach().getId());
+            requestData.put("studentId", request.getStudent().getId());
+            requestData.put("studentName", request.getStudent().getName());
+            requestData.put("status", request.getStatus());
+            requestData.put("reason", request.getReason());
+            requestData.put("requestDate", request.getRequestDate());
+            requestsData.add(requestData);
         }
+
+        Map<String, Object> result = new HashMap<>();
+        result.put("totalRequests", requests.getTotalElements());
+        result.put("totalPages", requests.getTotalPages());
+        result.put("requests", requestsData);
+        return ResponseEntity.ok(result);
     }
 
     // 調試端點：檢查教練課程數據
@@ -257,26 +249,17 @@ public class LeaveRequestController {
     @PreAuthorize("hasRole('USER')")
     public ResponseEntity<Map<String, Object>> debugCoachSessions(@RequestParam Integer coachId) {
         try {
-            System.out.println("=== Debug: Checking coach sessions for coachId: " + coachId + " ===");
-            
-            // 獲取所有課程
-            List<ClassSession> allSessions = classSessionRepository.findAll();
-            System.out.println("Total sessions in database: " + allSessions.size());
-            
-            // 過濾該教練的課程
-            List<ClassSession> coachSessions = allSessions.stream()
-                    .filter(session -> session.getCoach() != null && 
-                                     session.getCoach().getId().equals(coachId))
-                    .collect(Collectors.toList());
-            System.out.println("Coach sessions found: " + coachSessions.size());
-            
-            // 按狀態分組
-            Map<String, Long> statusCount = coachSessions.stream()
-                    .collect(Collectors.groupingBy(s -> s.getStatus(), Collectors.counting()));
-            System.out.println("Sessions by status: " + statusCount);
+            // 按狀態分組（由資料庫彙總）
+            Map<String, Long> statusCount = new HashMap<>();
+            long coachSessionCount = 0;
+            for (Object[] row : classSessionRepository.countByStatusForCoach(coachId)) {
+                long count = ((Number) row[1]).longValue();
+                statusCount.put((String) row[0], count);
+                coachSessionCount += count;
+            }
             
             // 詳細信息
-            List<Map<String, Object>> sessionDetails = coachSessions.stream()
+            List<Map<String, Object>> sessionDetails = classSessionRepository.findScheduleByCoachId(coachId).stream()
                     .map(session -> {
                         Map<String, Object> detail = new HashMap<>();
                         detail.put("id", session.getId());
@@ -284,22 +267,20 @@ public class LeaveRequestController {
                         detail.put("status", session.getStatus());
                         detail.put("startTime", session.getStartTime());
                         detail.put("endTime", session.getEndTime());
-                        detail.put("coachId", session.getCoach() != null ? session.getCoach().getId() : null);
+                        detail.put("coachId", coachId);
                         detail.put("courtId", session.getCourt() != null ? session.getCourt().getId() : null);
                         return detail;
                     })
                     .collect(Collectors.toList());
             
             Map<String, Object> result = new HashMap<>();
-            result.put("totalSessions", allSessions.size());
-            result.put("coachSessions", coachSessions.size());
+            result.put("totalSessions", classSessionRepository.count());
+            result.put("coachSessions", coachSessionCount);
             result.put("statusCount", statusCount);
             result.put("sessionDetails", sessionDetails);
             
             return ResponseEntity.ok(result);
         } catch (Exception e) {
-            System.out.println("Debug error: " + e.getMessage());
-            e.printStackTrace();
             return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
         }
     }
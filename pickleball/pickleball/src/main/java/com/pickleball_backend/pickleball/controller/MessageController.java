@@ -2,21 +2,13 @@ package com.pickleball_backend.pickleball.controller;
 
 import com.pickleball_backend.pickleball.dto.MessageDto;
 import com.pickleball_backend.pickleball.dto.MessageResponseDto;
+import com.pickleball_backend.pickleball.service.FileStorageService;
 import com.pickleball_backend.pickleball.service.MessageService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
-import org.springframework.util.StringUtils;
-import org.springframework.http.HttpStatus;
-import java.io.File;
-import java.io.IOException;
-import java.nio.file.Files;
-import java.nio.file.Path;
-import java.nio.file.Paths;
-import java.nio.file.StandardCopyOption;
-import java.util.UUID;
 
 import java.util.List;
 
@@ -24,10 +16,12 @@ import java.util.List;
 @RequestMapping("/api/messages")
 public class MessageController {
     private final MessageService messageService;
+    private final FileStorageService fileStorageService;
 
     @Autowired
-    public MessageController(MessageService messageService) {
+    public MessageController(MessageService messageService, FileStorageService fileStorageService) {
         this.messageService = messageService;
+        this.fileStorageService = fileStorageService;
     }
 
     // 统一使用 service 方法获取对话
@@ -88,27 +82,7 @@ public class MessageController {
         if (file.isEmpty()) {
             return ResponseEntity.badRequest().body("File is empty");
         }
-        try {
-            // Create uploads directory if it doesn't exist
-            Path uploadPath = Paths.get("uploads").toAbsolutePath().normalize();
-            if (!Files.exists(uploadPath)) {
-                Files.createDirectories(uploadPath);
-            }
-
-            // Generate unique filename
-            String originalFilename = StringUtils.cleanPath(file.getOriginalFilename());
-            String extension = originalFilename.substring(originalFilename.lastIndexOf("."));
-            String filename = UUID.randomUUID().toString() + extension;
-
-            // Save file
-            Path filePath = uploadPath.resolve(filename);
-            Files.copy(file.getInputStream(), filePath, StandardCopyOption.REPLACE_EXISTING);
-
-            // Return accessible URL
-            return ResponseEntity.ok("/uploads/" + filename);
-        } catch (IOException e) {
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
-                    .body("Failed to upload file: " + e.getMessage());
-        }
+        String filename = fileStorageService.store(file);
+        return ResponseEntity.ok("/uploads/" + filename);
     }
 }
\ No newline at end of file
@@ -6,8 +6,10 @@ import com.pickleball_backend.pickleball.entity.User;
 import com.pickleball_backend.pickleball.entity.UserAccount;
 import com.pickleball_backend.pickleball.repository.UserAccountRepository;
 import com.pickleball_backend.pickleball.repository.UserRepository;
+import com.pickleball_backend.pickleball.service.ChunkedUploadService;
 import com.pickleball_backend.pickleball.service.ProfileService;
 import com.pickleball_backend.pickleball.service.FileStorageService;
+import com.pickleball_backend.pickleball.service.SearchIndexService;
 import lombok.RequiredArgsConstructor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -32,8 +34,10 @@ public class ProfileController {
     private static final Logger logger = LoggerFactory.getLogger(ProfileController.class);
     private final ProfileService profileService;
     private final FileStorageService fileStorageService; // Add this
+    private final ChunkedUploadService chunkedUploadService;
     private final UserAccountRepository userAccountRepository;
     private final UserRepository userRepository;
+    private final SearchIndexService searchIndexService;
 
     @GetMapping
     public ResponseEntity<ProfileDto> getProfile(Authentication authentication) {
@@ -86,6 +90,22 @@ public class ProfileController {
         }
     }
 
+    // 以已完成的分段上傳（/api/uploads）設定個人照片，取走該上傳持有的檔案參照
+    @PostMapping("/photo/{uploadId}")
+    public ResponseEntity<?> updateProfilePhotoFromUpload(
+            Authentication authentication,
+            @PathVariable String uploadId) {
+        String username = authentication.getName();
+        String filename = chunkedUploadService.claim(uploadId, username);
+        try {
+            profileService.updateProfilePhoto(username, filename);
+            return ResponseEntity.ok().body(filename);
+        } catch (Exception e) {
+            fileStorageService.delete(filename);
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+
     @DeleteMapping("/photo")
     public ResponseEntity<?> removeProfilePhoto(Authentication authentication) {
         String username = authentication.getName();
@@ -135,7 +155,7 @@ public class ProfileController {
     // In UserController.java
     @GetMapping("/search")
     public ResponseEntity<List<UserSearchDto>> searchUsers(@RequestParam String q) {
-        List<User> users = userRepository.findByNameContainingIgnoreCaseOrUserAccount_UsernameContainingIgnoreCase(q, q);
+        List<User> users = searchIndexService.searchUsers(q, false, SearchIndexService.DEFAULT_LIMIT);
         List<UserSearchDto> dtos = users.stream()
                 .map(user -> new UserSearchDto(
                         user.getId(),
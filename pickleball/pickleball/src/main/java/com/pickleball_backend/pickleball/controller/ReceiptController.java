@@ -1,14 +1,20 @@
 package com.pickleball_backend.pickleball.controller;
 
+import com.pickleball_backend.pickleball.exception.ResourceNotFoundException;
+import com.pickleball_backend.pickleball.security.CurrentIdentity;
+import com.pickleball_backend.pickleball.security.IdentityResolver;
 import com.pickleball_backend.pickleball.service.ReceiptService;
 import com.pickleball_backend.pickleball.dto.ReceiptRequestDto;
 import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
-import java.io.ByteArrayOutputStream;
+import java.time.LocalDate;
 
 @RestController
 @RequestMapping("/api/receipt")
@@ -16,23 +22,53 @@ import java.io.ByteArrayOutputStream;
 public class ReceiptController {
 
     private final ReceiptService receiptService;
+    private final IdentityResolver identityResolver;
 
     @PostMapping("/generate")
-    public ResponseEntity<byte[]> generateReceipt(@RequestBody ReceiptRequestDto receiptRequest) {
-        try {
-            ByteArrayOutputStream pdfStream = receiptService.generateReceiptPdf(receiptRequest);
-            
-            HttpHeaders headers = new HttpHeaders();
-            headers.setContentType(MediaType.APPLICATION_PDF);
-            headers.setContentDispositionFormData("attachment", 
-                "receipt_" + receiptRequest.getBookingId() + "_" + 
-                receiptRequest.getBookingDate().substring(0, 10) + ".pdf");
-            
-            return ResponseEntity.ok()
-                .headers(headers)
-                .body(pdfStream.toByteArray());
-        } catch (Exception e) {
-            return ResponseEntity.internalServerError().build();
+    public ResponseEntity<StreamingResponseBody> generateReceipt(@RequestBody ReceiptRequestDto receiptRequest) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.APPLICATION_PDF);
+        headers.setContentDispositionFormData("attachment", ReceiptService.fileName(receiptRequest));
+
+        StreamingResponseBody body = out -> receiptService.writeReceiptPdf(receiptRequest, out);
+        return ResponseEntity.ok()
+            .headers(headers)
+            .body(body);
+    }
+
+    /**
+     * 目前登入會員在期間內（依預訂日期，含首尾）的所有收據，打包成 ZIP
+     */
+    @GetMapping("/bulk")
+    public ResponseEntity<StreamingResponseBody> downloadMyReceipts(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate) {
+        CurrentIdentity identity = identityResolver.current();
+        if (identity.memberId() == null) {
+            throw new ResourceNotFoundException("Member not found");
         }
+        return zipResponse(startDate, endDate, identity.memberId(), "receipts_" + startDate + "_" + endDate + ".zip");
+    }
+
+    /**
+     * 所有會員在期間內的收據，打包成 ZIP
+     */
+    @GetMapping("/all")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<StreamingResponseBody> downloadAllReceipts(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate) {
+        return zipResponse(startDate, endDate, null, "all_receipts_" + startDate + "_" + endDate + ".zip");
+    }
+
+    private ResponseEntity<StreamingResponseBody> zipResponse(LocalDate startDate, LocalDate endDate,
+                                                              Integer memberId, String fileName) {
+        // 串流開始後無法再改回應狀態，先檢查期間及筆數
+        receiptService.validateExport(startDate, endDate, memberId);
+        StreamingResponseBody body = out -> receiptService.writeReceiptsZip(startDate, endDate, memberId, out);
+        return ResponseEntity.ok()
+            .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=" + fileName)
+            .contentType(MediaType.parseMediaType("application/zip"))
+            .body(body);
     }
 }
@@ -0,0 +1,65 @@
+package com.pickleball_backend.pickleball.controller;
+
+import com.pickleball_backend.pickleball.dto.UploadSessionRequest;
+import com.pickleball_backend.pickleball.service.ChunkedUploadService;
+import jakarta.servlet.http.HttpServletRequest;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.Authentication;
+import org.springframework.web.bind.annotation.*;
+
+import java.io.IOException;
+import java.util.Map;
+
+/**
+ * 可續傳的分段上傳：
+ * POST 建立 → PUT ?offset= 依序送出原始位元組 → 中斷後 GET 取得 offset 續傳 → POST complete 取得檔名
+ * → 交給使用端取走（例如 POST /api/profile/photo/{uploadId}）。
+ * 完成後 {@link ChunkedUploadService#SESSION_TTL} 內沒有取走的上傳會被清除。
+ */
+@RestController
+@RequestMapping("/api/uploads")
+@RequiredArgsConstructor
+public class UploadController {
+
+    private final ChunkedUploadService chunkedUploadService;
+
+    @PostMapping
+    public ResponseEntity<ChunkedUploadService.UploadStatus> createUpload(
+            Authentication authentication,
+            @RequestBody UploadSessionRequest request) {
+        return ResponseEntity.ok(chunkedUploadService.create(authentication.getName(), request.getFileName(), request.getSize()));
+    }
+
+    @GetMapping("/{uploadId}")
+    public ResponseEntity<ChunkedUploadService.UploadStatus> getUpload(
+            Authentication authentication,
+            @PathVariable String uploadId) {
+        return ResponseEntity.ok(chunkedUploadService.status(uploadId, authentication.getName()));
+    }
+
+    @PutMapping("/{uploadId}")
+    public ResponseEntity<ChunkedUploadService.UploadStatus> uploadChunk(
+            Authentication authentication,
+            @PathVariable String uploadId,
+            @RequestParam long offset,
+            HttpServletRequest request) throws IOException {
+        return ResponseEntity.ok(chunkedUploadService.append(uploadId, authentication.getName(), offset, request.getInputStream()));
+    }
+
+    @PostMapping("/{uploadId}/complete")
+    public ResponseEntity<Map<String, String>> completeUpload(
+            Authentication authentication,
+            @PathVariable String uploadId) {
+        String filename = chunkedUploadService.complete(uploadId, authentication.getName());
+        return ResponseEntity.ok(Map.of("filename", filename, "url", "/uploads/" + filename));
+    }
+
+    @DeleteMapping("/{uploadId}")
+    public ResponseEntity<Void> abortUpload(
+            Authentication authentication,
+            @PathVariable String uploadId) {
+        chunkedUploadService.abort(uploadId, authentication.getName());
+        return ResponseEntity.noContent().build();
+    }
+}
@@ -5,6 +5,7 @@ import com.pickleball_backend.pickleball.entity.User;
 import com.pickleball_backend.pickleball.entity.UserAccount;
 import com.pickleball_backend.pickleball.repository.UserRepository;
 import com.pickleball_backend.pickleball.repository.UserAccountRepository;
+import com.pickleball_backend.pickleball.service.SearchIndexService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.context.SecurityContextHolder;
@@ -24,9 +25,12 @@ public class UserController {
     @Autowired
     private UserAccountRepository userAccountRepository;
 
+    @Autowired
+    private SearchIndexService searchIndexService;
+
     @GetMapping("/search")
     public ResponseEntity<List<UserDto>> searchUsers(@RequestParam String query) {
-        List<User> users = userRepository.searchActiveUsers(query);
+        List<User> users = searchIndexService.searchUsers(query, true, SearchIndexService.DEFAULT_LIMIT);
         List<UserDto> result = users.stream()
                 .map(user -> new UserDto(
                         // FIX: Get username from UserAccount
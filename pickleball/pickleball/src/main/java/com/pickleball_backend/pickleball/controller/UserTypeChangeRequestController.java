@@ -12,17 +12,21 @@ import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
+import org.springframework.http.CacheControl;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.TimeUnit;
 
 @RestController
 @RequestMapping("/api/admin/user-type-requests")
@@ -216,7 +220,9 @@ public class UserTypeChangeRequestController {
         try {
             log.info("Fetching request statistics");
             UserTypeChangeRequestStatisticsDto statistics = requestService.getRequestStatistics();
-            return ResponseEntity.ok(statistics);
+            return ResponseEntity.ok()
+                    .cacheControl(CacheControl.maxAge(30, TimeUnit.SECONDS).cachePrivate())
+                    .body(statistics);
         } catch (Exception e) {
             log.error("Error fetching statistics: {}", e.getMessage(), e);
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
@@ -286,18 +292,19 @@ public class UserTypeChangeRequestController {
         }
     }
 
-    // Export requests
+    // Export requests (streamed as CSV or XLSX)
     @GetMapping("/export")
     @PreAuthorize("hasRole('ADMIN')")
-    public ResponseEntity<byte[]> exportRequests(
+    public ResponseEntity<StreamingResponseBody> exportRequests(
             @RequestParam(required = false) String status,
             @RequestParam(required = false) String requestedUserType,
             @RequestParam(required = false) Integer userId,
             @RequestParam(required = false) String startDate,
-            @RequestParam(required = false) String endDate) {
+            @RequestParam(required = false) String endDate,
+            @RequestParam(defaultValue = "csv") String format) {
         
         try {
-            log.info("Exporting user type change requests");
+            log.info("Exporting user type change requests as {}", format);
             
             // Parse dates
             LocalDateTime startDateTime = null;
@@ -320,12 +327,18 @@ public class UserTypeChangeRequestController {
                     .endDate(endDateTime)
                     .build();
             
-            byte[] exportData = requestService.exportRequests(filterDto);
+            boolean xlsx = "xlsx".equalsIgnoreCase(format) || "excel".equalsIgnoreCase(format);
+            if (!xlsx && !"csv".equalsIgnoreCase(format)) {
+                return ResponseEntity.badRequest().build();
+            }
             
+            StreamingResponseBody body = out -> requestService.exportRequests(filterDto, xlsx ? "xlsx" : "csv", out);
             return ResponseEntity.ok()
-                    .header("Content-Disposition", "attachment; filename=user-type-requests.csv")
-                    .header("Content-Type", "text/csv")
-                    .body(exportData);
+                    .header("Content-Disposition", "attachment; filename=user-type-requests." + (xlsx ? "xlsx" : "csv"))
+                    .contentType(xlsx
+                            ? MediaType.parseMediaType("application/vnd.openxmlformats-officedocument.spreadsheetml.sheet")
+                            : MediaType.parseMediaType("text/csv; charset=UTF-8"))
+                    .body(body);
             
         } catch (Exception e) {
             log.error("Error exporting requests: {}", e.getMessage(), e);
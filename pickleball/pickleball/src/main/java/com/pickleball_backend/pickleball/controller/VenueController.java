@@ -158,9 +158,8 @@ public class VenueController {
         LocalDate localDate = LocalDate.parse(date);
         LocalTime localStartTime = LocalTime.parse(startTime);
         LocalTime localEndTime = LocalTime.parse(endTime);
-        List<Court> availableCourts = venueService.getAvailableCourts(venueId, localDate, localStartTime, localEndTime, peopleCount);
-        int courtsNeeded = (int)Math.ceil(peopleCount / 4.0);
-        if (availableCourts.size() >= courtsNeeded) {
+        List<Court> availableCourts = venueService.getAvailableCourtsWithCapacity(venueId, localDate, localStartTime, localEndTime, peopleCount);
+        if (peopleCount <= 0 || !availableCourts.isEmpty()) {
             return ResponseEntity.ok(availableCourts);
         } else {
             return ResponseEntity.status(HttpStatus.BAD_REQUEST).body("此場地容量不足");
@@ -20,4 +20,7 @@ public class BookingRequestDto {
     // 新增：優惠券相關字段
     private Boolean useVoucher;
     private Integer voucherRedemptionId;
+
+    // 結帳冪等鍵（也可由 Idempotency-Key header 帶入）
+    private String idempotencyKey;
 }
\ No newline at end of file
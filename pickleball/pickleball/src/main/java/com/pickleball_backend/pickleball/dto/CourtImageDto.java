@@ -0,0 +1,16 @@
+package com.pickleball_backend.pickleball.dto;
+
+import lombok.Data;
+import java.time.LocalDateTime;
+
+@Data
+public class CourtImageDto {
+    private Integer id;
+    private Integer courtId;
+    // 原圖
+    private String imagePath;
+    // 卡片用縮圖與預覽圖，尚未產生時與原圖相同
+    private String thumbnailPath;
+    private String previewPath;
+    private LocalDateTime uploadedAt;
+}
@@ -0,0 +1,35 @@
+package com.pickleball_backend.pickleball.dto;
+
+import com.pickleball_backend.pickleball.entity.GroupMessage;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * 推送到 /topic/groups/{groupId} 的群組訊息；type 為 MESSAGE、EDITED 或 DELETED
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class GroupMessageDto {
+    public static final String TYPE_MESSAGE = "MESSAGE";
+    public static final String TYPE_EDITED = "EDITED";
+    public static final String TYPE_DELETED = "DELETED";
+
+    private String type;
+    private Long id;
+    private Long groupId;
+    private Integer senderId;
+    private String senderUsername;
+    private String senderName;
+    private String content;
+    private String imageUrl;
+    private GroupMessage.MessageType messageType;
+    private LocalDateTime createdAt;
+    private Boolean isEdited;
+    private LocalDateTime editedAt;
+}
@@ -19,4 +19,6 @@ public class MessageDto {
     private boolean read;
     private String conversationId;
     private String imageUrl;
+    // 聊天室內顯示的縮圖，尚未產生時與 imageUrl 相同
+    private String imageThumbnailUrl;
 }
\ No newline at end of file
@@ -10,9 +10,12 @@ public class MessageResponseDto {
     private LocalDateTime timestamp;
     private String senderUsername;
     private String senderProfileImage;
+    private String senderProfileImageThumbnail;
     private String receiverUsername;
     private boolean delivered;
     private boolean read;
     private String conversationId;
     private String imageUrl;
+    // 聊天室內顯示的縮圖，尚未產生時與 imageUrl 相同
+    private String imageThumbnailUrl;
 }
\ No newline at end of file
@@ -0,0 +1,30 @@
+package com.pickleball_backend.pickleball.dto;
+
+import com.pickleball_backend.pickleball.entity.ClassSession;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class RecurringSessionResultDto {
+    private String recurringGroupId;
+    private List<ClassSession> sessions = new ArrayList<>();
+    private List<ConflictEntry> conflicts = new ArrayList<>(); // 每個被跳過的日期及原因
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class ConflictEntry {
+        private LocalDate date;
+        private LocalDateTime startTime;
+        private LocalDateTime endTime;
+        private String reason; // COACH_SESSION, COURT_SESSION, COURT_BOOKING
+    }
+}
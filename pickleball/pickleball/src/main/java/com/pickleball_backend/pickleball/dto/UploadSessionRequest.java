@@ -0,0 +1,9 @@
+package com.pickleball_backend.pickleball.dto;
+
+import lombok.Data;
+
+@Data
+public class UploadSessionRequest {
+    private String fileName;
+    private long size;
+}
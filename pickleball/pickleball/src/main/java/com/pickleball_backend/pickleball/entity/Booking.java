@@ -1,5 +1,6 @@
 package com.pickleball_backend.pickleball.entity;
 
+import com.pickleball_backend.pickleball.event.DomainEventEntityListener;
 import jakarta.persistence.*;
 import lombok.Data;
 import lombok.ToString;
@@ -7,7 +8,10 @@ import java.time.LocalDate;
 
 @Entity
 @Data
-@Table(name = "booking")
+@Table(name = "booking", uniqueConstraints = {
+    @UniqueConstraint(columnNames = {"member_id", "idempotency_key"}, name = "uk_booking_member_idempotency_key")
+})
+@EntityListeners(DomainEventEntityListener.class)
 public class Booking {
 
     @Id
@@ -17,14 +21,14 @@ public class Booking {
     @Column(name = "booking_date")
     private java.time.LocalDateTime bookingDate;
 
-    @Column(name = "total_amount", nullable = false, columnDefinition = "double(5,2)")
+    @Column(name = "total_amount", nullable = false, columnDefinition = "decimal(5,2)")
     private double totalAmount;
 
     // 新增：折扣相關字段
-    @Column(name = "original_amount", columnDefinition = "double(5,2)")
+    @Column(name = "original_amount", columnDefinition = "decimal(5,2)")
     private Double originalAmount;
 
-    @Column(name = "discount_amount", columnDefinition = "double(5,2) default 0.0")
+    @Column(name = "discount_amount", columnDefinition = "decimal(5,2) default 0.0")
     private Double discountAmount = 0.0;
 
     @Column( length = 50)
@@ -55,6 +59,10 @@ public class Booking {
     @Column(name = "purpose_id")
     private Integer purposeId;
 
+    // 客戶端每次結帳產生的冪等鍵，重送同一請求時回傳原本的預訂
+    @Column(name = "idempotency_key", length = 64)
+    private String idempotencyKey;
+
     @OneToMany(mappedBy = "booking", cascade = CascadeType.ALL)
     @ToString.Exclude
     private java.util.List<BookingSlot> bookingSlots;
@@ -14,7 +14,9 @@ import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
-@Table(name = "class_registration")
+@Table(name = "class_registration", indexes = {
+        @Index(name = "idx_registration_member_session", columnList = "member_id, session_id")
+})
 public class ClassRegistration {
 
     @Id
@@ -1,5 +1,6 @@
 package com.pickleball_backend.pickleball.entity;
 
+import com.pickleball_backend.pickleball.event.DomainEventEntityListener;
 import jakarta.persistence.*;
 import lombok.Data;
 import lombok.ToString;
@@ -20,7 +21,11 @@ import com.fasterxml.jackson.annotation.JsonIgnore;
 @Setter
 @NoArgsConstructor
 @Data
-@Table(name = "classsession")
+@Table(name = "classsession", indexes = {
+        // 補課時段查詢：教練 + 狀態 + 允許補課，再依開始時間範圍掃描
+        @Index(name = "idx_session_coach_replacement", columnList = "coach_id, status, allow_replacement, start_time")
+})
+@EntityListeners(DomainEventEntityListener.class)
 public class ClassSession {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
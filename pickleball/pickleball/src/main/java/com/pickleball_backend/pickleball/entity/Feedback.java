@@ -1,7 +1,10 @@
 package com.pickleball_backend.pickleball.entity;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.pickleball_backend.pickleball.event.DomainEventEntityListener;
 import jakarta.persistence.*;
 import lombok.Data;
+import lombok.EqualsAndHashCode;
 import lombok.ToString;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
@@ -10,6 +13,7 @@ import java.util.List;
 @Entity
 @Data
 @Table(name = "feedback")
+@EntityListeners(DomainEventEntityListener.class)
 public class Feedback {
 
     public enum TargetType {
@@ -45,4 +49,11 @@ public class Feedback {
 
     @ElementCollection
     private List<String> tags = new ArrayList<>();
+
+    // 最近一次載入或寫入資料庫時的評分，供評分彙總計算差額，不寫入資料表
+    @Transient
+    @JsonIgnore
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
+    private Integer persistedRating;
 }
\ No newline at end of file
@@ -1,5 +1,6 @@
 package com.pickleball_backend.pickleball.entity;
 
+import com.pickleball_backend.pickleball.event.DomainEventEntityListener;
 import jakarta.persistence.*;
 import lombok.Data;
 import lombok.ToString;
@@ -8,7 +9,11 @@ import java.util.List;
 
 @Entity
 @Data
-@Table(name = "friendlymatch")
+@EntityListeners(DomainEventEntityListener.class)
+@Table(name = "friendlymatch", indexes = {
+        @Index(name = "idx_match_status_start", columnList = "status, start_time"),
+        @Index(name = "idx_match_organizer_start", columnList = "organizer_id, start_time")
+})
 public class FriendlyMatch {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
@@ -1,6 +1,7 @@
 package com.pickleball_backend.pickleball.entity;
 
 import com.fasterxml.jackson.annotation.JsonManagedReference;
+import com.pickleball_backend.pickleball.event.DomainEventEntityListener;
 import jakarta.persistence.*;
 import lombok.Data;
 import lombok.NoArgsConstructor;
@@ -16,6 +17,7 @@ import java.util.List;
 @NoArgsConstructor
 @AllArgsConstructor
 @Table(name = "chat_group")
+@EntityListeners(DomainEventEntityListener.class)
 public class Group {
     
     @Id
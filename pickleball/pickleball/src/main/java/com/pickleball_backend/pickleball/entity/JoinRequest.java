@@ -1,6 +1,7 @@
 package com.pickleball_backend.pickleball.entity;
 
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.pickleball_backend.pickleball.event.DomainEventEntityListener;
 import jakarta.persistence.*;
 import lombok.Data;
 import lombok.ToString;
@@ -8,7 +9,11 @@ import java.time.LocalDateTime;
 
 @Entity
 @Data
-@Table(name = "joinrequest")
+@EntityListeners(DomainEventEntityListener.class)
+@Table(name = "joinrequest", uniqueConstraints = {
+        // 每位會員在同一場比賽只能有一筆，同時也是依會員查詢的索引
+        @UniqueConstraint(columnNames = {"member_id", "match_id"}, name = "uk_joinrequest_member_match")
+})
 public class JoinRequest {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
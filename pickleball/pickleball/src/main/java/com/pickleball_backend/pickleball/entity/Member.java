@@ -1,6 +1,7 @@
 package com.pickleball_backend.pickleball.entity;
 
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.pickleball_backend.pickleball.event.DomainEventEntityListener;
 import jakarta.persistence.*;
 import lombok.*;
 
@@ -13,6 +14,7 @@ import java.util.List;
 @Setter
 @NoArgsConstructor
 @EqualsAndHashCode(onlyExplicitlyIncluded = true)
+@EntityListeners(DomainEventEntityListener.class)
 public class Member {
     @Id
     @Column(name = "user_id")
@@ -1,6 +1,7 @@
 package com.pickleball_backend.pickleball.entity;
 
 import com.fasterxml.jackson.annotation.JsonFormat;
+import com.pickleball_backend.pickleball.event.DomainEventEntityListener;
 import com.fasterxml.jackson.annotation.JsonManagedReference;
 import jakarta.persistence.*;
 import lombok.Data;
@@ -9,6 +10,7 @@ import java.util.List;
 
 @Entity
 @Table(name = "membershiptier")
+@EntityListeners(DomainEventEntityListener.class)
 @Data
 @NoArgsConstructor
 public class MembershipTier {
@@ -9,7 +9,9 @@ import java.util.List;
 
 @Entity
 @Data
-@Table(name = "slot")
+@Table(name = "slot", indexes = {
+        @Index(name = "idx_slot_court_date", columnList = "court_id, date")
+})
 public class Slot {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
@@ -0,0 +1,41 @@
+package com.pickleball_backend.pickleball.entity;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.time.LocalDateTime;
+
+/**
+ * 以內容 SHA-256 命名的上傳檔案及其引用數。相同內容只存一份，
+ * 每次上傳加一、每次刪除減一，歸零時才刪除實體檔案。
+ */
+@Entity
+@Getter
+@Setter
+@Table(name = "stored_file")
+public class StoredFile {
+
+    @Id
+    @Column(name = "file_key", length = 100)
+    private String key;
+
+    @Column(name = "size", nullable = false)
+    private long size;
+
+    @Column(name = "ref_count", nullable = false)
+    private int refCount;
+
+    @Column(name = "created_at")
+    private LocalDateTime createdAt;
+
+    public StoredFile() {
+    }
+
+    public StoredFile(String key, long size) {
+        this.key = key;
+        this.size = size;
+        this.refCount = 1;
+        this.createdAt = LocalDateTime.now();
+    }
+}
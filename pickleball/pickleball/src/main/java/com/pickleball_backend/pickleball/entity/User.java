@@ -1,5 +1,6 @@
 package com.pickleball_backend.pickleball.entity;
 
+import com.pickleball_backend.pickleball.event.DomainEventEntityListener;
 import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Data;
@@ -21,6 +22,7 @@ import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 @NoArgsConstructor
 @AllArgsConstructor
 @Table(name = "user")
+@EntityListeners(DomainEventEntityListener.class)
 public class User {
 
     @Id
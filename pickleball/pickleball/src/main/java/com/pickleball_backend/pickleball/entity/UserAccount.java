@@ -1,5 +1,6 @@
 package com.pickleball_backend.pickleball.entity;
 
+import com.pickleball_backend.pickleball.event.DomainEventEntityListener;
 import jakarta.persistence.*;
 import lombok.*;
 import lombok.ToString;
@@ -8,6 +9,7 @@ import java.time.LocalDateTime;
 @Entity
 @Data
 @Table(name = "useraccount")
+@EntityListeners(DomainEventEntityListener.class)
 public class UserAccount {
 
     @Id
@@ -0,0 +1,79 @@
+package com.pickleball_backend.pickleball.entity;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.time.LocalDateTime;
+
+/**
+ * 每位使用者的活動統計（預訂、評價、警告、錢包交易），
+ * 由 UserActivityStatsService 依事件增量重算並每晚全量校正，管理後台直接讀取。
+ */
+@Entity
+@Getter
+@Setter
+@Table(name = "user_activity_stats")
+public class UserActivityStats {
+
+    @Id
+    @Column(name = "user_id")
+    private Integer userId;
+
+    @Column(name = "total_bookings", nullable = false)
+    private long totalBookings;
+
+    @Column(name = "completed_bookings", nullable = false)
+    private long completedBookings;
+
+    @Column(name = "cancelled_bookings", nullable = false)
+    private long cancelledBookings;
+
+    @Column(name = "total_spent", nullable = false)
+    private double totalSpent;
+
+    @Column(name = "last_booking_date")
+    private LocalDateTime lastBookingDate;
+
+    @Column(name = "total_feedbacks", nullable = false)
+    private long totalFeedbacks;
+
+    // 有評分的評價數及評分總和，用來算平均分
+    @Column(name = "rating_count", nullable = false)
+    private long ratingCount;
+
+    @Column(name = "rating_sum", nullable = false)
+    private long ratingSum;
+
+    @Column(name = "last_feedback_date")
+    private LocalDateTime lastFeedbackDate;
+
+    @Column(name = "total_warnings", nullable = false)
+    private long totalWarnings;
+
+    @Column(name = "last_warning_date")
+    private LocalDateTime lastWarningDate;
+
+    @Column(name = "total_wallet_transactions", nullable = false)
+    private long totalWalletTransactions;
+
+    @Column(name = "total_wallet_deposits", nullable = false)
+    private double totalWalletDeposits;
+
+    @Column(name = "total_wallet_withdrawals", nullable = false)
+    private double totalWalletWithdrawals;
+
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+
+    public UserActivityStats() {
+    }
+
+    public UserActivityStats(Integer userId) {
+        this.userId = userId;
+    }
+
+    public double getAverageRating() {
+        return ratingCount == 0 ? 0.0 : (double) ratingSum / ratingCount;
+    }
+}
@@ -1,5 +1,6 @@
 package com.pickleball_backend.pickleball.entity;
 
+import com.pickleball_backend.pickleball.event.DomainEventEntityListener;
 import jakarta.persistence.*;
 import lombok.Data;
 import lombok.NoArgsConstructor;
@@ -13,6 +14,7 @@ import com.pickleball_backend.pickleball.entity.User;
 
 @Entity
 @Table(name = "user_warning")
+@EntityListeners(DomainEventEntityListener.class)
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
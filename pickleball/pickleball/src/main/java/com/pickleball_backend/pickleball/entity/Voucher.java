@@ -3,6 +3,7 @@ package com.pickleball_backend.pickleball.entity;
 import com.fasterxml.jackson.annotation.JsonBackReference;
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import com.fasterxml.jackson.annotation.JsonManagedReference;
+import com.pickleball_backend.pickleball.event.DomainEventEntityListener;
 import jakarta.persistence.*;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
@@ -16,6 +17,7 @@ import java.time.LocalDate;
 @Setter
 @NoArgsConstructor
 @JsonIgnoreProperties("tier")
+@EntityListeners(DomainEventEntityListener.class)
 public class Voucher {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
@@ -11,7 +11,10 @@ import lombok.AllArgsConstructor;
 import java.time.LocalDate;
 
 @Entity
-@Table(name = "voucher_redemption")
+@Table(name = "voucher_redemption", indexes = {
+    @Index(name = "idx_voucher_redemption_user_status_expiry", columnList = "user_id, status, expiry_date"),
+    @Index(name = "idx_voucher_redemption_status_expiry", columnList = "status, expiry_date")
+})
 @Getter
 @Setter
 @NoArgsConstructor
@@ -0,0 +1,20 @@
+package com.pickleball_backend.pickleball.event;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.time.LocalDateTime;
+
+/**
+ * 課程新增、修改或刪除後發布（由 {@link DomainEventEntityListener} 在 flush 時觸發）
+ */
+@Getter
+@AllArgsConstructor
+public class ClassSessionChangedEvent {
+    private final Integer sessionId;
+    private final Integer coachId;
+    private final String status;
+    private final LocalDateTime startTime;
+    private final LocalDateTime endTime;
+    private final boolean removed;
+}
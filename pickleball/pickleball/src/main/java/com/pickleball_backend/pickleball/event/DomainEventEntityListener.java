@@ -0,0 +1,104 @@
+package com.pickleball_backend.pickleball.event;
+
+import com.pickleball_backend.pickleball.entity.Booking;
+import com.pickleball_backend.pickleball.entity.ClassSession;
+import com.pickleball_backend.pickleball.entity.Feedback;
+import com.pickleball_backend.pickleball.entity.FriendlyMatch;
+import com.pickleball_backend.pickleball.entity.Group;
+import com.pickleball_backend.pickleball.entity.JoinRequest;
+import com.pickleball_backend.pickleball.entity.Member;
+import com.pickleball_backend.pickleball.entity.MembershipTier;
+import com.pickleball_backend.pickleball.entity.User;
+import com.pickleball_backend.pickleball.entity.UserAccount;
+import com.pickleball_backend.pickleball.entity.UserWarning;
+import com.pickleball_backend.pickleball.entity.Voucher;
+import com.pickleball_backend.pickleball.entity.WalletTransaction;
+import jakarta.persistence.PostLoad;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import org.springframework.context.ApplicationEventPublisher;
+
+/**
+ * JPA entity listener：實體寫入後轉成 Spring 事件，讓快取及排程不必在每個 save 呼叫點各自處理。
+ * 由 Hibernate 透過 SpringBeanContainer 建立並注入。注意 JPQL 批量 UPDATE 不會觸發。
+ */
+public class DomainEventEntityListener {
+
+    private final ApplicationEventPublisher eventPublisher;
+
+    public DomainEventEntityListener(ApplicationEventPublisher eventPublisher) {
+        this.eventPublisher = eventPublisher;
+    }
+
+    // 記下載入時的評分，之後修改或刪除時才能算出評分差額
+    @PostLoad
+    public void afterLoad(Object entity) {
+        if (entity instanceof Feedback feedback) {
+            feedback.setPersistedRating(feedback.getRating());
+        }
+    }
+
+    @PostPersist
+    @PostUpdate
+    public void afterSave(Object entity) {
+        publish(entity, false);
+    }
+
+    @PostRemove
+    public void afterRemove(Object entity) {
+        publish(entity, true);
+    }
+
+    private void publish(Object entity, boolean removed) {
+        if (entity instanceof ClassSession session) {
+            eventPublisher.publishEvent(new ClassSessionChangedEvent(
+                    session.getId(),
+                    session.getCoach() != null ? session.getCoach().getId() : null,
+                    session.getStatus(),
+                    session.getStartTime(),
+                    session.getEndTime(),
+                    removed));
+        } else if (entity instanceof Feedback feedback) {
+            Integer rating = removed ? null : feedback.getRating();
+            eventPublisher.publishEvent(new FeedbackChangedEvent(
+                    feedback.getId(), feedback.getTargetType(), feedback.getTargetId(),
+                    feedback.getPersistedRating(), rating, removed));
+            feedback.setPersistedRating(rating);
+            if (feedback.getUser() != null) {
+                eventPublisher.publishEvent(UserActivityChangedEvent.forUser(feedback.getUser().getId()));
+            }
+        } else if (entity instanceof MembershipTier tier) {
+            eventPublisher.publishEvent(new MembershipTierChangedEvent(tier.getId(), removed));
+        } else if (entity instanceof Booking booking) {
+            // Member 以 user_id 為主鍵，member.id 即 userId
+            if (booking.getMember() != null) {
+                eventPublisher.publishEvent(UserActivityChangedEvent.forUser(booking.getMember().getId()));
+            }
+        } else if (entity instanceof UserWarning warning) {
+            if (warning.getUser() != null) {
+                eventPublisher.publishEvent(UserActivityChangedEvent.forUser(warning.getUser().getId()));
+            }
+        } else if (entity instanceof WalletTransaction transaction) {
+            eventPublisher.publishEvent(UserActivityChangedEvent.forWallet(transaction.getWalletId()));
+        } else if (entity instanceof Member member) {
+            eventPublisher.publishEvent(new MemberChangedEvent(member.getId(), removed));
+        } else if (entity instanceof Voucher voucher) {
+            eventPublisher.publishEvent(new VoucherChangedEvent(voucher.getId(), voucher.getTierId(), removed));
+        } else if (entity instanceof UserAccount account) {
+            eventPublisher.publishEvent(new UserAccountChangedEvent(account.getId(), account.getUsername(),
+                    account.getUser() != null ? account.getUser().getId() : null));
+        } else if (entity instanceof User user) {
+            eventPublisher.publishEvent(new UserChangedEvent(user.getId(), removed));
+        } else if (entity instanceof Group group) {
+            eventPublisher.publishEvent(new GroupChangedEvent(group.getId(), removed));
+        } else if (entity instanceof FriendlyMatch match) {
+            eventPublisher.publishEvent(new FriendlyMatchChangedEvent(match.getId(), removed));
+        } else if (entity instanceof JoinRequest request) {
+            // 加入或退出會改變比賽的剩餘名額
+            if (request.getFriendlyMatch() != null) {
+                eventPublisher.publishEvent(new FriendlyMatchChangedEvent(request.getFriendlyMatch().getId(), false));
+            }
+        }
+    }
+}
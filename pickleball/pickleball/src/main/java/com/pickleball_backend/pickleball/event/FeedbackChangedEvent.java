@@ -0,0 +1,20 @@
+package com.pickleball_backend.pickleball.event;
+
+import com.pickleball_backend.pickleball.entity.Feedback;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * 評價新增、修改或刪除後發布（由 {@link DomainEventEntityListener} 在 flush 時觸發）。
+ * previousRating 為寫入前資料庫中的評分（新增時為 null），rating 為寫入後的評分（刪除時為 null）。
+ */
+@Getter
+@AllArgsConstructor
+public class FeedbackChangedEvent {
+    private final Integer feedbackId;
+    private final Feedback.TargetType targetType;
+    private final Integer targetId;
+    private final Integer previousRating;
+    private final Integer rating;
+    private final boolean removed;
+}
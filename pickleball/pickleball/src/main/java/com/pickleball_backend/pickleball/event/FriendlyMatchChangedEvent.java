@@ -0,0 +1,15 @@
+package com.pickleball_backend.pickleball.event;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * 友誼賽或其 join request 寫入或刪除後發布（由 {@link DomainEventEntityListener} 在 flush 時觸發），
+ * 讓比賽探索索引重新載入該比賽的狀態及剩餘名額
+ */
+@Getter
+@AllArgsConstructor
+public class FriendlyMatchChangedEvent {
+    private final Integer matchId;
+    private final boolean removed;
+}
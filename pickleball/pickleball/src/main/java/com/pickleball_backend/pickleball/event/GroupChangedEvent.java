@@ -0,0 +1,15 @@
+package com.pickleball_backend.pickleball.event;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * 群組資料（名稱、啟用狀態）寫入或刪除後發布（由 {@link DomainEventEntityListener} 在 flush 時觸發），
+ * 讓搜尋索引重新載入該群組
+ */
+@Getter
+@AllArgsConstructor
+public class GroupChangedEvent {
+    private final Long groupId;
+    private final boolean removed;
+}
@@ -0,0 +1,14 @@
+package com.pickleball_backend.pickleball.event;
+
+import com.pickleball_backend.pickleball.dto.GroupMessageDto;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * 群組訊息新增、編輯或刪除後發布，交易提交後推送給訂閱該群組的線上成員
+ */
+@Getter
+@AllArgsConstructor
+public class GroupMessageEvent {
+    private final GroupMessageDto message;
+}
@@ -0,0 +1,15 @@
+package com.pickleball_backend.pickleball.event;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * 會員資料（積分、等級等）寫入後發布（由 {@link DomainEventEntityListener} 在 flush 時觸發），
+ * 讓會員首頁快取失效
+ */
+@Getter
+@AllArgsConstructor
+public class MemberChangedEvent {
+    private final Integer memberId;
+    private final boolean removed;
+}
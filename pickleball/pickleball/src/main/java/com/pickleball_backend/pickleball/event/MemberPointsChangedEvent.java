@@ -0,0 +1,15 @@
+package com.pickleball_backend.pickleball.event;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * 會員等級積分（tierPointBalance）變動後由業務服務發布，觸發等級重新評估
+ */
+@Getter
+@AllArgsConstructor
+public class MemberPointsChangedEvent {
+    private final Integer memberId;
+    private final int oldBalance;
+    private final int newBalance;
+}
@@ -0,0 +1,14 @@
+package com.pickleball_backend.pickleball.event;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * 會員等級新增、修改或刪除後發布（由 {@link DomainEventEntityListener} 在 flush 時觸發）
+ */
+@Getter
+@AllArgsConstructor
+public class MembershipTierChangedEvent {
+    private final Integer tierId;
+    private final boolean removed;
+}
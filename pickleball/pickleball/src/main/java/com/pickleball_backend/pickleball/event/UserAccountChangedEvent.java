@@ -0,0 +1,16 @@
+package com.pickleball_backend.pickleball.event;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * 使用者帳號（狀態、使用者名稱等）寫入後發布（由 {@link DomainEventEntityListener} 在 flush 時觸發），
+ * 讓身分快取失效並更新搜尋索引
+ */
+@Getter
+@AllArgsConstructor
+public class UserAccountChangedEvent {
+    private final Integer accountId;
+    private final String username;
+    private final Integer userId;
+}
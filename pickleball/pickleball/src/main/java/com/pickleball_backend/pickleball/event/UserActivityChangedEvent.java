@@ -0,0 +1,23 @@
+package com.pickleball_backend.pickleball.event;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * 使用者的預訂、評價、警告或錢包交易寫入後發布，讓使用者統計重新計算。
+ * 錢包交易只知道 walletId，此時 userId 為 null，由消費端換算。
+ */
+@Getter
+@AllArgsConstructor
+public class UserActivityChangedEvent {
+    private final Integer userId;
+    private final Integer walletId;
+
+    public static UserActivityChangedEvent forUser(Integer userId) {
+        return new UserActivityChangedEvent(userId, null);
+    }
+
+    public static UserActivityChangedEvent forWallet(Integer walletId) {
+        return new UserActivityChangedEvent(null, walletId);
+    }
+}
@@ -0,0 +1,15 @@
+package com.pickleball_backend.pickleball.event;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * 使用者資料（姓名、電子郵件等）寫入或刪除後發布（由 {@link DomainEventEntityListener} 在 flush 時觸發），
+ * 讓搜尋索引重新載入該使用者
+ */
+@Getter
+@AllArgsConstructor
+public class UserChangedEvent {
+    private final Integer userId;
+    private final boolean removed;
+}
@@ -0,0 +1,15 @@
+package com.pickleball_backend.pickleball.event;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * 優惠券新增、修改或刪除後發布（由 {@link DomainEventEntityListener} 在 flush 時觸發）
+ */
+@Getter
+@AllArgsConstructor
+public class VoucherChangedEvent {
+    private final Integer voucherId;
+    private final Integer tierId;
+    private final boolean removed;
+}
@@ -0,0 +1,13 @@
+package com.pickleball_backend.pickleball.event;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * 使用者兌換或使用優惠券後由 VoucherRedemptionService 發布，讓結帳用的可用優惠券快取失效
+ */
+@Getter
+@AllArgsConstructor
+public class VoucherRedemptionChangedEvent {
+    private final Integer userId;
+}
@@ -5,10 +5,12 @@ import com.pickleball_backend.pickleball.entity.Court;
 import com.pickleball_backend.pickleball.entity.Member;
 import com.pickleball_backend.pickleball.entity.User;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 
 import java.time.LocalDate;
+import java.time.LocalTime;
 import java.util.List;
 import java.util.Optional;
 import org.springframework.data.jpa.repository.EntityGraph;
@@ -56,6 +58,8 @@ public interface BookingRepository extends JpaRepository<Booking, Integer> {
     @Query("SELECT b FROM Booking b ORDER BY b.bookingDate DESC")
     Page<Booking> findAllBookings(Pageable pageable);
 
+    long countByStatus(String status);
+
     @org.springframework.data.jpa.repository.Query("SELECT COUNT(b) FROM Booking b WHERE b.bookingDate BETWEEN :start AND :end")
     long countByBookingDateBetween(java.time.LocalDateTime start, java.time.LocalDateTime end);
 
@@ -154,6 +158,37 @@ public interface BookingRepository extends JpaRepository<Booking, Integer> {
             @Param("startTime") java.time.LocalTime startTime,
             @Param("endTime") java.time.LocalTime endTime);
 
+    // 批量查询指定球场在日期区间内所有活跃预订的时段，返回 [date, startTime, endTime]
+    @Query("SELECT s.date, s.startTime, s.endTime FROM Booking b " +
+           "JOIN b.bookingSlots bs " +
+           "JOIN bs.slot s " +
+           "WHERE s.courtId = :courtId " +
+           "AND b.status IN ('CONFIRMED', 'PENDING') " +
+           "AND s.date >= :fromDate " +
+           "AND s.date <= :toDate")
+    List<Object[]> findActiveSlotIntervalsForCourt(
+            @Param("courtId") Integer courtId,
+            @Param("fromDate") LocalDate fromDate,
+            @Param("toDate") LocalDate toDate);
+
+    // 活跃会员排行：按会员分组统计预订，数据库内排序并限制行数
+    // 返回 [userId, username, name, email, userType, accountStatus, tierName, tierPoints, userCreatedAt,
+    //       bookingCount, completedCount, cancelledCount, totalSpent, lastBookingDate]
+    @Query("SELECT u.id, a.username, u.name, u.email, u.userType, a.status, t.tierName, m.tierPointBalance, u.createdAt, " +
+           "COUNT(b), SUM(CASE WHEN b.status = 'COMPLETED' THEN 1 ELSE 0 END), " +
+           "SUM(CASE WHEN b.status = 'CANCELLED' THEN 1 ELSE 0 END), SUM(b.totalAmount), MAX(b.bookingDate) " +
+           "FROM Booking b " +
+           "JOIN b.member m " +
+           "JOIN m.user u " +
+           "LEFT JOIN u.userAccount a " +
+           "LEFT JOIN m.tier t " +
+           "WHERE (:since IS NULL OR b.bookingDate >= :since) " +
+           "GROUP BY u.id, a.username, u.name, u.email, u.userType, a.status, t.tierName, m.tierPointBalance, u.createdAt " +
+           "ORDER BY COUNT(b) DESC, MAX(b.bookingDate) DESC")
+    List<Object[]> findTopMemberActivity(
+            @Param("since") java.time.LocalDateTime since,
+            Pageable pageable);
+
     // 查找所有过期的预订
     @Query("SELECT DISTINCT b FROM Booking b " +
            "JOIN b.bookingSlots bs " +
@@ -171,6 +206,8 @@ public interface BookingRepository extends JpaRepository<Booking, Integer> {
     // Add missing method for finding bookings by member user ID
     List<Booking> findByMember_User_Id(Integer userId);
     
+    Optional<Booking> findByMember_IdAndIdempotencyKey(Integer memberId, String idempotencyKey);
+
     // Add missing method for finding bookings by member ID and purpose
     List<Booking> findByMember_IdAndPurpose(Integer memberId, String purpose);
     
@@ -188,4 +225,84 @@ public interface BookingRepository extends JpaRepository<Booking, Integer> {
             @Param("endDate") java.time.LocalDateTime endDate,
             @Param("startTime") java.time.LocalTime startTime,
             @Param("endTime") java.time.LocalTime endTime);
-}
\ No newline at end of file
+
+    // 使用者統計：每位使用者的預訂數、完成數、取消數、總金額及最後預訂時間
+    // 回傳 [userId, bookingCount, completedCount, cancelledCount, totalAmount, lastBookingDate]
+    @Query("SELECT b.member.id, COUNT(b), " +
+           "SUM(CASE WHEN b.status = 'COMPLETED' THEN 1 ELSE 0 END), " +
+           "SUM(CASE WHEN b.status = 'CANCELLED' THEN 1 ELSE 0 END), " +
+           "COALESCE(SUM(b.totalAmount), 0), MAX(b.bookingDate) " +
+           "FROM Booking b WHERE b.member.id IN :userIds GROUP BY b.member.id")
+    List<Object[]> summarizeBookingsByUsers(@Param("userIds") java.util.Collection<Integer> userIds);
+
+    // 預訂記錄分頁：每筆預訂一列，時段數以 SUM 彙總，球場以 slot.courtId 關聯；
+    // 各欄獨立的 MIN/MAX 會把不同時段的日期與時間拼在一起，起訖時間另以 findSlotTimesByBookingIds 取得
+    // 回傳 [bookingId, courtId, courtName, location, durationHours,
+    //       totalAmount, status, bookingDate, purpose, numberOfPlayers, numPaddles, buyBallSet]
+    @Query(value = "SELECT b.id, MIN(s.courtId), MIN(c.name), MIN(c.location), " +
+           "SUM(CASE WHEN s.id IS NULL THEN 0 ELSE COALESCE(s.durationHours, 1) END), b.totalAmount, b.status, b.bookingDate, b.purpose, " +
+           "b.numberOfPlayers, b.numPaddles, b.buyBallSet " +
+           "FROM Booking b " +
+           "LEFT JOIN b.bookingSlots bs " +
+           "LEFT JOIN bs.slot s " +
+           "LEFT JOIN Court c ON c.id = s.courtId " +
+           "WHERE b.member.id = :memberId " +
+           "AND (:status IS NULL OR UPPER(b.status) = UPPER(:status)) " +
+           "GROUP BY b.id, b.totalAmount, b.status, b.bookingDate, b.purpose, b.numberOfPlayers, b.numPaddles, b.buyBallSet " +
+           "ORDER BY b.bookingDate DESC, b.id DESC",
+           countQuery = "SELECT COUNT(b) FROM Booking b WHERE b.member.id = :memberId " +
+           "AND (:status IS NULL OR UPPER(b.status) = UPPER(:status))")
+    Page<Object[]> findHistoryRows(@Param("memberId") Integer memberId,
+                                   @Param("status") String status,
+                                   Pageable pageable);
+
+    // 預訂的各時段依 (date, startTime) 排序，回傳 [bookingId, date, startTime, endTime]
+    @Query("SELECT bs.booking.id, s.date, s.startTime, s.endTime FROM BookingSlot bs JOIN bs.slot s " +
+           "WHERE bs.booking.id IN :bookingIds ORDER BY bs.booking.id, s.date, s.startTime")
+    List<Object[]> findSlotTimesByBookingIds(@Param("bookingIds") java.util.Collection<Integer> bookingIds);
+
+    // 即將由排程標記為 COMPLETED 的預訂所屬會員，供批量更新後發布統計事件
+    @Query("SELECT DISTINCT b.member.id FROM Booking b " +
+           "WHERE b.status = 'CONFIRMED' " +
+           "AND EXISTS (SELECT 1 FROM BookingSlot bs WHERE bs.booking = b) " +
+           "AND NOT EXISTS (SELECT 1 FROM BookingSlot bs JOIN bs.slot s WHERE bs.booking = b " +
+           "AND (s.date > :today OR (s.date = :today AND s.endTime > :nowTime)))")
+    List<Integer> findFinishedBookingMemberIds(@Param("today") LocalDate today, @Param("nowTime") LocalTime nowTime);
+
+    // 所有時段都已結束的 CONFIRMED 預訂改為 COMPLETED（沒有時段的預訂維持原狀）
+    @Modifying
+    @org.springframework.transaction.annotation.Transactional
+    @Query("UPDATE Booking b SET b.status = 'COMPLETED' " +
+           "WHERE b.status = 'CONFIRMED' " +
+           "AND EXISTS (SELECT 1 FROM BookingSlot bs WHERE bs.booking = b) " +
+           "AND NOT EXISTS (SELECT 1 FROM BookingSlot bs JOIN bs.slot s WHERE bs.booking = b " +
+           "AND (s.date > :today OR (s.date = :today AND s.endTime > :nowTime)))")
+    int completeFinishedBookings(@Param("today") LocalDate today, @Param("nowTime") LocalTime nowTime);
+
+    // 收據匯出：[from, to) 期間已付款的預訂，依 id 以 keyset 分批（afterId 為上一批最後一筆）；memberId 為 null 時不限會員。
+    // 時段的日期與時間另以 findSlotTimesByBookingIds 取第一及最後一個時段。回傳
+    // [id, bookingDate, totalAmount, originalAmount, discountAmount, numberOfPlayers, numPaddles, buyBallSet,
+    //  paymentMethod, paymentStatus, courtName, venueName, durationHours]
+    @Query("SELECT b.id, b.bookingDate, b.totalAmount, b.originalAmount, b.discountAmount, b.numberOfPlayers, b.numPaddles, b.buyBallSet, " +
+           "p.paymentMethod, p.status, MIN(c.name), MIN(v.name), SUM(s.durationHours) " +
+           "FROM Booking b JOIN b.payment p LEFT JOIN b.bookingSlots bs LEFT JOIN bs.slot s " +
+           "LEFT JOIN Court c ON c.id = s.courtId LEFT JOIN c.venue v " +
+           "WHERE b.bookingDate >= :from AND b.bookingDate < :to AND p.status = 'COMPLETED' " +
+           "AND (:memberId IS NULL OR b.member.id = :memberId) AND b.id > :afterId " +
+           "GROUP BY b.id, b.bookingDate, b.totalAmount, b.originalAmount, b.discountAmount, b.numberOfPlayers, b.numPaddles, " +
+           "b.buyBallSet, p.paymentMethod, p.status " +
+           "ORDER BY b.id")
+    List<Object[]> findReceiptRows(@Param("from") java.time.LocalDateTime from,
+                                   @Param("to") java.time.LocalDateTime to,
+                                   @Param("memberId") Integer memberId,
+                                   @Param("afterId") Integer afterId,
+                                   Pageable pageable);
+
+    // 收據匯出的筆數，條件與 findReceiptRows 相同，開始串流前先檢查是否超過上限
+    @Query("SELECT COUNT(b) FROM Booking b JOIN b.payment p " +
+           "WHERE b.bookingDate >= :from AND b.bookingDate < :to AND p.status = 'COMPLETED' " +
+           "AND (:memberId IS NULL OR b.member.id = :memberId)")
+    long countReceiptRows(@Param("from") java.time.LocalDateTime from,
+                          @Param("to") java.time.LocalDateTime to,
+                          @Param("memberId") Integer memberId);
+}
@@ -21,6 +21,13 @@ public interface ClassRegistrationRepository extends JpaRepository<ClassRegistra
     @Query("SELECT r FROM ClassRegistration r WHERE r.member.user.id = :userId")
     List<ClassRegistration> findByMemberUserId(@Param("userId") Integer userId);
     
+    // 評價回退匹配：一批用戶在一批教練課程中的報名，回傳 [userId, coachId, sessionId, startTime]
+    @Query("SELECT r.member.user.id, cs.coach.id, cs.id, cs.startTime FROM ClassRegistration r JOIN r.classSession cs " +
+            "WHERE r.member.user.id IN :userIds AND cs.coach.id IN :coachIds")
+    List<Object[]> findSessionStartsByUsersAndCoaches(
+            @Param("userIds") java.util.Collection<Integer> userIds,
+            @Param("coachIds") java.util.Collection<Integer> coachIds);
+
     @Query("SELECT r FROM ClassRegistration r WHERE r.member.user.id = :userId AND r.classSession.id = :sessionId")
     ClassRegistration findByMemberUserIdAndClassSessionId(@Param("userId") Integer userId, @Param("sessionId") Integer sessionId);
     
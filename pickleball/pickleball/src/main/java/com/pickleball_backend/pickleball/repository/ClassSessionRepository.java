@@ -1,10 +1,14 @@
 package com.pickleball_backend.pickleball.repository;
 
 import com.pickleball_backend.pickleball.entity.ClassSession;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
 import java.util.List;
@@ -42,6 +46,53 @@ public interface ClassSessionRepository extends JpaRepository<ClassSession, Inte
             @Param("startTime") LocalDateTime startTime,
             @Param("endTime") LocalDateTime endTime);
 
+    // 批量衝突檢查：一次取出整段期間內該場地或該教練的所有未取消課程時段
+    // 回傳 [startTime, endTime, courtId, coachId]
+    @Query("SELECT s.startTime, s.endTime, s.court.id, s.coach.id FROM ClassSession s " +
+            "WHERE s.status <> 'CANCELLED' " +
+            "AND (s.court.id = :courtId OR s.coach.id = :coachId) " +
+            "AND s.startTime < :to AND s.endTime > :from")
+    List<Object[]> findActiveIntervalsForCourtOrCoach(
+            @Param("courtId") Integer courtId,
+            @Param("coachId") Integer coachId,
+            @Param("from") LocalDateTime from,
+            @Param("to") LocalDateTime to);
+
+    // 教練目錄：每位教練每個場館的可報名課程數及總課程數，回傳 [coachId, venueName, venueState, availableCount, totalCount]
+    @Query("SELECT cs.coach.id, COALESCE(v.name, cv.name), COALESCE(v.state, cv.state), " +
+            "SUM(CASE WHEN cs.status = 'AVAILABLE' THEN 1 ELSE 0 END), COUNT(cs) " +
+            "FROM ClassSession cs " +
+            "LEFT JOIN cs.venue v " +
+            "LEFT JOIN cs.court c " +
+            "LEFT JOIN c.venue cv " +
+            "WHERE cs.coach IS NOT NULL " +
+            "GROUP BY cs.coach.id, COALESCE(v.name, cv.name), COALESCE(v.state, cv.state)")
+    List<Object[]> summarizeSessionsByCoachAndVenue();
+
+    // 狀態機重建：所有仍需轉換狀態的課程，回傳 [id, status, startTime, endTime]
+    @Query("SELECT cs.id, cs.status, cs.startTime, cs.endTime FROM ClassSession cs WHERE cs.status IN ('CONFIRMED', 'IN_PROGRESS')")
+    List<Object[]> findPendingTransitionIntervals();
+
+    // 狀態機重建：已完成但仍有託管款項未結算的課程
+    @Query("SELECT cs.id FROM ClassSession cs WHERE cs.status = 'COMPLETED' AND EXISTS (" +
+            "SELECT p FROM Payment p WHERE p.paymentType = 'CLASS_SESSION_ESCROW' AND p.status = 'ESCROWED' " +
+            "AND p.transactionId LIKE CONCAT('SESSION_', CAST(cs.id AS string), '!_%') ESCAPE '!')")
+    List<Integer> findCompletedSessionIdsWithEscrow();
+
+    @Modifying
+    @Transactional
+    @Query("UPDATE ClassSession cs SET cs.status = 'IN_PROGRESS' " +
+            "WHERE cs.id IN :ids AND cs.status = 'CONFIRMED' AND cs.startTime <= :now")
+    int markStarted(@Param("ids") List<Integer> ids, @Param("now") LocalDateTime now);
+
+    @Modifying
+    @Transactional
+    @Query("UPDATE ClassSession cs SET cs.status = 'COMPLETED' " +
+            "WHERE cs.id IN :ids AND cs.status = 'IN_PROGRESS' AND cs.endTime <= :now")
+    int markCompleted(@Param("ids") List<Integer> ids, @Param("now") LocalDateTime now);
+
+    List<ClassSession> findByIdInAndStatus(List<Integer> ids, String status);
+
     // 查詢某個教練的所有課程（可加上狀態、時間區間等條件）
     @Query("SELECT cs FROM ClassSession cs WHERE cs.coach.id = :coachId ORDER BY cs.startTime")
     List<ClassSession> findScheduleByCoachId(@Param("coachId") Integer coachId);
@@ -103,6 +154,9 @@ public interface ClassSessionRepository extends JpaRepository<ClassSession, Inte
     @Query("SELECT cs FROM ClassSession cs LEFT JOIN FETCH cs.court c LEFT JOIN FETCH c.venue WHERE cs.id IN :ids")
     List<ClassSession> findAllByIdWithCourt(@Param("ids") List<Integer> ids);
 
+    @Query("SELECT cs FROM ClassSession cs LEFT JOIN FETCH cs.venue LEFT JOIN FETCH cs.court c LEFT JOIN FETCH c.venue WHERE cs.id IN :ids")
+    List<ClassSession> findAllByIdWithVenue(@Param("ids") java.util.Collection<Integer> ids);
+
     List<ClassSession> findByRecurringGroupId(String recurringGroupId);
 
     // 查詢所有 replacement class（replacementForSessionId 不為 null）for 某教練
@@ -114,6 +168,28 @@ public interface ClassSessionRepository extends JpaRepository<ClassSession, Inte
     // 查詢指定時間範圍和狀態的課程（用於收入分配）
     List<ClassSession> findByStartTimeBetweenAndStatus(LocalDateTime start, LocalDateTime end, String status);
     
+    // 補課時段：教練尚未開始、允許補課的 AVAILABLE 課程，排除學生已報名的課程（走 idx_session_coach_replacement）
+    // 回傳 [id, title, startTime, endTime, maxParticipants, currentParticipants, allowReplacement, courtName, venueName, venueState]
+    @Query(value = "SELECT cs.id, cs.title, cs.startTime, cs.endTime, cs.maxParticipants, cs.currentParticipants, cs.allowReplacement, " +
+           "c.name, v.name, v.state " +
+           "FROM ClassSession cs " +
+           "LEFT JOIN cs.court c " +
+           "LEFT JOIN c.venue v " +
+           "WHERE cs.coach.id = :coachId AND cs.status = 'AVAILABLE' AND cs.allowReplacement = true AND cs.startTime > :now " +
+           "AND NOT EXISTS (SELECT r.id FROM ClassRegistration r WHERE r.member.id = :studentId AND r.classSession.id = cs.id) " +
+           "ORDER BY cs.startTime, cs.id",
+           countQuery = "SELECT COUNT(cs) FROM ClassSession cs " +
+           "WHERE cs.coach.id = :coachId AND cs.status = 'AVAILABLE' AND cs.allowReplacement = true AND cs.startTime > :now " +
+           "AND NOT EXISTS (SELECT r.id FROM ClassRegistration r WHERE r.member.id = :studentId AND r.classSession.id = cs.id)")
+    Page<Object[]> findReplacementSessionRows(@Param("coachId") Integer coachId,
+                                             @Param("studentId") Integer studentId,
+                                             @Param("now") LocalDateTime now,
+                                             Pageable pageable);
+
+    // 教練各狀態的課程數，回傳 [status, count]
+    @Query("SELECT cs.status, COUNT(cs) FROM ClassSession cs WHERE cs.coach.id = :coachId GROUP BY cs.status")
+    List<Object[]> countByStatusForCoach(@Param("coachId") Integer coachId);
+
     // 根據教練ID查詢課程，按開始時間降序排列
     List<ClassSession> findByCoachIdOrderByStartTimeDesc(Integer coachId);
 }
\ No newline at end of file
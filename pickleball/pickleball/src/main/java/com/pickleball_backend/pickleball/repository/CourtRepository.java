@@ -16,6 +16,8 @@ public interface CourtRepository extends JpaRepository<Court, Integer> {
     boolean existsByNameAndLocation(String name, String location);
     boolean existsByNameAndVenueId(String name, Integer venueId);
     List<Court> findByIsArchivedFalseOrIsArchivedIsNull();
+
+    long countByIsArchivedFalseOrIsArchivedIsNull();
     List<Court> findAll();
     @Query("SELECT c FROM Court c LEFT JOIN FETCH c.venue WHERE c.status != 'DELETED' AND c.status != 'MAINTENANCE' AND c.status != 'INACTIVE'")
     List<Court> findActiveCourts();
@@ -33,6 +35,21 @@ public interface CourtRepository extends JpaRepository<Court, Integer> {
     
     // 新增：根據場地ID查找球場
     List<Court> findByVenueId(Integer venueId);
+
+    // 一次查出 venue 在指定日期、時段內有可用 slot 且沒有進行中預訂的球場
+    @Query("SELECT c FROM Court c JOIN FETCH c.venue v " +
+            "WHERE v.id = :venueId " +
+            "AND EXISTS (SELECT s.id FROM Slot s WHERE s.courtId = c.id AND s.date = :date AND s.isAvailable = true " +
+            "    AND s.startTime <= :endTime AND s.endTime >= :startTime) " +
+            "AND NOT EXISTS (SELECT bs.id FROM BookingSlot bs JOIN bs.slot bslot JOIN bs.booking b " +
+            "    WHERE bslot.courtId = c.id AND bslot.date = :date AND b.status IN ('CONFIRMED', 'PENDING') " +
+            "    AND bslot.startTime < :endTime AND bslot.endTime > :startTime) " +
+            "ORDER BY c.id")
+    List<Court> findAvailableCourtsForVenue(
+            @Param("venueId") Integer venueId,
+            @Param("date") java.time.LocalDate date,
+            @Param("startTime") java.time.LocalTime startTime,
+            @Param("endTime") java.time.LocalTime endTime);
     
     // 新增：查找所有可用的球場
     @Query("SELECT c FROM Court c LEFT JOIN FETCH c.venue WHERE c.status != 'DELETED' AND c.status != 'MAINTENANCE' AND c.status != 'INACTIVE'")
@@ -27,6 +27,17 @@ public interface FeedbackRepository extends JpaRepository<Feedback, Integer> {
             @Param("targetId") Integer targetId
     );
 
+    // 按目標分組的平均評分及評價數，回傳 [targetId, avgRating, count]
+    @Query("SELECT f.targetId, AVG(f.rating), COUNT(f) FROM Feedback f WHERE f.targetType = :targetType GROUP BY f.targetId")
+    List<Object[]> summarizeRatingsByTargetType(@Param("targetType") TargetType targetType);
+
+    // 單一目標的評價數及評分總和，回傳 [count, sum]
+    @Query("SELECT COUNT(f), COALESCE(SUM(f.rating), 0) FROM Feedback f WHERE f.targetType = :targetType AND f.targetId = :targetId")
+    List<Object[]> sumRatingsByTarget(
+            @Param("targetType") TargetType targetType,
+            @Param("targetId") Integer targetId
+    );
+
     @Query("SELECT AVG(f.rating) FROM Feedback f")
     Double findAverageRating();
 
@@ -51,4 +62,15 @@ public interface FeedbackRepository extends JpaRepository<Feedback, Integer> {
     
     // Add missing method for finding feedback by user ID
     List<Feedback> findByUser_Id(Integer userId);
-}
\ No newline at end of file
+
+    // 使用者統計：每位使用者的評價數、有評分的評價數、評分總和及最後評價時間
+    // 回傳 [userId, feedbackCount, ratingCount, ratingSum, lastFeedbackDate]
+    @Query("SELECT f.user.id, COUNT(f), COUNT(f.rating), COALESCE(SUM(f.rating), 0), MAX(f.createdAt) " +
+           "FROM Feedback f WHERE f.user.id IN :userIds GROUP BY f.user.id")
+    List<Object[]> summarizeFeedbackByUsers(@Param("userIds") java.util.Collection<Integer> userIds);
+
+    // 回傳使用者在這些預訂中已評價過的 bookingId
+    @Query("SELECT DISTINCT f.booking.id FROM Feedback f WHERE f.user.id = :userId AND f.booking.id IN :bookingIds")
+    List<Integer> findReviewedBookingIds(@Param("userId") Integer userId,
+                                         @Param("bookingIds") java.util.Collection<Integer> bookingIds);
+}
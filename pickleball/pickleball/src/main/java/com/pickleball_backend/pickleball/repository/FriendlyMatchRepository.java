@@ -1,11 +1,16 @@
 package com.pickleball_backend.pickleball.repository;
 
 import com.pickleball_backend.pickleball.entity.FriendlyMatch;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 
 public interface FriendlyMatchRepository extends JpaRepository<FriendlyMatch, Integer> {
@@ -17,4 +22,115 @@ public interface FriendlyMatchRepository extends JpaRepository<FriendlyMatch, In
     List<FriendlyMatch> findByBookingId(Integer bookingId);
     @Query("SELECT m FROM FriendlyMatch m WHERE m.startTime < :now AND (m.status = 'OPEN' OR m.status = 'FULL')")
     List<FriendlyMatch> findAllExpired(@Param("now") LocalDateTime now);
-}
\ No newline at end of file
+
+    // 比賽所在球場及場館；邀請型比賽沒有 courtId，改用 booking 的 slot 所在球場。需先以 b 連接 m.booking
+    String MATCH_VENUE_JOINS =
+           "LEFT JOIN Court c ON c.id = COALESCE(m.courtId, (SELECT MIN(s.courtId) FROM BookingSlot bs JOIN bs.slot s WHERE bs.booking = b)) " +
+           "LEFT JOIN c.venue v ";
+
+    // 比賽列表投影，各種 feed 共用同一組欄位，回傳
+    // [id, bookingId, organizerId, organizerUsername, startTime, endTime, maxPlayers, currentPlayers, price, status,
+    //  invitationType, paymentStatus, isInvitation, location, courtName, courtLocation, venueName, bookingStatus]
+    String FEED_ROWS =
+           "SELECT m.id, b.id, o.id, a.username, m.startTime, m.endTime, m.maxPlayers, m.currentPlayers, m.price, m.status, " +
+           "m.invitationType, m.paymentStatus, m.isInvitation, m.location, c.name, c.location, v.name, b.status " +
+           "FROM FriendlyMatch m LEFT JOIN m.organizer o LEFT JOIN o.user u LEFT JOIN u.userAccount a LEFT JOIN m.booking b " +
+           MATCH_VENUE_JOINS;
+
+    // 比賽探索索引投影，回傳 [id, startTime, venueId, venueState, maxPlayers, currentPlayers, skillLevel, isInvitation]
+    String DISCOVERY_ROWS =
+           "SELECT m.id, m.startTime, v.id, v.state, m.maxPlayers, m.currentPlayers, m.skillLevel, m.isInvitation " +
+           "FROM FriendlyMatch m LEFT JOIN m.booking b " +
+           MATCH_VENUE_JOINS;
+
+    // 尚未開始、未取消的比賽
+    @Query(value = FEED_ROWS +
+           "WHERE m.status <> 'CANCELLED' AND m.startTime > :now " +
+           "ORDER BY m.startTime, m.id",
+           countQuery = "SELECT COUNT(m) FROM FriendlyMatch m WHERE m.status <> 'CANCELLED' AND m.startTime > :now")
+    Page<Object[]> findUpcomingFeedRows(@Param("now") LocalDateTime now, Pageable pageable);
+
+    // 還有空位、尚未開始的 OPEN 比賽
+    @Query(value = FEED_ROWS +
+           "WHERE m.status = 'OPEN' AND m.startTime > :now AND m.currentPlayers < m.maxPlayers " +
+           "ORDER BY m.startTime, m.id",
+           countQuery = "SELECT COUNT(m) FROM FriendlyMatch m " +
+           "WHERE m.status = 'OPEN' AND m.startTime > :now AND m.currentPlayers < m.maxPlayers")
+    Page<Object[]> findOpenFeedRows(@Param("now") LocalDateTime now, Pageable pageable);
+
+    // 會員主辦或申請加入過的比賽（含已結束），最新的在前
+    @Query(value = FEED_ROWS +
+           "WHERE o.id = :memberId OR EXISTS (SELECT jr.id FROM JoinRequest jr WHERE jr.friendlyMatch = m AND jr.member.id = :memberId) " +
+           "ORDER BY m.startTime DESC, m.id DESC",
+           countQuery = "SELECT COUNT(m) FROM FriendlyMatch m " +
+           "WHERE m.organizer.id = :memberId OR EXISTS (SELECT jr.id FROM JoinRequest jr WHERE jr.friendlyMatch = m AND jr.member.id = :memberId)")
+    Page<Object[]> findMemberFeedRows(@Param("memberId") Integer memberId, Pageable pageable);
+
+    // 全部比賽，最新的在前
+    @Query(value = FEED_ROWS +
+           "ORDER BY m.startTime DESC, m.id DESC",
+           countQuery = "SELECT COUNT(m) FROM FriendlyMatch m")
+    Page<Object[]> findAllFeedRows(Pageable pageable);
+
+    // 指定比賽 id，順序由呼叫端決定
+    @Query(FEED_ROWS + "WHERE m.id IN :ids")
+    List<Object[]> findFeedRowsByIds(@Param("ids") Collection<Integer> ids);
+
+    // 比賽探索索引：尚未開始的 OPEN 比賽
+    @Query(DISCOVERY_ROWS + "WHERE m.status = 'OPEN' AND m.startTime > :now")
+    List<Object[]> findDiscoveryRows(@Param("now") LocalDateTime now);
+
+    // 同 findDiscoveryRows，只載入指定比賽；不在結果中的比賽應從索引移除
+    @Query(DISCOVERY_ROWS +
+           "WHERE m.status = 'OPEN' AND m.startTime > :now AND m.id IN :ids")
+    List<Object[]> findDiscoveryRowsByIds(@Param("ids") Collection<Integer> ids, @Param("now") LocalDateTime now);
+
+    // 條件式佔位：只有 OPEN 且未滿的比賽才會 +1，回傳 0 表示已滿或不開放，併發加入不會超過 maxPlayers。
+    // status 放在前面：MySQL 依序套用 SET，這樣兩邊都以更新前的 currentPlayers 判斷是否額滿
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Transactional
+    @Query("UPDATE FriendlyMatch m SET " +
+           "m.status = CASE WHEN m.currentPlayers + 1 >= m.maxPlayers THEN 'FULL' ELSE m.status END, " +
+           "m.currentPlayers = m.currentPlayers + 1 " +
+           "WHERE m.id = :id AND m.status = 'OPEN' AND m.currentPlayers < m.maxPlayers")
+    int claimSeat(@Param("id") Integer id);
+
+    // 退出時釋出名額，FULL 的比賽重新開放；已付款或已取消的比賽及主辦人的名額不變
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Transactional
+    @Query("UPDATE FriendlyMatch m SET m.status = 'OPEN', m.currentPlayers = m.currentPlayers - 1 " +
+           "WHERE m.id = :id AND m.status IN ('OPEN', 'FULL') AND m.currentPlayers > 1 " +
+           "AND (m.paymentStatus IS NULL OR m.paymentStatus <> 'PAID')")
+    int releaseSeat(@Param("id") Integer id);
+
+    // 超過 cutoff 仍未付款的滿員比賽
+    @Query("SELECT m FROM FriendlyMatch m WHERE m.status = 'OPEN' AND m.paymentStatus = 'PENDING' " +
+           "AND m.currentPlayers >= m.maxPlayers AND m.startTime < :cutoff")
+    List<FriendlyMatch> findUnpaidFullMatches(@Param("cutoff") LocalDateTime cutoff);
+
+    @Query("SELECT COUNT(DISTINCT m.organizer.id) FROM FriendlyMatch m")
+    long countDistinctOrganizers();
+
+    // 最近比賽統計，回傳 [recentMatches, completedMatches]；沒有 endTime 的比賽以開始後一小時視為結束
+    @Query("SELECT COUNT(m), " +
+           "COALESCE(SUM(CASE WHEN m.status = 'CANCELLED' OR m.endTime < :now OR (m.endTime IS NULL AND m.startTime < :hourAgo) " +
+           "    THEN 1 ELSE 0 END), 0) " +
+           "FROM FriendlyMatch m WHERE m.startTime > :since")
+    List<Object[]> aggregateRecentMatches(@Param("since") LocalDateTime since,
+                                          @Param("now") LocalDateTime now,
+                                          @Param("hourAgo") LocalDateTime hourAgo);
+
+    // 資料修正：由 booking 產生但缺少時間的邀請
+    @Query("SELECT m FROM FriendlyMatch m JOIN FETCH m.booking WHERE m.isInvitation = true AND (m.startTime IS NULL OR m.endTime IS NULL)")
+    List<FriendlyMatch> findInvitationsMissingTimes();
+
+    // 資料修正：主辦人沒有 APPROVED join request 的比賽
+    @Query("SELECT m FROM FriendlyMatch m WHERE m.organizer IS NOT NULL AND NOT EXISTS (" +
+           "SELECT jr.id FROM JoinRequest jr WHERE jr.friendlyMatch = m AND jr.member = m.organizer AND jr.status = 'APPROVED')")
+    List<FriendlyMatch> findMatchesMissingOrganizerJoinRequest();
+
+    // 資料修正：可由球場價格補上價格的比賽
+    @Query("SELECT m FROM FriendlyMatch m WHERE (m.price IS NULL OR m.price = 0) " +
+           "AND m.courtId IS NOT NULL AND m.startTime IS NOT NULL AND m.durationHours IS NOT NULL")
+    List<FriendlyMatch> findPricedMatchesMissingPrice();
+}
@@ -2,9 +2,11 @@ package com.pickleball_backend.pickleball.repository;
 
 import com.pickleball_backend.pickleball.entity.GroupMember;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
 import java.util.Optional;
@@ -26,4 +28,27 @@ public interface GroupMemberRepository extends JpaRepository<GroupMember, Long>
     
     @Query("SELECT gm FROM GroupMember gm WHERE gm.group.id = :groupId AND gm.isAdmin = true AND gm.isActive = true")
     List<GroupMember> findAdminsByGroupId(@Param("groupId") Long groupId);
+
+    // 新訊息寄出時一次更新其他成員的未讀數
+    @Modifying
+    @Transactional
+    @Query("UPDATE GroupMember gm SET gm.unreadCount = COALESCE(gm.unreadCount, 0) + 1 " +
+            "WHERE gm.group.id = :groupId AND gm.user.id <> :senderId AND gm.isActive = true")
+    int incrementUnreadCounts(@Param("groupId") Long groupId, @Param("senderId") Integer senderId);
+
+    @Modifying
+    @Transactional
+    @Query("UPDATE GroupMember gm SET gm.lastReadMessageId = :lastReadMessageId, gm.unreadCount = 0 " +
+            "WHERE gm.group.id = :groupId AND gm.user.id = :userId AND gm.isActive = true")
+    int markRead(@Param("groupId") Long groupId, @Param("userId") Integer userId, @Param("lastReadMessageId") Long lastReadMessageId);
+
+    // 回傳 [groupId, unreadCount]
+    @Query("SELECT gm.group.id, gm.unreadCount FROM GroupMember gm " +
+            "WHERE gm.user.id = :userId AND gm.isActive = true AND gm.group.isActive = true")
+    List<Object[]> findUnreadCountsByUserId(@Param("userId") Integer userId);
+
+    @Query("SELECT CASE WHEN COUNT(gm) > 0 THEN true ELSE false END FROM GroupMember gm " +
+            "JOIN gm.user u JOIN u.userAccount ua " +
+            "WHERE gm.group.id = :groupId AND ua.username = :username AND gm.isActive = true")
+    boolean isUsernameMemberOfGroup(@Param("groupId") Long groupId, @Param("username") String username);
 }
@@ -16,6 +16,18 @@ public interface GroupMessageRepository extends JpaRepository<GroupMessage, Long
     @Query("SELECT gm FROM GroupMessage gm WHERE gm.group.id = :groupId AND gm.isDeleted = false ORDER BY gm.createdAt DESC")
     Page<GroupMessage> findMessagesByGroupIdOrderByCreatedAtDesc(@Param("groupId") Long groupId, Pageable pageable);
     
+    // Keyset 分頁：最新的 N 則，依 id 由新到舊
+    @Query("SELECT gm FROM GroupMessage gm WHERE gm.group.id = :groupId AND gm.isDeleted = false ORDER BY gm.id DESC")
+    List<GroupMessage> findLatestMessages(@Param("groupId") Long groupId, Pageable pageable);
+
+    // Keyset 分頁：beforeId 之前（較舊）的 N 則，依 id 由新到舊
+    @Query("SELECT gm FROM GroupMessage gm WHERE gm.group.id = :groupId AND gm.id < :beforeId AND gm.isDeleted = false ORDER BY gm.id DESC")
+    List<GroupMessage> findMessagesBefore(@Param("groupId") Long groupId, @Param("beforeId") Long beforeId, Pageable pageable);
+
+    // 斷線重連時補抓 afterId 之後的訊息，依 id 由舊到新
+    @Query("SELECT gm FROM GroupMessage gm WHERE gm.group.id = :groupId AND gm.id > :afterId AND gm.isDeleted = false ORDER BY gm.id ASC")
+    List<GroupMessage> findMessagesAfter(@Param("groupId") Long groupId, @Param("afterId") Long afterId, Pageable pageable);
+    
     @Query("SELECT gm FROM GroupMessage gm WHERE gm.group.id = :groupId AND gm.isDeleted = false ORDER BY gm.createdAt ASC")
     List<GroupMessage> findMessagesByGroupIdOrderByCreatedAtAsc(@Param("groupId") Long groupId);
     
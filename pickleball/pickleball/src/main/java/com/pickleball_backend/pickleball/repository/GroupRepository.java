@@ -6,6 +6,7 @@ import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 
 @Repository
@@ -23,6 +24,17 @@ public interface GroupRepository extends JpaRepository<Group, Long> {
     @Query("SELECT g FROM Group g JOIN g.members gm WHERE g.name LIKE %:searchTerm% AND gm.user.id = :userId AND gm.isActive = true AND g.isActive = true")
     List<Group> findGroupsByNameContainingAndUserId(@Param("searchTerm") String searchTerm, @Param("userId") Integer userId);
     
+    @Query("SELECT DISTINCT g FROM Group g JOIN g.members gm WHERE g.id IN :ids AND gm.user.id = :userId AND gm.isActive = true AND g.isActive = true")
+    List<Group> findActiveGroupsByIdInAndUserId(@Param("ids") Collection<Long> ids, @Param("userId") Integer userId);
+
+    // 搜尋索引用，回傳 [groupId, name, isActive]
+    @Query("SELECT g.id, g.name, g.isActive FROM Group g")
+    List<Object[]> findSearchDocuments();
+
+    // 同上，只載入指定群組
+    @Query("SELECT g.id, g.name, g.isActive FROM Group g WHERE g.id IN :ids")
+    List<Object[]> findSearchDocumentsByIds(@Param("ids") Collection<Long> ids);
+    
     @Query("SELECT CASE WHEN COUNT(gm) > 0 THEN true ELSE false END FROM GroupMember gm WHERE gm.group.id = :groupId AND gm.user.id = :userId AND gm.isActive = true")
     boolean isUserMemberOfGroup(@Param("groupId") Long groupId, @Param("userId") Integer userId);
     
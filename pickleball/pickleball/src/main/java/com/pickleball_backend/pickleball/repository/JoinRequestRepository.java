@@ -1,9 +1,32 @@
 package com.pickleball_backend.pickleball.repository;
 
 import com.pickleball_backend.pickleball.entity.JoinRequest;
+import jakarta.persistence.LockModeType;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
 public interface JoinRequestRepository extends JpaRepository<JoinRequest, Integer> {
-}
\ No newline at end of file
+    // 一頁比賽的所有 join request，回傳 [matchId, id, memberId, memberName, username, status, requestTime]
+    @Query("SELECT jr.friendlyMatch.id, jr.id, m.id, u.name, a.username, jr.status, jr.requestTime " +
+           "FROM JoinRequest jr LEFT JOIN jr.member m LEFT JOIN m.user u LEFT JOIN u.userAccount a " +
+           "WHERE jr.friendlyMatch.id IN :matchIds ORDER BY jr.id")
+    List<Object[]> findRowsByMatchIds(@Param("matchIds") Collection<Integer> matchIds);
+
+    boolean existsByFriendlyMatch_IdAndMember_Id(Integer matchId, Integer memberId);
+
+    Optional<JoinRequest> findByFriendlyMatch_IdAndMember_Id(Integer matchId, Integer memberId);
+
+    // 鎖定讀取：在比賽資料列已鎖住後使用，讀到的是最新已提交的資料，而不是交易開始時的快照
+    @Lock(LockModeType.PESSIMISTIC_READ)
+    @Query("SELECT jr FROM JoinRequest jr WHERE jr.friendlyMatch.id = :matchId AND jr.member.id = :memberId")
+    List<JoinRequest> findLockedByMatchAndMember(@Param("matchId") Integer matchId, @Param("memberId") Integer memberId);
+
+    // 參與過 friendly match 的會員數
+    @Query("SELECT COUNT(DISTINCT jr.member.id) FROM JoinRequest jr")
+    long countDistinctMembers();
+}
@@ -1,6 +1,8 @@
 package com.pickleball_backend.pickleball.repository;
 
 import com.pickleball_backend.pickleball.entity.LeaveRequest;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
@@ -12,15 +14,21 @@ import java.util.List;
 public interface LeaveRequestRepository extends JpaRepository<LeaveRequest, Integer> {
     
     // 查詢教練的所有待處理請求
-    @Query("SELECT lr FROM LeaveRequest lr WHERE lr.coach.id = :coachId AND lr.status IN ('PENDING', 'SELF_SELECTED', 'MESSAGE_SENT') ORDER BY lr.requestDate DESC")
+    @Query("SELECT lr FROM LeaveRequest lr JOIN FETCH lr.student JOIN FETCH lr.coach JOIN FETCH lr.originalSession os " +
+           "LEFT JOIN FETCH os.court c LEFT JOIN FETCH c.venue LEFT JOIN FETCH lr.replacementSession " +
+           "WHERE lr.coach.id = :coachId AND lr.status IN ('PENDING', 'SELF_SELECTED', 'MESSAGE_SENT') ORDER BY lr.requestDate DESC")
     List<LeaveRequest> findPendingRequestsByCoachId(@Param("coachId") Integer coachId);
     
     // 查詢教練的所有請求（包括已處理的）
-    @Query("SELECT lr FROM LeaveRequest lr WHERE lr.coach.id = :coachId ORDER BY lr.requestDate DESC")
+    @Query("SELECT lr FROM LeaveRequest lr JOIN FETCH lr.student JOIN FETCH lr.coach JOIN FETCH lr.originalSession os " +
+           "LEFT JOIN FETCH os.court c LEFT JOIN FETCH c.venue LEFT JOIN FETCH lr.replacementSession " +
+           "WHERE lr.coach.id = :coachId ORDER BY lr.requestDate DESC")
     List<LeaveRequest> findAllRequestsByCoachId(@Param("coachId") Integer coachId);
     
     // 查詢學生的所有請求
-    @Query("SELECT lr FROM LeaveRequest lr WHERE lr.student.id = :studentId ORDER BY lr.requestDate DESC")
+    @Query("SELECT lr FROM LeaveRequest lr JOIN FETCH lr.student JOIN FETCH lr.coach JOIN FETCH lr.originalSession os " +
+           "LEFT JOIN FETCH os.court c LEFT JOIN FETCH c.venue LEFT JOIN FETCH lr.replacementSession " +
+           "WHERE lr.student.id = :studentId ORDER BY lr.requestDate DESC")
     List<LeaveRequest> findAllRequestsByStudentId(@Param("studentId") Integer studentId);
     
     // 查詢特定課程的請求
@@ -30,4 +38,14 @@ public interface LeaveRequestRepository extends JpaRepository<LeaveRequest, Inte
     // 統計教練的待處理請求數量
     @Query("SELECT COUNT(lr) FROM LeaveRequest lr WHERE lr.coach.id = :coachId AND lr.status IN ('PENDING', 'SELF_SELECTED', 'MESSAGE_SENT')")
     long countPendingRequestsByCoachId(@Param("coachId") Integer coachId);
-} 
\ No newline at end of file
+
+    // 請假請求總覽：可依教練、狀態篩選的分頁查詢
+    @Query(value = "SELECT lr FROM LeaveRequest lr JOIN FETCH lr.student JOIN FETCH lr.coach " +
+           "WHERE (:coachId IS NULL OR lr.coach.id = :coachId) AND (:status IS NULL OR lr.status = :status) " +
+           "ORDER BY lr.requestDate DESC, lr.id DESC",
+           countQuery = "SELECT COUNT(lr) FROM LeaveRequest lr " +
+           "WHERE (:coachId IS NULL OR lr.coach.id = :coachId) AND (:status IS NULL OR lr.status = :status)")
+    Page<LeaveRequest> findByFilters(@Param("coachId") Integer coachId,
+                                     @Param("status") LeaveRequest.LeaveRequestStatus status,
+                                     Pageable pageable);
+}
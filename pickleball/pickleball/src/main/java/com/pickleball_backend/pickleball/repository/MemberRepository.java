@@ -22,6 +22,25 @@ public interface MemberRepository extends JpaRepository<Member, Integer> {
             @Param("tier") MembershipTier tier
     );
 
+    // 只更新等級與積分不符的會員，回傳實際修正的筆數
+    @Modifying
+    @Transactional
+    @Query("UPDATE Member m SET m.tier = :tier WHERE m.tierPointBalance BETWEEN :min AND :max " +
+            "AND (m.tier IS NULL OR m.tier <> :tier)")
+    int reconcileMembersTier(
+            @Param("min") int min,
+            @Param("max") int max,
+            @Param("tier") MembershipTier tier
+    );
+
+    // 積分不在任何啟用中等級區間內的會員
+    @Modifying
+    @Transactional
+    @Query("UPDATE Member m SET m.tier = :tier WHERE (m.tier IS NULL OR m.tier <> :tier) " +
+            "AND NOT EXISTS (SELECT t FROM MembershipTier t WHERE t.active = true " +
+            "AND m.tierPointBalance BETWEEN t.minPoints AND t.maxPoints)")
+    int reconcileUnrangedMembersTier(@Param("tier") MembershipTier tier);
+
     @Modifying
     @Transactional
     @Query("UPDATE Member m SET m.tier = :newTier WHERE m.tier.id = :oldTierId")
@@ -49,4 +68,9 @@ public interface MemberRepository extends JpaRepository<Member, Integer> {
     
     // Add missing method for finding members by tier name
     List<Member> findByTier_TierName(String tierName);
-}
\ No newline at end of file
+
+    // 會員總數及帳號為 ACTIVE 的會員數，回傳 [total, active]
+    @Query("SELECT COUNT(m), COALESCE(SUM(CASE WHEN a.status = 'ACTIVE' THEN 1 ELSE 0 END), 0) " +
+           "FROM Member m LEFT JOIN m.user u LEFT JOIN u.userAccount a")
+    List<Object[]> countTotalAndActive();
+}
@@ -22,4 +22,6 @@ public interface PaymentRepository extends JpaRepository<Payment, Integer> {
     
     @Query("SELECT p FROM Payment p WHERE p.paymentType = :paymentType AND p.status = :status")
     List<Payment> findByPaymentTypeAndStatus(String paymentType, String status);
+
+    boolean existsByPaymentTypeAndTransactionId(String paymentType, String transactionId);
 }
\ No newline at end of file
@@ -0,0 +1,30 @@
+package com.pickleball_backend.pickleball.repository;
+
+import com.pickleball_backend.pickleball.entity.StoredFile;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+@Repository
+public interface StoredFileRepository extends JpaRepository<StoredFile, String> {
+
+    // 回傳更新筆數，0 表示尚無此檔案
+    @Modifying
+    @Transactional
+    @Query("UPDATE StoredFile f SET f.refCount = f.refCount + 1 WHERE f.key = :key")
+    int incrementRefCount(@Param("key") String key);
+
+    @Modifying
+    @Transactional
+    @Query("UPDATE StoredFile f SET f.refCount = f.refCount - 1 WHERE f.key = :key AND f.refCount > 0")
+    int decrementRefCount(@Param("key") String key);
+
+    // 回傳刪除筆數，1 表示已無引用，可以刪除實體檔案
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM StoredFile f WHERE f.key = :key AND f.refCount <= 0")
+    int deleteIfUnreferenced(@Param("key") String key);
+}
@@ -2,6 +2,8 @@ package com.pickleball_backend.pickleball.repository;
 
 import com.pickleball_backend.pickleball.entity.UserAccount;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 import java.util.List;
 import java.util.Optional;
@@ -20,4 +22,13 @@ public interface UserAccountRepository extends JpaRepository<UserAccount, Intege
     // Add missing method for counting by status
     long countByStatus(String status);
 
+    // 目前登入者的身分：帳號、使用者、會員及錢包 id 一次取回（會員以 user_id 為主鍵）
+    // 回傳 [accountId, username, accountStatus, userId, memberId, walletId]
+    @Query("SELECT ua.id, ua.username, ua.status, u.id, m.id, w.id " +
+           "FROM UserAccount ua JOIN ua.user u " +
+           "LEFT JOIN Member m ON m.id = u.id " +
+           "LEFT JOIN Wallet w ON w.member = m " +
+           "WHERE ua.username = :username")
+    List<Object[]> findIdentityRows(@Param("username") String username);
+
 }
\ No newline at end of file
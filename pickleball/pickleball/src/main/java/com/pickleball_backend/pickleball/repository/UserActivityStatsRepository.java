@@ -0,0 +1,37 @@
+package com.pickleball_backend.pickleball.repository;
+
+import com.pickleball_backend.pickleball.entity.UserActivityStats;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+
+@Repository
+public interface UserActivityStatsRepository extends JpaRepository<UserActivityStats, Integer> {
+
+    // 管理後台使用者統計：基本資料、等級、錢包餘額及預先計算的統計（尚未計算時 stats 為 null）
+    // 回傳 [userId, username, name, email, userType, accountStatus, tierName, tierPoints, createdAt, stats, walletBalance]
+    @Query("SELECT u.id, ua.username, u.name, u.email, u.userType, ua.status, t.tierName, m.tierPointBalance, u.createdAt, s, w.balance " +
+            "FROM User u LEFT JOIN u.userAccount ua LEFT JOIN u.member m LEFT JOIN m.tier t " +
+            "LEFT JOIN UserActivityStats s ON s.userId = u.id " +
+            "LEFT JOIN Wallet w ON w.member = m " +
+            "WHERE u.id = :userId")
+    List<Object[]> findStatisticsRowByUserId(@Param("userId") Integer userId);
+
+    // 同上，列出某個等級的所有會員
+    @Query("SELECT u.id, ua.username, u.name, u.email, u.userType, ua.status, t.tierName, m.tierPointBalance, u.createdAt, s, w.balance " +
+            "FROM Member m JOIN m.user u JOIN m.tier t LEFT JOIN u.userAccount ua " +
+            "LEFT JOIN UserActivityStats s ON s.userId = u.id " +
+            "LEFT JOIN Wallet w ON w.member = m " +
+            "WHERE t.tierName = :tierName ORDER BY u.id")
+    List<Object[]> findStatisticsRowsByTierName(@Param("tierName") String tierName);
+
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM UserActivityStats s WHERE s.userId NOT IN (SELECT u.id FROM User u)")
+    int deleteOrphans();
+}
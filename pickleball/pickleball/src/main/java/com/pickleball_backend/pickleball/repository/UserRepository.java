@@ -44,6 +44,29 @@ public interface UserRepository extends JpaRepository<User, Integer> {
             @Param("userType") String userType,
             Pageable pageable);
 
+    // 搜尋索引命中的候選再套用狀態及類型篩選，分頁及排序仍由資料庫處理
+    @Query("SELECT u FROM User u " +
+            "JOIN u.userAccount ua " +
+            "WHERE u.id IN :ids " +
+            "AND (:status IS NULL OR ua.status = :status) " +
+            "AND (:userType IS NULL OR u.userType = :userType)")
+    Page<User> findByFiltersAndIdIn(
+            @Param("ids") java.util.Collection<Integer> ids,
+            @Param("status") String status,
+            @Param("userType") String userType,
+            Pageable pageable);
+
+    // 搜尋索引用，回傳 [userId, username, name, email, accountStatus]
+    @Query("SELECT u.id, ua.username, u.name, u.email, ua.status FROM User u LEFT JOIN u.userAccount ua")
+    List<Object[]> findSearchDocuments();
+
+    // 同上，只載入指定使用者
+    @Query("SELECT u.id, ua.username, u.name, u.email, ua.status FROM User u LEFT JOIN u.userAccount ua WHERE u.id IN :ids")
+    List<Object[]> findSearchDocumentsByIds(@Param("ids") java.util.Collection<Integer> ids);
+
+    @Query("SELECT u FROM User u LEFT JOIN FETCH u.userAccount WHERE u.id IN :ids")
+    List<User> findWithAccountByIdIn(@Param("ids") java.util.Collection<Integer> ids);
+
     java.util.List<User> findTop3ByOrderByCreatedAtDesc();
     
     // Add missing method for top 10 users by creation date
@@ -79,4 +102,6 @@ public interface UserRepository extends JpaRepository<User, Integer> {
     @Query("SELECT u FROM User u JOIN u.userAccount ua WHERE LOWER(ua.username) = LOWER(:username)")
     Optional<User> findByUsernameCaseInsensitive(@Param("username") String username);
 
+    @Query("SELECT u.id FROM User u ORDER BY u.id")
+    List<Integer> findAllIds();
 }
\ No newline at end of file
@@ -63,6 +63,48 @@ public interface UserTypeChangeRequestRepository extends JpaRepository<UserTypeC
             @Param("endDate") LocalDateTime endDate,
             Pageable pageable);
 
+    // Export rows in keyset batches (id descending), returns
+    // [id, userId, userName, userEmail, currentUserType, requestedUserType, status, requestReason, adminNotes, processedBy, processedAt, createdAt]
+    @Query("SELECT r.id, u.id, u.name, u.email, r.currentUserType, r.requestedUserType, r.status, r.requestReason, " +
+           "r.adminNotes, r.processedBy, r.processedAt, r.createdAt " +
+           "FROM UserTypeChangeRequest r JOIN r.user u " +
+           "WHERE (:status IS NULL OR r.status = :status) " +
+           "AND (:requestedUserType IS NULL OR r.requestedUserType = :requestedUserType) " +
+           "AND (:userId IS NULL OR u.id = :userId) " +
+           "AND (:startDate IS NULL OR r.createdAt >= :startDate) " +
+           "AND (:endDate IS NULL OR r.createdAt <= :endDate) " +
+           "AND (:beforeId IS NULL OR r.id < :beforeId) " +
+           "ORDER BY r.id DESC")
+    List<Object[]> findExportRows(
+            @Param("status") UserTypeChangeRequest.RequestStatus status,
+            @Param("requestedUserType") String requestedUserType,
+            @Param("userId") Integer userId,
+            @Param("startDate") LocalDateTime startDate,
+            @Param("endDate") LocalDateTime endDate,
+            @Param("beforeId") Integer beforeId,
+            Pageable pageable);
+
+    // All statistics in one pass, returns
+    // [total, pending, approved, rejected, cancelled, pendingCoach, pendingEventOrganizer, pendingUser,
+    //  averageProcessingHours, sinceWeekAgo, sinceMonthAgo]
+    @Query("SELECT COUNT(r), " +
+           "COALESCE(SUM(CASE WHEN r.status = 'PENDING' THEN 1 ELSE 0 END), 0), " +
+           "COALESCE(SUM(CASE WHEN r.status = 'APPROVED' THEN 1 ELSE 0 END), 0), " +
+           "COALESCE(SUM(CASE WHEN r.status = 'REJECTED' THEN 1 ELSE 0 END), 0), " +
+           "COALESCE(SUM(CASE WHEN r.status = 'CANCELLED' THEN 1 ELSE 0 END), 0), " +
+           "COALESCE(SUM(CASE WHEN r.status = 'PENDING' AND r.requestedUserType = 'Coach' THEN 1 ELSE 0 END), 0), " +
+           "COALESCE(SUM(CASE WHEN r.status = 'PENDING' AND r.requestedUserType = 'EventOrganizer' THEN 1 ELSE 0 END), 0), " +
+           "COALESCE(SUM(CASE WHEN r.status = 'PENDING' AND r.requestedUserType = 'User' THEN 1 ELSE 0 END), 0), " +
+           "AVG(CASE WHEN r.status IN ('APPROVED', 'REJECTED') AND r.processedAt IS NOT NULL " +
+           "    THEN (r.processedAt - r.createdAt) BY HOUR ELSE NULL END), " +
+           "COALESCE(SUM(CASE WHEN r.createdAt BETWEEN :weekAgo AND :now THEN 1 ELSE 0 END), 0), " +
+           "COALESCE(SUM(CASE WHEN r.createdAt BETWEEN :monthAgo AND :now THEN 1 ELSE 0 END), 0) " +
+           "FROM UserTypeChangeRequest r")
+    List<Object[]> aggregateStatistics(
+            @Param("now") LocalDateTime now,
+            @Param("weekAgo") LocalDateTime weekAgo,
+            @Param("monthAgo") LocalDateTime monthAgo);
+
     // Find the latest pending request for a user
     @Query("SELECT r FROM UserTypeChangeRequest r " +
            "WHERE r.user.id = :userId AND r.status = 'PENDING' " +
@@ -18,6 +18,10 @@ public interface UserWarningRepository extends JpaRepository<UserWarning, Intege
     List<UserWarning> findByUsernameOrderByCreatedAtDesc(@Param("username") String username);
 
     long countByUser_Id(Integer userId);
+
+    // 使用者統計：回傳 [userId, warningCount, lastWarningDate]
+    @Query("SELECT w.user.id, COUNT(w), MAX(w.createdAt) FROM UserWarning w WHERE w.user.id IN :userIds GROUP BY w.user.id")
+    List<Object[]> summarizeWarningsByUsers(@Param("userIds") java.util.Collection<Integer> userIds);
 }
 
 
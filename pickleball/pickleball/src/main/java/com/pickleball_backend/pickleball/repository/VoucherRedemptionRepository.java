@@ -2,9 +2,11 @@ package com.pickleball_backend.pickleball.repository;
 
 import com.pickleball_backend.pickleball.entity.VoucherRedemption;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDate;
 import java.util.List;
@@ -37,4 +39,26 @@ public interface VoucherRedemptionRepository extends JpaRepository<VoucherRedemp
     // Find redemptions by user ID and multiple statuses (for active and restored vouchers)
     @Query("SELECT vr FROM VoucherRedemption vr WHERE vr.userId = :userId AND vr.status IN (:statuses) ORDER BY vr.redemptionDate DESC")
     List<VoucherRedemption> findByUserIdAndStatusInOrderByRedemptionDateDesc(@Param("userId") Integer userId, @Param("statuses") List<String> statuses);
-} 
\ No newline at end of file
+
+    // 使用者目前可在結帳使用的優惠券（ACTIVE），連同優惠券折扣一次取回
+    // 回傳 [redemptionId, voucherId, voucherCode, discountType, discountValue, expiryDate]
+    @Query("SELECT vr.id, v.id, v.code, v.discountType, v.discountValue, vr.expiryDate " +
+           "FROM VoucherRedemption vr JOIN vr.voucher v " +
+           "WHERE vr.userId = :userId AND vr.status = 'ACTIVE'")
+    List<Object[]> findActiveVoucherRows(@Param("userId") Integer userId);
+
+    // 條件式標記為已使用：只有本人、仍為 ACTIVE 且未過期的兌換記錄會被更新
+    @Modifying
+    @Transactional
+    @Query("UPDATE VoucherRedemption vr SET vr.status = 'USED' " +
+           "WHERE vr.id = :id AND vr.userId = :userId AND vr.status = 'ACTIVE' " +
+           "AND (vr.expiryDate IS NULL OR vr.expiryDate >= :today)")
+    int markUsedIfActive(@Param("id") Integer id, @Param("userId") Integer userId, @Param("today") LocalDate today);
+
+    // 過期的 ACTIVE 兌換記錄一次標記為 USED
+    @Modifying
+    @Transactional
+    @Query("UPDATE VoucherRedemption vr SET vr.status = 'USED' " +
+           "WHERE vr.expiryDate < :today AND vr.status = 'ACTIVE'")
+    int expireActiveRedemptions(@Param("today") LocalDate today);
+}
@@ -2,6 +2,7 @@ package com.pickleball_backend.pickleball.repository;
 
 import com.pickleball_backend.pickleball.entity.Voucher;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import java.util.List;
 
 public interface VoucherRepository extends JpaRepository<Voucher, Integer> {
@@ -14,4 +15,8 @@ public interface VoucherRepository extends JpaRepository<Voucher, Integer> {
     
     // Find vouchers with no tier restriction (tier_id is null)
     List<Voucher> findByTierIsNullAndMemberIsNull();
-}
\ No newline at end of file
+
+    // 尚未被兌換的優惠券（等級專屬及不限等級），供優惠券目錄快照使用
+    @Query("SELECT v FROM Voucher v LEFT JOIN FETCH v.tier WHERE v.member IS NULL ORDER BY v.id")
+    List<Voucher> findCatalogueVouchers();
+}
@@ -2,9 +2,13 @@ package com.pickleball_backend.pickleball.repository;
 
 import com.pickleball_backend.pickleball.entity.Wallet;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
+import java.util.List;
 import java.util.Optional;
 
 public interface WalletRepository extends JpaRepository<Wallet, Integer> {
@@ -16,4 +20,51 @@ public interface WalletRepository extends JpaRepository<Wallet, Integer> {
     
     // Add missing method for finding wallet by member ID
     Optional<Wallet> findByMember_Id(Integer memberId);
-}
\ No newline at end of file
+
+    // 以下為原子更新，條件不成立時不更新任何資料列（回傳 0）。
+    // 使用原生 SQL：欄位的 columnDefinition 含 DEFAULT，JPQL 算術會被轉成無效的 cast(? as DECIMAL(10,2) DEFAULT 0.00)
+    @Modifying(flushAutomatically = true)
+    @Transactional
+    @Query(value = "UPDATE wallet SET balance = balance - :amount, total_spent = total_spent + :spent, " +
+            "last_updated = :now WHERE id = :walletId AND balance >= :amount", nativeQuery = true)
+    int debitIfSufficient(@Param("walletId") Integer walletId,
+                          @Param("amount") double amount,
+                          @Param("spent") double spent,
+                          @Param("now") LocalDateTime now);
+
+    @Modifying(flushAutomatically = true)
+    @Transactional
+    @Query(value = "UPDATE wallet SET balance = balance + :amount, total_deposited = total_deposited + :deposited, " +
+            "total_spent = total_spent - :refunded, last_updated = :now " +
+            "WHERE id = :walletId AND balance + :amount <= :maxBalance", nativeQuery = true)
+    int creditWithinLimit(@Param("walletId") Integer walletId,
+                          @Param("amount") double amount,
+                          @Param("deposited") double deposited,
+                          @Param("refunded") double refunded,
+                          @Param("maxBalance") double maxBalance,
+                          @Param("now") LocalDateTime now);
+
+    @Modifying(flushAutomatically = true)
+    @Transactional
+    @Query(value = "UPDATE wallet SET balance = balance - :amount, frozen_balance = frozen_balance + :amount, " +
+            "last_updated = :now WHERE id = :walletId AND balance >= :amount", nativeQuery = true)
+    int freezeIfSufficient(@Param("walletId") Integer walletId,
+                           @Param("amount") double amount,
+                           @Param("now") LocalDateTime now);
+
+    @Modifying(flushAutomatically = true)
+    @Transactional
+    @Query(value = "UPDATE wallet SET balance = balance + :amount, frozen_balance = frozen_balance - :amount, " +
+            "last_updated = :now WHERE id = :walletId AND frozen_balance >= :amount", nativeQuery = true)
+    int unfreezeIfSufficient(@Param("walletId") Integer walletId,
+                             @Param("amount") double amount,
+                             @Param("now") LocalDateTime now);
+
+    // 更新後讀回目前數值，回傳 [balance, frozenBalance, totalDeposited, totalSpent]
+    @Query("SELECT w.balance, w.frozenBalance, w.totalDeposited, w.totalSpent FROM Wallet w WHERE w.id = :walletId")
+    List<Object[]> findBalances(@Param("walletId") Integer walletId);
+
+    // 回傳 [walletId, memberId]（memberId 即 userId）
+    @Query("SELECT w.id, w.member.id FROM Wallet w WHERE w.id IN :walletIds")
+    List<Object[]> findMemberIdsByWalletIds(@Param("walletIds") java.util.Collection<Integer> walletIds);
+}
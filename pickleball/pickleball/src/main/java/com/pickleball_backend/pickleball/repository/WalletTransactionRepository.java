@@ -41,4 +41,11 @@ public interface WalletTransactionRepository extends JpaRepository<WalletTransac
     
     // Add missing method for finding transactions by wallet ID
     List<WalletTransaction> findByWallet_Id(Integer walletId);
+
+    // 使用者統計：回傳 [userId, transactionCount, depositTotal, withdrawalTotal]
+    @Query("SELECT w.member.id, COUNT(wt), " +
+           "COALESCE(SUM(CASE WHEN wt.transactionType = 'DEPOSIT' THEN wt.amount ELSE 0 END), 0), " +
+           "COALESCE(SUM(CASE WHEN wt.transactionType = 'WITHDRAWAL' THEN wt.amount ELSE 0 END), 0) " +
+           "FROM WalletTransaction wt JOIN wt.wallet w WHERE w.member.id IN :userIds GROUP BY w.member.id")
+    List<Object[]> summarizeTransactionsByUsers(@Param("userIds") java.util.Collection<Integer> userIds);
 } 
\ No newline at end of file
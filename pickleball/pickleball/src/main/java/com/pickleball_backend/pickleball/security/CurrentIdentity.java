@@ -0,0 +1,12 @@
+package com.pickleball_backend.pickleball.security;
+
+/**
+ * 目前登入者的帳號、使用者、會員及錢包 id；沒有會員或錢包時對應欄位為 null
+ */
+public record CurrentIdentity(Integer accountId, String username, String accountStatus,
+                              Integer userId, Integer memberId, Integer walletId) {
+
+    public boolean isComplete() {
+        return memberId != null && walletId != null;
+    }
+}
@@ -0,0 +1,109 @@
+package com.pickleball_backend.pickleball.security;
+
+import com.pickleball_backend.pickleball.event.MemberChangedEvent;
+import com.pickleball_backend.pickleball.event.UserAccountChangedEvent;
+import com.pickleball_backend.pickleball.exception.ResourceNotFoundException;
+import com.pickleball_backend.pickleball.repository.UserAccountRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 解析目前登入者的身分：同一個 HTTP 請求內只解析一次（存在 request attribute），
+ * 跨請求另有短時間的 username → ids 快取。帳號寫入或會員刪除後失效；
+ * 尚未建立會員或錢包的身分不跨請求快取，建立後下一個請求即可取得新的 id。
+ */
+@Component
+@RequiredArgsConstructor
+public class IdentityResolver {
+
+    private static final String REQUEST_ATTRIBUTE = IdentityResolver.class.getName() + ".identity";
+    private static final long TTL_MILLIS = 60_000;
+
+    private final UserAccountRepository userAccountRepository;
+
+    private final Map<String, Entry> identities = new ConcurrentHashMap<>();
+
+    /**
+     * 目前登入者的身分，找不到帳號時拋出 ResourceNotFoundException
+     */
+    public CurrentIdentity current() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication == null) {
+            throw new ResourceNotFoundException("User account not found");
+        }
+        String username = authentication.getName();
+
+        RequestAttributes request = RequestContextHolder.getRequestAttributes();
+        if (request != null && request.getAttribute(REQUEST_ATTRIBUTE, RequestAttributes.SCOPE_REQUEST) instanceof CurrentIdentity cached
+                && cached.username().equals(username)) {
+            return cached;
+        }
+
+        CurrentIdentity identity = resolve(username);
+        if (request != null) {
+            request.setAttribute(REQUEST_ATTRIBUTE, identity, RequestAttributes.SCOPE_REQUEST);
+        }
+        return identity;
+    }
+
+    /**
+     * 本次請求中建立了會員或錢包後呼叫，讓後續呼叫重新解析
+     */
+    public void refresh() {
+        RequestAttributes request = RequestContextHolder.getRequestAttributes();
+        if (request != null) {
+            request.removeAttribute(REQUEST_ATTRIBUTE, RequestAttributes.SCOPE_REQUEST);
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onUserAccountChanged(UserAccountChangedEvent event) {
+        if (event.getUsername() != null) {
+            identities.remove(event.getUsername());
+        }
+        // 使用者名稱可能已變更，舊名稱的快取一併移除
+        identities.values().removeIf(entry -> entry.identity.accountId().equals(event.getAccountId()));
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onMemberChanged(MemberChangedEvent event) {
+        if (event.isRemoved()) {
+            identities.values().removeIf(entry -> event.getMemberId().equals(entry.identity.memberId()));
+        }
+    }
+
+    private CurrentIdentity resolve(String username) {
+        long now = System.currentTimeMillis();
+        Entry entry = identities.get(username);
+        if (entry != null && entry.expiresAt > now) {
+            return entry.identity;
+        }
+
+        List<Object[]> rows = userAccountRepository.findIdentityRows(username);
+        if (rows.isEmpty()) {
+            identities.remove(username);
+            throw new ResourceNotFoundException("User account not found");
+        }
+        Object[] row = rows.get(0);
+        CurrentIdentity identity = new CurrentIdentity((Integer) row[0], (String) row[1], (String) row[2],
+                (Integer) row[3], (Integer) row[4], (Integer) row[5]);
+        if (identity.isComplete()) {
+            identities.put(username, new Entry(identity, now + TTL_MILLIS));
+        } else {
+            identities.remove(username);
+        }
+        return identity;
+    }
+
+    private record Entry(CurrentIdentity identity, long expiresAt) {
+    }
+}
@@ -3,5 +3,8 @@ package com.pickleball_backend.pickleball.service;
 import com.pickleball_backend.pickleball.dto.AboutUsStatisticsDto;
 
 public interface AboutUsService {
+    // 從未成功算出統計時，下一次重試前至少間隔的時間
+    long RETRY_AFTER_FAILURE_MS = 30_000;
+
     AboutUsStatisticsDto getAboutUsStatistics();
 }
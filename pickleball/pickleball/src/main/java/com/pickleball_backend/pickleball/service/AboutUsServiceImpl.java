@@ -4,8 +4,16 @@ import com.pickleball_backend.pickleball.dto.AboutUsStatisticsDto;
 import com.pickleball_backend.pickleball.repository.*;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 
+/**
+ * About Us 頁面的公開統計：背景每隔幾分鐘以 COUNT/AVG 查詢重算一次，請求一律從記憶體回傳，
+ * 未登入的訪客無法藉由這個頁面對資料庫產生負載。
+ * 從未成功重算過時不回傳默認的 0，改丟出 IllegalStateException，重試間隔至少 {@link #RETRY_AFTER_FAILURE_MS}。
+ */
 @Service
 @RequiredArgsConstructor
 @Slf4j
@@ -16,13 +24,37 @@ public class AboutUsServiceImpl implements AboutUsService {
     private final FeedbackRepository feedbackRepository;
     private final BookingRepository bookingRepository;
 
+    private volatile AboutUsStatisticsDto snapshot;
+    private volatile long lastFailureAt;
+
     @Override
     public AboutUsStatisticsDto getAboutUsStatistics() {
-        try {
-            log.info("Fetching About Us statistics");
+        AboutUsStatisticsDto current = snapshot;
+        if (current != null) {
+            return current;
+        }
+        // 啟動後第一次重算完成前的請求：只有一個執行緒查詢，其餘等待同一份結果；剛失敗過則不再查詢
+        synchronized (this) {
+            if (snapshot == null && System.currentTimeMillis() - lastFailureAt >= RETRY_AFTER_FAILURE_MS) {
+                refreshStatistics();
+            }
+            if (snapshot == null) {
+                throw new IllegalStateException("About Us statistics are not available yet");
+            }
+            return snapshot;
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        refreshStatistics();
+    }
 
+    @Scheduled(fixedDelay = 300000, initialDelay = 300000)
+    public void refreshStatistics() {
+        try {
             // 1. Active Courts - 活躍的球場數量（未封存的球場）
-            long activeCourts = courtRepository.findByIsArchivedFalseOrIsArchivedIsNull().size();
+            long activeCourts = courtRepository.countByIsArchivedFalseOrIsArchivedIsNull();
 
             // 2. Total Members - 總成員數量（所有用戶）
             long totalMembers = userRepository.count();
@@ -32,29 +64,21 @@ public class AboutUsServiceImpl implements AboutUsService {
             double averageRating = avgRating != null ? avgRating : 0.0;
 
             // 4. Matches Played - 已完成的比賽數量（已完成的預訂）
-            long matchesPlayed = bookingRepository.findAll().stream()
-                    .filter(booking -> "COMPLETED".equals(booking.getStatus()))
-                    .count();
-
-            log.info("About Us statistics calculated - Active Courts: {}, Total Members: {}, Average Rating: {}, Matches Played: {}", 
-                    activeCourts, totalMembers, averageRating, matchesPlayed);
+            long matchesPlayed = bookingRepository.countByStatus("COMPLETED");
 
-            return AboutUsStatisticsDto.builder()
+            snapshot = AboutUsStatisticsDto.builder()
                     .activeCourts(activeCourts)
                     .totalMembers(totalMembers)
                     .averageRating(averageRating)
                     .matchesPlayed(matchesPlayed)
                     .build();
+            log.debug("About Us statistics refreshed - Active Courts: {}, Total Members: {}, Average Rating: {}, Matches Played: {}",
+                    activeCourts, totalMembers, averageRating, matchesPlayed);
 
         } catch (Exception e) {
             log.error("Error calculating About Us statistics", e);
-            // 返回默認值以防錯誤
-            return AboutUsStatisticsDto.builder()
-                    .activeCourts(0)
-                    .totalMembers(0)
-                    .averageRating(0.0)
-                    .matchesPlayed(0)
-                    .build();
+            // 保留上一份統計；從未成功過時維持沒有統計，不讓全為 0 的結果被快取
+            lastFailureAt = System.currentTimeMillis();
         }
     }
 }
@@ -0,0 +1,85 @@
+package com.pickleball_backend.pickleball.service;
+
+import com.pickleball_backend.pickleball.event.VoucherChangedEvent;
+import com.pickleball_backend.pickleball.event.VoucherRedemptionChangedEvent;
+import com.pickleball_backend.pickleball.repository.VoucherRedemptionRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 每位使用者可在結帳使用的優惠券（ACTIVE 兌換記錄及其折扣），供預訂結帳時直接查表。
+ * 兌換或使用後由 {@link VoucherRedemptionChangedEvent} 失效，優惠券折扣修改後全部失效；
+ * 過期由查表時的日期判斷及結帳時的條件式 UPDATE 把關，批量過期處理不需要通知。
+ */
+@Service
+@RequiredArgsConstructor
+public class ActiveVoucherCache {
+
+    private final VoucherRedemptionRepository redemptionRepository;
+
+    private final Map<Integer, Map<Integer, ActiveVoucher>> vouchersByUser = new ConcurrentHashMap<>();
+    private final AtomicLong generation = new AtomicLong();
+
+    /**
+     * 使用者目前可用的兌換記錄；不存在、不屬於該使用者或已過期時回傳 null
+     */
+    public ActiveVoucher find(Integer userId, Integer redemptionId, LocalDate today) {
+        ActiveVoucher voucher = load(userId).get(redemptionId);
+        if (voucher == null) {
+            // 快取中沒有時重新載入一次，涵蓋未經 VoucherRedemptionService 寫入的兌換記錄
+            evict(userId);
+            voucher = load(userId).get(redemptionId);
+        }
+        if (voucher == null || (voucher.expiryDate() != null && voucher.expiryDate().isBefore(today))) {
+            return null;
+        }
+        return voucher;
+    }
+
+    public void evict(Integer userId) {
+        generation.incrementAndGet();
+        vouchersByUser.remove(userId);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onVoucherRedemptionChanged(VoucherRedemptionChangedEvent event) {
+        evict(event.getUserId());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onVoucherChanged(VoucherChangedEvent event) {
+        generation.incrementAndGet();
+        vouchersByUser.clear();
+    }
+
+    private Map<Integer, ActiveVoucher> load(Integer userId) {
+        Map<Integer, ActiveVoucher> cached = vouchersByUser.get(userId);
+        if (cached != null) {
+            return cached;
+        }
+        long startGeneration = generation.get();
+        Map<Integer, ActiveVoucher> loaded = new HashMap<>();
+        for (Object[] row : redemptionRepository.findActiveVoucherRows(userId)) {
+            ActiveVoucher voucher = new ActiveVoucher((Integer) row[0], (Integer) row[1], (String) row[2],
+                    (String) row[3], (Double) row[4], (LocalDate) row[5]);
+            loaded.put(voucher.redemptionId(), voucher);
+        }
+        loaded = Map.copyOf(loaded);
+        // 載入期間若有兌換記錄變更則不寫入快取
+        if (generation.get() == startGeneration) {
+            vouchersByUser.put(userId, loaded);
+        }
+        return loaded;
+    }
+
+    public record ActiveVoucher(Integer redemptionId, Integer voucherId, String voucherCode,
+                                String discountType, Double discountValue, LocalDate expiryDate) {
+    }
+}
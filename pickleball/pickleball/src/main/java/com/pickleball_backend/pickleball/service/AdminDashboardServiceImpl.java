@@ -12,7 +12,6 @@ import com.pickleball_backend.pickleball.repository.SlotRepository;
 import com.pickleball_backend.pickleball.repository.PaymentRepository;
 import com.pickleball_backend.pickleball.repository.MemberRepository;
 import com.pickleball_backend.pickleball.repository.WalletRepository;
-import com.pickleball_backend.pickleball.repository.WalletTransactionRepository;
 import com.pickleball_backend.pickleball.repository.UserAccountRepository;
 import com.pickleball_backend.pickleball.repository.CancellationRequestRepository;
 import com.pickleball_backend.pickleball.repository.AdminRepository;
@@ -68,7 +67,7 @@ public class AdminDashboardServiceImpl implements AdminDashboardService {
     private final MemberRepository memberRepository;
     private final UserRepository userRepository;
     private final WalletRepository walletRepository;
-    private final WalletTransactionRepository walletTransactionRepository;
+    private final WalletLedgerService walletLedgerService;
     private final UserAccountRepository userAccountRepository;
     private final CancellationRequestRepository cancellationRequestRepository;
     private final BookingRepository bookingRepository;
@@ -183,14 +182,11 @@ public class AdminDashboardServiceImpl implements AdminDashboardService {
         Wallet wallet = walletRepository.findByMemberId(booking.getMember().getId())
             .orElseThrow(() -> new RuntimeException("Wallet not found"));
         
-        double balanceBefore = wallet.getBalance();
-        wallet.setBalance(wallet.getBalance() + refund);
-        wallet.setTotalSpent(wallet.getTotalSpent() - refund); // 退款時減少總支出
-        walletRepository.save(wallet);
-        
-        // 创建退款交易记录
-        createWalletTransaction(wallet, "REFUND", refund, balanceBefore, wallet.getBalance(), 
-                              "BOOKING", booking.getId(), "Booking cancellation refund (50%) - Admin cancelled");
+        // 原子退款入帳（減少總支出）並寫入退款交易记录
+        if (refund > 0) {
+            walletLedgerService.refund(wallet, refund, "BOOKING", booking.getId(),
+                    "Booking cancellation refund (50%) - Admin cancelled");
+        }
 
         // 5. 扣除積分（扣除50%的積分，與退款比例一致）
         Member member = booking.getMember();
@@ -1550,24 +1546,4 @@ public class AdminDashboardServiceImpl implements AdminDashboardService {
             return null;
         }
     }
-
-    private void createWalletTransaction(Wallet wallet, String transactionType, double amount, 
-                                       double balanceBefore, double balanceAfter, 
-                                       String referenceType, Integer referenceId, String description) {
-        WalletTransaction transaction = new WalletTransaction();
-        transaction.setWalletId(wallet.getId());
-        transaction.setTransactionType(transactionType);
-        transaction.setAmount(amount);
-        transaction.setBalanceBefore(balanceBefore);
-        transaction.setBalanceAfter(balanceAfter);
-        transaction.setFrozenBefore(wallet.getFrozenBalance());
-        transaction.setFrozenAfter(wallet.getFrozenBalance());
-        transaction.setReferenceType(referenceType);
-        transaction.setReferenceId(referenceId);
-        transaction.setDescription(description);
-        transaction.setStatus("COMPLETED");
-        transaction.setProcessedAt(java.time.LocalDateTime.now());
-        
-        walletTransactionRepository.save(transaction);
-    }
 }
\ No newline at end of file
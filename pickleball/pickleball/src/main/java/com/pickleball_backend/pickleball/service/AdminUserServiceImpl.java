@@ -49,6 +49,8 @@ import java.util.ArrayList;
 public class AdminUserServiceImpl implements AdminUserService {
 
     private static final Logger log = LoggerFactory.getLogger(AdminUserServiceImpl.class);
+    // 搜尋索引命中超過此筆數時改用資料庫 LIKE 查詢，避免 IN 清單過長
+    private static final int ADMIN_SEARCH_CANDIDATE_LIMIT = 1000;
     
     private final UserRepository userRepository;
     private final UserAccountRepository userAccountRepository;
@@ -63,6 +65,9 @@ public class AdminUserServiceImpl implements AdminUserService {
     private final TierService tierService;
     private final WalletRepository walletRepository;
     private final WalletTransactionRepository walletTransactionRepository;
+    private final MemberActivityLeaderboardService leaderboardService;
+    private final UserActivityStatsService activityStatsService;
+    private final SearchIndexService searchIndexService;
 
     @Value("${app.moderation.warning-threshold:3}")
     private int warningThreshold;
@@ -75,12 +80,28 @@ public class AdminUserServiceImpl implements AdminUserService {
         try {
             log.info("Fetching users with filters - search: {}, status: {}, userType: {}", search, status, userType);
             
-            Page<User> usersPage = userRepository.findByFilters(
-                    StringUtils.hasText(search) ? "%" + search + "%" : null,
-                    StringUtils.hasText(status) ? status : null,
-                    StringUtils.hasText(userType) ? userType : null,
-                    pageable
-            );
+            // 符合筆數不多時由搜尋索引取得候選 id，避免 LIKE '%q%' 全表掃描
+            List<Integer> candidateIds = StringUtils.hasText(search)
+                    ? searchIndexService.findUserIdsByNameOrEmail(search, ADMIN_SEARCH_CANDIDATE_LIMIT)
+                    : null;
+            Page<User> usersPage;
+            if (candidateIds != null && candidateIds.isEmpty()) {
+                usersPage = Page.empty(pageable);
+            } else if (candidateIds != null) {
+                usersPage = userRepository.findByFiltersAndIdIn(
+                        candidateIds,
+                        StringUtils.hasText(status) ? status : null,
+                        StringUtils.hasText(userType) ? userType : null,
+                        pageable
+                );
+            } else {
+                usersPage = userRepository.findByFilters(
+                        StringUtils.hasText(search) ? "%" + search + "%" : null,
+                        StringUtils.hasText(status) ? status : null,
+                        StringUtils.hasText(userType) ? userType : null,
+                        pageable
+                );
+            }
 
             List<AdminUserDto> dtos = usersPage.getContent().stream()
                     .map(dashboardService::convertToAdminUserDto)
@@ -762,173 +783,20 @@ public class AdminUserServiceImpl implements AdminUserService {
 
     @Override
     public UserStatisticsDto getUserStatistics(Integer userId) {
-        try {
-            log.info("Fetching statistics for user: {}", userId);
-            
-            User user = userRepository.findById(userId)
-                    .orElseThrow(() -> new ResourceNotFoundException("User", "id", userId));
-            
-            UserAccount account = user.getUserAccount();
-            Member member = user.getMember();
-            
-            // 获取预订统计
-            List<Booking> bookings = bookingRepository.findByMember_User_Id(userId);
-            long totalBookings = bookings.size();
-            long completedBookings = bookings.stream().filter(b -> "COMPLETED".equals(b.getStatus())).count();
-            long cancelledBookings = bookings.stream().filter(b -> "CANCELLED".equals(b.getStatus())).count();
-            double totalSpent = bookings.stream().mapToDouble(Booking::getTotalAmount).sum();
-            
-            // 获取反馈统计
-            List<Feedback> feedbacks = feedbackRepository.findByUser_Id(userId);
-            long totalFeedbacks = feedbacks.size();
-            double averageRating = feedbacks.stream().mapToDouble(Feedback::getRating).average().orElse(0.0);
-            
-            // 获取警告统计
-            long totalWarnings = userWarningRepository.countByUser_Id(userId);
-            
-            // 获取钱包统计
-            double currentWalletBalance = 0.0;
-            double totalWalletDeposits = 0.0;
-            double totalWalletWithdrawals = 0.0;
-            long totalWalletTransactions = 0;
-            
-            if (member != null) {
-                Wallet wallet = walletRepository.findByMember_Id(member.getId()).orElse(null);
-                if (wallet != null) {
-                    currentWalletBalance = wallet.getBalance();
-                    List<WalletTransaction> transactions = walletTransactionRepository.findByWallet_Id(wallet.getId());
-                    totalWalletTransactions = transactions.size();
-                    totalWalletDeposits = transactions.stream()
-                            .filter(t -> "DEPOSIT".equals(t.getTransactionType()))
-                            .mapToDouble(WalletTransaction::getAmount)
-                            .sum();
-                    totalWalletWithdrawals = transactions.stream()
-                            .filter(t -> "WITHDRAWAL".equals(t.getTransactionType()))
-                            .mapToDouble(WalletTransaction::getAmount)
-                            .sum();
-                }
-            }
-            
-            // 计算时间统计
-            long daysSinceRegistration = user.getCreatedAt() != null ? 
-                    java.time.temporal.ChronoUnit.DAYS.between(user.getCreatedAt(), LocalDateTime.now()) : 0;
-            
-            LocalDateTime lastBookingDate = bookings.stream()
-                    .map(Booking::getBookingDate)
-                    .max(LocalDateTime::compareTo)
-                    .orElse(null);
-            
-            LocalDateTime lastFeedbackDate = feedbacks.stream()
-                    .map(Feedback::getCreatedAt)
-                    .max(LocalDateTime::compareTo)
-                    .orElse(null);
-            
-            long daysSinceLastActivity = 0;
-            if (lastBookingDate != null || lastFeedbackDate != null) {
-                LocalDateTime lastActivity = lastBookingDate != null && lastFeedbackDate != null ?
-                        lastBookingDate.isAfter(lastFeedbackDate) ? lastBookingDate : lastFeedbackDate :
-                        lastBookingDate != null ? lastBookingDate : lastFeedbackDate;
-                daysSinceLastActivity = java.time.temporal.ChronoUnit.DAYS.between(lastActivity, LocalDateTime.now());
-            }
-            
-            // 计算月平均预订
-            long averageBookingsPerMonth = daysSinceRegistration > 0 ? 
-                    (totalBookings * 30) / daysSinceRegistration : 0;
-            
-            return UserStatisticsDto.builder()
-                    .userId(user.getId())
-                    .username(account != null ? account.getUsername() : null)
-                    .name(user.getName())
-                    .email(user.getEmail())
-                    .userType(user.getUserType())
-                    .status(account != null ? account.getStatus() : null)
-                    .tier(member != null && member.getTier() != null ? member.getTier().getTierName() : null)
-                    .pointBalance(member != null ? member.getTierPointBalance() : 0)
-                    .createdAt(user.getCreatedAt())
-                    .totalBookings(totalBookings)
-                    .completedBookings(completedBookings)
-                    .cancelledBookings(cancelledBookings)
-                    .totalSpent((long) totalSpent)
-                    .totalFeedbacks(totalFeedbacks)
-                    .totalWarnings(totalWarnings)
-                    .totalWalletTransactions(totalWalletTransactions)
-                    .daysSinceRegistration(daysSinceRegistration)
-                    .daysSinceLastActivity(daysSinceLastActivity)
-                    .averageBookingsPerMonth(averageBookingsPerMonth)
-                    .averageRating(averageRating)
-                    .totalRatings(totalFeedbacks)
-                    .currentWalletBalance(currentWalletBalance)
-                    .totalWalletDeposits(totalWalletDeposits)
-                    .totalWalletWithdrawals(totalWalletWithdrawals)
-                    .currentTier(member != null && member.getTier() != null ? member.getTier().getTierName() : null)
-                    .tierPoints(member != null ? member.getTierPointBalance() : 0)
-                    .lastBookingDate(lastBookingDate)
-                    .lastFeedbackDate(lastFeedbackDate)
-                    .warningCount(totalWarnings)
-                    .build();
-                    
-        } catch (ResourceNotFoundException e) {
-            throw e;
-        } catch (Exception e) {
-            log.error("Error fetching user statistics for {}: {}", userId, e.getMessage(), e);
-            throw new RuntimeException("Failed to fetch user statistics", e);
-        }
+        // 读取预先计算的 user_activity_stats，不再载入所有预订、反馈及钱包交易
+        return activityStatsService.getUserStatistics(userId);
     }
 
     @Override
     public List<UserStatisticsDto> getTopUsersByActivity(int limit) {
-        try {
-            log.info("Fetching top {} users by activity", limit);
-            
-            // 获取所有会员用户
-            List<Member> members = memberRepository.findAll();
-            List<UserStatisticsDto> userStats = new ArrayList<>();
-            
-            for (Member member : members) {
-                if (member.getUser() != null) {
-                    try {
-                        UserStatisticsDto stats = getUserStatistics(member.getUser().getId());
-                        userStats.add(stats);
-                    } catch (Exception e) {
-                        log.warn("Failed to get statistics for user {}: {}", member.getUser().getId(), e.getMessage());
-                    }
-                }
-            }
-            
-            // 按总预订数排序
-            userStats.sort((a, b) -> Long.compare(b.getTotalBookings(), a.getTotalBookings()));
-            
-            return userStats.stream().limit(limit).collect(Collectors.toList());
-        } catch (Exception e) {
-            log.error("Error fetching top users by activity: {}", e.getMessage(), e);
-            throw new RuntimeException("Failed to fetch top users", e);
-        }
+        // 排行榜统计只包含预订相关字段，完整统计请用 getUserStatistics
+        return leaderboardService.getTopUsers(MemberActivityLeaderboardService.Window.ALL_TIME, limit);
     }
 
     @Override
     public List<UserStatisticsDto> getUsersByTier(String tierName) {
-        try {
-            log.info("Fetching users by tier: {}", tierName);
-            
-            List<Member> members = memberRepository.findByTier_TierName(tierName);
-            List<UserStatisticsDto> userStats = new ArrayList<>();
-            
-            for (Member member : members) {
-                if (member.getUser() != null) {
-                    try {
-                        UserStatisticsDto stats = getUserStatistics(member.getUser().getId());
-                        userStats.add(stats);
-                    } catch (Exception e) {
-                        log.warn("Failed to get statistics for user {}: {}", member.getUser().getId(), e.getMessage());
-                    }
-                }
-            }
-            
-            return userStats;
-        } catch (Exception e) {
-            log.error("Error fetching users by tier {}: {}", tierName, e.getMessage(), e);
-            throw new RuntimeException("Failed to fetch users by tier", e);
-        }
+        log.info("Fetching users by tier: {}", tierName);
+        return activityStatsService.getUsersByTier(tierName);
     }
 
     @Override
@@ -2,12 +2,22 @@ package com.pickleball_backend.pickleball.service;
 
 import com.pickleball_backend.pickleball.dto.*;
 import com.pickleball_backend.pickleball.entity.*;
+import com.pickleball_backend.pickleball.event.MemberPointsChangedEvent;
+import com.pickleball_backend.pickleball.event.UserActivityChangedEvent;
 import com.pickleball_backend.pickleball.exception.ResourceNotFoundException;
 import com.pickleball_backend.pickleball.exception.ValidationException;
 import com.pickleball_backend.pickleball.exception.ConflictException;
 import com.pickleball_backend.pickleball.exception.UnauthorizedException;
 import com.pickleball_backend.pickleball.repository.*;
+import com.pickleball_backend.pickleball.security.CurrentIdentity;
+import com.pickleball_backend.pickleball.security.IdentityResolver;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -19,9 +29,13 @@ import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.LocalTime;
 import java.time.format.DateTimeParseException;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
 import java.util.stream.Collectors;
 import java.util.ArrayList;
 import java.util.UUID;
@@ -41,40 +55,51 @@ public class BookingService {
     private final BookingSlotRepository bookingSlotRepository;
     private final UserRepository userRepository;
     private final WalletRepository walletRepository;
-    private final WalletTransactionRepository walletTransactionRepository;
+    private final WalletLedgerService walletLedgerService;
     private final FeedbackRepository feedbackRepository;
     private final FriendlyMatchService friendlyMatchService;
-    private final TierService tierService;
+    private final ApplicationEventPublisher eventPublisher;
     private final ClassSessionRepository classSessionRepository;
     private final VoucherRedemptionService voucherRedemptionService; // 新增：優惠券服務
     private final EventRegistrationRepository eventRegistrationRepository; // 新增：事件註冊倉庫
     private final EventRepository eventRepository; // 新增：事件倉庫
     private final MemberService memberService; // 新增：會員服務
+    private final IdentityResolver identityResolver;
     private static final Logger log = LoggerFactory.getLogger(BookingService.class);
 
     private static final String CANCELLED_STATUS = "CANCELLED";
 
     @Transactional
     public BookingResponseDto bookCourt(BookingRequestDto request) {
-        // 1. Get authenticated user
-        String username = SecurityContextHolder.getContext().getAuthentication().getName();
-        UserAccount account = userAccountRepository.findByUsername(username)
-                .orElseThrow(() -> new ResourceNotFoundException("User account not found"));
+        // 1. Get authenticated user（同一請求內只解析一次）
+        CurrentIdentity identity = identityResolver.current();
 
         // 2. Validate user status - prevent suspended/inactive users from booking
-        if ("SUSPENDED".equals(account.getStatus()) || "INACTIVE".equals(account.getStatus())) {
-            throw new UnauthorizedException("Your account is " + account.getStatus().toLowerCase() + 
+        if ("SUSPENDED".equals(identity.accountStatus()) || "INACTIVE".equals(identity.accountStatus())) {
+            throw new UnauthorizedException("Your account is " + identity.accountStatus().toLowerCase() + 
                 ". You cannot make bookings. Please contact support for assistance.");
         }
 
         // 3. Get member
-        Member member = memberRepository.findByUserId(account.getUser().getId());
+        Member member = identity.memberId() != null
+                ? memberRepository.findById(identity.memberId()).orElse(null)
+                : null;
         if (member == null) {
             throw new ResourceNotFoundException("Member not found");
         }
 
+        // 重送同一結帳請求時直接回傳原本的預訂，不再扣款或使用優惠券
+        String idempotencyKey = normalizeIdempotencyKey(request.getIdempotencyKey());
+        if (idempotencyKey != null) {
+            Optional<Booking> existing = bookingRepository.findByMember_IdAndIdempotencyKey(member.getId(), idempotencyKey);
+            if (existing.isPresent()) {
+                log.info("Replaying booking {} for idempotency key {}", existing.get().getId(), idempotencyKey);
+                return replayBooking(existing.get(), member);
+            }
+        }
+
         // 3. Get wallet (create if missing)
-        Wallet wallet = getOrCreateWallet(member);
+        Wallet wallet = getOrCreateWallet(member, identity.walletId());
 
         // 4. 多 slot 合并逻辑
         List<Integer> slotIds = request.getSlotIds() != null && !request.getSlotIds().isEmpty()
@@ -148,28 +173,26 @@ public class BookingService {
         VoucherRedemptionDto appliedVoucher = null;
         
         if (request.getUseVoucher() != null && request.getUseVoucher() && request.getVoucherRedemptionId() != null) {
-            try {
-                appliedVoucher = voucherRedemptionService.useVoucher(request.getVoucherRedemptionId());
-                if (appliedVoucher != null) {
-                    if ("percentage".equals(appliedVoucher.getDiscountType())) {
-                        // 百分比折扣
-                        discountAmount = amount * (appliedVoucher.getDiscountValue() / 100.0);
-                    } else {
-                        // 固定金額折扣
-                        discountAmount = appliedVoucher.getDiscountValue();
-                    }
-                    
-                    // 確保折扣不超過總金額
-                    discountAmount = Math.min(discountAmount, amount);
-                    amount = amount - discountAmount;
-                    
-                    log.info("Applied voucher discount: RM{} ({}% of original RM{})", 
-                            discountAmount, appliedVoucher.getDiscountValue(), originalAmount);
-                }
-            } catch (Exception e) {
-                log.warn("Failed to apply voucher: {}", e.getMessage());
-                // 如果優惠券應用失敗，繼續使用原始金額
+            // 條件式 UPDATE 原子地使用優惠券，同一張優惠券同時結帳只會有一筆成功；
+            // 使用失敗時中止預訂，不以原價默默扣款
+            appliedVoucher = voucherRedemptionService.useVoucherForBooking(member.getUser(), request.getVoucherRedemptionId());
+            if (appliedVoucher == null) {
+                throw new ValidationException("Voucher is not available or has already been used");
+            }
+            if ("percentage".equals(appliedVoucher.getDiscountType())) {
+                // 百分比折扣
+                discountAmount = amount * (appliedVoucher.getDiscountValue() / 100.0);
+            } else {
+                // 固定金額折扣
+                discountAmount = appliedVoucher.getDiscountValue();
             }
+
+            // 確保折扣不超過總金額
+            discountAmount = Math.min(discountAmount, amount);
+            amount = amount - discountAmount;
+
+            log.info("Applied voucher discount: RM{} ({}% of original RM{})",
+                    discountAmount, appliedVoucher.getDiscountValue(), originalAmount);
         }
         
         // 確保 originalAmount 在沒有折扣時也正確設置
@@ -194,20 +217,14 @@ public class BookingService {
                 throw new ValidationException("Insufficient wallet balance. Available: " + wallet.getBalance());
             }
             
-            // 記錄支付前的餘額
-            double balanceBefore = wallet.getBalance();
-            
-            wallet.setBalance(wallet.getBalance() - amount);
-            wallet.setTotalSpent(wallet.getTotalSpent() + amount); // 更新總支出
-            walletRepository.save(wallet);
-            
-            // 創建錢包交易記錄
-            createWalletTransaction(wallet, "PAYMENT", amount, balanceBefore, wallet.getBalance(),
-                "BOOKING", null, 
-                "Court Booking Payment - " + request.getPurpose() + 
-                (request.getNumPaddles() > 0 ? " (Paddles: " + request.getNumPaddles() + ")" : "") +
-                (request.getBuyBallSet() != null && request.getBuyBallSet() ? " (Ball Set)" : "") +
-                (discountAmount > 0 ? " (Voucher: -RM" + discountAmount + ")" : ""));
+            // 原子扣款並計入總支出，同時寫入錢包交易記錄
+            if (amount > 0) {
+                walletLedgerService.debit(wallet, amount, "PAYMENT", "BOOKING", null,
+                    "Court Booking Payment - " + request.getPurpose() + 
+                    (request.getNumPaddles() > 0 ? " (Paddles: " + request.getNumPaddles() + ")" : "") +
+                    (request.getBuyBallSet() != null && request.getBuyBallSet() ? " (Ball Set)" : "") +
+                    (discountAmount > 0 ? " (Voucher: -RM" + discountAmount + ")" : ""));
+            }
             
             payment.setPaymentMethod("WALLET");
             payment.setStatus("COMPLETED");
@@ -234,7 +251,13 @@ public class BookingService {
         booking.setNumberOfPlayers(request.getNumberOfPlayers());
         booking.setNumPaddles(request.getNumPaddles());
         booking.setBuyBallSet(request.getBuyBallSet());
-        booking = bookingRepository.save(booking);
+        booking.setIdempotencyKey(idempotencyKey);
+        try {
+            booking = bookingRepository.save(booking);
+        } catch (DataIntegrityViolationException e) {
+            // 同一冪等鍵的請求同時送達：唯一鍵讓後到的交易回滾，扣款及優惠券使用一併撤銷
+            throw new ConflictException("This booking request is already being processed");
+        }
 
         // 9. Create booking slots
         for (Slot slot : slots) {
@@ -253,14 +276,15 @@ public class BookingService {
         int pointsEarned = (int) Math.round(amount); // 使用實際支付金額計算積分
         String oldTierName = member.getTier() != null ? member.getTier().getTierName() : "NONE";
 
-        member.setTierPointBalance(member.getTierPointBalance() + pointsEarned);
+        int oldTierPoints = member.getTierPointBalance();
+        member.setTierPointBalance(oldTierPoints + pointsEarned);
         member.setRewardPointBalance(member.getRewardPointBalance() + pointsEarned);
         memberRepository.save(member);
         log.info("Added {} tier points and {} reward points to member {} for booking {}",
                 pointsEarned, pointsEarned, member.getId(), booking.getId());
 
         // Automatic tier upgrade check after booking
-        tierService.recalculateMemberTier(member);
+        eventPublisher.publishEvent(new MemberPointsChangedEvent(member.getId(), oldTierPoints, member.getTierPointBalance()));
 
         // 11. Send confirmation email
         try {
@@ -293,6 +317,31 @@ public class BookingService {
         return response;
     }
 
+    private static String normalizeIdempotencyKey(String key) {
+        if (key == null || key.isBlank()) {
+            return null;
+        }
+        key = key.trim();
+        if (key.length() > 64) {
+            throw new ValidationException("Idempotency key must be at most 64 characters");
+        }
+        return key;
+    }
+
+    private BookingResponseDto replayBooking(Booking booking, Member member) {
+        List<Slot> slots = booking.getBookingSlots() == null ? List.of() : booking.getBookingSlots().stream()
+                .map(BookingSlot::getSlot)
+                .sorted((a, b) -> a.getStartTime().compareTo(b.getStartTime()))
+                .collect(Collectors.toList());
+        Court court = slots.isEmpty() ? new Court()
+                : courtRepository.findById(slots.get(0).getCourtId()).orElse(new Court());
+
+        BookingResponseDto response = mapToBookingResponse(booking, court, slots.isEmpty() ? null : slots.get(0));
+        response.setDurationHours(slots.stream().mapToInt(Slot::getDurationHours).sum());
+        response.setWalletBalance(walletRepository.findByMemberId(member.getId()).map(Wallet::getBalance).orElse(0.0));
+        return response;
+    }
+
     private boolean isSlotBooked(Integer slotId) {
         if (slotId == null) return false;
         return bookingSlotRepository.existsBySlotIdAndStatus(slotId, "BOOKED");
@@ -451,14 +500,10 @@ public class BookingService {
             Wallet wallet = walletRepository.findByMemberId(booking.getMember().getId())
                 .orElseThrow(() -> new ResourceNotFoundException("Wallet not found"));
             
-            double balanceBefore = wallet.getBalance();
-            wallet.setBalance(wallet.getBalance() + refund);
-            wallet.setTotalSpent(wallet.getTotalSpent() - refund); // 退款時減少總支出
-            walletRepository.save(wallet);
-            
-            // 创建退款交易记录
-            createWalletTransaction(wallet, "REFUND", refund, balanceBefore, wallet.getBalance(), 
-                                  "BOOKING", booking.getId(), "Booking cancellation refund (50%)");
+            // 原子退款入帳（減少總支出）並寫入退款交易记录
+            if (refund > 0) {
+                walletLedgerService.refund(wallet, refund, "BOOKING", booking.getId(), "Booking cancellation refund (50%)");
+            }
 
             // 6. 扣除積分（扣除50%的積分，與退款比例一致）
             Member member = booking.getMember();
@@ -700,14 +745,10 @@ public class BookingService {
             Wallet wallet = walletRepository.findByMemberId(booking.getMember().getId())
                 .orElseThrow(() -> new ResourceNotFoundException("Wallet not found"));
             
-            double balanceBefore = wallet.getBalance();
-            wallet.setBalance(wallet.getBalance() + refund);
-            wallet.setTotalSpent(wallet.getTotalSpent() - refund); // 退款時減少總支出
-            walletRepository.save(wallet);
-            
-            // 创建退款交易记录
-            createWalletTransaction(wallet, "REFUND", refund, balanceBefore, wallet.getBalance(), 
-                                  "BOOKING", booking.getId(), "Booking cancellation refund (50%) - Admin approved");
+            // 原子退款入帳（減少總支出）並寫入退款交易记录
+            if (refund > 0) {
+                walletLedgerService.refund(wallet, refund, "BOOKING", booking.getId(), "Booking cancellation refund (50%) - Admin approved");
+            }
 
             // 5. 扣除積分（扣除50%的積分，與退款比例一致）
             Member member = booking.getMember();
@@ -794,174 +835,48 @@ public class BookingService {
         return response;
     }
 
+    /**
+     * 分頁查詢場地預訂記錄（唯讀），每頁固定三條查詢：預訂彙總、各時段起訖及已評價的 bookingId
+     */
+    @Transactional(readOnly = true)
+    public Page<BookingHistoryDto> getBookingHistoryPage(Integer memberId, String status, Pageable pageable) {
+        Page<Object[]> rows = bookingRepository.findHistoryRows(memberId, blankToNull(status), pageable);
+        // member 的主鍵即 user_id，可直接用於評價查詢
+        return new PageImpl<>(toHistoryDtos(rows.getContent(), memberId), pageable, rows.getTotalElements());
+    }
+
+    /**
+     * 已結束的預訂改由排程以單一 UPDATE 標記為 COMPLETED，查詢預訂記錄時不再寫入。
+     * 批量 UPDATE 不經過實體監聽器，由此處為相關會員發布統計事件
+     */
+    @Scheduled(cron = "0 */5 * * * *")
+    public void completeFinishedBookings() {
+        LocalDateTime now = LocalDateTime.now();
+        List<Integer> memberIds = bookingRepository.findFinishedBookingMemberIds(now.toLocalDate(), now.toLocalTime());
+        if (memberIds.isEmpty()) {
+            return;
+        }
+        int completed = bookingRepository.completeFinishedBookings(now.toLocalDate(), now.toLocalTime());
+        if (completed > 0) {
+            log.info("Marked {} finished bookings as COMPLETED", completed);
+            // Member 以 user_id 為主鍵，member.id 即 userId
+            memberIds.forEach(memberId -> eventPublisher.publishEvent(UserActivityChangedEvent.forUser(memberId)));
+        }
+    }
+
+    @Transactional(readOnly = true)
     public List<BookingHistoryDto> getBookingHistory(Integer memberId, String status) {
         try {
-            List<Booking> bookings = bookingRepository.findByMemberId(memberId);
-            log.info("Found {} bookings for member {}", bookings.size(), memberId);
-            
             // 獲取事件註冊記錄
             Integer userId = memberRepository.findById(memberId).map(Member::getUser).map(User::getId).orElse(null);
             List<EventRegistration> eventRegistrations = userId != null ? 
                 eventRegistrationRepository.findByUser_Id(userId) : List.of();
             log.info("Found {} event registrations for member {}", eventRegistrations.size(), memberId);
 
-            // 自動修正已過期的CONFIRMED預訂為COMPLETED
-            LocalDateTime now = LocalDateTime.now();
-            boolean updated = false;
-            for (Booking booking : bookings) {
-                if ("CONFIRMED".equalsIgnoreCase(booking.getStatus())) {
-                    // 檢查所有 slots 是否都已過期
-                    boolean allSlotsExpired = true;
-                    if (booking.getBookingSlots() != null && !booking.getBookingSlots().isEmpty()) {
-                        for (BookingSlot bookingSlot : booking.getBookingSlots()) {
-                            Slot slot = bookingSlot.getSlot();
-                            if (slot != null && slot.getDate() != null && slot.getEndTime() != null) {
-                                LocalDateTime endDateTime = LocalDateTime.of(slot.getDate(), slot.getEndTime());
-                                if (endDateTime.isAfter(now)) {
-                                    allSlotsExpired = false;
-                                    break;
-                                }
-                            }
-                        }
-                        if (allSlotsExpired) {
-                            booking.setStatus("COMPLETED");
-                            bookingRepository.save(booking);
-                            updated = true;
-                        }
-                    }
-                }
-            }
-            // 重新獲取最新狀態
-            if (updated) {
-                bookings = bookingRepository.findByMemberId(memberId);
-            }
+            List<BookingHistoryDto> bookingDtos = toHistoryDtos(
+                    bookingRepository.findHistoryRows(memberId, blankToNull(status), Pageable.unpaged()).getContent(), userId);
+            log.info("Found {} bookings for member {}", bookingDtos.size(), memberId);
 
-            List<BookingHistoryDto> bookingDtos = bookings.stream()
-                    .filter(booking -> status == null || booking.getStatus().equalsIgnoreCase(status))
-                    .map(booking -> {
-                        try {
-                            log.debug("Processing booking {} with {} booking slots", 
-                                    booking.getId(), 
-                                    booking.getBookingSlots() != null ? booking.getBookingSlots().size() : 0);
-                            
-                            // 獲取第一個和最後一個 slot 來顯示時間範圍
-                            Slot firstSlot = null;
-                            Slot lastSlot = null;
-                            int totalDuration = 0;
-                            
-                            if (booking.getBookingSlots() != null && !booking.getBookingSlots().isEmpty()) {
-                                // 按時間排序
-                                List<BookingSlot> sortedSlots = booking.getBookingSlots().stream()
-                                        .sorted((a, b) -> a.getSlot().getStartTime().compareTo(b.getSlot().getStartTime()))
-                                        .collect(Collectors.toList());
-                                
-                                firstSlot = sortedSlots.get(0).getSlot();
-                                lastSlot = sortedSlots.get(sortedSlots.size() - 1).getSlot();
-                                
-                                // 計算總時長
-                                totalDuration = sortedSlots.stream()
-                                        .mapToInt(bs -> bs.getSlot().getDurationHours() != null ? bs.getSlot().getDurationHours() : 1)
-                                        .sum();
-                                
-                                log.debug("Booking {} has {} slots, total duration: {}", 
-                                        booking.getId(), sortedSlots.size(), totalDuration);
-                            } else {
-                                log.warn("Booking {} has no booking slots!", booking.getId());
-                            }
-                            
-                            Court court = null;
-                            if (firstSlot != null) {
-                                court = courtRepository.findById(firstSlot.getCourtId()).orElse(new Court());
-                            } else {
-                                // 如果沒有slots，嘗試從booking的其他信息獲取court
-                                log.warn("No slots found for booking {}, trying to get court info from booking", booking.getId());
-                                // 嘗試通過查詢數據庫獲取court信息
-                                try {
-                                    // 查詢這個booking的所有bookingSlots
-                                    List<BookingSlot> bookingSlots = bookingSlotRepository.findByBookingId(booking.getId());
-                                    if (!bookingSlots.isEmpty()) {
-                                        Slot slot = bookingSlots.get(0).getSlot();
-                                        if (slot != null) {
-                                            court = courtRepository.findById(slot.getCourtId()).orElse(new Court());
-                                            log.info("Found court info for booking {} through direct query: {}", booking.getId(), court.getName());
-                                        }
-                                    } else {
-                                        log.error("No booking slots found in database for booking {}", booking.getId());
-                                        court = new Court();
-                                    }
-                                } catch (Exception e) {
-                                    log.error("Error getting court info for booking {}: {}", booking.getId(), e.getMessage());
-                                    court = new Court();
-                                }
-                            }
-                            
-                            // 安全地處理 Payment 信息，避免 null 值問題
-                            Payment payment = booking.getPayment();
-                            if (payment != null) {
-                                // 如果 originalAmount 為 null，設置為 amount
-                                if (payment.getOriginalAmount() == null) {
-                                    payment.setOriginalAmount(payment.getAmount());
-                                }
-                                // discountAmount 是 double 類型，不需要 null 檢查
-                            }
-                            
-                            // 安全地處理 Booking 的折扣信息
-                            if (booking.getOriginalAmount() == null) {
-                                booking.setOriginalAmount(booking.getTotalAmount());
-                            }
-                            if (booking.getDiscountAmount() == null) {
-                                booking.setDiscountAmount(0.0);
-                            }
-                            
-                            BookingHistoryDto dto = new BookingHistoryDto();
-                            dto.setId(booking.getId());
-                            dto.setCourtId(court.getId());
-                            dto.setCourtName(court.getName());
-                            dto.setLocation(court.getLocation());
-                            dto.setDate(firstSlot != null ? firstSlot.getDate() : null);
-                            dto.setStartTime(firstSlot != null ? firstSlot.getStartTime() : null);
-                            dto.setEndTime(lastSlot != null ? lastSlot.getEndTime() : null);
-                            dto.setAmount(booking.getTotalAmount());
-                            dto.setStatus(booking.getStatus());
-                            dto.setCreatedAt(booking.getBookingDate());
-                            dto.setPurpose(booking.getPurpose());
-                            dto.setNumberOfPlayers(booking.getNumberOfPlayers());
-                            dto.setDurationHours(totalDuration);
-                            dto.setNumPaddles(booking.getNumPaddles());
-                            dto.setBuyBallSet(booking.getBuyBallSet());
-                            
-                            // 檢查用戶是否已經評價過這個預訂
-                            boolean hasReviewed = false;
-                            if (booking.getMember() != null && booking.getMember().getUser() != null) {
-                                hasReviewed = feedbackRepository.findByUserId(booking.getMember().getUser().getId()).stream()
-                                        .anyMatch(feedback -> feedback.getBooking() != null 
-                                                && feedback.getBooking().getId().equals(booking.getId()));
-                            }
-                            dto.setHasReviewed(hasReviewed);
-                            dto.setBookingType("COURT_BOOKING"); // 標記為場地預訂
-                            
-                            return dto;
-                        } catch (Exception e) {
-                            log.error("Error processing booking {}: {}", booking.getId(), e.getMessage());
-                            // 返回一個基本的 DTO，避免整個列表失敗
-                            BookingHistoryDto dto = new BookingHistoryDto();
-                            dto.setId(booking.getId());
-                            dto.setStatus(booking.getStatus());
-                            dto.setAmount(booking.getTotalAmount());
-                            dto.setCreatedAt(booking.getBookingDate());
-                            // 嘗試從第一個slot獲取courtId
-                            if (booking.getBookingSlots() != null && !booking.getBookingSlots().isEmpty()) {
-                                Slot firstSlot = booking.getBookingSlots().get(0).getSlot();
-                                if (firstSlot != null) {
-                                    dto.setCourtId(firstSlot.getCourtId());
-                                }
-                            }
-                            dto.setBookingType("COURT_BOOKING"); // 標記為場地預訂
-                            return dto;
-                        }
-                    })
-                    .collect(Collectors.toList());
-            
             // 將事件註冊記錄轉換為 BookingHistoryDto 格式
             List<BookingHistoryDto> eventDtos = eventRegistrations.stream()
                 .map(eventReg -> {
@@ -1062,36 +977,68 @@ public class BookingService {
         }
     }
 
-    private Wallet getOrCreateWallet(Member member) {
-        return walletRepository.findByMemberId(member.getId())
-                .orElseGet(() -> {
+    // 將 findHistoryRows 的彙總列轉為 DTO，時段起訖及評價狀態各以一條查詢批量取得
+    private List<BookingHistoryDto> toHistoryDtos(List<Object[]> rows, Integer userId) {
+        if (rows.isEmpty()) {
+            return new ArrayList<>();
+        }
+        List<Integer> bookingIds = rows.stream().map(row -> (Integer) row[0]).collect(Collectors.toList());
+        Set<Integer> reviewed = userId != null
+                ? new HashSet<>(feedbackRepository.findReviewedBookingIds(userId, bookingIds))
+                : Set.of();
+        // 起始日期與時間取第一個時段，結束時間取最後一個時段
+        Map<Integer, Object[]> firstSlots = new HashMap<>();
+        Map<Integer, Object[]> lastSlots = new HashMap<>();
+        for (Object[] slot : bookingRepository.findSlotTimesByBookingIds(bookingIds)) {
+            firstSlots.putIfAbsent((Integer) slot[0], slot);
+            lastSlots.put((Integer) slot[0], slot);
+        }
+
+        List<BookingHistoryDto> dtos = new ArrayList<>(rows.size());
+        for (Object[] row : rows) {
+            BookingHistoryDto dto = new BookingHistoryDto();
+            dto.setId((Integer) row[0]);
+            dto.setCourtId((Integer) row[1]);
+            dto.setCourtName((String) row[2]);
+            dto.setLocation((String) row[3]);
+            Object[] first = firstSlots.get(dto.getId());
+            Object[] last = lastSlots.get(dto.getId());
+            dto.setDate(first != null ? (LocalDate) first[1] : null);
+            dto.setStartTime(first != null ? (LocalTime) first[2] : null);
+            dto.setEndTime(last != null ? (LocalTime) last[3] : null);
+            dto.setDurationHours(row[4] != null ? ((Number) row[4]).intValue() : 0);
+            dto.setAmount(row[5] != null ? ((Number) row[5]).doubleValue() : 0.0);
+            dto.setStatus((String) row[6]);
+            dto.setCreatedAt((LocalDateTime) row[7]);
+            dto.setPurpose((String) row[8]);
+            dto.setNumberOfPlayers((Integer) row[9]);
+            dto.setNumPaddles((Integer) row[10]);
+            dto.setBuyBallSet((Boolean) row[11]);
+            dto.setHasReviewed(reviewed.contains(dto.getId()));
+            dto.setBookingType("COURT_BOOKING"); // 標記為場地預訂
+            dtos.add(dto);
+        }
+        return dtos;
+    }
+
+    private static String blankToNull(String value) {
+        return value == null || value.isBlank() ? null : value;
+    }
+
+    private Wallet getOrCreateWallet(Member member, Integer walletId) {
+        Optional<Wallet> existing = walletId != null
+                ? walletRepository.findById(walletId)
+                : walletRepository.findByMemberId(member.getId());
+        return existing.orElseGet(() -> {
                     Wallet newWallet = new Wallet();
                     newWallet.setMember(member);
                     newWallet.setBalance(0.00);
-                    return walletRepository.save(newWallet);
+                    Wallet saved = walletRepository.save(newWallet);
+                    identityResolver.refresh();
+                    return saved;
                 });
     }
 
-    private void createWalletTransaction(Wallet wallet, String transactionType, double amount, 
-                                       double balanceBefore, double balanceAfter, 
-                                       String referenceType, Integer referenceId, String description) {
-        WalletTransaction transaction = new WalletTransaction();
-        transaction.setWalletId(wallet.getId());
-        transaction.setTransactionType(transactionType);
-        transaction.setAmount(amount);
-        transaction.setBalanceBefore(balanceBefore);
-        transaction.setBalanceAfter(balanceAfter);
-        transaction.setFrozenBefore(wallet.getFrozenBalance());
-        transaction.setFrozenAfter(wallet.getFrozenBalance());
-        transaction.setReferenceType(referenceType);
-        transaction.setReferenceId(referenceId);
-        transaction.setDescription(description);
-        transaction.setStatus("COMPLETED");
-        transaction.setProcessedAt(LocalDateTime.now());
-        
-        walletTransactionRepository.save(transaction);
-    }
-
     private String formatTime(LocalTime time) {
         if (time == null) return null;
         return time.format(java.time.format.DateTimeFormatter.ofPattern("hh:mm a"));
@@ -0,0 +1,369 @@
+package com.pickleball_backend.pickleball.service;
+
+import com.pickleball_backend.pickleball.exception.ConflictException;
+import com.pickleball_backend.pickleball.exception.ResourceNotFoundException;
+import com.pickleball_backend.pickleball.exception.ValidationException;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Comparator;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Stream;
+
+/**
+ * 可續傳的分段上傳：建立 session 後依序以 offset 送出各段，斷線後查詢目前 offset 從該處續傳，
+ * 全部送完後 complete 計算 SHA-256 並交給 {@link FileStorageService} 存成內容定址的檔名。
+ * 存入的檔案先由 session 持有一份參照計數，直到使用端（例如個人照片）以 {@link #claim} 取走；
+ * 超過 {@link #SESSION_TTL} 沒有寫入或沒有取走的 session 每小時清除，並釋放持有的參照。
+ * session 狀態（擁有者、檔名、總大小）與已收到的內容都放在暫存目錄，重新啟動後仍可續傳。
+ * 每位使用者同時最多 {@link #MAX_SESSIONS_PER_OWNER} 個 session（含已完成但尚未取走的）。
+ */
+@Service
+@Slf4j
+@RequiredArgsConstructor
+public class ChunkedUploadService {
+
+    public static final Duration SESSION_TTL = Duration.ofHours(24);
+    public static final int MAX_SESSIONS_PER_OWNER = 10;
+    private static final String SESSIONS_DIR = "sessions";
+    private static final String META_FILE = "session.properties";
+    private static final String DATA_FILE = "data";
+
+    private final FileStorageService fileStorageService;
+
+    // 同一個 session 同時只允許一個請求；session 結束時才移除，之後拿到舊鎖的請求在 load 時找不到 session
+    private final Map<String, ReentrantLock> sessionLocks = new ConcurrentHashMap<>();
+
+    // 擁有者 → 尚未結束的 session，啟動時由暫存目錄重建
+    private final Map<String, Set<String>> sessionsByOwner = new ConcurrentHashMap<>();
+
+    public record UploadStatus(String uploadId, String fileName, long size, long offset, String filename) {
+    }
+
+    @PostConstruct
+    public void loadSessions() {
+        Path root = fileStorageService.getStagingLocation().resolve(SESSIONS_DIR);
+        if (!Files.isDirectory(root)) {
+            return;
+        }
+        try (DirectoryStream<Path> sessions = Files.newDirectoryStream(root)) {
+            for (Path dir : sessions) {
+                Properties meta = new Properties();
+                try (Reader reader = Files.newBufferedReader(dir.resolve(META_FILE))) {
+                    meta.load(reader);
+                } catch (IOException e) {
+                    continue;
+                }
+                sessionsByOwner.computeIfAbsent(meta.getProperty("owner", ""), owner -> ConcurrentHashMap.newKeySet())
+                        .add(dir.getFileName().toString());
+            }
+        } catch (IOException e) {
+            log.warn("Failed to load upload sessions: {}", e.getMessage());
+        }
+    }
+
+    public UploadStatus create(String owner, String fileName, long size) {
+        String extension = FileStorageService.checkExtension(fileName);
+        if (size <= 0) {
+            throw new ValidationException("Upload size must be positive");
+        }
+        if (size > FileStorageService.MAX_FILE_SIZE) {
+            throw new ValidationException("File size exceeds 5MB limit");
+        }
+        String uploadId = UUID.randomUUID().toString();
+        sessionsByOwner.compute(owner, (key, ids) -> {
+            Set<String> open = ids != null ? ids : ConcurrentHashMap.newKeySet();
+            if (open.size() >= MAX_SESSIONS_PER_OWNER) {
+                throw new ConflictException("Too many open uploads, complete or abort one first");
+            }
+            open.add(uploadId);
+            return open;
+        });
+        Path dir = sessionDir(uploadId);
+        Properties meta = new Properties();
+        meta.setProperty("owner", owner);
+        meta.setProperty("fileName", fileName);
+        meta.setProperty("extension", extension);
+        meta.setProperty("size", Long.toString(size));
+        try {
+            Files.createDirectories(dir);
+            Files.createFile(dir.resolve(DATA_FILE));
+            try (Writer writer = Files.newBufferedWriter(dir.resolve(META_FILE))) {
+                meta.store(writer, null);
+            }
+        } catch (IOException e) {
+            release(owner, uploadId);
+            deleteSession(dir);
+            throw new RuntimeException("Failed to create upload session: " + e.getMessage());
+        }
+        return new UploadStatus(uploadId, fileName, size, 0, null);
+    }
+
+    public UploadStatus status(String uploadId, String owner) {
+        Properties meta = load(uploadId, owner);
+        if (isCompleted(meta)) {
+            return toStatus(uploadId, meta, Long.parseLong(meta.getProperty("size")));
+        }
+        return toStatus(uploadId, meta, currentOffset(uploadId));
+    }
+
+    /**
+     * 從 offset 開始寫入一段；offset 必須等於目前已收到的位元組數。
+     * 傳輸中斷時已收到的部分會保留，用戶端查詢 offset 後續傳即可。
+     */
+    public UploadStatus append(String uploadId, String owner, long offset, InputStream body) {
+        ReentrantLock lock = lockSession(uploadId);
+        try {
+            Properties meta = load(uploadId, owner);
+            if (isCompleted(meta)) {
+                throw new ConflictException("Upload already completed");
+            }
+            long size = Long.parseLong(meta.getProperty("size"));
+            Path data = sessionDir(uploadId).resolve(DATA_FILE);
+            try (FileChannel channel = FileChannel.open(data, StandardOpenOption.WRITE)) {
+                long current = channel.size();
+                if (offset != current) {
+                    throw new ConflictException("Upload offset mismatch, expected " + current);
+                }
+                long remaining = size - current;
+                // 多讀一個位元組，用來判斷是否超過宣告的大小
+                long written = channel.transferFrom(Channels.newChannel(body), current, remaining + 1);
+                if (written > remaining) {
+                    channel.truncate(current);
+                    throw new ValidationException("Chunk exceeds declared upload size");
+                }
+                return toStatus(uploadId, meta, current + written);
+            }
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to write upload chunk: " + e.getMessage());
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * 全部收齊後存入並回傳檔名；檔案的參照由 session 持有，使用端以 {@link #claim} 取走前不會被其他刪除釋放。
+     * 重複呼叫回傳同一個檔名
+     */
+    public String complete(String uploadId, String owner) {
+        ReentrantLock lock = lockSession(uploadId);
+        try {
+            Properties meta = load(uploadId, owner);
+            if (isCompleted(meta)) {
+                return meta.getProperty("filename");
+            }
+            long size = Long.parseLong(meta.getProperty("size"));
+            long offset = currentOffset(uploadId);
+            if (offset != size) {
+                throw new ConflictException("Upload incomplete, received " + offset + " of " + size + " bytes");
+            }
+            Path dir = sessionDir(uploadId);
+            String filename = fileStorageService.storeStaged(dir.resolve(DATA_FILE), meta.getProperty("extension"));
+            meta.setProperty("filename", filename);
+            try (Writer writer = Files.newBufferedWriter(dir.resolve(META_FILE))) {
+                meta.store(writer, null);
+            } catch (IOException e) {
+                fileStorageService.delete(filename);
+                throw new RuntimeException("Failed to complete upload: " + e.getMessage());
+            }
+            deleteQuietly(dir.resolve(DATA_FILE));
+            return filename;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * 取走已完成上傳的檔名及其參照計數並結束 session；之後由呼叫端負責在不再使用時 {@link FileStorageService#delete}
+     */
+    public String claim(String uploadId, String owner) {
+        ReentrantLock lock = lockSession(uploadId);
+        try {
+            Properties meta = load(uploadId, owner);
+            if (!isCompleted(meta)) {
+                throw new ConflictException("Upload not completed");
+            }
+            deleteSession(sessionDir(uploadId));
+            release(owner, uploadId);
+            sessionLocks.remove(uploadId);
+            return meta.getProperty("filename");
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void abort(String uploadId, String owner) {
+        ReentrantLock lock = lockSession(uploadId);
+        try {
+            Properties meta = load(uploadId, owner);
+            end(uploadId, meta);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Scheduled(fixedDelay = 3_600_000)
+    public void purgeExpired() {
+        Path root = fileStorageService.getStagingLocation().resolve(SESSIONS_DIR);
+        if (!Files.isDirectory(root)) {
+            return;
+        }
+        Instant cutoff = Instant.now().minus(SESSION_TTL);
+        int purged = 0;
+        try (DirectoryStream<Path> sessions = Files.newDirectoryStream(root)) {
+            for (Path dir : sessions) {
+                // 未完成的 session 以最後寫入時間為準，已完成的以完成時間為準
+                Path data = dir.resolve(DATA_FILE);
+                Path meta = dir.resolve(META_FILE);
+                Path touched = Files.exists(data) ? data : Files.exists(meta) ? meta : dir;
+                if (!Files.getLastModifiedTime(touched).toInstant().isBefore(cutoff)) {
+                    continue;
+                }
+                String uploadId = dir.getFileName().toString();
+                ReentrantLock lock = sessionLocks.computeIfAbsent(uploadId, id -> new ReentrantLock());
+                // 正在寫入或取走的 session 留到下一輪
+                if (!lock.tryLock()) {
+                    continue;
+                }
+                try {
+                    Properties properties = new Properties();
+                    try (Reader reader = Files.newBufferedReader(meta)) {
+                        properties.load(reader);
+                    } catch (IOException e) {
+                        deleteSession(dir);
+                        sessionLocks.remove(uploadId);
+                        purged++;
+                        continue;
+                    }
+                    end(uploadId, properties);
+                    purged++;
+                } finally {
+                    lock.unlock();
+                }
+            }
+        } catch (IOException e) {
+            log.warn("Failed to purge expired upload sessions: {}", e.getMessage());
+        }
+        if (purged > 0) {
+            log.info("Purged {} expired upload sessions", purged);
+        }
+    }
+
+    // 結束 session：已完成但沒有被取走的檔案釋放 session 持有的參照；呼叫端須持有 session 的鎖
+    private void end(String uploadId, Properties meta) {
+        String filename = meta.getProperty("filename");
+        if (filename != null) {
+            fileStorageService.delete(filename);
+        }
+        deleteSession(sessionDir(uploadId));
+        release(meta.getProperty("owner", ""), uploadId);
+        sessionLocks.remove(uploadId);
+    }
+
+    private void release(String owner, String uploadId) {
+        sessionsByOwner.computeIfPresent(owner, (key, ids) -> {
+            ids.remove(uploadId);
+            return ids.isEmpty() ? null : ids;
+        });
+    }
+
+    private ReentrantLock lockSession(String uploadId) {
+        // 不存在的 session 不建立鎖
+        if (!Files.isDirectory(sessionDir(uploadId))) {
+            throw new ResourceNotFoundException("Upload not found");
+        }
+        ReentrantLock lock = sessionLocks.computeIfAbsent(uploadId, id -> new ReentrantLock());
+        if (!lock.tryLock()) {
+            throw new ConflictException("Another request is using this upload");
+        }
+        return lock;
+    }
+
+    private static boolean isCompleted(Properties meta) {
+        return meta.getProperty("filename") != null;
+    }
+
+    private Properties load(String uploadId, String owner) {
+        Properties meta = new Properties();
+        try (Reader reader = Files.newBufferedReader(sessionDir(uploadId).resolve(META_FILE))) {
+            meta.load(reader);
+        } catch (NoSuchFileException e) {
+            throw new ResourceNotFoundException("Upload not found");
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to read upload session: " + e.getMessage());
+        }
+        // 不透露其他人的 session 是否存在
+        if (!meta.getProperty("owner", "").equals(owner)) {
+            throw new ResourceNotFoundException("Upload not found");
+        }
+        return meta;
+    }
+
+    private long currentOffset(String uploadId) {
+        try {
+            return Files.size(sessionDir(uploadId).resolve(DATA_FILE));
+        } catch (IOException e) {
+            throw new ResourceNotFoundException("Upload not found");
+        }
+    }
+
+    private Path sessionDir(String uploadId) {
+        try {
+            // 只接受 UUID，避免路徑跳脫
+            UUID.fromString(uploadId);
+        } catch (IllegalArgumentException e) {
+            throw new ResourceNotFoundException("Upload not found");
+        }
+        return fileStorageService.getStagingLocation().resolve(SESSIONS_DIR).resolve(uploadId);
+    }
+
+    private static UploadStatus toStatus(String uploadId, Properties meta, long offset) {
+        return new UploadStatus(uploadId, meta.getProperty("fileName"), Long.parseLong(meta.getProperty("size")), offset,
+                meta.getProperty("filename"));
+    }
+
+    private static void deleteQuietly(Path path) {
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException e) {
+            log.warn("Failed to delete upload session file {}: {}", path, e.getMessage());
+        }
+    }
+
+    private static void deleteSession(Path dir) {
+        try (Stream<Path> paths = Files.walk(dir)) {
+            paths.sorted(Comparator.reverseOrder()).forEach(path -> {
+                try {
+                    Files.deleteIfExists(path);
+                } catch (IOException e) {
+                    log.warn("Failed to delete upload session file {}: {}", path, e.getMessage());
+                }
+            });
+        } catch (NoSuchFileException e) {
+            // 已刪除
+        } catch (IOException e) {
+            log.warn("Failed to delete upload session {}: {}", dir, e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,221 @@
+package com.pickleball_backend.pickleball.service;
+
+import com.pickleball_backend.pickleball.dto.RecurringSessionRequestDto;
+import com.pickleball_backend.pickleball.dto.RecurringSessionResultDto;
+import com.pickleball_backend.pickleball.entity.ClassSession;
+import com.pickleball_backend.pickleball.entity.Court;
+import com.pickleball_backend.pickleball.entity.User;
+import com.pickleball_backend.pickleball.exception.ConflictException;
+import com.pickleball_backend.pickleball.exception.ResourceNotFoundException;
+import com.pickleball_backend.pickleball.exception.ValidationException;
+import com.pickleball_backend.pickleball.repository.BookingRepository;
+import com.pickleball_backend.pickleball.repository.ClassSessionRepository;
+import com.pickleball_backend.pickleball.repository.CourtRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * 批量排課：一次載入整段期間的課程與預訂時段，在記憶體中以區間掃描檢查衝突，
+ * 再把所有不衝突的課程一次寫入。
+ */
+@Service
+@Slf4j
+@RequiredArgsConstructor
+public class ClassSessionBatchScheduler {
+
+    static final String REASON_COACH_SESSION = "COACH_SESSION";
+    static final String REASON_COURT_SESSION = "COURT_SESSION";
+    static final String REASON_COURT_BOOKING = "COURT_BOOKING";
+
+    private static final Map<String, DayOfWeek> DAY_MAP = Map.of(
+            "MON", DayOfWeek.MONDAY, "TUES", DayOfWeek.TUESDAY, "WED", DayOfWeek.WEDNESDAY,
+            "THURS", DayOfWeek.THURSDAY, "FRI", DayOfWeek.FRIDAY, "SAT", DayOfWeek.SATURDAY,
+            "SUN", DayOfWeek.SUNDAY
+    );
+
+    private final ClassSessionRepository sessionRepository;
+    private final BookingRepository bookingRepository;
+    private final CourtRepository courtRepository;
+
+    /**
+     * 建立整個 recurring 課程，回傳已建立的課程及每個被跳過日期的衝突原因
+     */
+    @Transactional
+    public RecurringSessionResultDto scheduleRecurring(RecurringSessionRequestDto request, User coach)
+            throws ConflictException, ResourceNotFoundException {
+        if (!"COACH".equalsIgnoreCase(coach.getUserType())) {
+            throw new ValidationException("User is not a coach");
+        }
+        Court court = courtRepository.findById(request.getCourtId())
+                .orElseThrow(() -> new ResourceNotFoundException("Court not found"));
+
+        List<Interval> candidates = expandRecurrence(request);
+        if (candidates.isEmpty()) {
+            throw new ConflictException("所有选定日期都存在时间冲突或没有符合选择的星期几的日期");
+        }
+        RecurringSessionResultDto result = new RecurringSessionResultDto();
+        result.setRecurringGroupId(UUID.randomUUID().toString());
+
+        List<Interval> conflicted = detectConflicts(candidates,
+                loadExistingIntervals(court.getId(), coach.getId(), candidates));
+
+        List<ClassSession> toSave = new ArrayList<>();
+        for (Interval candidate : candidates) {
+            if (candidate.reason != null) {
+                continue;
+            }
+            ClassSession session = new ClassSession();
+            session.setCoach(coach);
+            session.setCourt(court);
+            session.setStartTime(candidate.start);
+            session.setEndTime(candidate.end);
+            session.setMaxParticipants(request.getMaxParticipants());
+            session.setDescription(request.getDescription());
+            session.setPrice(request.getPrice());
+            session.setStatus("AVAILABLE");
+            session.setSlotType("COACH_SESSION");
+            session.setCurrentParticipants(0);
+            session.setTitle(request.getTitle());
+            session.setRecurring(true);
+            session.setRecurrencePattern("WEEKLY");
+            session.setRecurrenceDays(request.getDayOfWeek());
+            session.setRecurrenceEndDate(request.getEndDate());
+            session.setRecurringGroupId(result.getRecurringGroupId());
+            toSave.add(session);
+        }
+
+        for (Interval conflict : conflicted) {
+            log.warn("Skipping recurring session on {}: {}", conflict.start.toLocalDate(), conflict.reason);
+            result.getConflicts().add(new RecurringSessionResultDto.ConflictEntry(
+                    conflict.start.toLocalDate(), conflict.start, conflict.end, conflict.reason));
+        }
+
+        if (toSave.isEmpty()) {
+            throw new ConflictException("所有选定日期都存在时间冲突或没有符合选择的星期几的日期");
+        }
+        result.setSessions(sessionRepository.saveAll(toSave));
+        log.info("Created {} recurring sessions for coach {} on court {}, skipped {} conflicting dates",
+                toSave.size(), coach.getId(), court.getId(), conflicted.size());
+        return result;
+    }
+
+    /**
+     * 檢查場地在多個時段是否有課程或預訂衝突，回傳有衝突的時段開始時間
+     */
+    public List<LocalDateTime> findCourtConflicts(Integer courtId, List<LocalDateTime[]> ranges) {
+        List<Interval> candidates = new ArrayList<>(ranges.size());
+        for (LocalDateTime[] range : ranges) {
+            candidates.add(new Interval(range[0], range[1], null));
+        }
+        if (candidates.isEmpty()) {
+            return List.of();
+        }
+        List<LocalDateTime> conflicts = new ArrayList<>();
+        for (Interval conflict : detectConflicts(candidates, loadExistingIntervals(courtId, null, candidates))) {
+            conflicts.add(conflict.start);
+        }
+        return conflicts;
+    }
+
+    private List<Interval> expandRecurrence(RecurringSessionRequestDto request) {
+        Set<DayOfWeek> days = EnumSet.noneOf(DayOfWeek.class);
+        if (request.getDayOfWeek() != null) {
+            for (String day : request.getDayOfWeek().split(",")) {
+                DayOfWeek dow = DAY_MAP.get(day.trim().toUpperCase());
+                if (dow != null) {
+                    days.add(dow);
+                }
+            }
+        }
+        List<Interval> candidates = new ArrayList<>();
+        if (days.isEmpty()) {
+            return candidates;
+        }
+        for (LocalDate date = request.getStartDate(); !date.isAfter(request.getEndDate()); date = date.plusDays(1)) {
+            if (days.contains(date.getDayOfWeek())) {
+                candidates.add(new Interval(
+                        LocalDateTime.of(date, request.getStartTime()),
+                        LocalDateTime.of(date, request.getEndTime()),
+                        null));
+            }
+        }
+        return candidates;
+    }
+
+    // 兩次查詢取出整段期間內的課程及預訂時段
+    private List<Interval> loadExistingIntervals(Integer courtId, Integer coachId, List<Interval> candidates) {
+        LocalDateTime from = candidates.stream().map(i -> i.start).min(Comparator.naturalOrder()).orElseThrow();
+        LocalDateTime to = candidates.stream().map(i -> i.end).max(Comparator.naturalOrder()).orElseThrow();
+
+        List<Interval> existing = new ArrayList<>();
+        for (Object[] row : sessionRepository.findActiveIntervalsForCourtOrCoach(courtId, coachId, from, to)) {
+            Integer rowCourtId = (Integer) row[2];
+            String reason = courtId.equals(rowCourtId) ? REASON_COURT_SESSION : REASON_COACH_SESSION;
+            existing.add(new Interval((LocalDateTime) row[0], (LocalDateTime) row[1], reason));
+        }
+        for (Object[] row : bookingRepository.findActiveSlotIntervalsForCourt(courtId, from.toLocalDate(), to.toLocalDate())) {
+            LocalDate date = (LocalDate) row[0];
+            existing.add(new Interval(
+                    LocalDateTime.of(date, (LocalTime) row[1]),
+                    LocalDateTime.of(date, (LocalTime) row[2]),
+                    REASON_COURT_BOOKING));
+        }
+        return existing;
+    }
+
+    /**
+     * 區間掃描：existing 依開始時間排序並計算前綴最大結束時間，candidates 依結束時間掃描。
+     * 某候選時段衝突，當且僅當開始時間早於其結束時間的既有時段中，最大結束時間晚於其開始時間。
+     * 衝突的候選時段會被標記 reason 並回傳。
+     */
+    static List<Interval> detectConflicts(List<Interval> candidates, List<Interval> existing) {
+        List<Interval> sortedExisting = new ArrayList<>(existing);
+        sortedExisting.sort(Comparator.comparing(i -> i.start));
+        List<Interval> sortedCandidates = new ArrayList<>(candidates);
+        sortedCandidates.sort(Comparator.comparing(i -> i.end));
+
+        List<Interval> conflicts = new ArrayList<>();
+        Interval maxEndSoFar = null;
+        int next = 0;
+        for (Interval candidate : sortedCandidates) {
+            while (next < sortedExisting.size() && sortedExisting.get(next).start.isBefore(candidate.end)) {
+                Interval e = sortedExisting.get(next++);
+                if (maxEndSoFar == null || e.end.isAfter(maxEndSoFar.end)) {
+                    maxEndSoFar = e;
+                }
+            }
+            if (maxEndSoFar != null && maxEndSoFar.end.isAfter(candidate.start)) {
+                candidate.reason = maxEndSoFar.reason;
+                conflicts.add(candidate);
+            }
+        }
+        conflicts.sort(Comparator.comparing(i -> i.start));
+        return conflicts;
+    }
+
+    static final class Interval {
+        final LocalDateTime start;
+        final LocalDateTime end;
+        String reason;
+
+        Interval(LocalDateTime start, LocalDateTime end, String reason) {
+            this.start = start;
+            this.end = end;
+            this.reason = reason;
+        }
+    }
+}
@@ -0,0 +1,316 @@
+package com.pickleball_backend.pickleball.service;
+
+import com.pickleball_backend.pickleball.entity.ClassSession;
+import com.pickleball_backend.pickleball.event.ClassSessionChangedEvent;
+import com.pickleball_backend.pickleball.repository.ClassSessionRepository;
+import com.pickleball_backend.pickleball.repository.PaymentRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.DelayQueue;
+import java.util.concurrent.Delayed;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 課程狀態機：以 DelayQueue 取代每 5 分鐘的輪詢。
+ * 課程建立或修改時登記開始（CONFIRMED → IN_PROGRESS）及結束（IN_PROGRESS → COMPLETED）兩個轉換，
+ * 到期後批量執行條件式 UPDATE，結束後結算託管款項。重啟時由資料庫重建佇列。
+ * 批量 UPDATE 不經過實體監聽器，實際轉換的課程由此處補發 {@link ClassSessionChangedEvent}。
+ */
+@Service
+@Slf4j
+@RequiredArgsConstructor
+public class ClassSessionLifecycleScheduler {
+
+    private static final int MAX_BATCH_SIZE = 200;
+    private static final long RETRY_DELAY_MILLIS = 30_000L;
+
+    private final ClassSessionRepository sessionRepository;
+    private final PaymentRepository paymentRepository;
+    private final EscrowAccountService escrowAccountService;
+    private final ApplicationEventPublisher eventPublisher;
+
+    private final DelayQueue<Transition> queue = new DelayQueue<>();
+    // 每個課程目前有效的轉換；重新登記後舊的轉換到期時會被略過
+    private final Map<Integer, SessionTimers> timers = new ConcurrentHashMap<>();
+    private volatile Thread worker;
+    private volatile boolean running;
+
+    enum TransitionType { START, END, SETTLE }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        rebuildFromDatabase();
+        running = true;
+        worker = new Thread(this::runLoop, "class-session-lifecycle");
+        worker.setDaemon(true);
+        worker.start();
+    }
+
+    @PreDestroy
+    public void stop() {
+        running = false;
+        if (worker != null) {
+            worker.interrupt();
+        }
+    }
+
+    void rebuildFromDatabase() {
+        int registered = 0;
+        for (Object[] row : sessionRepository.findPendingTransitionIntervals()) {
+            register((Integer) row[0], (String) row[1], (LocalDateTime) row[2], (LocalDateTime) row[3]);
+            registered++;
+        }
+        List<Integer> unsettled = sessionRepository.findCompletedSessionIdsWithEscrow();
+        for (Integer sessionId : unsettled) {
+            register(sessionId, "COMPLETED", null, null);
+        }
+        log.info("Rebuilt class session lifecycle queue: {} pending sessions, {} awaiting settlement",
+                registered, unsettled.size());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onClassSessionChanged(ClassSessionChangedEvent event) {
+        if (event.getSessionId() == null) {
+            return;
+        }
+        if (event.isRemoved()) {
+            timers.remove(event.getSessionId());
+            return;
+        }
+        register(event.getSessionId(), event.getStatus(), event.getStartTime(), event.getEndTime());
+    }
+
+    /**
+     * 依目前狀態登記轉換；其他狀態（AVAILABLE、FULL、CANCELLED 等）清除已登記的轉換
+     */
+    void register(Integer sessionId, String status, LocalDateTime startTime, LocalDateTime endTime) {
+        SessionTimers current = timers.get(sessionId);
+        SessionTimers next;
+        if ("CONFIRMED".equals(status) && startTime != null && endTime != null) {
+            if (current != null && current.matches(TransitionType.START, startTime, endTime)) {
+                return;
+            }
+            next = new SessionTimers(TransitionType.START, startTime, endTime);
+            next.start = new Transition(sessionId, TransitionType.START, startTime);
+            next.end = new Transition(sessionId, TransitionType.END, endTime);
+        } else if ("IN_PROGRESS".equals(status) && endTime != null) {
+            if (current != null && current.end != null && current.endTime.equals(endTime)) {
+                return;
+            }
+            next = new SessionTimers(TransitionType.END, startTime, endTime);
+            next.end = new Transition(sessionId, TransitionType.END, endTime);
+        } else if ("COMPLETED".equals(status)) {
+            if (current != null && current.kind == TransitionType.SETTLE) {
+                return;
+            }
+            next = new SessionTimers(TransitionType.SETTLE, startTime, endTime);
+            next.settle = new Transition(sessionId, TransitionType.SETTLE, null);
+        } else {
+            timers.remove(sessionId);
+            return;
+        }
+        timers.put(sessionId, next);
+        if (next.start != null) queue.add(next.start);
+        if (next.end != null) queue.add(next.end);
+        if (next.settle != null) queue.add(next.settle);
+    }
+
+    private void runLoop() {
+        while (running) {
+            try {
+                List<Transition> batch = new ArrayList<>();
+                batch.add(queue.take());
+                queue.drainTo(batch, MAX_BATCH_SIZE - 1);
+                try {
+                    processBatch(batch);
+                } catch (Exception e) {
+                    // 資料庫錯誤時整批延後重試，轉換不會遺失；已重新登記的舊轉換到期時仍會被略過
+                    log.error("Error processing class session transitions, retrying {} in {}s",
+                            batch.size(), RETRY_DELAY_MILLIS / 1000, e);
+                    requeue(batch);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    private void requeue(List<Transition> batch) {
+        long retryAt = System.currentTimeMillis() + RETRY_DELAY_MILLIS;
+        for (Transition transition : batch) {
+            SessionTimers owner = timers.get(transition.sessionId);
+            if (owner == null || !owner.owns(transition)) {
+                continue;
+            }
+            Transition retry = transition.retryAt(retryAt);
+            owner.replace(transition, retry);
+            queue.add(retry);
+        }
+    }
+
+    void processBatch(List<Transition> batch) {
+        List<Integer> starting = new ArrayList<>();
+        List<Integer> ending = new ArrayList<>();
+        List<Integer> settling = new ArrayList<>();
+        for (Transition transition : batch) {
+            SessionTimers owner = timers.get(transition.sessionId);
+            if (owner == null || !owner.owns(transition)) {
+                continue; // 已被重新登記或取消
+            }
+            switch (transition.type) {
+                case START -> starting.add(transition.sessionId);
+                case END -> ending.add(transition.sessionId);
+                case SETTLE -> settling.add(transition.sessionId);
+            }
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        // 同一批內先處理開始再處理結束，停機後補跑時可一次走完
+        if (!starting.isEmpty()) {
+            List<ClassSession> started = transition(starting, "CONFIRMED", "IN_PROGRESS", now);
+            log.info("Marked {} of {} sessions IN_PROGRESS", started.size(), starting.size());
+        }
+        if (!ending.isEmpty()) {
+            List<ClassSession> completed = transition(ending, "IN_PROGRESS", "COMPLETED", now);
+            log.info("Marked {} of {} sessions COMPLETED", completed.size(), ending.size());
+            // 沒有轉換的課程（已取消、時間已改）清除轉換，等之後的變更事件重新登記
+            for (Integer sessionId : ending) {
+                timers.remove(sessionId);
+            }
+            for (ClassSession session : completed) {
+                settling.add(session.getId());
+            }
+        }
+        if (!settling.isEmpty()) {
+            settle(settling);
+        }
+    }
+
+    /**
+     * 以條件式 UPDATE 轉換狀態，回傳實際由 from 轉為 to 的課程並為其發布變更事件
+     */
+    private List<ClassSession> transition(List<Integer> sessionIds, String from, String to, LocalDateTime now) {
+        List<Integer> due = new ArrayList<>();
+        for (ClassSession session : sessionRepository.findByIdInAndStatus(sessionIds, from)) {
+            LocalDateTime dueAt = "CONFIRMED".equals(from) ? session.getStartTime() : session.getEndTime();
+            if (dueAt != null && !dueAt.isAfter(now)) {
+                due.add(session.getId());
+            }
+        }
+        if (due.isEmpty()) {
+            return List.of();
+        }
+        if ("IN_PROGRESS".equals(to)) {
+            sessionRepository.markStarted(due, now);
+        } else {
+            sessionRepository.markCompleted(due, now);
+        }
+        List<ClassSession> moved = sessionRepository.findByIdInAndStatus(due, to);
+        for (ClassSession session : moved) {
+            eventPublisher.publishEvent(new ClassSessionChangedEvent(
+                    session.getId(),
+                    session.getCoach() != null ? session.getCoach().getId() : null,
+                    session.getStatus(),
+                    session.getStartTime(),
+                    session.getEndTime(),
+                    false));
+        }
+        return moved;
+    }
+
+    private void settle(List<Integer> sessionIds) {
+        for (ClassSession session : sessionRepository.findByIdInAndStatus(sessionIds, "COMPLETED")) {
+            try {
+                // 重播的 SETTLE 或手動結算過的課程不再重複分帳
+                if (paymentRepository.existsByPaymentTypeAndTransactionId("COACH_INCOME", "SETTLEMENT_" + session.getId())) {
+                    log.info("Session {} already has settlement records", session.getId());
+                    continue;
+                }
+                escrowAccountService.settleClassSession(session);
+            } catch (Exception e) {
+                log.error("Failed to auto-settle completed session " + session.getId(), e);
+            }
+        }
+        for (Integer sessionId : sessionIds) {
+            timers.remove(sessionId);
+        }
+    }
+
+    int pendingCount() {
+        return queue.size();
+    }
+
+    private static final class SessionTimers {
+        final TransitionType kind;
+        final LocalDateTime startTime;
+        final LocalDateTime endTime;
+        Transition start;
+        Transition end;
+        Transition settle;
+
+        SessionTimers(TransitionType kind, LocalDateTime startTime, LocalDateTime endTime) {
+            this.kind = kind;
+            this.startTime = startTime;
+            this.endTime = endTime;
+        }
+
+        boolean matches(TransitionType kind, LocalDateTime startTime, LocalDateTime endTime) {
+            return this.kind == kind && startTime.equals(this.startTime) && endTime.equals(this.endTime);
+        }
+
+        boolean owns(Transition transition) {
+            return transition == start || transition == end || transition == settle;
+        }
+
+        void replace(Transition previous, Transition retry) {
+            if (start == previous) start = retry;
+            if (end == previous) end = retry;
+            if (settle == previous) settle = retry;
+        }
+    }
+
+    static final class Transition implements Delayed {
+        final Integer sessionId;
+        final TransitionType type;
+        final long fireAtMillis;
+
+        Transition(Integer sessionId, TransitionType type, LocalDateTime fireAt) {
+            this(sessionId, type, fireAt == null ? System.currentTimeMillis()
+                    : fireAt.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli());
+        }
+
+        private Transition(Integer sessionId, TransitionType type, long fireAtMillis) {
+            this.sessionId = sessionId;
+            this.type = type;
+            this.fireAtMillis = fireAtMillis;
+        }
+
+        Transition retryAt(long retryAtMillis) {
+            return new Transition(sessionId, type, retryAtMillis);
+        }
+
+        @Override
+        public long getDelay(TimeUnit unit) {
+            return unit.convert(fireAtMillis - System.currentTimeMillis(), TimeUnit.MILLISECONDS);
+        }
+
+        @Override
+        public int compareTo(Delayed other) {
+            return Long.compare(fireAtMillis, ((Transition) other).fireAtMillis);
+        }
+    }
+}
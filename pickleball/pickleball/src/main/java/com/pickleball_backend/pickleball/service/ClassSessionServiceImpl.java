@@ -21,7 +21,6 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.stream.Collectors;
-import java.util.UUID;
 import java.time.format.DateTimeFormatter;
 
 @Service
@@ -40,9 +39,11 @@ public class ClassSessionServiceImpl implements ClassSessionService {
     private final PaymentRepository paymentRepository;
     private final WalletRepository walletRepository;
     private final EscrowAccountService escrowAccountService;
+    private final WalletLedgerService walletLedgerService;
     private final WalletTransactionRepository walletTransactionRepository;
     private final MembershipTierRepository membershipTierRepository;
     private final MemberService memberService;
+    private final ClassSessionBatchScheduler batchScheduler;
     private static final Logger logger = LoggerFactory.getLogger(ClassSessionServiceImpl.class);
 
 
@@ -471,8 +472,9 @@ public class ClassSessionServiceImpl implements ClassSessionService {
         // 1. 退款到钱包
         Wallet wallet = walletRepository.findByMemberId(member.getId())
                 .orElseThrow(() -> new ResourceNotFoundException("Wallet not found"));
-        wallet.setBalance(wallet.getBalance() + amount);
-        walletRepository.save(wallet);
+        if (amount > 0) {
+            walletLedgerService.credit(wallet, amount, "REFUND", "CLASS_SESSION", null, "Class session refund");
+        }
 
         // 2. 扣除積分（全額扣除，因為課程取消通常是全額退款）
         MemberService.PointDeductionResult deductionResult = memberService.deductPointsForRefund(member, amount, 1.0);
@@ -494,56 +496,8 @@ public class ClassSessionServiceImpl implements ClassSessionService {
     @Override
     public List<ClassSession> createRecurringSessions(RecurringSessionRequestDto request, User coach)
             throws ConflictException, ResourceNotFoundException {
-
-        List<ClassSession> sessions = new ArrayList<>();
-        LocalDate currentDate = request.getStartDate();
-        String recurringGroupId = UUID.randomUUID().toString();
-
-        // 星期幾對應的數字 (1=Monday, 2=Tuesday, ..., 7=Sunday)
-        Map<String, Integer> dayMap = Map.of(
-            "MON", 1, "TUES", 2, "WED", 3, "THURS", 4, "FRI", 5, "SAT", 6, "SUN", 7
-        );
-
-        while (!currentDate.isAfter(request.getEndDate())) {
-            // 檢查當前日期是否符合選擇的星期幾
-            int currentDayOfWeek = currentDate.getDayOfWeek().getValue(); // 1=Monday, 2=Tuesday, ..., 7=Sunday
-            Integer targetDay = dayMap.get(request.getDayOfWeek());
-            
-            if (targetDay != null && currentDayOfWeek == targetDay) {
-                LocalDateTime startDateTime = LocalDateTime.of(currentDate, request.getStartTime());
-                LocalDateTime endDateTime = LocalDateTime.of(currentDate, request.getEndTime());
-
-                ClassSessionDto sessionDto = new ClassSessionDto();
-                sessionDto.setCourtId(request.getCourtId());
-                sessionDto.setStartTime(startDateTime);
-                sessionDto.setEndTime(endDateTime);
-                sessionDto.setMaxParticipants(request.getMaxParticipants());
-                sessionDto.setDescription(request.getDescription());
-                sessionDto.setPrice(request.getPrice());
-                sessionDto.setTitle(request.getTitle());
-                sessionDto.setSlotType("RECURRING_SESSION");
-
-                try {
-                    ClassSession session = createClassSession(sessionDto, coach);
-                    session.setRecurring(true);
-                    session.setRecurrencePattern("WEEKLY");
-                    session.setRecurrenceDays(request.getDayOfWeek());
-                    session.setRecurringGroupId(recurringGroupId);
-                    sessions.add(session);
-                } catch (ConflictException e) {
-                    // 处理时间冲突 - 跳过冲突日期
-                    logger.warn("时间冲突跳过日期 {}: {}", currentDate, e.getMessage());
-                }
-            }
-            
-            currentDate = currentDate.plusDays(1);
-        }
-
-        if (sessions.isEmpty()) {
-            throw new ConflictException("所有选定日期都存在时间冲突或没有符合选择的星期几的日期");
-        }
-
-        return sessions;
+        // 整段期間一次檢查衝突並批量寫入，衝突日期會被跳過
+        return batchScheduler.scheduleRecurring(request, coach).getSessions();
     }
 
     @Transactional
@@ -566,141 +520,7 @@ public class ClassSessionServiceImpl implements ClassSessionService {
         return java.time.Duration.between(session.getStartTime(), session.getEndTime()).toMinutes() / 60.0;
     }
 
-    @Scheduled(cron = "0 */5 * * * ?") // 每5分鐘檢查一次
-    public void autoSettleStartedSessions() {
-        LocalDateTime now = LocalDateTime.now();
-        LocalDateTime fiveMinutesAgo = now.minusMinutes(5);
-        
-        // 查找剛剛開始的課程（狀態為 CONFIRMED 且開始時間在5分鐘內）
-        List<ClassSession> startedSessions = sessionRepository.findByStatusAndStartTimeBetween("CONFIRMED", fiveMinutesAgo, now);
-        
-        for (ClassSession session : startedSessions) {
-            try {
-                // 只更新課程狀態為進行中，不進行收入分配
-                session.setStatus("IN_PROGRESS");
-                sessionRepository.save(session);
-                
-                logger.info("Updated session {} status to IN_PROGRESS", session.getId());
-            } catch (Exception e) {
-                logger.error("Failed to update session " + session.getId(), e);
-            }
-        }
-    }
-    
-    // 檢查所有已開始但未結算的課程
-    private void autoSettleAllStartedSessions() {
-        try {
-            LocalDateTime now = LocalDateTime.now();
-            
-            // 只查找 COMPLETED 狀態的課程
-            List<ClassSession> completedSessions = sessionRepository.findAll().stream()
-                .filter(session -> session.getStartTime() != null && 
-                                 session.getStartTime().isBefore(now) &&
-                                 "COMPLETED".equals(session.getStatus()))
-                .collect(Collectors.toList());
-            
-            for (ClassSession session : completedSessions) {
-                try {
-                    // 檢查是否已經有收入分配記錄
-                    List<Payment> existingSettlements = paymentRepository.findByPaymentTypeAndStatus("COACH_INCOME", "COMPLETED")
-                        .stream()
-                        .filter(payment -> payment.getTransactionId() != null && 
-                                         payment.getTransactionId().equals("SETTLEMENT_" + session.getId()))
-                        .collect(Collectors.toList());
-                    
-                    // 檢查是否有託管支付
-                    List<Payment> escrowedPayments = paymentRepository.findByPaymentTypeAndStatus("CLASS_SESSION_ESCROW", "ESCROWED")
-                        .stream()
-                        .filter(payment -> payment.getTransactionId() != null && 
-                                         payment.getTransactionId().startsWith("SESSION_" + session.getId() + "_"))
-                        .collect(Collectors.toList());
-                    
-                    // 如果有託管支付但沒有結算記錄，則進行結算
-                    if (!escrowedPayments.isEmpty() && existingSettlements.isEmpty()) {
-                        escrowAccountService.settleClassSession(session);
-                        logger.info("Auto-settled completed session {} via escrow system", session.getId());
-                    }
-                } catch (Exception e) {
-                    logger.error("Failed to auto-settle completed session " + session.getId(), e);
-                }
-            }
-        } catch (Exception e) {
-            logger.error("Error in autoSettleAllStartedSessions: ", e);
-        }
-    }
-
-    @Scheduled(cron = "0 */5 * * * ?") // 每5分鐘檢查一次
-    public void autoUpdateSessionStatus() {
-        LocalDateTime now = LocalDateTime.now();
-        
-        // 更新已結束的課程狀態為 COMPLETED
-        List<ClassSession> inProgressSessions = sessionRepository.findByStatus("IN_PROGRESS");
-        for (ClassSession session : inProgressSessions) {
-            try {
-                if (session.getEndTime() != null && session.getEndTime().isBefore(now)) {
-                    session.setStatus("COMPLETED");
-                    sessionRepository.save(session);
-                    logger.info("Updated session {} status to COMPLETED", session.getId());
-                }
-            } catch (Exception e) {
-                logger.error("Failed to update session " + session.getId() + " status", e);
-            }
-        }
-        
-        // 更新已開始但未更新的課程狀態為 IN_PROGRESS
-        List<ClassSession> confirmedSessions = sessionRepository.findByStatus("CONFIRMED");
-        for (ClassSession session : confirmedSessions) {
-            try {
-                if (session.getStartTime() != null && session.getStartTime().isBefore(now) && 
-                    (session.getEndTime() == null || session.getEndTime().isAfter(now))) {
-                    session.setStatus("IN_PROGRESS");
-                    sessionRepository.save(session);
-                    logger.info("Updated session {} status to IN_PROGRESS", session.getId());
-                }
-            } catch (Exception e) {
-                logger.error("Failed to update session " + session.getId() + " status", e);
-            }
-        }
-    }
-
-    @Scheduled(cron = "0 */5 * * * ?") // 每5分鐘檢查一次
-    public void autoSettleCompletedSessions() {
-        List<ClassSession> completed = sessionRepository.findByStatus("COMPLETED");
-        logger.info("Found {} completed sessions to check for settlement", completed.size());
-        
-        for (ClassSession session : completed) {
-            try {
-                // 檢查是否已經有收入分配記錄
-                List<Payment> existingSettlements = paymentRepository.findByPaymentTypeAndStatus("COACH_INCOME", "COMPLETED")
-                    .stream()
-                    .filter(payment -> payment.getTransactionId() != null && 
-                                     payment.getTransactionId().equals("SETTLEMENT_" + session.getId()))
-                    .collect(Collectors.toList());
-                
-                // 檢查是否有託管支付
-                List<Payment> escrowedPayments = paymentRepository.findByPaymentTypeAndStatus("CLASS_SESSION_ESCROW", "ESCROWED")
-                    .stream()
-                    .filter(payment -> payment.getTransactionId() != null && 
-                                     payment.getTransactionId().startsWith("SESSION_" + session.getId() + "_"))
-                    .collect(Collectors.toList());
-                
-                logger.info("Session {}: {} existing settlements, {} escrowed payments", 
-                           session.getId(), existingSettlements.size(), escrowedPayments.size());
-                
-                // 如果有託管支付但沒有結算記錄，則進行結算
-                if (!escrowedPayments.isEmpty() && existingSettlements.isEmpty()) {
-                    escrowAccountService.settleClassSession(session);
-                    logger.info("Auto-settled completed session {} via escrow system", session.getId());
-                } else if (escrowedPayments.isEmpty()) {
-                    logger.warn("No escrowed payments found for completed session {}", session.getId());
-                } else if (!existingSettlements.isEmpty()) {
-                    logger.info("Session {} already has settlement records", session.getId());
-                }
-            } catch (Exception e) {
-                logger.error("Failed to auto-settle completed session " + session.getId(), e);
-            }
-        }
-    }
+    // 課程開始、結束及結算改由 ClassSessionLifecycleScheduler 在時間到時觸發，不再每5分鐘輪詢
 
     @Scheduled(cron = "0 0 1 * * ?") // 每天凌晨1點跑
     public void autoCancelEmptySessions() {
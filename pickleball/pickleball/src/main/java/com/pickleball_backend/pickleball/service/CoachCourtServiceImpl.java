@@ -29,6 +29,7 @@ public class CoachCourtServiceImpl implements CoachCourtService {
     private final UserRepository userRepository;
     private final PaymentRepository paymentRepository;
     private final WalletRepository walletRepository;
+    private final WalletLedgerService walletLedgerService;
     private final CancellationRequestRepository cancellationRequestRepository;
     private final EmailService emailService;
     private final ClassRegistrationRepository classRegistrationRepository;
@@ -189,8 +190,10 @@ public class CoachCourtServiceImpl implements CoachCourtService {
         Wallet playerWallet = walletRepository.findByMemberId(session.getPlayer().getId())
                 .orElseThrow(() -> new ResourceNotFoundException("Player wallet not found"));
 
-        playerWallet.setBalance(playerWallet.getBalance() + payment.getAmount());
-        walletRepository.save(playerWallet);
+        if (payment.getAmount() > 0) {
+            walletLedgerService.credit(playerWallet, payment.getAmount(), "REFUND", "CLASS_SESSION", session.getId(),
+                    "Coach cancelled session refund");
+        }
 
         log.info("Refund processed for session {}: ${} refunded to player {}",
                 session.getId(), payment.getAmount(), session.getPlayer().getId());
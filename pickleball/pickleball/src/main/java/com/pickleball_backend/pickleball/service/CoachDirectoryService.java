@@ -0,0 +1,130 @@
+package com.pickleball_backend.pickleball.service;
+
+import com.pickleball_backend.pickleball.entity.Feedback;
+import com.pickleball_backend.pickleball.entity.User;
+import com.pickleball_backend.pickleball.event.ClassSessionChangedEvent;
+import com.pickleball_backend.pickleball.event.FeedbackChangedEvent;
+import com.pickleball_backend.pickleball.repository.ClassSessionRepository;
+import com.pickleball_backend.pickleball.repository.FeedbackRepository;
+import com.pickleball_backend.pickleball.repository.UserRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 公開教練目錄：以兩條分組查詢計算每位教練的可報名課程數、主要場館及平均評分，
+ * 結果快取在記憶體中，課程或評價變更時失效。
+ */
+@Service
+@Slf4j
+@RequiredArgsConstructor
+public class CoachDirectoryService {
+
+    // 批量 UPDATE 或教練名單變動不會觸發事件，以 TTL 兜底
+    private static final long CACHE_TTL_MILLIS = 5 * 60 * 1000L;
+
+    private final UserRepository userRepository;
+    private final ClassSessionRepository classSessionRepository;
+    private final FeedbackRepository feedbackRepository;
+
+    private final AtomicLong generation = new AtomicLong();
+    private volatile List<Map<String, Object>> cachedDirectory;
+    private volatile long cachedAt;
+
+    public List<Map<String, Object>> getCoachDirectory() {
+        List<Map<String, Object>> snapshot = cachedDirectory;
+        if (snapshot != null && System.currentTimeMillis() - cachedAt < CACHE_TTL_MILLIS) {
+            return snapshot;
+        }
+        synchronized (this) {
+            if (cachedDirectory != null && System.currentTimeMillis() - cachedAt < CACHE_TTL_MILLIS) {
+                return cachedDirectory;
+            }
+            long startGeneration = generation.get();
+            List<Map<String, Object>> rebuilt = List.copyOf(buildDirectory());
+            // 重建期間若有變更則不寫入快取，下一次請求再重建
+            if (generation.get() == startGeneration) {
+                cachedDirectory = rebuilt;
+                cachedAt = System.currentTimeMillis();
+            }
+            return rebuilt;
+        }
+    }
+
+    public void invalidate() {
+        generation.incrementAndGet();
+        cachedDirectory = null;
+    }
+
+    // 交易提交後才失效，避免在提交前重建而快取到舊資料
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onClassSessionChanged(ClassSessionChangedEvent event) {
+        invalidate();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onFeedbackChanged(FeedbackChangedEvent event) {
+        if (event.getTargetType() == Feedback.TargetType.COACH) {
+            invalidate();
+        }
+    }
+
+    private List<Map<String, Object>> buildDirectory() {
+        List<User> coaches = userRepository.findByUserTypeIn(List.of("COACH"));
+
+        // 每位教練：可報名課程總數，以及課程最多的場館
+        Map<Integer, long[]> availableCounts = new HashMap<>();
+        Map<Integer, Object[]> primaryVenues = new HashMap<>();
+        for (Object[] row : classSessionRepository.summarizeSessionsByCoachAndVenue()) {
+            Integer coachId = (Integer) row[0];
+            long available = row[3] != null ? ((Number) row[3]).longValue() : 0L;
+            long total = ((Number) row[4]).longValue();
+            availableCounts.computeIfAbsent(coachId, k -> new long[1])[0] += available;
+            if (row[1] != null) {
+                Object[] current = primaryVenues.get(coachId);
+                if (current == null || total > (Long) current[2]) {
+                    primaryVenues.put(coachId, new Object[]{row[1], row[2], total});
+                }
+            }
+        }
+
+        Map<Integer, Object[]> ratings = new HashMap<>();
+        for (Object[] row : feedbackRepository.summarizeRatingsByTargetType(Feedback.TargetType.COACH)) {
+            ratings.put((Integer) row[0], row);
+        }
+
+        List<Map<String, Object>> directory = new ArrayList<>(coaches.size());
+        for (User coach : coaches) {
+            Map<String, Object> coachInfo = new HashMap<>();
+            coachInfo.put("id", coach.getId());
+            coachInfo.put("name", coach.getName());
+            coachInfo.put("email", coach.getEmail());
+
+            Object[] rating = ratings.get(coach.getId());
+            double average = rating != null && rating[1] != null ? ((Number) rating[1]).doubleValue() : 0.0;
+            coachInfo.put("rating", Math.round(average * 10) / 10.0);
+            coachInfo.put("reviewCount", rating != null ? ((Number) rating[2]).intValue() : 0);
+
+            String name = coach.getName() != null ? coach.getName() : "";
+            coachInfo.put("avatar", name.substring(0, Math.min(2, name.length())).toUpperCase());
+
+            Object[] venue = primaryVenues.get(coach.getId());
+            coachInfo.put("venue", venue != null ? venue[0] : "Sunway Arena");
+            coachInfo.put("state", venue != null && venue[1] != null ? venue[1] : "Selangor");
+            coachInfo.put("specialties", List.of("Pickleball", "Training")); // 默認專長
+
+            long[] available = availableCounts.get(coach.getId());
+            coachInfo.put("sessionsCount", available != null ? (int) available[0] : 0);
+            directory.add(coachInfo);
+        }
+        log.info("Rebuilt coach directory with {} coaches", directory.size());
+        return directory;
+    }
+}
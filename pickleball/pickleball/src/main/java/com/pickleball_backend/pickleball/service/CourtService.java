@@ -3,6 +3,7 @@ package com.pickleball_backend.pickleball.service;
 import com.pickleball_backend.pickleball.dto.CourtDto;
 import com.pickleball_backend.pickleball.dto.CourtPricingDto;
 import com.pickleball_backend.pickleball.dto.CourtDeletePreviewDto;
+import com.pickleball_backend.pickleball.dto.CourtImageDto;
 import com.pickleball_backend.pickleball.entity.Court;
 
 import java.util.List;
@@ -17,4 +18,5 @@ public interface CourtService {
     List<Court> getAllCourtsForMember();
     Court getCourtByIdForMember(Integer id);
     List<Court> findAvailableCourts(java.time.LocalDate date, String startTime, String endTime);
+    List<CourtImageDto> getCourtImages(Integer courtId);
 }
\ No newline at end of file
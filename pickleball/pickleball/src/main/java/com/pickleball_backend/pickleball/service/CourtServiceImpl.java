@@ -3,12 +3,15 @@ package com.pickleball_backend.pickleball.service;
 import com.pickleball_backend.pickleball.dto.CourtDto;
 import com.pickleball_backend.pickleball.dto.CourtPricingDto;
 import com.pickleball_backend.pickleball.dto.CourtDeletePreviewDto;
+import com.pickleball_backend.pickleball.dto.CourtImageDto;
 import com.pickleball_backend.pickleball.dto.SlotDto;
 import com.pickleball_backend.pickleball.entity.*;
+import com.pickleball_backend.pickleball.event.MemberPointsChangedEvent;
 import com.pickleball_backend.pickleball.exception.ValidationException;
 import com.pickleball_backend.pickleball.repository.*;
 import jakarta.persistence.EntityNotFoundException;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -34,8 +37,13 @@ public class CourtServiceImpl implements CourtService {
     private final BookingSlotRepository bookingSlotRepository;
     private final FriendlyMatchService friendlyMatchService;
     private final EventRepository eventRepository;
+    private final ApplicationEventPublisher eventPublisher;
     @Autowired
     private VenueRepository venueRepository;
+    @Autowired
+    private CourtImageRepository courtImageRepository;
+    @Autowired
+    private ImageVariantService imageVariantService;
     private static final Map<String, DayOfWeek> DAY_OF_WEEK_MAP = Map.of(
         "MON", DayOfWeek.MONDAY,
         "TUE", DayOfWeek.TUESDAY,
@@ -523,6 +531,7 @@ public class CourtServiceImpl implements CourtService {
         int currentPoints = member.getTierPointBalance();
         member.setTierPointBalance(currentPoints + 100); // 添加100積分作為補償
         memberRepository.save(member);
+        eventPublisher.publishEvent(new MemberPointsChangedEvent(member.getId(), currentPoints, member.getTierPointBalance()));
         log.info("Added 100 compensation points to member ID: {}", member.getId());
     }
 
@@ -647,4 +656,20 @@ public class CourtServiceImpl implements CourtService {
                 )
                 .orElse(null);
     }
-}
\ No newline at end of file
+
+    @Override
+    public List<CourtImageDto> getCourtImages(Integer courtId) {
+        return courtImageRepository.findByCourtId(courtId).stream()
+                .map(image -> {
+                    CourtImageDto dto = new CourtImageDto();
+                    dto.setId(image.getId());
+                    dto.setCourtId(image.getCourtId());
+                    dto.setImagePath(image.getImagePath());
+                    dto.setThumbnailPath(imageVariantService.variantOf(image.getImagePath(), ImageVariantService.Variant.CARD));
+                    dto.setPreviewPath(imageVariantService.variantOf(image.getImagePath(), ImageVariantService.Variant.PREVIEW));
+                    dto.setUploadedAt(image.getUploadedAt());
+                    return dto;
+                })
+                .collect(Collectors.toList());
+    }
+}
@@ -2,15 +2,14 @@ package com.pickleball_backend.pickleball.service;
 
 import com.pickleball_backend.pickleball.entity.Payment;
 import com.pickleball_backend.pickleball.entity.Wallet;
-import com.pickleball_backend.pickleball.entity.WalletTransaction;
 import com.pickleball_backend.pickleball.entity.Member;
 import com.pickleball_backend.pickleball.entity.User;
 import com.pickleball_backend.pickleball.entity.ClassSession;
 import com.pickleball_backend.pickleball.entity.Event;
 import com.pickleball_backend.pickleball.repository.WalletRepository;
 import com.pickleball_backend.pickleball.repository.PaymentRepository;
-import com.pickleball_backend.pickleball.repository.WalletTransactionRepository;
 import com.pickleball_backend.pickleball.repository.MemberRepository;
+import com.pickleball_backend.pickleball.exception.InsufficientBalanceException;
 import com.pickleball_backend.pickleball.exception.ResourceNotFoundException;
 import com.pickleball_backend.pickleball.exception.ValidationException;
 import lombok.RequiredArgsConstructor;
@@ -29,9 +28,9 @@ public class EscrowAccountService {
 
     private final WalletRepository walletRepository;
     private final PaymentRepository paymentRepository;
-    private final WalletTransactionRepository walletTransactionRepository;
     private final MemberRepository memberRepository;
     private final MemberService memberService;
+    private final WalletLedgerService walletLedgerService;
 
     /**
      * 用戶報名課程時，將錢存入託管狀態
@@ -42,12 +41,8 @@ public class EscrowAccountService {
         Wallet userWallet = walletRepository.findByMemberId(user.getId())
                 .orElseThrow(() -> new ResourceNotFoundException("User wallet not found"));
 
-        if (userWallet.getBalance() < amount) {
-            throw new ValidationException("Insufficient wallet balance");
-        }
-
-        userWallet.setBalance(userWallet.getBalance() - amount);
-        walletRepository.save(userWallet);
+        withdrawToEscrow(userWallet, amount, "CLASS_SESSION", session != null ? session.getId() : null,
+                session != null ? "Class session payment (escrow)" : "Equipment payment (escrow)");
 
         // 創建託管支付記錄
         Payment payment = new Payment();
@@ -127,25 +122,11 @@ public class EscrowAccountService {
             log.info("Created new wallet for coach: {}", coach.getId());
         }
 
-        // 更新教練錢包餘額
-        double oldBalance = coachWallet.getBalance();
-        coachWallet.setBalance(oldBalance + coachAmount);
-        walletRepository.save(coachWallet);
-
-        // 創建錢包交易記錄
-        WalletTransaction coachTransaction = new WalletTransaction();
-        coachTransaction.setWalletId(coachWallet.getId());
-        coachTransaction.setTransactionType("COACH_INCOME");
-        coachTransaction.setAmount(coachAmount);
-        coachTransaction.setBalanceBefore(oldBalance);
-        coachTransaction.setBalanceAfter(coachWallet.getBalance());
-        coachTransaction.setFrozenBefore(coachWallet.getFrozenBalance());
-        coachTransaction.setFrozenAfter(coachWallet.getFrozenBalance());
-        coachTransaction.setReferenceType("CLASS_SESSION");
-        coachTransaction.setReferenceId(session.getId());
-        coachTransaction.setDescription("Class session revenue: " + session.getTitle() + " (80% share via escrow)");
-        coachTransaction.setStatus("COMPLETED");
-        walletTransactionRepository.save(coachTransaction);
+        // 原子入帳教練錢包並寫入錢包交易記錄
+        if (coachAmount > 0) {
+            walletLedgerService.credit(coachWallet, coachAmount, "COACH_INCOME", "CLASS_SESSION", session.getId(),
+                    "Class session revenue: " + session.getTitle() + " (80% share via escrow)");
+        }
 
         // 創建教練收入記錄
         Payment coachPayment = new Payment();
@@ -188,8 +169,10 @@ public class EscrowAccountService {
         Wallet userWallet = walletRepository.findByMemberId(user.getId())
                 .orElseThrow(() -> new ResourceNotFoundException("User wallet not found"));
 
-        userWallet.setBalance(userWallet.getBalance() + amount);
-        walletRepository.save(userWallet);
+        if (amount > 0) {
+            walletLedgerService.credit(userWallet, amount, "REFUND", "CLASS_SESSION", session.getId(),
+                    "Class session escrow refund");
+        }
 
         // 扣除積分（全額扣除，因為課程取消通常是全額退款）
         Member member = memberRepository.findByUserId(user.getId());
@@ -215,6 +198,21 @@ public class EscrowAccountService {
                 amount, user.getId(), session.getId());
     }
 
+    /**
+     * 從用戶錢包原子扣款轉入託管（不計入總支出），餘額不足時沿用 ValidationException
+     */
+    private void withdrawToEscrow(Wallet userWallet, double amount, String referenceType, Integer referenceId,
+                                  String description) {
+        if (amount <= 0) {
+            return;
+        }
+        try {
+            walletLedgerService.withdraw(userWallet, amount, "PAYMENT", referenceType, referenceId, description);
+        } catch (InsufficientBalanceException e) {
+            throw new ValidationException("Insufficient wallet balance");
+        }
+    }
+
     /**
      * 獲取平台託管餘額（所有 ESCROWED 狀態的支付總和）
      */
@@ -254,12 +252,7 @@ public class EscrowAccountService {
         Wallet userWallet = walletRepository.findByMemberId(user.getId())
                 .orElseThrow(() -> new ResourceNotFoundException("User wallet not found"));
 
-        if (userWallet.getBalance() < amount) {
-            throw new ValidationException("Insufficient wallet balance");
-        }
-
-        userWallet.setBalance(userWallet.getBalance() - amount);
-        walletRepository.save(userWallet);
+        withdrawToEscrow(userWallet, amount, "EVENT", event.getId(), "Event registration payment (escrow)");
 
         // 創建託管支付記錄
         Payment payment = new Payment();
@@ -332,8 +325,10 @@ public class EscrowAccountService {
         Wallet userWallet = walletRepository.findByMemberId(user.getId())
                 .orElseThrow(() -> new ResourceNotFoundException("User wallet not found"));
 
-        userWallet.setBalance(userWallet.getBalance() + amount);
-        walletRepository.save(userWallet);
+        if (amount > 0) {
+            walletLedgerService.credit(userWallet, amount, "REFUND", "EVENT", event.getId(),
+                    "Event escrow refund");
+        }
 
         // 扣除積分（全額扣除，因為活動取消通常是全額退款）
         Member member = memberRepository.findByUserId(user.getId());
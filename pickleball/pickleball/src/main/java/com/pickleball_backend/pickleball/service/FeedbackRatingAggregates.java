@@ -0,0 +1,78 @@
+package com.pickleball_backend.pickleball.service;
+
+import com.pickleball_backend.pickleball.entity.Feedback;
+import com.pickleball_backend.pickleball.event.FeedbackChangedEvent;
+import com.pickleball_backend.pickleball.repository.FeedbackRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 每個評價目標的評價數及評分總和。第一次讀取時以一條聚合查詢載入並快取，
+ * 評價新增、修改、刪除提交後移除該目標的快取，下一次讀取時重新聚合。
+ */
+@Service
+@RequiredArgsConstructor
+public class FeedbackRatingAggregates {
+
+    private final FeedbackRepository feedbackRepository;
+
+    private final Map<Key, Aggregate> aggregates = new ConcurrentHashMap<>();
+    // 任何評分變動都會遞增；載入期間若有變動則不放入快取，避免快取到變動前的總和
+    private final AtomicLong version = new AtomicLong();
+
+    public long count(Feedback.TargetType targetType, Integer targetId) {
+        return get(targetType, targetId).count;
+    }
+
+    public double average(Feedback.TargetType targetType, Integer targetId) {
+        Aggregate aggregate = get(targetType, targetId);
+        return aggregate.count == 0 ? 0.0 : (double) aggregate.sum / aggregate.count;
+    }
+
+    // 交易提交後才失效，回滾的寫入不影響彙總。不在快取上套用差額：
+    // 提交後、此監聽器執行前載入的總和已包含這次變動，再加上差額會重複計算
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onFeedbackChanged(FeedbackChangedEvent event) {
+        if (event.getTargetType() == null || event.getTargetId() == null) {
+            return;
+        }
+        if (Objects.equals(event.getRating(), event.getPreviousRating())) {
+            return;
+        }
+        synchronized (this) {
+            version.incrementAndGet();
+            aggregates.remove(new Key(event.getTargetType(), event.getTargetId()));
+        }
+    }
+
+    private Aggregate get(Feedback.TargetType targetType, Integer targetId) {
+        Key key = new Key(targetType, targetId);
+        Aggregate cached = aggregates.get(key);
+        if (cached != null) {
+            return cached;
+        }
+        long startVersion = version.get();
+        List<Object[]> rows = feedbackRepository.sumRatingsByTarget(targetType, targetId);
+        Aggregate loaded = rows.isEmpty() ? new Aggregate(0, 0)
+                : new Aggregate(((Number) rows.get(0)[0]).longValue(), ((Number) rows.get(0)[1]).longValue());
+        synchronized (this) {
+            if (version.get() == startVersion) {
+                aggregates.putIfAbsent(key, loaded);
+            }
+        }
+        return loaded;
+    }
+
+    private record Key(Feedback.TargetType targetType, Integer targetId) {
+    }
+
+    private record Aggregate(long count, long sum) {
+    }
+}
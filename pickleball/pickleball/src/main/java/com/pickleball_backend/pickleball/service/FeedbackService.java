@@ -12,18 +12,25 @@ import com.pickleball_backend.pickleball.repository.UserRepository;
 import com.pickleball_backend.pickleball.repository.ClassSessionRepository;
 import com.pickleball_backend.pickleball.repository.ClassRegistrationRepository;
 import com.pickleball_backend.pickleball.entity.ClassSession;
-import com.pickleball_backend.pickleball.entity.ClassRegistration;
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Service;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.stream.Collectors;
 import org.springframework.beans.factory.annotation.Autowired;
 import com.pickleball_backend.pickleball.repository.BookingRepository;
 
 @Service
+@Slf4j
 @RequiredArgsConstructor
 public class FeedbackService {
 
@@ -33,6 +40,7 @@ public class FeedbackService {
     private final EventRepository eventRepository;
     private final ClassSessionRepository classSessionRepository;
     private final ClassRegistrationRepository classRegistrationRepository;
+    private final FeedbackRatingAggregates ratingAggregates;
     @Autowired
     private BookingRepository bookingRepository; // 確保有注入
 
@@ -156,162 +164,176 @@ public class FeedbackService {
         List<Feedback> feedbackList = feedbackRepository
                 .findByTargetTypeAndTargetIdOrderByCreatedAtDesc(targetType, targetId);
 
-        return feedbackList.stream()
-                .map(this::convertToDto)
-                .collect(Collectors.toList());
+        return convertToDtos(feedbackList);
     }
 
     public List<FeedbackResponseDto> getFeedbackByBookingId(Integer bookingId) {
         List<Feedback> feedbackList = feedbackRepository
                 .findByBookingIdOrderByCreatedAtDesc(bookingId);
 
-        return feedbackList.stream()
-                .map(this::convertToDto)
-                .collect(Collectors.toList());
+        return convertToDtos(feedbackList);
     }
 
     public FeedbackStatsDto getFeedbackStats(
             Feedback.TargetType targetType,
             Integer targetId
     ) {
-        Double average = feedbackRepository.findAverageRatingByTarget(targetType, targetId);
-        Integer count = feedbackRepository.countByTarget(targetType, targetId);
-
         FeedbackStatsDto stats = new FeedbackStatsDto();
-        stats.setAverageRating(average != null ? average : 0.0);
-        stats.setTotalReviews(count != null ? count : 0);
+        stats.setAverageRating(ratingAggregates.average(targetType, targetId));
+        stats.setTotalReviews((int) ratingAggregates.count(targetType, targetId));
         return stats;
     }
 
     private FeedbackResponseDto convertToDto(Feedback feedback) {
-        FeedbackResponseDto dto = new FeedbackResponseDto();
-        dto.setId(feedback.getId());
-        dto.setTargetType(feedback.getTargetType().name());
-        dto.setTargetId(feedback.getTargetId());
-        dto.setRating(feedback.getRating());
-        dto.setReview(feedback.getReview());
-        dto.setUserName(feedback.getUser().getName());
-        dto.setUserEmail(feedback.getUser().getUserAccount().getUsername());
-        dto.setUserId(feedback.getUser().getId()); // 添加用户ID
-        dto.setCreatedAt(feedback.getCreatedAt());
-        dto.setTags(feedback.getTags());
-        dto.setBookingId(feedback.getBooking() != null ? feedback.getBooking().getId() : null);
-        
-        // Set target name based on target type
-        if (feedback.getTargetType() == Feedback.TargetType.COURT) {
-            Court court = courtRepository.findById(feedback.getTargetId()).orElse(null);
-            dto.setTargetName(court != null ? court.getName() : "Unknown Court");
-        } else if (feedback.getTargetType() == Feedback.TargetType.EVENT) {
-            Event event = eventRepository.findById(feedback.getTargetId()).orElse(null);
-            dto.setTargetName(event != null ? event.getTitle() : "Unknown Event");
-        } else if (feedback.getTargetType() == Feedback.TargetType.COACH) {
-            User coach = userRepository.findById(feedback.getTargetId()).orElse(null);
-            dto.setTargetName(coach != null ? coach.getName() : "Unknown Coach");
-            
-            // 為教練評價添加課程詳細信息
-            try {
-                if (feedback.getClassSessionId() != null) {
-                    // 直接使用關聯的課程ID
-                    ClassSession session = classSessionRepository.findById(feedback.getClassSessionId()).orElse(null);
-                    
-                    if (session != null) {
-                        dto.setClassSessionId(session.getId());
-                        dto.setClassSessionTitle(session.getTitle());
-                        dto.setClassSessionDate(session.getStartTime().toLocalDate().toString());
-                        dto.setClassSessionTime(session.getStartTime().toLocalTime().toString() + " - " + session.getEndTime().toLocalTime().toString());
-                        
-                        // 獲取場地信息
-                        if (session.getVenue() != null) {
-                            dto.setVenueName(session.getVenue().getName());
-                        } else if (session.getCourt() != null && session.getCourt().getVenue() != null) {
-                            dto.setVenueName(session.getCourt().getVenue().getName());
-                        }
-                        
-                        // 獲取球場信息
-                        if (session.getCourt() != null) {
-                            dto.setCourtName(session.getCourt().getName());
-                        }
-                        
-                        System.out.println("Found class session for feedback " + feedback.getId() + ": " + 
-                                         session.getTitle() + " on " + session.getStartTime() + 
-                                         " at " + (session.getVenue() != null ? session.getVenue().getName() : "Unknown venue"));
+        return convertToDtos(List.of(feedback)).get(0);
+    }
+
+    /**
+     * 批量轉換：每種目標類型一次 findAllById 取得名稱，教練評價的課程資訊也一次載入，
+     * 球場平均分取自評分彙總而非重新讀取該球場的所有評價
+     */
+    private List<FeedbackResponseDto> convertToDtos(List<Feedback> feedbackList) {
+        Map<Feedback.TargetType, Set<Integer>> targetIds = new EnumMap<>(Feedback.TargetType.class);
+        for (Feedback feedback : feedbackList) {
+            if (feedback.getTargetType() != null && feedback.getTargetId() != null) {
+                targetIds.computeIfAbsent(feedback.getTargetType(), k -> new HashSet<>()).add(feedback.getTargetId());
+            }
+        }
+        Map<Integer, String> courtNames = new HashMap<>();
+        courtRepository.findAllById(targetIds.getOrDefault(Feedback.TargetType.COURT, Set.of()))
+                .forEach(court -> courtNames.put(court.getId(), court.getName()));
+        Map<Integer, String> eventTitles = new HashMap<>();
+        eventRepository.findAllById(targetIds.getOrDefault(Feedback.TargetType.EVENT, Set.of()))
+                .forEach(event -> eventTitles.put(event.getId(), event.getTitle()));
+        Map<Integer, String> coachNames = new HashMap<>();
+        userRepository.findAllById(targetIds.getOrDefault(Feedback.TargetType.COACH, Set.of()))
+                .forEach(coach -> coachNames.put(coach.getId(), coach.getName()));
+
+        Map<Integer, ClassSession> sessionsByFeedback = resolveCoachFeedbackSessions(feedbackList);
+
+        List<FeedbackResponseDto> result = new ArrayList<>(feedbackList.size());
+        for (Feedback feedback : feedbackList) {
+            FeedbackResponseDto dto = new FeedbackResponseDto();
+            dto.setId(feedback.getId());
+            dto.setTargetType(feedback.getTargetType().name());
+            dto.setTargetId(feedback.getTargetId());
+            dto.setRating(feedback.getRating());
+            dto.setReview(feedback.getReview());
+            dto.setUserName(feedback.getUser().getName());
+            dto.setUserEmail(feedback.getUser().getUserAccount().getUsername());
+            dto.setUserId(feedback.getUser().getId()); // 添加用户ID
+            dto.setCreatedAt(feedback.getCreatedAt());
+            dto.setTags(feedback.getTags());
+            dto.setBookingId(feedback.getBooking() != null ? feedback.getBooking().getId() : null);
+
+            // Set target name based on target type
+            if (feedback.getTargetType() == Feedback.TargetType.COURT) {
+                dto.setTargetName(courtNames.getOrDefault(feedback.getTargetId(), "Unknown Court"));
+                // Average rating for the target
+                dto.setAverageRating(ratingAggregates.average(Feedback.TargetType.COURT, feedback.getTargetId()));
+            } else if (feedback.getTargetType() == Feedback.TargetType.EVENT) {
+                dto.setTargetName(eventTitles.getOrDefault(feedback.getTargetId(), "Unknown Event"));
+            } else if (feedback.getTargetType() == Feedback.TargetType.COACH) {
+                dto.setTargetName(coachNames.getOrDefault(feedback.getTargetId(), "Unknown Coach"));
+                // 為教練評價添加課程詳細信息
+                ClassSession session = sessionsByFeedback.get(feedback.getId());
+                if (session != null) {
+                    dto.setClassSessionId(session.getId());
+                    dto.setClassSessionTitle(session.getTitle());
+                    dto.setClassSessionDate(session.getStartTime().toLocalDate().toString());
+                    dto.setClassSessionTime(session.getStartTime().toLocalTime().toString() + " - " + session.getEndTime().toLocalTime().toString());
+
+                    // 獲取場地信息
+                    if (session.getVenue() != null) {
+                        dto.setVenueName(session.getVenue().getName());
+                    } else if (session.getCourt() != null && session.getCourt().getVenue() != null) {
+                        dto.setVenueName(session.getCourt().getVenue().getName());
                     }
-                } else {
-                    // 回退到舊的邏輯（為了向後兼容）
-                    List<ClassRegistration> registrations = classRegistrationRepository.findByMemberUserId(feedback.getUser().getId());
-                    List<ClassRegistration> coachRegistrations = registrations.stream()
-                        .filter(reg -> {
-                            ClassSession session = reg.getClassSession();
-                            return session != null && 
-                                   session.getCoach() != null && 
-                                   session.getCoach().getId().equals(feedback.getTargetId());
-                        })
-                        .sorted((reg1, reg2) -> {
-                            // 按課程開始時間排序，最新的在前
-                            return reg2.getClassSession().getStartTime().compareTo(reg1.getClassSession().getStartTime());
-                        })
-                        .collect(Collectors.toList());
-                    
-                    if (!coachRegistrations.isEmpty()) {
-                        // 嘗試根據評價時間匹配最相關的課程
-                        LocalDateTime feedbackTime = feedback.getCreatedAt();
-                        ClassRegistration bestMatch = null;
-                        
-                        // 找到評價時間之前最近的課程
-                        for (ClassRegistration reg : coachRegistrations) {
-                            ClassSession session = reg.getClassSession();
-                            if (session.getStartTime().isBefore(feedbackTime)) {
-                                bestMatch = reg;
-                                break;
-                            }
-                        }
-                        
-                        // 如果沒有找到，使用最新的課程
-                        if (bestMatch == null) {
-                            bestMatch = coachRegistrations.get(0);
-                        }
-                        
-                        ClassSession session = bestMatch.getClassSession();
-                        dto.setClassSessionId(session.getId());
-                        dto.setClassSessionTitle(session.getTitle());
-                        dto.setClassSessionDate(session.getStartTime().toLocalDate().toString());
-                        dto.setClassSessionTime(session.getStartTime().toLocalTime().toString() + " - " + session.getEndTime().toLocalTime().toString());
-                        
-                        // 獲取場地信息
-                        if (session.getVenue() != null) {
-                            dto.setVenueName(session.getVenue().getName());
-                        } else if (session.getCourt() != null && session.getCourt().getVenue() != null) {
-                            dto.setVenueName(session.getCourt().getVenue().getName());
-                        }
-                        
-                        // 獲取球場信息
-                        if (session.getCourt() != null) {
-                            dto.setCourtName(session.getCourt().getName());
-                        }
-                        
-                        System.out.println("Fallback: Found class session for feedback " + feedback.getId() + ": " + 
-                                         session.getTitle() + " on " + session.getStartTime() + 
-                                         " at " + (session.getVenue() != null ? session.getVenue().getName() : "Unknown venue"));
+
+                    // 獲取球場信息
+                    if (session.getCourt() != null) {
+                        dto.setCourtName(session.getCourt().getName());
                     }
                 }
-            } catch (Exception e) {
-                System.out.println("Error fetching class session details for coach feedback: " + e.getMessage());
+            } else {
+                dto.setTargetName("Unknown Target");
             }
-        } else {
-            dto.setTargetName("Unknown Target");
+            result.add(dto);
         }
-        
-        // Calculate average rating for the target
-        if (feedback.getTargetType() == Feedback.TargetType.COURT) {
-            Double avgRating = feedbackRepository.findByTargetTypeAndTargetIdOrderByCreatedAtDesc(Feedback.TargetType.COURT, feedback.getTargetId())
-                    .stream()
-                    .mapToInt(Feedback::getRating)
-                    .average()
-                    .orElse(0.0);
-            dto.setAverageRating(avgRating);
+        return result;
+    }
+
+    /**
+     * 教練評價對應的課程：有 classSessionId 的直接使用；舊資料回退為評價者在該教練課程中，
+     * 評價時間之前最近的一堂（沒有則取最新的一堂）。全部課程以一次查詢載入。
+     */
+    private Map<Integer, ClassSession> resolveCoachFeedbackSessions(List<Feedback> feedbackList) {
+        Map<Integer, Integer> sessionIdByFeedback = new HashMap<>();
+        List<Feedback> fallback = new ArrayList<>();
+        for (Feedback feedback : feedbackList) {
+            if (feedback.getTargetType() != Feedback.TargetType.COACH) {
+                continue;
+            }
+            if (feedback.getClassSessionId() != null) {
+                sessionIdByFeedback.put(feedback.getId(), feedback.getClassSessionId());
+            } else if (feedback.getTargetId() != null) {
+                fallback.add(feedback);
+            }
+        }
+
+        try {
+            if (!fallback.isEmpty()) {
+                Set<Integer> userIds = new HashSet<>();
+                Set<Integer> coachIds = new HashSet<>();
+                for (Feedback feedback : fallback) {
+                    userIds.add(feedback.getUser().getId());
+                    coachIds.add(feedback.getTargetId());
+                }
+                // key: userId + "_" + coachId，value: [sessionId, startTime]，按開始時間排序，最新的在前
+                Map<String, List<Object[]>> registrations = new HashMap<>();
+                for (Object[] row : classRegistrationRepository.findSessionStartsByUsersAndCoaches(userIds, coachIds)) {
+                    registrations.computeIfAbsent(row[0] + "_" + row[1], k -> new ArrayList<>())
+                            .add(new Object[]{row[2], row[3]});
+                }
+                registrations.values().forEach(list ->
+                        list.sort((a, b) -> ((LocalDateTime) b[1]).compareTo((LocalDateTime) a[1])));
+
+                for (Feedback feedback : fallback) {
+                    List<Object[]> candidates = registrations.get(feedback.getUser().getId() + "_" + feedback.getTargetId());
+                    if (candidates == null || candidates.isEmpty()) {
+                        continue;
+                    }
+                    // 找到評價時間之前最近的課程，如果沒有找到，使用最新的課程
+                    Object[] bestMatch = candidates.get(0);
+                    for (Object[] candidate : candidates) {
+                        if (feedback.getCreatedAt() != null && ((LocalDateTime) candidate[1]).isBefore(feedback.getCreatedAt())) {
+                            bestMatch = candidate;
+                            break;
+                        }
+                    }
+                    sessionIdByFeedback.put(feedback.getId(), (Integer) bestMatch[0]);
+                }
+            }
+
+            if (sessionIdByFeedback.isEmpty()) {
+                return Map.of();
+            }
+            Map<Integer, ClassSession> sessions = new HashMap<>();
+            for (ClassSession session : classSessionRepository.findAllByIdWithVenue(new HashSet<>(sessionIdByFeedback.values()))) {
+                sessions.put(session.getId(), session);
+            }
+            Map<Integer, ClassSession> result = new HashMap<>();
+            sessionIdByFeedback.forEach((feedbackId, sessionId) -> {
+                ClassSession session = sessions.get(sessionId);
+                if (session != null) {
+                    result.put(feedbackId, session);
+                }
+            });
+            return result;
+        } catch (Exception e) {
+            log.warn("Error fetching class session details for coach feedback: {}", e.getMessage());
+            return Map.of();
         }
-        
-        return dto;
     }
 
     public List<FeedbackResponseDto> getFeedbackByCurrentUser() {
@@ -323,9 +345,7 @@ public class FeedbackService {
 
         List<Feedback> feedbackList = feedbackRepository.findByUserId(user.getId());
 
-        return feedbackList.stream()
-                .map(this::convertToDto)
-                .collect(Collectors.toList());
+        return convertToDtos(feedbackList);
     }
 
     public List<ReviewableItemDto> getReviewableBookings() {
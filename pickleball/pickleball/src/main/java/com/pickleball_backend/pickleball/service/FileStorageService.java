@@ -1,87 +1,209 @@
 package com.pickleball_backend.pickleball.service;
 
+import com.pickleball_backend.pickleball.entity.StoredFile;
+import com.pickleball_backend.pickleball.repository.StoredFileRepository;
+import com.pickleball_backend.pickleball.storage.BlobStore;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Service;
 import org.springframework.web.multipart.MultipartFile;
 import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
-import java.util.Arrays;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
 import java.util.List;
-import java.util.UUID;
+import java.util.regex.Pattern;
 import org.springframework.util.StringUtils;
-import java.nio.file.StandardCopyOption;
 
+/**
+ * 上傳檔案以內容的 SHA-256 命名（{hash}.{副檔名}），相同內容只存一份並以 stored_file 記錄引用數。
+ * 上傳先寫到暫存目錄、邊寫邊算 hash，完成後才交給 {@link BlobStore}，讀者不會看到寫一半的檔案；
+ * 新存入的圖片交給 {@link ImageVariantService} 在背景產生縮圖。
+ */
 @Service
 public class FileStorageService {
     private static final Logger log = LoggerFactory.getLogger(FileStorageService.class);
-    private final Path rootLocation = Paths.get("uploads");
-    private static final long MAX_FILE_SIZE = 800 * 1024;
+    public static final long MAX_FILE_SIZE = 5 * 1024 * 1024;
+    public static final List<String> ALLOWED_EXTENSIONS = List.of(
+            ".pdf", ".doc", ".docx", ".jpg", ".jpeg", ".png", ".gif", ".webp",
+            ".txt", ".xls", ".xlsx", ".ppt", ".pptx"
+    );
+    private static final Pattern CONTENT_ADDRESSED = Pattern.compile("[0-9a-f]{64}(\\.[a-z0-9]+)?");
+    private static final int LOCK_STRIPES = 64;
+
+    private final BlobStore blobStore;
+    private final StoredFileRepository storedFileRepository;
+    private final ImageVariantService imageVariantService;
+    private final Path stagingLocation;
+    // 同一個 key 的引用數增減與實體檔案的存刪需一起完成，避免刪除中的檔案被新上傳引用
+    private final Object[] keyLocks = new Object[LOCK_STRIPES];
+
+    public FileStorageService(BlobStore blobStore,
+                              StoredFileRepository storedFileRepository,
+                              ImageVariantService imageVariantService,
+                              @Value("${app.storage.staging-dir:uploads/.staging}") String stagingDir) {
+        this.blobStore = blobStore;
+        this.storedFileRepository = storedFileRepository;
+        this.imageVariantService = imageVariantService;
+        this.stagingLocation = Paths.get(stagingDir).toAbsolutePath().normalize();
+        for (int i = 0; i < LOCK_STRIPES; i++) {
+            keyLocks[i] = new Object();
+        }
+    }
 
     public void init() {
         try {
-            if (!Files.exists(rootLocation)) {
-                Files.createDirectories(rootLocation);
-            }
+            Files.createDirectories(stagingLocation);
         } catch (IOException e) {
             throw new RuntimeException("Could not initialize storage directory: " + e.getMessage());
         }
     }
 
+    public Path getStagingLocation() {
+        return stagingLocation;
+    }
+
     public void delete(String filename) {
         if (filename == null || filename.isEmpty()) return;
 
         try {
-            Path filePath = this.rootLocation.resolve(filename);
-            if (Files.exists(filePath)) {
-                Files.delete(filePath);
-                log.info("Deleted file: {}", filename);
+            if (!isContentAddressed(filename)) {
+                // 舊檔名（UUID_原檔名）沒有共用，直接刪除
+                if (blobStore.delete(filename)) {
+                    log.info("Deleted file: {}", filename);
+                }
+                return;
+            }
+            synchronized (lockFor(filename)) {
+                storedFileRepository.decrementRefCount(filename);
+                if (storedFileRepository.deleteIfUnreferenced(filename) > 0) {
+                    imageVariantService.deleteVariants(filename);
+                    if (blobStore.delete(filename)) {
+                        log.info("Deleted file: {}", filename);
+                    }
+                }
             }
         } catch (IOException e) {
             throw new RuntimeException("Failed to delete file: " + e.getMessage());
         }
     }
 
-    // Add file validation
     public String store(MultipartFile file) {
+        if (file.isEmpty()) {
+            throw new RuntimeException("Failed to store empty file");
+        }
+        if (file.getSize() > MAX_FILE_SIZE) {
+            throw new RuntimeException("File size exceeds 5MB limit");
+        }
+        String extension = checkExtension(file.getOriginalFilename());
+
+        Path temp = null;
         try {
-            if (file.isEmpty()) {
-                throw new RuntimeException("Failed to store empty file");
+            temp = createStagingFile();
+            MessageDigest digest = sha256();
+            try (InputStream in = new DigestInputStream(file.getInputStream(), digest)) {
+                Files.copy(in, temp, StandardCopyOption.REPLACE_EXISTING);
             }
+            return commit(HexFormat.of().formatHex(digest.digest()) + extension, temp, Files.size(temp));
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to store file: " + e.getMessage());
+        } finally {
+            deleteQuietly(temp);
+        }
+    }
 
-            // Remove file size limit for documents
-            if (file.getSize() > 5 * 1024 * 1024) { // 5MB limit
-                throw new RuntimeException("File size exceeds 5MB limit");
+    /**
+     * 將暫存目錄中已寫好的檔案存入（供分段上傳完成時使用），回傳檔名
+     */
+    public String storeStaged(Path staged, String extension) {
+        try {
+            MessageDigest digest = sha256();
+            ByteBuffer buffer = ByteBuffer.allocateDirect(64 * 1024);
+            try (FileChannel channel = FileChannel.open(staged, StandardOpenOption.READ)) {
+                while (channel.read(buffer) >= 0) {
+                    buffer.flip();
+                    digest.update(buffer);
+                    buffer.clear();
+                }
             }
+            return commit(HexFormat.of().formatHex(digest.digest()) + extension, staged, Files.size(staged));
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to store file: " + e.getMessage());
+        } finally {
+            deleteQuietly(staged);
+        }
+    }
 
-            // Generate unique filename
-            String filename = UUID.randomUUID() + "_" + StringUtils.cleanPath(file.getOriginalFilename());
-            String extension = filename.substring(filename.lastIndexOf(".")).toLowerCase();
+    public Path createStagingFile() throws IOException {
+        Files.createDirectories(stagingLocation);
+        return Files.createTempFile(stagingLocation, "upload-", ".tmp");
+    }
 
-            // Allow all document types
-            List<String> allowedExtensions = Arrays.asList(
-                    ".pdf", ".doc", ".docx", ".jpg", ".jpeg", ".png",
-                    ".txt", ".xls", ".xlsx", ".ppt", ".pptx"
-            );
+    /**
+     * 檢查副檔名並回傳小寫的副檔名（含點）
+     */
+    public static String checkExtension(String originalFilename) {
+        String name = StringUtils.cleanPath(originalFilename == null ? "" : originalFilename);
+        int dot = name.lastIndexOf('.');
+        String extension = dot >= 0 ? name.substring(dot).toLowerCase() : "";
+        if (!ALLOWED_EXTENSIONS.contains(extension)) {
+            throw new RuntimeException("Unsupported file type: " + extension);
+        }
+        return extension;
+    }
 
-            if (!allowedExtensions.contains(extension)) {
-                throw new RuntimeException("Unsupported file type: " + extension);
-            }
+    public static boolean isContentAddressed(String filename) {
+        return filename != null && CONTENT_ADDRESSED.matcher(filename).matches();
+    }
 
-            // Create directory if not exists
-            if (!Files.exists(rootLocation)) {
-                Files.createDirectories(rootLocation);
+    private String commit(String key, Path temp, long size) throws IOException {
+        synchronized (lockFor(key)) {
+            boolean created = blobStore.put(key, temp);
+            if (storedFileRepository.incrementRefCount(key) == 0) {
+                try {
+                    storedFileRepository.save(new StoredFile(key, size));
+                } catch (DataIntegrityViolationException e) {
+                    // 其他節點同時建立了同一筆
+                    storedFileRepository.incrementRefCount(key);
+                }
+            }
+            log.debug("Stored file {} ({} bytes, {})", key, size, created ? "new" : "deduplicated");
+            if (created) {
+                imageVariantService.submit(key);
             }
+            return key;
+        }
+    }
 
-            // Save file
-            Path destination = this.rootLocation.resolve(filename);
-            Files.copy(file.getInputStream(), destination, StandardCopyOption.REPLACE_EXISTING);
+    private Object lockFor(String key) {
+        return keyLocks[Math.floorMod(key.hashCode(), LOCK_STRIPES)];
+    }
 
-            return filename;
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static void deleteQuietly(Path path) {
+        if (path == null) return;
+        try {
+            Files.deleteIfExists(path);
         } catch (IOException e) {
-            throw new RuntimeException("Failed to store file: " + e.getMessage());
+            log.warn("Failed to delete staging file {}: {}", path, e.getMessage());
         }
     }
-}
\ No newline at end of file
+}
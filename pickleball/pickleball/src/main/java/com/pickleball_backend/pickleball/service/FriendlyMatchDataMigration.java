@@ -0,0 +1,128 @@
+package com.pickleball_backend.pickleball.service;
+
+import com.pickleball_backend.pickleball.entity.Booking;
+import com.pickleball_backend.pickleball.entity.BookingSlot;
+import com.pickleball_backend.pickleball.entity.Court;
+import com.pickleball_backend.pickleball.entity.FriendlyMatch;
+import com.pickleball_backend.pickleball.entity.JoinRequest;
+import com.pickleball_backend.pickleball.entity.Slot;
+import com.pickleball_backend.pickleball.repository.CourtRepository;
+import com.pickleball_backend.pickleball.repository.FriendlyMatchRepository;
+import com.pickleball_backend.pickleball.repository.JoinRequestRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * 舊資料修正，原本在每次 GET /api/friendly-matches/all 時執行：
+ * 邀請型比賽補上 booking 的時間、主辦人補上 APPROVED join request、有球場的比賽補上價格；
+ * 重複的 join request 必須在建立唯一鍵之前刪除，由 JoinRequestDedupeInitializer 在 schema 更新前處理。
+ * 新建立的比賽在建立時已處理好，因此只在啟動時以條件查詢找出仍需修正的資料，修正後再次執行不會有任何變動。
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class FriendlyMatchDataMigration {
+
+    private final FriendlyMatchRepository matchRepository;
+    private final CourtRepository courtRepository;
+    private final JoinRequestRepository joinRequestRepository;
+    private final FriendlyMatchService friendlyMatchService;
+    private final TransactionTemplate transactionTemplate;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void repairLegacyMatches() {
+        try {
+            repair();
+        } catch (RuntimeException e) {
+            log.warn("Friendly match data repair failed, will retry on next startup: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * 執行一次修正並回傳實際修正的筆數；失敗時整批回滾
+     */
+    public int repair() {
+        return transactionTemplate.execute(status -> {
+            int times = fillInvitationTimes();
+            int organizers = addMissingOrganizerJoinRequests();
+            int prices = fillMissingPrices();
+            int total = times + organizers + prices;
+            if (total > 0) {
+                log.info("Repaired friendly matches: {} invitation times, {} organizer join requests, {} prices",
+                        times, organizers, prices);
+            }
+            return total;
+        });
+    }
+
+    // booking 沒有 slot 的邀請無法補上時間，每次啟動都會再被查到，不算修正
+    private int fillInvitationTimes() {
+        int repaired = 0;
+        for (FriendlyMatch match : matchRepository.findInvitationsMissingTimes()) {
+            Booking booking = match.getBooking();
+            List<BookingSlot> slots = booking.getBookingSlots();
+            if (slots == null || slots.isEmpty()) {
+                continue;
+            }
+            Slot firstSlot = slots.get(0).getSlot();
+            Slot lastSlot = slots.get(slots.size() - 1).getSlot();
+            boolean filled = false;
+            if (match.getStartTime() == null && firstSlot != null
+                    && firstSlot.getDate() != null && firstSlot.getStartTime() != null) {
+                match.setStartTime(LocalDateTime.of(firstSlot.getDate(), firstSlot.getStartTime()));
+                filled = true;
+            }
+            if (match.getEndTime() == null && lastSlot != null
+                    && lastSlot.getDate() != null && lastSlot.getEndTime() != null) {
+                match.setEndTime(LocalDateTime.of(lastSlot.getDate(), lastSlot.getEndTime()));
+                filled = true;
+            }
+            if (match.getPaymentStatus() == null) {
+                match.setPaymentStatus("CONFIRMED");
+            }
+            if (filled) {
+                repaired++;
+            }
+        }
+        return repaired;
+    }
+
+    private int addMissingOrganizerJoinRequests() {
+        List<FriendlyMatch> matches = matchRepository.findMatchesMissingOrganizerJoinRequest();
+        for (FriendlyMatch match : matches) {
+            // 主辦人已有未核准的 request 時直接核准，再新增一筆會違反唯一鍵
+            Optional<JoinRequest> existing = joinRequestRepository.findByFriendlyMatch_IdAndMember_Id(
+                    match.getId(), match.getOrganizer().getId());
+            if (existing.isPresent()) {
+                existing.get().setStatus(JoinRequest.Status.APPROVED);
+            } else {
+                friendlyMatchService.addOrganizerJoinRequest(match);
+            }
+            // 確保 currentPlayers 至少為 1
+            if (match.getCurrentPlayers() < 1) {
+                match.setCurrentPlayers(1);
+            }
+        }
+        return matches.size();
+    }
+
+    private int fillMissingPrices() {
+        int repaired = 0;
+        for (FriendlyMatch match : matchRepository.findPricedMatchesMissingPrice()) {
+            Court court = courtRepository.findById(match.getCourtId()).orElse(null);
+            if (court != null) {
+                match.setPrice(FriendlyMatchService.calculatePrice(court, match.getStartTime(), match.getDurationHours()));
+                repaired++;
+            }
+        }
+        return repaired;
+    }
+}
@@ -8,10 +8,16 @@ import com.pickleball_backend.pickleball.dto.JoinRequestDto;
 import com.pickleball_backend.pickleball.dto.FriendlyMatchResponseDto;
 import com.pickleball_backend.pickleball.dto.BookingResponseDto;
 import com.pickleball_backend.pickleball.dto.FriendlyMatchPaymentDto;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Objects;
 import java.util.HashMap;
@@ -24,8 +30,15 @@ import com.pickleball_backend.pickleball.repository.WalletRepository;
 import org.springframework.scheduling.annotation.Scheduled;
 
 @Service
+@Slf4j
 public class FriendlyMatchService {
 
+    public static final String FEED_UPCOMING = "upcoming";
+    public static final String FEED_OPEN = "open";
+    public static final String FEED_MINE = "mine";
+    public static final String FEED_ALL = "all";
+    private static final int FEED_BATCH_SIZE = 500;
+
     @Autowired private FriendlyMatchRepository matchRepository;
     @Autowired private JoinRequestRepository joinRequestRepository;
     @Autowired private MemberRepository memberRepository;
@@ -36,6 +49,8 @@ public class FriendlyMatchService {
     @Autowired private SlotRepository slotRepository;
     @Autowired private PaymentRepository paymentRepository;
     @Autowired private WalletRepository walletRepository;
+    @Autowired private WalletLedgerService walletLedgerService;
+    @Autowired private MatchDiscoveryService matchDiscoveryService;
     @Autowired
     private CancellationRequestRepository cancellationRequestRepository;
     @Autowired
@@ -52,7 +67,54 @@ public class FriendlyMatchService {
                 .orElseThrow(() -> new ResourceNotFoundException("Member not found"));
 
         match.setOrganizer(organizer);
-        return matchRepository.save(match);
+        if ((match.getPrice() == null || match.getPrice() == 0) && match.getCourtId() != null
+                && match.getStartTime() != null && match.getDurationHours() != null) {
+            courtRepository.findById(match.getCourtId())
+                    .ifPresent(court -> match.setPrice(calculatePrice(court, match.getStartTime(), match.getDurationHours())));
+        }
+        FriendlyMatch savedMatch = matchRepository.save(match);
+        addOrganizerJoinRequest(savedMatch);
+        return savedMatch;
+    }
+
+    // 為 organizer 創建一個 join request，確保他們被計算為參與者
+    void addOrganizerJoinRequest(FriendlyMatch match) {
+        JoinRequest organizerJoinRequest = new JoinRequest();
+        organizerJoinRequest.setFriendlyMatch(match);
+        organizerJoinRequest.setMember(match.getOrganizer());
+        organizerJoinRequest.setStatus(JoinRequest.Status.APPROVED);
+        organizerJoinRequest.setRequestTime(LocalDateTime.now());
+        joinRequestRepository.save(organizerJoinRequest);
+    }
+
+    /**
+     * 依開始時間是否落在球場的 peak 時段計算比賽價格；沒有設定或無法解析 peak 時段時使用 peak 價格
+     */
+    static double calculatePrice(Court court, LocalDateTime startTime, int durationHours) {
+        double peakPrice = court.getPeakHourlyPrice() != null ? court.getPeakHourlyPrice() : 0.0;
+        double pricePerHour = peakPrice;
+        if (court.getPeakStartTime() != null && court.getPeakEndTime() != null) {
+            try {
+                int peakStartHour = Integer.parseInt(court.getPeakStartTime().split(":")[0]);
+                int peakEndHour = Integer.parseInt(court.getPeakEndTime().split(":")[0]);
+                int matchStartHour = startTime.getHour();
+
+                boolean isPeakHour;
+                // 處理跨日的情況（例如 22:00 - 02:00）
+                if (peakStartHour > peakEndHour) {
+                    isPeakHour = matchStartHour >= peakStartHour || matchStartHour <= peakEndHour;
+                } else {
+                    isPeakHour = matchStartHour >= peakStartHour && matchStartHour < peakEndHour;
+                }
+                if (!isPeakHour) {
+                    pricePerHour = court.getOffPeakHourlyPrice() != null ? court.getOffPeakHourlyPrice() : 0.0;
+                }
+            } catch (Exception e) {
+                // 如果解析失敗，使用 peak price 作為默認值
+                pricePerHour = peakPrice;
+            }
+        }
+        return pricePerHour * durationHours;
     }
 
     @Transactional
@@ -76,53 +138,7 @@ public class FriendlyMatchService {
             
             // 計算價格：根據時間判斷使用 peak 或 off-peak 價格
             if (match.getDurationHours() != null && match.getStartTime() != null) {
-                double pricePerHour = 0.0;
-                String priceType = "Unknown";
-                
-                // 判斷是否為 peak hour
-                if (court.getPeakStartTime() != null && court.getPeakEndTime() != null) {
-                    try {
-                        int peakStartHour = Integer.parseInt(court.getPeakStartTime().split(":")[0]);
-                        int peakEndHour = Integer.parseInt(court.getPeakEndTime().split(":")[0]);
-                        int matchStartHour = match.getStartTime().getHour();
-                        
-                        boolean isPeakHour;
-                        // 處理跨日的情況（例如 22:00 - 02:00）
-                        if (peakStartHour > peakEndHour) {
-                            isPeakHour = matchStartHour >= peakStartHour || matchStartHour <= peakEndHour;
-                        } else {
-                            isPeakHour = matchStartHour >= peakStartHour && matchStartHour < peakEndHour;
-                        }
-                        
-                        if (isPeakHour) {
-                            pricePerHour = court.getPeakHourlyPrice() != null ? court.getPeakHourlyPrice() : 0.0;
-                            priceType = "Peak";
-                        } else {
-                            pricePerHour = court.getOffPeakHourlyPrice() != null ? court.getOffPeakHourlyPrice() : 0.0;
-                            priceType = "Off-Peak";
-                        }
-                    } catch (Exception e) {
-                        // 如果解析失敗，使用 peak price 作為默認值
-                        pricePerHour = court.getPeakHourlyPrice() != null ? court.getPeakHourlyPrice() : 0.0;
-                        priceType = "Default (Peak)";
-                    }
-                } else {
-                    // 如果沒有設置 peak 時間，使用 peak price 作為默認值
-                    pricePerHour = court.getPeakHourlyPrice() != null ? court.getPeakHourlyPrice() : 0.0;
-                    priceType = "Default (Peak)";
-                }
-                
-                double totalPrice = pricePerHour * match.getDurationHours();
-                match.setPrice(totalPrice);
-                
-                System.out.println("=== Price calculation ===");
-                System.out.println("Match start time: " + match.getStartTime());
-                System.out.println("Peak start time: " + court.getPeakStartTime());
-                System.out.println("Peak end time: " + court.getPeakEndTime());
-                System.out.println("Price type: " + priceType);
-                System.out.println("Court price per hour: " + pricePerHour);
-                System.out.println("Duration hours: " + match.getDurationHours());
-                System.out.println("Total price: " + totalPrice);
+                match.setPrice(calculatePrice(court, match.getStartTime(), match.getDurationHours()));
             }
         }
 
@@ -165,14 +181,7 @@ public class FriendlyMatchService {
         }
 
         FriendlyMatch savedMatch = matchRepository.save(match);
-        
-        // 為 organizer 創建一個 join request，確保他們被計算為參與者
-        JoinRequest organizerJoinRequest = new JoinRequest();
-        organizerJoinRequest.setFriendlyMatch(savedMatch);
-        organizerJoinRequest.setMember(organizer);
-        organizerJoinRequest.setStatus(JoinRequest.Status.APPROVED);
-        organizerJoinRequest.setRequestTime(LocalDateTime.now());
-        joinRequestRepository.save(organizerJoinRequest);
+        addOrganizerJoinRequest(savedMatch);
         
         // Convert to DTO to avoid serialization issues
         return convertToResponseDto(savedMatch, "Friendly match created successfully! The court is now temporarily locked.");
@@ -185,57 +194,26 @@ public class FriendlyMatchService {
      * 否则返回原始状态
      */
     private String determineMatchStatus(FriendlyMatch match) {
-        System.out.println("=== Checking match status ===");
-        System.out.println("Match ID: " + match.getId());
-        System.out.println("Original status: " + match.getStatus());
-        System.out.println("Start time: " + match.getStartTime());
-        System.out.println("End time: " + match.getEndTime());
-        System.out.println("Current players: " + match.getCurrentPlayers());
-        System.out.println("Max players: " + match.getMaxPlayers());
-        
+        return effectiveStatus(match.getStatus(), match.getStartTime(), match.getEndTime(),
+                match.getCurrentPlayers(), match.getMaxPlayers());
+    }
+
+    private static String effectiveStatus(String status, LocalDateTime startTime, LocalDateTime endTime,
+                                          int currentPlayers, Integer maxPlayers) {
         // 如果match已经被取消，直接返回CANCELLED
-        if ("CANCELLED".equals(match.getStatus())) {
-            System.out.println("Match is CANCELLED, returning CANCELLED");
+        if ("CANCELLED".equals(status)) {
             return "CANCELLED";
         }
-        
-        // 检查时间是否已过期
-        LocalDateTime now = LocalDateTime.now();
-        System.out.println("Current time: " + now);
-        System.out.println("Current date: " + now.toLocalDate());
-        LocalDateTime matchEndTime = null;
-        
-        if (match.getEndTime() != null) {
-            matchEndTime = match.getEndTime();
-            System.out.println("Using end time: " + matchEndTime);
-            System.out.println("End date: " + matchEndTime.toLocalDate());
-        } else if (match.getStartTime() != null) {
-            // 如果没有endTime，使用startTime + 1小时作为结束时间
-            matchEndTime = match.getStartTime().plusHours(1);
-            System.out.println("Using start time + 1 hour: " + matchEndTime);
-            System.out.println("Calculated end date: " + matchEndTime.toLocalDate());
-        }
-        
-        if (matchEndTime != null) {
-            boolean isExpired = now.isAfter(matchEndTime);
-            System.out.println("Is expired: " + isExpired);
-            System.out.println("Time difference: " + java.time.Duration.between(matchEndTime, now));
-            if (isExpired) {
-                System.out.println("Match is expired, returning END");
-                return "END";
-            }
-        } else {
-            System.out.println("No end time available, cannot determine if expired");
+        // 检查时间是否已过期；如果没有endTime，使用startTime + 1小时作为结束时间
+        LocalDateTime matchEndTime = endTime != null ? endTime : startTime != null ? startTime.plusHours(1) : null;
+        if (matchEndTime != null && LocalDateTime.now().isAfter(matchEndTime)) {
+            return "END";
         }
-        
         // 检查是否满员
-        if (match.getCurrentPlayers() >= match.getMaxPlayers()) {
-            System.out.println("Match is full, returning FULL");
+        if (maxPlayers != null && currentPlayers >= maxPlayers) {
             return "FULL";
         }
-        
-        System.out.println("Match is not expired and not full, returning original status: " + match.getStatus());
-        return match.getStatus();
+        return status;
     }
 
     @Transactional
@@ -306,37 +284,40 @@ public class FriendlyMatchService {
             throw new ValidationException("Match is not open for joining. Current status: " + currentStatus);
         }
         
-        // 检查是否已经满员
-        if (match.getCurrentPlayers() >= match.getMaxPlayers()) {
-            throw new ValidationException("Match is already full. Cannot join.");
+        // Check for existing request
+        if (joinRequestRepository.existsByFriendlyMatch_IdAndMember_Id(matchId, memberId)) {
+            throw new ValidationException("Join request already exists");
         }
 
-        Member member = memberRepository.findById(memberId)
-                .orElseThrow(() -> new ResourceNotFoundException("Member not found"));
-
-        // Check for existing request
-        boolean alreadyJoined = match.getJoinRequests() != null && match.getJoinRequests().stream()
-            .anyMatch(r -> r.getMember() != null && r.getMember().getId().equals(memberId));
-        if (alreadyJoined) {
+        // 條件式 UPDATE 佔位：併發加入由資料列鎖依序判斷，不會超過 maxPlayers，最後一位加入時同時設為 FULL。
+        // 先鎖比賽再新增 join request，所有加入的交易取鎖順序一致
+        if (matchRepository.claimSeat(matchId) == 0) {
+            throw new ValidationException("Match is already full. Cannot join.");
+        }
+        // 已持有比賽的資料列鎖，同一位會員的併發加入在這裡依序判斷；唯一鍵未能建立的舊 schema 也不會重複佔位
+        if (!joinRequestRepository.findLockedByMatchAndMember(matchId, memberId).isEmpty()) {
             throw new ValidationException("Join request already exists");
         }
+        // claimSeat 會清空 persistence context，重新載入更新後的人數及狀態
+        match = matchRepository.findById(matchId)
+                .orElseThrow(() -> new ResourceNotFoundException("Match not found"));
+        Member member = memberRepository.findById(memberId)
+                .orElseThrow(() -> new ResourceNotFoundException("Member not found"));
 
         JoinRequest req = new JoinRequest();
         req.setMember(member);
         req.setFriendlyMatch(match);
         // 直接設為 APPROVED
         req.setStatus(JoinRequest.Status.APPROVED);
-        joinRequestRepository.save(req);
-        // 增加 currentPlayers
-        match.setCurrentPlayers(match.getCurrentPlayers() + 1);
-        matchRepository.save(match);
+        try {
+            // 同一位會員同時送出兩次時，後到的交易在唯一鍵上失敗，整筆回滾（含已佔的名額）
+            joinRequestRepository.saveAndFlush(req);
+        } catch (DataIntegrityViolationException e) {
+            throw new ValidationException("Join request already exists");
+        }
 
         // 检查是否满员
-        if (match.getCurrentPlayers() >= match.getMaxPlayers()) {
-            // 满员时将状态设为FULL
-            match.setStatus("FULL");
-            matchRepository.save(match);
-            
+        if ("FULL".equals(match.getStatus())) {
             // 满员时通知organizer
             emailService.sendEmailIfEnabled(
                     match.getOrganizer().getUser(),
@@ -378,6 +359,12 @@ public class FriendlyMatchService {
 
         // 直接刪除 join request，不需要判斷狀態
         joinRequestRepository.delete(request);
+        // 已加入的非主辦人退出時釋出名額
+        FriendlyMatch match = request.getFriendlyMatch();
+        if (request.getStatus() == JoinRequest.Status.APPROVED
+                && (match.getOrganizer() == null || !match.getOrganizer().getId().equals(memberId))) {
+            matchRepository.releaseSeat(match.getId());
+        }
 
         // Notify organizer
         emailService.sendEmailIfEnabled(
@@ -425,7 +412,9 @@ public class FriendlyMatchService {
         if (!existing.isEmpty()) {
             throw new ValidationException("A match for this booking/time already exists.");
         }
-        return matchRepository.save(match);
+        FriendlyMatch savedMatch = matchRepository.save(match);
+        addOrganizerJoinRequest(savedMatch);
+        return savedMatch;
     }
 
     // 每天凌晨2點清理過期 reservation 和 match
@@ -454,62 +443,50 @@ public class FriendlyMatchService {
     @Scheduled(cron = "0 0 * * * *")
     @Transactional
     public void cleanupUnpaidFullMatches() {
-        System.out.println("=== Checking for unpaid full matches ===");
         LocalDateTime twentyFourHoursAgo = LocalDateTime.now().minusHours(24);
         
-        // 查找所有OPEN状态且PENDING付款的match
-        List<FriendlyMatch> allMatches = matchRepository.findAll();
-        List<FriendlyMatch> unpaidFullMatches = allMatches.stream()
-            .filter(match -> "OPEN".equals(match.getStatus()) && "PENDING".equals(match.getPaymentStatus()))
-            .toList();
-        
-        for (FriendlyMatch match : unpaidFullMatches) {
-            // 检查是否满员
-            if (match.getCurrentPlayers() >= match.getMaxPlayers()) {
-                // 使用startTime作为创建时间的替代（简化逻辑）
-                if (match.getStartTime() != null && match.getStartTime().isBefore(twentyFourHoursAgo)) {
-                    System.out.println("Cancelling unpaid full match: " + match.getId());
-                    
-                    // 解锁对应的时间段
-                    if (match.getStartTime() != null && match.getCourtId() != null) {
-                        LocalDateTime startTime = match.getStartTime();
-                        LocalDateTime endTime = match.getEndTime();
-                        
-                        List<Slot> slotsToUnlock = slotRepository.findByCourtIdAndDateAndStatus(
-                            match.getCourtId(),
-                            startTime.toLocalDate(),
-                            "PENDING"
-                        );
-                        
-                        List<Slot> slotsInTimeRange = slotsToUnlock.stream()
-                            .filter(slot -> !slot.getStartTime().isBefore(startTime.toLocalTime()) && 
-                                           !slot.getEndTime().isAfter(endTime.toLocalTime()))
-                            .toList();
-                        
-                        for (Slot slot : slotsInTimeRange) {
-                            slot.setStatus("AVAILABLE");
-                            slot.setAvailable(true);
-                            slotRepository.save(slot);
-                        }
-                    }
-                    
-                    // 删除相关的join requests
-                    if (match.getJoinRequests() != null) {
-                        joinRequestRepository.deleteAll(match.getJoinRequests());
-                    }
-                    
-                    // 通知organizer
-                    emailService.sendEmailIfEnabled(
-                        match.getOrganizer().getUser(),
-                        "Match Cancelled - Payment Timeout",
-                        "Your match on " + match.getStartTime() + " has been automatically cancelled " +
-                        "due to non-payment within 24 hours. The court has been released for other bookings."
-                    );
-                    
-                    // 删除match
-                    matchRepository.delete(match);
+        // OPEN 状态、PENDING 付款且满员的match，使用startTime作为创建时间的替代（简化逻辑）
+        for (FriendlyMatch match : matchRepository.findUnpaidFullMatches(twentyFourHoursAgo)) {
+            log.info("Cancelling unpaid full match {}", match.getId());
+            
+            // 解锁对应的时间段
+            if (match.getStartTime() != null && match.getCourtId() != null) {
+                LocalDateTime startTime = match.getStartTime();
+                LocalDateTime endTime = match.getEndTime();
+                
+                List<Slot> slotsToUnlock = slotRepository.findByCourtIdAndDateAndStatus(
+                    match.getCourtId(),
+                    startTime.toLocalDate(),
+                    "PENDING"
+                );
+                
+                List<Slot> slotsInTimeRange = slotsToUnlock.stream()
+                    .filter(slot -> !slot.getStartTime().isBefore(startTime.toLocalTime()) && 
+                                   !slot.getEndTime().isAfter(endTime.toLocalTime()))
+                    .toList();
+                
+                for (Slot slot : slotsInTimeRange) {
+                    slot.setStatus("AVAILABLE");
+                    slot.setAvailable(true);
+                    slotRepository.save(slot);
                 }
             }
+            
+            // 删除相关的join requests
+            if (match.getJoinRequests() != null) {
+                joinRequestRepository.deleteAll(match.getJoinRequests());
+            }
+            
+            // 通知organizer
+            emailService.sendEmailIfEnabled(
+                match.getOrganizer().getUser(),
+                "Match Cancelled - Payment Timeout",
+                "Your match on " + match.getStartTime() + " has been automatically cancelled " +
+                "due to non-payment within 24 hours. The court has been released for other bookings."
+            );
+            
+            // 删除match
+            matchRepository.delete(match);
         }
     }
 
@@ -590,335 +567,130 @@ public class FriendlyMatchService {
         // 注意：不删除 booking，因为 booking 的取消由 BookingService 处理
     }
 
-    // 查詢所有 invitation 型的 OPEN match
-    public List<FriendlyMatch> getOpenInvitations() {
-        return matchRepository.findByIsInvitationAndStatus(true, "OPEN");
+    // 尚未開始、還有空位的 invitation 型 OPEN match，依開始時間排序
+    @Transactional(readOnly = true)
+    public List<FriendlyMatchInvitationDto> getOpenInvitationsDto() {
+        OpenMatchIndex.Result result = matchDiscoveryService.search(null, false, null, 1, null, true, 0, Integer.MAX_VALUE);
+        return getFeedDtosInOrder(result.matchIds());
     }
 
-    public List<FriendlyMatchInvitationDto> getOpenInvitationsDto() {
-        List<FriendlyMatch> invitations = getOpenInvitations();
-        return invitations.stream().map(this::toInvitationDto).toList();
+    /**
+     * 探索尚未開始、還有空位的 OPEN 比賽，依開始時間排序分頁；篩選條件見 {@link MatchDiscoveryService#search}
+     */
+    @Transactional(readOnly = true)
+    public Page<FriendlyMatchInvitationDto> discoverMatches(Integer venueId, boolean nearby, Integer days, int minSpots,
+                                                           String skillLevel, Boolean invitation, Pageable pageable) {
+        OpenMatchIndex.Result result = matchDiscoveryService.search(venueId, nearby, days, minSpots, skillLevel, invitation,
+                (int) pageable.getOffset(), pageable.getPageSize());
+        return new PageImpl<>(getFeedDtosInOrder(result.matchIds()), pageable, result.total());
     }
 
     public List<FriendlyMatchInvitationDto> getAllMatchesDto() {
         // 查询所有match，不仅仅是OPEN状态的
-        List<FriendlyMatch> allMatches = matchRepository.findAll();
-        System.out.println("=== getAllMatchesDto ===");
-        System.out.println("Total matches found: " + allMatches.size());
-        
-        // 修复现有邀请类型match的时间信息
-        fixExistingInvitationMatches(allMatches);
-        
-        return allMatches.stream().map(this::toInvitationDto).toList();
+        return getMatchFeed(FEED_ALL, null, Pageable.unpaged()).getContent();
     }
-    
+
     /**
-     * 修复现有邀请类型match的时间信息
+     * 分頁的比賽列表：upcoming（未開始、未取消）、open（未開始且還有空位）、mine（member 主辦或申請過的）、all。
+     * 每頁固定三條查詢：比賽投影、總數、該頁所有 join request；GET 不再寫入任何資料。
      */
-    private void fixExistingInvitationMatches(List<FriendlyMatch> matches) {
-        for (FriendlyMatch match : matches) {
-            // 只处理邀请类型且没有时间信息的match
-            if (match.isInvitation() && match.getBooking() != null && 
-                (match.getStartTime() == null || match.getEndTime() == null)) {
-                
-                Booking booking = match.getBooking();
-                if (booking.getBookingSlots() != null && !booking.getBookingSlots().isEmpty()) {
-                    List<BookingSlot> slots = booking.getBookingSlots();
-                    Slot firstSlot = slots.get(0).getSlot();
-                    Slot lastSlot = slots.get(slots.size() - 1).getSlot();
-                    
-                    boolean needsUpdate = false;
-                    
-                    if (match.getStartTime() == null && firstSlot != null && 
-                        firstSlot.getDate() != null && firstSlot.getStartTime() != null) {
-                        LocalDateTime startTime = LocalDateTime.of(firstSlot.getDate(), firstSlot.getStartTime());
-                        match.setStartTime(startTime);
-                        needsUpdate = true;
-                    }
-                    
-                    if (match.getEndTime() == null && lastSlot != null && 
-                        lastSlot.getDate() != null && lastSlot.getEndTime() != null) {
-                        LocalDateTime endTime = LocalDateTime.of(lastSlot.getDate(), lastSlot.getEndTime());
-                        match.setEndTime(endTime);
-                        needsUpdate = true;
-                    }
-                    
-                    // 修复paymentStatus
-                    if (match.getPaymentStatus() == null) {
-                        match.setPaymentStatus("CONFIRMED");
-                        needsUpdate = true;
-                    }
-                    
-                    if (needsUpdate) {
-                        System.out.println("Fixing match " + match.getId() + " with booking " + booking.getId());
-                        matchRepository.save(match);
-                    }
-                }
-            }
-            
-            // 修復：為所有 match 檢查是否有 organizer 的 join request
-            if (match.getOrganizer() != null) {
-                // 檢查是否已經有 organizer 的 join request
-                boolean hasOrganizerJoinRequest = match.getJoinRequests() != null && 
-                    match.getJoinRequests().stream()
-                        .anyMatch(req -> req.getMember().getId().equals(match.getOrganizer().getId()) && 
-                                       req.getStatus() == JoinRequest.Status.APPROVED);
-                
-                if (!hasOrganizerJoinRequest) {
-                    System.out.println("Fixing match " + match.getId() + ": Adding organizer join request");
-                    
-                    // 為 organizer 創建 join request
-                    JoinRequest organizerJoinRequest = new JoinRequest();
-                    organizerJoinRequest.setFriendlyMatch(match);
-                    organizerJoinRequest.setMember(match.getOrganizer());
-                    organizerJoinRequest.setStatus(JoinRequest.Status.APPROVED);
-                    organizerJoinRequest.setRequestTime(LocalDateTime.now());
-                    joinRequestRepository.save(organizerJoinRequest);
-                    
-                    // 確保 currentPlayers 至少為 1
-                    if (match.getCurrentPlayers() < 1) {
-                        match.setCurrentPlayers(1);
-                        matchRepository.save(match);
-                    }
-                }
-            }
-            
-            // 修復：為現有的 matches 設置價格
-            if (match.getPrice() == null || match.getPrice() == 0) {
-                System.out.println("Fixing match " + match.getId() + ": Setting price");
-                if (match.getCourtId() != null && match.getStartTime() != null && match.getDurationHours() != null) {
-                    Court court = courtRepository.findById(match.getCourtId()).orElse(null);
-                    if (court != null) {
-                        double pricePerHour = 0.0;
-                        String priceType = "Unknown";
-                        
-                        // 判斷是否為 peak hour
-                        if (court.getPeakStartTime() != null && court.getPeakEndTime() != null) {
-                            try {
-                                int peakStartHour = Integer.parseInt(court.getPeakStartTime().split(":")[0]);
-                                int peakEndHour = Integer.parseInt(court.getPeakEndTime().split(":")[0]);
-                                int matchStartHour = match.getStartTime().getHour();
-                                
-                                boolean isPeakHour;
-                                // 處理跨日的情況（例如 22:00 - 02:00）
-                                if (peakStartHour > peakEndHour) {
-                                    isPeakHour = matchStartHour >= peakStartHour || matchStartHour <= peakEndHour;
-                                } else {
-                                    isPeakHour = matchStartHour >= peakStartHour && matchStartHour < peakEndHour;
-                                }
-                                
-                                if (isPeakHour) {
-                                    pricePerHour = court.getPeakHourlyPrice() != null ? court.getPeakHourlyPrice() : 0.0;
-                                    priceType = "Peak";
-                                } else {
-                                    pricePerHour = court.getOffPeakHourlyPrice() != null ? court.getOffPeakHourlyPrice() : 0.0;
-                                    priceType = "Off-Peak";
-                                }
-                            } catch (Exception e) {
-                                // 如果解析失敗，使用 peak price 作為默認值
-                                pricePerHour = court.getPeakHourlyPrice() != null ? court.getPeakHourlyPrice() : 0.0;
-                                priceType = "Default (Peak)";
-                            }
-                        } else {
-                            // 如果沒有設置 peak 時間，使用 peak price 作為默認值
-                            pricePerHour = court.getPeakHourlyPrice() != null ? court.getPeakHourlyPrice() : 0.0;
-                            priceType = "Default (Peak)";
-                        }
-                        
-                        double totalPrice = pricePerHour * match.getDurationHours();
-                        match.setPrice(totalPrice);
-                        matchRepository.save(match);
-                        System.out.println("Set price for match " + match.getId() + ": " + totalPrice + " (" + priceType + ")");
-                    }
+    @Transactional(readOnly = true)
+    public Page<FriendlyMatchInvitationDto> getMatchFeed(String feed, Integer memberId, Pageable pageable) {
+        LocalDateTime now = LocalDateTime.now();
+        Page<Object[]> rows;
+        switch (feed == null ? FEED_UPCOMING : feed.toLowerCase()) {
+            case FEED_UPCOMING -> rows = matchRepository.findUpcomingFeedRows(now, pageable);
+            case FEED_OPEN -> rows = matchRepository.findOpenFeedRows(now, pageable);
+            case FEED_MINE -> {
+                if (memberId == null) {
+                    throw new ValidationException("Member is required for the mine feed");
                 }
+                rows = matchRepository.findMemberFeedRows(memberId, pageable);
             }
+            case FEED_ALL -> rows = matchRepository.findAllFeedRows(pageable);
+            default -> throw new ValidationException("Unknown feed: " + feed);
         }
+        return new PageImpl<>(toFeedDtos(rows.getContent()), pageable, rows.getTotalElements());
     }
 
-    private FriendlyMatchInvitationDto toInvitationDto(FriendlyMatch match) {
-        FriendlyMatchInvitationDto dto = new FriendlyMatchInvitationDto();
-        dto.setId(match.getId());
-        dto.setBookingId(match.getBooking() != null ? match.getBooking().getId() : null);
-        dto.setOrganizerId(match.getOrganizer() != null ? match.getOrganizer().getId() : null);
-        dto.setMaxPlayers(match.getMaxPlayers());
-        dto.setCurrentPlayers(match.getCurrentPlayers());
-        dto.setPrice(match.getPrice());
-        
-        // 添加價格調試信息
-        System.out.println("=== Price Debug for Match " + match.getId() + " ===");
-        System.out.println("Match Price: " + match.getPrice());
-        System.out.println("DTO Price: " + dto.getPrice());
-        System.out.println("=== End Price Debug ===");
-        
-        // 检查时间是否已过期，确定状态 - 在设置时间之前先确定状态
-        String status = determineMatchStatus(match);
-        dto.setStatus(status);
-        
-        dto.setInvitationType(match.getInvitationType());
-        dto.setPaymentStatus(match.getPaymentStatus());
-        dto.setIsInvitation(match.isInvitation());
-        
-        // 调试信息
-        System.out.println("=== DTO Debug for Match " + match.getId() + " ===");
-        System.out.println("IsInvitation: " + match.isInvitation());
-        System.out.println("PaymentStatus: " + match.getPaymentStatus());
-        System.out.println("Has Booking: " + (match.getBooking() != null));
-        System.out.println("Final Status: " + status);
-        System.out.println("Original Match Status: " + match.getStatus());
-        System.out.println("Current Players: " + match.getCurrentPlayers());
-        System.out.println("Max Players: " + match.getMaxPlayers());
-        System.out.println("Join Requests Count: " + (match.getJoinRequests() != null ? match.getJoinRequests().size() : 0));
-        if (match.getJoinRequests() != null) {
-            System.out.println("Join Requests: " + match.getJoinRequests().stream()
-                .map(req -> req.getMember().getUser().getUserAccount().getUsername() + "(" + req.getStatus() + ")")
-                .collect(java.util.stream.Collectors.joining(", ")));
-        }
-        System.out.println("=== End DTO Debug ===");
-        
-        // 处理邀请类型的比赛（有booking）
-        if (match.getBooking() != null) {
-            Booking booking = bookingRepository.findById(match.getBooking().getId()).orElse(null);
-            if (booking != null && booking.getBookingSlots() != null && !booking.getBookingSlots().isEmpty()) {
-                // 取第一個 slot 的 startTime，最後一個 slot 的 endTime
-                List<BookingSlot> slots = booking.getBookingSlots();
-                Slot firstSlot = slots.get(0).getSlot();
-                Slot lastSlot = slots.get(slots.size() - 1).getSlot();
-                if (firstSlot != null) {
-                    dto.setSlotDate(firstSlot.getDate());
-                    // 设置时间，但不影响已确定的状态
-                    dto.setStartTime(firstSlot.getStartTime() != null && firstSlot.getDate() != null
-                        ? java.time.LocalDateTime.of(firstSlot.getDate(), firstSlot.getStartTime())
-                        : null);
-                }
-                if (lastSlot != null) {
-                    dto.setEndTime(lastSlot.getEndTime() != null && lastSlot.getDate() != null
-                        ? java.time.LocalDateTime.of(lastSlot.getDate(), lastSlot.getEndTime())
-                        : null);
-                }
-                if (firstSlot != null && firstSlot.getCourtId() != null) {
-                    Court court = courtRepository.findById(firstSlot.getCourtId()).orElse(null);
-                    if (court != null) {
-                        dto.setCourtName(court.getName());
-                        dto.setCourtLocation(court.getLocation());
-                        if (court.getVenue() != null) {
-                            dto.setVenueName(court.getVenue().getName());
-                        }
-                    }
-                }
+    // 依 matchIds 的順序回傳，已不存在的比賽略過
+    private List<FriendlyMatchInvitationDto> getFeedDtosInOrder(List<Integer> matchIds) {
+        Map<Integer, Object[]> rowsById = new HashMap<>();
+        for (int from = 0; from < matchIds.size(); from += FEED_BATCH_SIZE) {
+            List<Integer> batch = matchIds.subList(from, Math.min(from + FEED_BATCH_SIZE, matchIds.size()));
+            for (Object[] row : matchRepository.findFeedRowsByIds(batch)) {
+                rowsById.put((Integer) row[0], row);
             }
-            // 新增：設置 booking 狀態
-            dto.setBookingStatus(booking.getStatus());
         }
-        // 处理独立friendly match（没有booking，直接从match获取信息）
-        else {
-            // 设置时间信息
-            if (match.getStartTime() != null) {
-                dto.setSlotDate(match.getStartTime().toLocalDate());
-                dto.setStartTime(match.getStartTime());
-            }
-            if (match.getEndTime() != null) {
-                dto.setEndTime(match.getEndTime());
+        List<Object[]> rows = new ArrayList<>(matchIds.size());
+        for (Integer matchId : matchIds) {
+            Object[] row = rowsById.get(matchId);
+            if (row != null) {
+                rows.add(row);
             }
-            
-            // 通过courtId获取真实的Court信息
-            System.out.println("=== Debug: Processing independent friendly match ===");
-            System.out.println("Match ID: " + match.getId());
-            System.out.println("Court ID: " + match.getCourtId());
-            System.out.println("Location: " + match.getLocation());
-            
-            if (match.getCourtId() != null) {
-                Court court = courtRepository.findById(match.getCourtId()).orElse(null);
-                System.out.println("Found Court: " + (court != null ? court.getName() + " at " + court.getLocation() : "null"));
-                if (court != null) {
-                    dto.setCourtName(court.getName());
-                    dto.setCourtLocation(court.getLocation());
-                    if (court.getVenue() != null) {
-                        dto.setVenueName(court.getVenue().getName());
-                    }
-                } else {
-                    // 如果找不到court，使用location字段作为fallback
-                    System.out.println("Court not found, using location fallback");
-                    dto.setCourt(match.getLocation());
-                    if (match.getLocation() != null) {
-                        String[] parts = match.getLocation().split(" at ");
-                        if (parts.length >= 2) {
-                            dto.setCourtName(parts[0].trim());
-                            dto.setVenueName(parts[1].trim());
-                        } else {
-                            dto.setCourtName(match.getLocation());
-                        }
-                    }
-                    dto.setCourtLocation(match.getLocation());
-                }
-            } else {
-                // 如果没有courtId，尝试通过location字段查找对应的Court
-                System.out.println("No courtId, trying to find court by location");
-                if (match.getLocation() != null) {
-                    String[] parts = match.getLocation().split(" at ");
-                    if (parts.length >= 2) {
-                        String courtName = parts[0].trim();
-                        String venueName = parts[1].trim();
-                        
-                        // 尝试通过court name查找（只查找活跃场地）
-                        List<Court> courts = courtRepository.findActiveCourts();
-                        Court foundCourt = courts.stream()
-                            .filter(c -> c.getName().equals(courtName))
-                            .findFirst()
-                            .orElse(null);
-                        
-                        if (foundCourt != null) {
-                            System.out.println("Found court by name: " + foundCourt.getName() + " at " + foundCourt.getLocation());
-                            dto.setCourtName(foundCourt.getName());
-                            dto.setCourtLocation(foundCourt.getLocation());
-                            if (foundCourt.getVenue() != null) {
-                                dto.setVenueName(foundCourt.getVenue().getName());
-                            }
-                        } else {
-                            System.out.println("Court not found by name, using location fallback");
-                            dto.setCourtName(courtName);
-                            dto.setVenueName(venueName);
-                            dto.setCourtLocation(match.getLocation());
-                        }
-                    } else {
-                        dto.setCourtName(match.getLocation());
-                        dto.setCourtLocation(match.getLocation());
-                    }
-                } else {
-                    dto.setCourt(match.getLocation());
-                    dto.setCourtLocation(match.getLocation());
-                }
-            }
-            
-            System.out.println("Final DTO values:");
-            System.out.println("  Court Name: " + dto.getCourtName());
-            System.out.println("  Venue Name: " + dto.getVenueName());
-            System.out.println("  Court Location: " + dto.getCourtLocation());
-            System.out.println("=== End Debug ===");
-            
-            // 设置booking状态为null，因为这是独立比赛
-            dto.setBookingStatus(null);
         }
-        
-        if (match.getOrganizer() != null && match.getOrganizer().getUser() != null && match.getOrganizer().getUser().getUserAccount() != null) {
-            dto.setOrganizerUsername(match.getOrganizer().getUser().getUserAccount().getUsername());
-        }
-        if (match.getJoinRequests() != null) {
-            dto.setJoinRequests(match.getJoinRequests().stream().map(this::toJoinRequestDto).toList());
-        }
-        return dto;
+        return toFeedDtos(rows);
     }
-    private JoinRequestDto toJoinRequestDto(JoinRequest req) {
-        JoinRequestDto dto = new JoinRequestDto();
-        dto.setId(req.getId());
-        dto.setMemberId(req.getMember() != null ? req.getMember().getId() : null);
-        dto.setMemberName(req.getMember() != null ? req.getMember().getUser().getName() : null);
-        // 添加 username 欄位
-        if (req.getMember() != null && req.getMember().getUser() != null && req.getMember().getUser().getUserAccount() != null) {
-            dto.setUsername(req.getMember().getUser().getUserAccount().getUsername());
+
+    // row 欄位見 FriendlyMatchRepository.findUpcomingFeedRows
+    private List<FriendlyMatchInvitationDto> toFeedDtos(List<Object[]> rows) {
+        if (rows.isEmpty()) {
+            return List.of();
+        }
+        Map<Integer, List<JoinRequestDto>> joinRequests = new HashMap<>();
+        List<Integer> matchIds = rows.stream().map(row -> (Integer) row[0]).toList();
+        for (int from = 0; from < matchIds.size(); from += FEED_BATCH_SIZE) {
+            List<Integer> batch = matchIds.subList(from, Math.min(from + FEED_BATCH_SIZE, matchIds.size()));
+            // row: [matchId, id, memberId, memberName, username, status, requestTime]
+            for (Object[] jr : joinRequestRepository.findRowsByMatchIds(batch)) {
+                JoinRequestDto dto = new JoinRequestDto();
+                dto.setId((Integer) jr[1]);
+                dto.setMemberId((Integer) jr[2]);
+                dto.setMemberName((String) jr[3]);
+                dto.setUsername((String) jr[4]);
+                dto.setStatus(jr[5] != null ? ((JoinRequest.Status) jr[5]).name() : null);
+                dto.setRequestTime((LocalDateTime) jr[6]);
+                joinRequests.computeIfAbsent((Integer) jr[0], id -> new ArrayList<>()).add(dto);
+            }
         }
-        dto.setStatus(req.getStatus() != null ? req.getStatus().name() : null);
-        dto.setRequestTime(req.getRequestTime());
-        return dto;
+
+        List<FriendlyMatchInvitationDto> dtos = new ArrayList<>(rows.size());
+        for (Object[] row : rows) {
+            FriendlyMatchInvitationDto dto = new FriendlyMatchInvitationDto();
+            dto.setId((Integer) row[0]);
+            dto.setBookingId((Integer) row[1]);
+            dto.setOrganizerId((Integer) row[2]);
+            dto.setOrganizerUsername((String) row[3]);
+            LocalDateTime startTime = (LocalDateTime) row[4];
+            LocalDateTime endTime = (LocalDateTime) row[5];
+            dto.setStartTime(startTime);
+            dto.setEndTime(endTime);
+            dto.setSlotDate(startTime != null ? startTime.toLocalDate() : null);
+            dto.setMaxPlayers(row[6] != null ? (Integer) row[6] : 0);
+            dto.setCurrentPlayers((Integer) row[7]);
+            dto.setPrice((Double) row[8]);
+            dto.setStatus(effectiveStatus((String) row[9], startTime, endTime, (Integer) row[7], (Integer) row[6]));
+            dto.setInvitationType((String) row[10]);
+            dto.setPaymentStatus((String) row[11]);
+            dto.setIsInvitation(Boolean.TRUE.equals(row[12]));
+            String location = (String) row[13];
+            if (row[14] != null) {
+                dto.setCourtName((String) row[14]);
+                dto.setCourtLocation((String) row[15]);
+                dto.setVenueName((String) row[16]);
+            } else if (location != null) {
+                // 找不到球場時使用 location（"court at venue"）作為 fallback
+                String[] parts = location.split(" at ");
+                dto.setCourt(location);
+                dto.setCourtName(parts[0].trim());
+                dto.setVenueName(parts.length >= 2 ? parts[1].trim() : null);
+                dto.setCourtLocation(location);
+            }
+            dto.setBookingStatus((String) row[17]);
+            dto.setJoinRequests(joinRequests.getOrDefault(dto.getId(), List.of()));
+            dtos.add(dto);
+        }
+        return dtos;
     }
 
     // 加入 invitation
@@ -973,10 +745,11 @@ public class FriendlyMatchService {
             throw new InsufficientBalanceException("Insufficient wallet balance. Available: " + wallet.getBalance() + ", Required: " + totalAmount);
         }
         
-        // 4. 扣除 wallet balance
-        wallet.setBalance(wallet.getBalance() - totalAmount);
-        wallet.setTotalSpent(wallet.getTotalSpent() + totalAmount); // 更新總支出
-        walletRepository.save(wallet);
+        // 4. 原子扣除 wallet balance（更新總支出）並寫入錢包交易記錄
+        if (totalAmount > 0) {
+            walletLedgerService.debit(wallet, totalAmount, "PAYMENT", "FRIENDLY_MATCH", match.getId(),
+                    "Friendly match payment");
+        }
         
         // 5. 創建 payment 記錄
         Payment payment = new Payment();
@@ -1073,8 +846,10 @@ public class FriendlyMatchService {
         // 退款到 wallet
         Wallet wallet = getOrCreateWallet(member);
         double refundAmount = matchPayment.getAmount();
-        wallet.setBalance(wallet.getBalance() + refundAmount);
-        walletRepository.save(wallet);
+        if (refundAmount > 0) {
+            walletLedgerService.refund(wallet, refundAmount, "FRIENDLY_MATCH", match.getId(),
+                    "Friendly match cancellation refund");
+        }
         
         // 更新 payment 狀態
         matchPayment.setStatus("REFUNDED");
@@ -1138,44 +913,21 @@ public class FriendlyMatchService {
         Map<String, Object> statistics = new HashMap<>();
         
         try {
-            // 獲取所有用戶
-            List<Member> allMembers = memberRepository.findAll();
-            
-            // 統計各種用戶類型
-            long totalUsers = allMembers.size();
-            long activeUsers = allMembers.stream()
-                .filter(member -> member.getUser() != null && 
-                                member.getUser().getUserAccount() != null && 
-                                "ACTIVE".equals(member.getUser().getUserAccount().getStatus()))
-                .count();
-            
-            // 統計參與過 friendly match 的用戶
-            long usersWithMatches = allMembers.stream()
-                .filter(member -> member.getJoinRequests() != null && !member.getJoinRequests().isEmpty())
-                .count();
-            
-                         // 統計創建過 match 的用戶
-             long organizers = allMembers.stream()
-                 .filter(member -> member.getOrganizedMatches() != null && !member.getOrganizedMatches().isEmpty())
-                 .count();
-            
-            // 獲取最近的 match 統計
-            List<FriendlyMatch> recentMatches = matchRepository.findAll().stream()
-                .filter(match -> match.getStartTime() != null && 
-                               match.getStartTime().isAfter(LocalDateTime.now().minusDays(30)))
-                .toList();
-            
-            long recentMatchesCount = recentMatches.size();
-            long completedMatches = recentMatches.stream()
-                .filter(match -> "END".equals(determineMatchStatus(match)) || "CANCELLED".equals(match.getStatus()))
-                .count();
-            
-            statistics.put("totalUsers", totalUsers);
-            statistics.put("activeUsers", activeUsers);
-            statistics.put("usersWithMatches", usersWithMatches);
-            statistics.put("organizers", organizers);
-            statistics.put("recentMatchesCount", recentMatchesCount);
-            statistics.put("completedMatches", completedMatches);
+            // 會員總數及 ACTIVE 會員數
+            Object[] members = memberRepository.countTotalAndActive().get(0);
+            
+            // 最近 30 天的比賽及其中已結束或取消的數量
+            LocalDateTime now = LocalDateTime.now();
+            Object[] matches = matchRepository.aggregateRecentMatches(now.minusDays(30), now, now.minusHours(1)).get(0);
+            
+            statistics.put("totalUsers", ((Number) members[0]).longValue());
+            statistics.put("activeUsers", ((Number) members[1]).longValue());
+            // 參與過 friendly match 的用戶
+            statistics.put("usersWithMatches", joinRequestRepository.countDistinctMembers());
+            // 創建過 match 的用戶
+            statistics.put("organizers", matchRepository.countDistinctOrganizers());
+            statistics.put("recentMatchesCount", ((Number) matches[0]).longValue());
+            statistics.put("completedMatches", ((Number) matches[1]).longValue());
             statistics.put("success", true);
             
         } catch (Exception e) {
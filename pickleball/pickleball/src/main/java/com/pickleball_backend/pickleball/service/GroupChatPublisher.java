@@ -0,0 +1,35 @@
+package com.pickleball_backend.pickleball.service;
+
+import com.pickleball_backend.pickleball.dto.GroupMessageDto;
+import com.pickleball_backend.pickleball.event.GroupMessageEvent;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+/**
+ * 群組訊息即時推送：每則訊息只送一次到 /topic/groups/{groupId}，由 broker 轉發給所有訂閱的線上成員，
+ * 不必逐一成員 convertAndSendToUser。訂閱權限由 {@link com.pickleball_backend.pickleball.config.GroupTopicSubscriptionInterceptor} 檢查。
+ */
+@Service
+@Slf4j
+@RequiredArgsConstructor
+public class GroupChatPublisher {
+
+    public static final String TOPIC_PREFIX = "/topic/groups/";
+
+    private final SimpMessagingTemplate messagingTemplate;
+
+    // 交易提交後才推送，訂閱端收到時 REST 已查得到該訊息
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onGroupMessage(GroupMessageEvent event) {
+        GroupMessageDto message = event.getMessage();
+        try {
+            messagingTemplate.convertAndSend(TOPIC_PREFIX + message.getGroupId(), message);
+        } catch (RuntimeException e) {
+            // 推送失敗不影響已寫入的訊息，離線或漏收的客戶端以 afterId 補抓
+            log.warn("Failed to push group message {} to group {}: {}", message.getId(), message.getGroupId(), e.getMessage());
+        }
+    }
+}
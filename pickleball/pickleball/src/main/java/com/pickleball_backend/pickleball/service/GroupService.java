@@ -6,6 +6,7 @@ import com.pickleball_backend.pickleball.entity.GroupMessage;
 import com.pickleball_backend.pickleball.entity.User;
 
 import java.util.List;
+import java.util.Map;
 
 public interface GroupService {
     
@@ -29,6 +30,9 @@ public interface GroupService {
     // Message management
     GroupMessage sendMessage(Long groupId, String content, String imageUrl, Integer senderId);
     List<GroupMessage> getGroupMessages(Long groupId, int page, int size);
+    List<GroupMessage> getGroupMessagesBefore(Long groupId, Long beforeId, int size);
+    List<GroupMessage> getGroupMessagesAfter(Long groupId, Long afterId, int size);
+    Map<Long, Integer> getUnreadCounts(Integer userId);
     void markMessagesAsRead(Long groupId, Integer userId, Long lastReadMessageId);
     void deleteMessage(Long messageId, Integer userId);
     void editMessage(Long messageId, String newContent, Integer userId);
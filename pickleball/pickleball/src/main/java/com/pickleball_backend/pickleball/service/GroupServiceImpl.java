@@ -1,18 +1,23 @@
 package com.pickleball_backend.pickleball.service;
 
+import com.pickleball_backend.pickleball.dto.GroupMessageDto;
 import com.pickleball_backend.pickleball.entity.*;
+import com.pickleball_backend.pickleball.event.GroupMessageEvent;
 import com.pickleball_backend.pickleball.repository.GroupRepository;
 import com.pickleball_backend.pickleball.repository.GroupMemberRepository;
 import com.pickleball_backend.pickleball.repository.GroupMessageRepository;
 import com.pickleball_backend.pickleball.repository.UserRepository;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 @Service
@@ -35,6 +40,12 @@ public class GroupServiceImpl implements GroupService {
     @Autowired
     private EmailService emailService;
     
+    @Autowired
+    private SearchIndexService searchIndexService;
+    
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+    
     @Override
     public Group createGroup(String name, String description, User creator, List<String> memberUsernames) {
         // Validate input
@@ -276,7 +287,10 @@ public class GroupServiceImpl implements GroupService {
         message.setImageUrl(imageUrl);
         message.setMessageType(imageUrl != null ? GroupMessage.MessageType.IMAGE : GroupMessage.MessageType.TEXT);
         
-        return groupMessageRepository.save(message);
+        GroupMessage saved = groupMessageRepository.save(message);
+        groupMemberRepository.incrementUnreadCounts(groupId, senderId);
+        eventPublisher.publishEvent(new GroupMessageEvent(toMessageDto(saved, GroupMessageDto.TYPE_MESSAGE)));
+        return saved;
     }
     
     @Override
@@ -290,14 +304,34 @@ public class GroupServiceImpl implements GroupService {
     }
     
     @Override
-    public void markMessagesAsRead(Long groupId, Integer userId, Long lastReadMessageId) {
-        Optional<GroupMember> memberOpt = groupMemberRepository.findByGroupIdAndUserId(groupId, userId);
-        if (memberOpt.isPresent()) {
-            GroupMember member = memberOpt.get();
-            member.setLastReadMessageId(lastReadMessageId);
-            member.setUnreadCount(0);
-            groupMemberRepository.save(member);
+    @Transactional(readOnly = true)
+    public List<GroupMessage> getGroupMessagesBefore(Long groupId, Long beforeId, int size) {
+        Pageable limit = PageRequest.of(0, size);
+        return beforeId == null
+            ? groupMessageRepository.findLatestMessages(groupId, limit)
+            : groupMessageRepository.findMessagesBefore(groupId, beforeId, limit);
+    }
+    
+    @Override
+    @Transactional(readOnly = true)
+    public List<GroupMessage> getGroupMessagesAfter(Long groupId, Long afterId, int size) {
+        return groupMessageRepository.findMessagesAfter(groupId, afterId, PageRequest.of(0, size));
+    }
+    
+    @Override
+    @Transactional(readOnly = true)
+    public Map<Long, Integer> getUnreadCounts(Integer userId) {
+        Map<Long, Integer> counts = new HashMap<>();
+        for (Object[] row : groupMemberRepository.findUnreadCountsByUserId(userId)) {
+            counts.put((Long) row[0], row[1] != null ? (Integer) row[1] : 0);
         }
+        return counts;
+    }
+    
+    @Override
+    public void markMessagesAsRead(Long groupId, Integer userId, Long lastReadMessageId) {
+        // 直接 UPDATE，不會覆蓋同時寄出的訊息所增加的未讀數
+        groupMemberRepository.markRead(groupId, userId, lastReadMessageId);
     }
     
     @Override
@@ -313,6 +347,7 @@ public class GroupServiceImpl implements GroupService {
         
         message.setIsDeleted(true);
         groupMessageRepository.save(message);
+        eventPublisher.publishEvent(new GroupMessageEvent(toMessageDto(message, GroupMessageDto.TYPE_DELETED)));
     }
     
     @Override
@@ -326,16 +361,41 @@ public class GroupServiceImpl implements GroupService {
         
         message.setContent(newContent);
         message.setIsEdited(true);
-        groupMessageRepository.save(message);
+        // 與 @PreUpdate 相同的規則，提前設定讓推送內容帶有編輯時間
+        if (message.getEditedAt() == null) {
+            message.setEditedAt(java.time.LocalDateTime.now());
+        }
+        GroupMessage saved = groupMessageRepository.save(message);
+        eventPublisher.publishEvent(new GroupMessageEvent(toMessageDto(saved, GroupMessageDto.TYPE_EDITED)));
     }
     
     @Override
     public List<Group> searchGroups(String searchTerm) {
-        return groupRepository.findGroupsByNameContaining(searchTerm);
+        return searchIndexService.searchGroups(searchTerm, SearchIndexService.DEFAULT_LIMIT);
     }
     
     @Override
     public List<Group> searchUserGroups(String searchTerm, Integer userId) {
-        return groupRepository.findGroupsByNameContainingAndUserId(searchTerm, userId);
+        return searchIndexService.searchUserGroups(searchTerm, userId, SearchIndexService.DEFAULT_LIMIT);
+    }
+    
+    private GroupMessageDto toMessageDto(GroupMessage message, String type) {
+        User sender = message.getSender();
+        boolean deleted = GroupMessageDto.TYPE_DELETED.equals(type);
+        return GroupMessageDto.builder()
+            .type(type)
+            .id(message.getId())
+            .groupId(message.getGroup().getId())
+            .senderId(sender.getId())
+            .senderUsername(sender.getUserAccount() != null ? sender.getUserAccount().getUsername() : null)
+            .senderName(sender.getName())
+            // 刪除通知不帶內容
+            .content(deleted ? null : message.getContent())
+            .imageUrl(deleted ? null : message.getImageUrl())
+            .messageType(message.getMessageType())
+            .createdAt(message.getCreatedAt())
+            .isEdited(message.getIsEdited())
+            .editedAt(message.getEditedAt())
+            .build();
     }
 }
@@ -0,0 +1,377 @@
+package com.pickleball_backend.pickleball.service;
+
+import com.pickleball_backend.pickleball.storage.BlobStore;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageInputStream;
+import javax.imageio.stream.ImageOutputStream;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Pattern;
+
+/**
+ * 上傳圖片的縮圖：內容定址的原圖存入後，在固定大小的背景執行緒池以 ImageIO 產生各尺寸，
+ * 與原圖放在同一個 {@link BlobStore}，檔名為 {hash}_{尺寸}.jpg（PNG/GIF 來源為 .png，保留透明）。
+ * 原圖不大於某尺寸時不產生該尺寸（正方形尺寸以短邊比較），記下後查詢直接回傳原圖、不再檢查檔案；
+ * 這些記錄只是省去檔案檢查的快取，各保留最近使用的 {@link #TRACKED_ENTRIES} 筆。
+ * 查詢時縮圖尚未產生（佇列已滿被丟棄、重新啟動前上傳）則回傳原圖並補排程；產生中的原圖被刪除時，結束後再刪一次縮圖。
+ */
+@Service
+@Slf4j
+public class ImageVariantService {
+
+    public enum Variant {
+        // 頭像：置中裁成正方形
+        AVATAR(64, true),
+        // 卡片、列表
+        CARD(320, false),
+        // 點開預覽
+        PREVIEW(1024, false);
+
+        private final int size;
+        private final boolean square;
+
+        Variant(int size, boolean square) {
+            this.size = size;
+            this.square = square;
+        }
+
+        public int getSize() {
+            return size;
+        }
+    }
+
+    private static final int WORKERS = Math.max(1, Math.min(2, Runtime.getRuntime().availableProcessors() / 2));
+    private static final int QUEUE_CAPACITY = 256;
+    private static final float JPEG_QUALITY = 0.85f;
+    private static final Set<String> SOURCE_EXTENSIONS = Set.of(".jpg", ".jpeg", ".png", ".gif");
+    private static final Pattern VARIANT_NAME = Pattern.compile("[0-9a-f]{64}_\\d+\\.(jpg|png)");
+    private static final String UPLOADS_PREFIX = "/uploads/";
+    private static final int TRACKED_ENTRIES = 10_000;
+
+    private final BlobStore blobStore;
+    private final Path stagingLocation;
+    private final ThreadPoolExecutor workers;
+
+    // 已排程或處理中的原圖；值為 true 表示處理中被刪除，結束後需再刪一次縮圖
+    private final Map<String, Boolean> pending = new ConcurrentHashMap<>();
+    // 本次執行已處理過（已產生或不需縮圖）的原圖，不再補排程
+    private final LruSet processed = new LruSet(TRACKED_ENTRIES);
+    // 已確認存在的縮圖，省去每次查詢的檔案檢查
+    private final LruSet ready = new LruSet(TRACKED_ENTRIES);
+    // 不會產生的縮圖（原圖不大於該尺寸或不是可解碼的圖片），查詢時直接回傳原圖
+    private final LruSet unneeded = new LruSet(TRACKED_ENTRIES);
+
+    public ImageVariantService(BlobStore blobStore,
+                               @Value("${app.storage.staging-dir:uploads/.staging}") String stagingDir) {
+        this.blobStore = blobStore;
+        this.stagingLocation = Paths.get(stagingDir).toAbsolutePath().normalize();
+        // 佇列有上限，滿了直接丟棄，之後查詢時再補
+        this.workers = new ThreadPoolExecutor(WORKERS, WORKERS, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(QUEUE_CAPACITY), new VariantThreadFactory(), new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        workers.shutdownNow();
+    }
+
+    /**
+     * 排程產生縮圖；非內容定址的圖片或已在佇列中時略過
+     */
+    public void submit(String key) {
+        if (!isSource(key) || pending.putIfAbsent(key, false) != null) {
+            return;
+        }
+        try {
+            workers.execute(() -> {
+                try {
+                    generate(key);
+                } catch (Exception e) {
+                    // 壞檔不重試
+                    processed.add(key);
+                    log.warn("Failed to generate image variants for {}: {}", key, e.getMessage());
+                } finally {
+                    if (Boolean.TRUE.equals(pending.remove(key))) {
+                        removeVariants(key);
+                    }
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            pending.remove(key);
+            log.debug("Image variant queue full, skipped {}", key);
+        }
+    }
+
+    /**
+     * 產生各尺寸縮圖並回傳新存入的檔名
+     */
+    public List<String> generate(String key) throws IOException {
+        BufferedImage image = decode(key);
+        List<String> created = new ArrayList<>();
+        if (image == null) {
+            markUnneeded(key);
+        } else {
+            boolean alpha = !key.endsWith(".jpg") && !key.endsWith(".jpeg");
+            int longSide = Math.max(image.getWidth(), image.getHeight());
+            int shortSide = Math.min(image.getWidth(), image.getHeight());
+            for (Variant variant : Variant.values()) {
+                String name = variantName(key, variant);
+                // 正方形先裁成短邊大小，短邊不大於尺寸時縮圖不會比原圖小
+                if ((variant.square ? shortSide : longSide) <= variant.size) {
+                    unneeded.add(name);
+                    continue;
+                }
+                BufferedImage scaled = variant.square
+                        ? scale(cropSquare(image), variant.size, variant.size, alpha)
+                        : fit(image, variant.size, alpha);
+                Path temp = Files.createTempFile(Files.createDirectories(stagingLocation), "variant-", ".tmp");
+                try {
+                    write(scaled, alpha, temp);
+                    if (blobStore.put(name, temp)) {
+                        created.add(name);
+                    }
+                    ready.add(name);
+                } finally {
+                    Files.deleteIfExists(temp);
+                }
+            }
+        }
+        processed.add(key);
+        return created;
+    }
+
+    /**
+     * 回傳縮圖的檔名或 URL（保留 /uploads/ 前綴）；沒有縮圖時回傳原值
+     */
+    public String variantOf(String pathOrName, Variant variant) {
+        if (pathOrName == null) {
+            return null;
+        }
+        String prefix = pathOrName.startsWith(UPLOADS_PREFIX) ? UPLOADS_PREFIX : "";
+        String key = pathOrName.substring(prefix.length());
+        if (!isSource(key)) {
+            return pathOrName;
+        }
+        String name = variantName(key, variant);
+        if (ready.contains(name)) {
+            return prefix + name;
+        }
+        if (unneeded.contains(name)) {
+            return pathOrName;
+        }
+        if (exists(name)) {
+            ready.add(name);
+            return prefix + name;
+        }
+        if (!processed.contains(key)) {
+            submit(key);
+        }
+        return pathOrName;
+    }
+
+    /**
+     * 原圖刪除時一併刪除縮圖；正在產生時標記，產生結束後再刪一次
+     */
+    public void deleteVariants(String key) {
+        if (!isSource(key)) {
+            return;
+        }
+        pending.computeIfPresent(key, (k, deleted) -> true);
+        removeVariants(key);
+    }
+
+    public static boolean isVariant(String filename) {
+        return filename != null && VARIANT_NAME.matcher(filename).matches();
+    }
+
+    public static String variantName(String key, Variant variant) {
+        boolean jpeg = key.endsWith(".jpg") || key.endsWith(".jpeg");
+        return key.substring(0, 64) + "_" + variant.size + (jpeg ? ".jpg" : ".png");
+    }
+
+    private static boolean isSource(String key) {
+        if (!FileStorageService.isContentAddressed(key)) {
+            return false;
+        }
+        int dot = key.lastIndexOf('.');
+        return dot > 0 && SOURCE_EXTENSIONS.contains(key.substring(dot));
+    }
+
+    private void removeVariants(String key) {
+        for (Variant variant : Variant.values()) {
+            String name = variantName(key, variant);
+            ready.remove(name);
+            unneeded.remove(name);
+            try {
+                blobStore.delete(name);
+            } catch (IOException e) {
+                log.warn("Failed to delete image variant {}: {}", name, e.getMessage());
+            }
+        }
+        processed.remove(key);
+    }
+
+    private void markUnneeded(String key) {
+        for (Variant variant : Variant.values()) {
+            unneeded.add(variantName(key, variant));
+        }
+    }
+
+    private boolean exists(String name) {
+        try {
+            return blobStore.stat(name).isPresent();
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    // 大圖先以 subsampling 解碼到最大尺寸的兩倍左右，避免整張高解析度圖片進記憶體
+    private BufferedImage decode(String key) throws IOException {
+        try (InputStream in = blobStore.open(key);
+             ImageInputStream input = ImageIO.createImageInputStream(in)) {
+            Iterator<ImageReader> readers = ImageIO.getImageReaders(input);
+            if (!readers.hasNext()) {
+                return null;
+            }
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(input, true, true);
+                int longSide = Math.max(reader.getWidth(0), reader.getHeight(0));
+                ImageReadParam param = reader.getDefaultReadParam();
+                int step = longSide / (Variant.PREVIEW.size * 2);
+                if (step > 1) {
+                    param.setSourceSubsampling(step, step, 0, 0);
+                }
+                return reader.read(0, param);
+            } finally {
+                reader.dispose();
+            }
+        }
+    }
+
+    private static BufferedImage cropSquare(BufferedImage image) {
+        int side = Math.min(image.getWidth(), image.getHeight());
+        return image.getSubimage((image.getWidth() - side) / 2, (image.getHeight() - side) / 2, side, side);
+    }
+
+    private static BufferedImage fit(BufferedImage image, int size, boolean alpha) {
+        double ratio = (double) size / Math.max(image.getWidth(), image.getHeight());
+        int width = Math.max(1, (int) Math.round(image.getWidth() * ratio));
+        int height = Math.max(1, (int) Math.round(image.getHeight() * ratio));
+        return scale(image, width, height, alpha);
+    }
+
+    // 每次最多縮一半，直接大幅縮小時雙線性插值會失真
+    private static BufferedImage scale(BufferedImage source, int width, int height, boolean alpha) {
+        BufferedImage current = source;
+        int currentWidth = source.getWidth();
+        int currentHeight = source.getHeight();
+        do {
+            currentWidth = Math.max(width, currentWidth / 2);
+            currentHeight = Math.max(height, currentHeight / 2);
+            BufferedImage next = new BufferedImage(currentWidth, currentHeight,
+                    alpha ? BufferedImage.TYPE_INT_ARGB : BufferedImage.TYPE_INT_RGB);
+            Graphics2D g = next.createGraphics();
+            try {
+                if (!alpha) {
+                    g.setColor(Color.WHITE);
+                    g.fillRect(0, 0, currentWidth, currentHeight);
+                }
+                g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+                g.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+                g.drawImage(current, 0, 0, currentWidth, currentHeight, null);
+            } finally {
+                g.dispose();
+            }
+            current = next;
+        } while (currentWidth != width || currentHeight != height);
+        return current;
+    }
+
+    private static void write(BufferedImage image, boolean alpha, Path target) throws IOException {
+        if (alpha) {
+            ImageIO.write(image, "png", target.toFile());
+            return;
+        }
+        ImageWriter writer = ImageIO.getImageWritersByFormatName("jpg").next();
+        try (ImageOutputStream output = ImageIO.createImageOutputStream(target.toFile())) {
+            writer.setOutput(output);
+            ImageWriteParam param = writer.getDefaultWriteParam();
+            param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+            param.setCompressionQuality(JPEG_QUALITY);
+            writer.write(null, new IIOImage(image, null, null), param);
+        } finally {
+            writer.dispose();
+        }
+    }
+
+    // 依最近使用淘汰的集合；被淘汰的項目之後查詢時再檢查檔案或補排程
+    private static final class LruSet {
+        private final Map<String, Boolean> entries;
+
+        LruSet(int capacity) {
+            this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, Boolean> eldest) {
+                    return size() > capacity;
+                }
+            };
+        }
+
+        synchronized void add(String key) {
+            entries.put(key, Boolean.TRUE);
+        }
+
+        // get 才會更新存取順序
+        synchronized boolean contains(String key) {
+            return entries.get(key) != null;
+        }
+
+        synchronized void remove(String key) {
+            entries.remove(key);
+        }
+    }
+
+    // 具名的 daemon 執行緒，不阻擋應用程式關閉
+    private static final class VariantThreadFactory implements ThreadFactory {
+        private final AtomicInteger count = new AtomicInteger();
+
+        @Override
+        public Thread newThread(Runnable task) {
+            Thread thread = new Thread(task, "image-variant-" + count.incrementAndGet());
+            thread.setDaemon(true);
+            thread.setPriority(Thread.MIN_PRIORITY);
+            return thread;
+        }
+    }
+}
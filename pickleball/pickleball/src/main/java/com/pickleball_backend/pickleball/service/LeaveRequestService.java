@@ -11,6 +11,8 @@ import com.pickleball_backend.pickleball.repository.UserRepository;
 import com.pickleball_backend.pickleball.repository.ClassSessionRepository;
 import com.pickleball_backend.pickleball.repository.ClassRegistrationRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -72,16 +74,8 @@ public class LeaveRequestService {
     
     // 獲取教練的待處理請求
     public List<LeaveRequestDto> getPendingRequestsByCoach(Integer coachId) {
-        System.out.println("=== Service: getPendingRequestsByCoach ===");
-        System.out.println("coachId: " + coachId);
         List<LeaveRequest> requests = leaveRequestRepository.findPendingRequestsByCoachId(coachId);
-        System.out.println("Repository returned " + requests.size() + " requests");
-        for (LeaveRequest request : requests) {
-            System.out.println("Raw request - ID: " + request.getId() + ", Status: " + request.getStatus() + ", Student: " + (request.getStudent() != null ? request.getStudent().getName() : "null"));
-        }
-        List<LeaveRequestDto> dtos = requests.stream().map(this::convertToDto).collect(Collectors.toList());
-        System.out.println("Converted to " + dtos.size() + " DTOs");
-        return dtos;
+        return requests.stream().map(this::convertToDto).collect(Collectors.toList());
     }
     
     // 獲取教練的所有請求
@@ -210,61 +204,44 @@ public class LeaveRequestService {
     
     // 獲取可用的補課時間（排除已預約的課程）
     public List<Map<String, Object>> getAvailableReplacementSessions(Integer coachId, Integer studentId) {
-        System.out.println("=== getAvailableReplacementSessions called ===");
-        System.out.println("coachId: " + coachId + ", studentId: " + studentId);
-        
-        // 獲取教練的所有課程（不限時間範圍）
-        List<ClassSession> allCoachSessions = classSessionRepository.findAll();
-        System.out.println("Total sessions in database: " + allCoachSessions.size());
-        
-        // 過濾該教練的課程
-        List<ClassSession> coachSessions = allCoachSessions.stream()
-                .filter(session -> session.getCoach() != null && 
-                                 session.getCoach().getId().equals(coachId))
-                .collect(Collectors.toList());
-        System.out.println("Coach sessions found: " + coachSessions.size());
-        
-        // 過濾出 AVAILABLE 狀態且允許補課的課程
-        List<ClassSession> availableSessions = coachSessions.stream()
-                .filter(session -> "AVAILABLE".equals(session.getStatus()) && 
-                                 Boolean.TRUE.equals(session.getAllowReplacement()))
-                .collect(Collectors.toList());
-        System.out.println("Available replacement sessions found: " + availableSessions.size());
-        
-        // 獲取學生已預約的課程
-        List<ClassRegistration> studentRegistrations = classRegistrationRepository.findByMemberUserId(studentId);
-        List<Integer> studentBookedSessionIds = studentRegistrations.stream()
-                .map(reg -> reg.getClassSession().getId())
-                .collect(Collectors.toList());
-        System.out.println("Student booked session IDs: " + studentBookedSessionIds);
-        
-        // 過濾掉學生已預約的課程
-        List<ClassSession> filteredSessions = availableSessions.stream()
-                .filter(session -> !studentBookedSessionIds.contains(session.getId()))
-                .collect(Collectors.toList());
-        System.out.println("After filtering user bookings, remaining sessions: " + filteredSessions.size());
-        
-        // 轉換為 Map 格式
-        return filteredSessions.stream().map(session -> {
-            Map<String, Object> sessionMap = new HashMap<>();
-            sessionMap.put("id", session.getId());
-            sessionMap.put("title", session.getTitle());
-            sessionMap.put("startTime", session.getStartTime());
-            sessionMap.put("endTime", session.getEndTime());
-            sessionMap.put("maxParticipants", session.getMaxParticipants());
-            sessionMap.put("currentParticipants", session.getCurrentParticipants());
-            sessionMap.put("allowReplacement", session.getAllowReplacement());
-            
-            if (session.getCourt() != null) {
-                sessionMap.put("courtName", session.getCourt().getName());
-                if (session.getCourt().getVenue() != null) {
-                    sessionMap.put("venueName", session.getCourt().getVenue().getName());
-                    sessionMap.put("state", session.getCourt().getVenue().getState());
-                }
+        return getAvailableReplacementSessions(coachId, studentId, Pageable.unpaged()).getContent();
+    }
+
+    /**
+     * 分頁查詢可用的補課時段：教練尚未開始、允許補課的 AVAILABLE 課程，排除學生已報名的課程，
+     * 篩選及排除都在同一條查詢內完成
+     */
+    @Transactional(readOnly = true)
+    public Page<Map<String, Object>> getAvailableReplacementSessions(Integer coachId, Integer studentId, Pageable pageable) {
+        // member 的主鍵即 user_id，可直接以 studentId 比對報名記錄
+        Page<Object[]> rows = classSessionRepository.findReplacementSessionRows(coachId, studentId, LocalDateTime.now(), pageable);
+        return rows.map(LeaveRequestService::toReplacementSessionMap);
+    }
+
+    // row: [id, title, startTime, endTime, maxParticipants, currentParticipants, allowReplacement, courtName, venueName, venueState]
+    private static Map<String, Object> toReplacementSessionMap(Object[] row) {
+        Map<String, Object> sessionMap = new HashMap<>();
+        sessionMap.put("id", row[0]);
+        sessionMap.put("title", row[1]);
+        sessionMap.put("startTime", row[2]);
+        sessionMap.put("endTime", row[3]);
+        sessionMap.put("maxParticipants", row[4]);
+        sessionMap.put("currentParticipants", row[5]);
+        sessionMap.put("allowReplacement", row[6]);
+        if (row[7] != null) {
+            sessionMap.put("courtName", row[7]);
+            if (row[8] != null) {
+                sessionMap.put("venueName", row[8]);
+                sessionMap.put("state", row[9]);
             }
-            
-            return sessionMap;
-        }).collect(Collectors.toList());
+        }
+        return sessionMap;
+    }
+
+    // 請假請求總覽（可依教練、狀態篩選）
+    @Transactional(readOnly = true)
+    public Page<LeaveRequest> findRequests(Integer coachId, LeaveRequest.LeaveRequestStatus status, Pageable pageable) {
+        return leaveRequestRepository.findByFilters(coachId, status, pageable);
     }
     
     // 轉換為 DTO
@@ -283,25 +260,6 @@ public class LeaveRequestService {
         dto.setOriginalSessionStartTime(request.getOriginalSession().getStartTime());
         dto.setOriginalSessionEndTime(request.getOriginalSession().getEndTime());
         
-        // 調試信息
-        System.out.println("=== convertToDto Debug ===");
-        System.out.println("Request ID: " + request.getId());
-        System.out.println("Original Session ID: " + request.getOriginalSession().getId());
-        System.out.println("Original Session Start: " + request.getOriginalSession().getStartTime());
-        System.out.println("Original Session End: " + request.getOriginalSession().getEndTime());
-        if (request.getOriginalSession().getStartTime() != null && request.getOriginalSession().getEndTime() != null) {
-            long durationHours = java.time.Duration.between(
-                request.getOriginalSession().getStartTime(), 
-                request.getOriginalSession().getEndTime()
-            ).toHours();
-            long durationMinutes = java.time.Duration.between(
-                request.getOriginalSession().getStartTime(), 
-                request.getOriginalSession().getEndTime()
-            ).toMinutes() % 60;
-            System.out.println("Calculated duration: " + durationHours + " hours " + durationMinutes + " minutes");
-        } else {
-            System.out.println("WARNING: Start time or end time is null!");
-        }
         dto.setReason(request.getReason());
         dto.setStatus(request.getStatus());
         dto.setRequestDate(request.getRequestDate());
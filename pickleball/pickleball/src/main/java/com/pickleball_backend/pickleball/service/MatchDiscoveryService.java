@@ -0,0 +1,162 @@
+package com.pickleball_backend.pickleball.service;
+
+import com.pickleball_backend.pickleball.entity.Venue;
+import com.pickleball_backend.pickleball.event.FriendlyMatchChangedEvent;
+import com.pickleball_backend.pickleball.repository.FriendlyMatchRepository;
+import com.pickleball_backend.pickleball.repository.VenueRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 友誼賽探索：以 {@link OpenMatchIndex} 依日期、venue、剩餘名額、程度篩選尚未開始的 OPEN 比賽。
+ * 啟動時全量載入；比賽或 join request 寫入後標記，每秒批量重新載入被標記的比賽；
+ * 已開始的比賽在查詢時排除，每五分鐘從索引移除；每晚全量重建一次，補上 JPQL 批量更新等不會觸發事件的變動。
+ * 索引尚未載入完成時以同樣的條件查詢資料庫後再篩選。
+ */
+@Service
+@Slf4j
+@RequiredArgsConstructor
+public class MatchDiscoveryService {
+
+    public static final int DEFAULT_DAYS = 3;
+    public static final int MAX_DAYS = 30;
+    private static final int BATCH_SIZE = 500;
+
+    private final FriendlyMatchRepository matchRepository;
+    private final VenueRepository venueRepository;
+
+    // 全量重建時整個換掉；null 表示尚未載入
+    private volatile OpenMatchIndex index;
+
+    private final Set<Integer> dirtyMatches = ConcurrentHashMap.newKeySet();
+    // venue 所在州，供「附近」查詢；全量重建時清除
+    private final Map<Integer, Optional<String>> venueStates = new ConcurrentHashMap<>();
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        try {
+            rebuild();
+        } catch (RuntimeException e) {
+            log.warn("Match discovery index could not be built at startup, falling back to database queries: {}", e.getMessage());
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onFriendlyMatchChanged(FriendlyMatchChangedEvent event) {
+        if (event.getMatchId() != null) {
+            dirtyMatches.add(event.getMatchId());
+        }
+    }
+
+    /**
+     * 依開始時間排序，找出 now 之後 days 天內開始、至少還有 minSpots 個空位的 OPEN 比賽 id。
+     *
+     * @param venueId    null 表示不限 venue
+     * @param nearby     true 時一併納入與 venueId 同州的 venue
+     * @param days       null 表示不限天數
+     * @param skillLevel null 表示不限
+     * @param invitation null 表示不限；true 只找由 booking 產生的邀請
+     */
+    public OpenMatchIndex.Result search(Integer venueId, boolean nearby, Integer days, int minSpots,
+                                        String skillLevel, Boolean invitation, int offset, int limit) {
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime until = days != null ? now.plusDays(Math.max(days, 1)) : LocalDateTime.MAX;
+        String state = nearby && venueId != null ? venueState(venueId) : null;
+        OpenMatchIndex current = index;
+        if (current == null) {
+            current = new OpenMatchIndex();
+            for (Object[] row : matchRepository.findDiscoveryRows(now)) {
+                current.put(toEntry(row));
+            }
+        }
+        return current.search(venueId, state, now, until, Math.max(minSpots, 0), skillLevel, invitation, offset, limit);
+    }
+
+    @Scheduled(fixedDelay = 1000)
+    public synchronized void flushChanges() {
+        OpenMatchIndex current = index;
+        if (current == null || dirtyMatches.isEmpty()) {
+            return;
+        }
+        Set<Integer> matchIds = drain(dirtyMatches);
+        try {
+            LocalDateTime now = LocalDateTime.now();
+            List<Integer> ids = new ArrayList<>(matchIds);
+            for (int from = 0; from < ids.size(); from += BATCH_SIZE) {
+                List<Integer> batch = ids.subList(from, Math.min(from + BATCH_SIZE, ids.size()));
+                Set<Integer> missing = new HashSet<>(batch);
+                for (Object[] row : matchRepository.findDiscoveryRowsByIds(batch, now)) {
+                    current.put(toEntry(row));
+                    missing.remove((Integer) row[0]);
+                }
+                // 已刪除、取消、額滿或已開始
+                missing.forEach(current::remove);
+            }
+        } catch (RuntimeException e) {
+            // 放回，下一輪再試
+            dirtyMatches.addAll(matchIds);
+            log.warn("Failed to refresh match discovery index: {}", e.getMessage());
+        }
+    }
+
+    @Scheduled(fixedDelay = 300_000)
+    public void purgeStarted() {
+        OpenMatchIndex current = index;
+        if (current != null) {
+            int removed = current.removeStartedBefore(LocalDateTime.now());
+            if (removed > 0) {
+                log.debug("Removed {} started matches from discovery index", removed);
+            }
+        }
+    }
+
+    @Scheduled(cron = "0 50 3 * * ?")
+    public synchronized void rebuild() {
+        long start = System.currentTimeMillis();
+        OpenMatchIndex rebuilt = new OpenMatchIndex();
+        for (Object[] row : matchRepository.findDiscoveryRows(LocalDateTime.now())) {
+            rebuilt.put(toEntry(row));
+        }
+        venueStates.clear();
+        index = rebuilt;
+        log.info("Built match discovery index for {} open matches in {} ms",
+                rebuilt.size(), System.currentTimeMillis() - start);
+    }
+
+    private String venueState(Integer venueId) {
+        return venueStates.computeIfAbsent(venueId,
+                id -> venueRepository.findById(id).map(Venue::getState)).orElse(null);
+    }
+
+    // row: [id, startTime, venueId, venueState, maxPlayers, currentPlayers, skillLevel, isInvitation]
+    private static OpenMatchIndex.Entry toEntry(Object[] row) {
+        int max = row[4] != null ? (Integer) row[4] : 0;
+        int current = row[5] != null ? (Integer) row[5] : 0;
+        return new OpenMatchIndex.Entry((Integer) row[0], (LocalDateTime) row[1], (Integer) row[2], (String) row[3],
+                max - current, (String) row[6], Boolean.TRUE.equals(row[7]));
+    }
+
+    private static <T> Set<T> drain(Set<T> source) {
+        Set<T> drained = new HashSet<>();
+        for (Iterator<T> it = source.iterator(); it.hasNext(); ) {
+            drained.add(it.next());
+            it.remove();
+        }
+        return drained;
+    }
+}
@@ -0,0 +1,127 @@
+package com.pickleball_backend.pickleball.service;
+
+import com.pickleball_backend.pickleball.dto.UserStatisticsDto;
+import com.pickleball_backend.pickleball.exception.ValidationException;
+import com.pickleball_backend.pickleball.repository.BookingRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 活跃会员排行榜：一条分组查询在数据库中完成统计、排序及限制行数，
+ * 每个时间窗口的前 CACHED_TOP_K 名保存在内存中并定期刷新，供管理后台使用。
+ */
+@Service
+@Slf4j
+@RequiredArgsConstructor
+public class MemberActivityLeaderboardService {
+
+    static final int CACHED_TOP_K = 50;
+    private static final long REFRESH_INTERVAL_MILLIS = 10 * 60 * 1000L;
+
+    private final BookingRepository bookingRepository;
+
+    private final Map<Window, List<UserStatisticsDto>> topK = new ConcurrentHashMap<>();
+
+    public enum Window {
+        LAST_7_DAYS("7d", 7),
+        LAST_30_DAYS("30d", 30),
+        ALL_TIME("all", 0);
+
+        private final String param;
+        private final int days;
+
+        Window(String param, int days) {
+            this.param = param;
+            this.days = days;
+        }
+
+        public static Window fromParam(String value) {
+            for (Window window : values()) {
+                if (window.param.equalsIgnoreCase(value) || window.name().equalsIgnoreCase(value)) {
+                    return window;
+                }
+            }
+            throw new ValidationException("Unsupported leaderboard window: " + value + " (use 7d, 30d or all)");
+        }
+
+        LocalDateTime since(LocalDateTime now) {
+            return days > 0 ? now.minusDays(days) : null;
+        }
+    }
+
+    @Transactional(readOnly = true)
+    public List<UserStatisticsDto> getTopUsers(Window window, int limit) {
+        if (limit <= 0) {
+            return List.of();
+        }
+        if (limit > CACHED_TOP_K) {
+            return query(window, limit);
+        }
+        List<UserStatisticsDto> cached = topK.computeIfAbsent(window, w -> query(w, CACHED_TOP_K));
+        return cached.subList(0, Math.min(limit, cached.size()));
+    }
+
+    @Scheduled(fixedDelay = REFRESH_INTERVAL_MILLIS, initialDelay = REFRESH_INTERVAL_MILLIS)
+    @Transactional(readOnly = true)
+    public void refresh() {
+        for (Window window : Window.values()) {
+            try {
+                topK.put(window, query(window, CACHED_TOP_K));
+            } catch (Exception e) {
+                log.error("Failed to refresh {} activity leaderboard: {}", window, e.getMessage());
+            }
+        }
+    }
+
+    private List<UserStatisticsDto> query(Window window, int limit) {
+        LocalDateTime now = LocalDateTime.now();
+        List<Object[]> rows = bookingRepository.findTopMemberActivity(window.since(now), PageRequest.of(0, limit));
+        List<UserStatisticsDto> result = new ArrayList<>(rows.size());
+        for (Object[] row : rows) {
+            result.add(toDto(row, now));
+        }
+        return List.copyOf(result);
+    }
+
+    private UserStatisticsDto toDto(Object[] row, LocalDateTime now) {
+        LocalDateTime createdAt = (LocalDateTime) row[8];
+        long totalBookings = ((Number) row[9]).longValue();
+        LocalDateTime lastBookingDate = (LocalDateTime) row[13];
+        long daysSinceRegistration = createdAt != null ? ChronoUnit.DAYS.between(createdAt, now) : 0;
+        int tierPoints = row[7] != null ? ((Number) row[7]).intValue() : 0;
+        String tierName = (String) row[6];
+
+        return UserStatisticsDto.builder()
+                .userId((Integer) row[0])
+                .username((String) row[1])
+                .name((String) row[2])
+                .email((String) row[3])
+                .userType((String) row[4])
+                .status((String) row[5])
+                .tier(tierName)
+                .currentTier(tierName)
+                .pointBalance(tierPoints)
+                .tierPoints(tierPoints)
+                .createdAt(createdAt)
+                .totalBookings(totalBookings)
+                .completedBookings(row[10] != null ? ((Number) row[10]).longValue() : 0)
+                .cancelledBookings(row[11] != null ? ((Number) row[11]).longValue() : 0)
+                .totalSpent(row[12] != null ? ((Number) row[12]).longValue() : 0)
+                .lastBookingDate(lastBookingDate)
+                .daysSinceRegistration(daysSinceRegistration)
+                .daysSinceLastActivity(lastBookingDate != null ? ChronoUnit.DAYS.between(lastBookingDate, now) : 0)
+                .averageBookingsPerMonth(daysSinceRegistration > 0 ? (totalBookings * 30) / daysSinceRegistration : 0)
+                .build();
+    }
+}
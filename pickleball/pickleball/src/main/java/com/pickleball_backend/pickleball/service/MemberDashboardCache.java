@@ -0,0 +1,83 @@
+package com.pickleball_backend.pickleball.service;
+
+import com.pickleball_backend.pickleball.dto.MemberDashboardDto;
+import com.pickleball_backend.pickleball.entity.Member;
+import com.pickleball_backend.pickleball.entity.MembershipTier;
+import com.pickleball_backend.pickleball.event.MemberChangedEvent;
+import com.pickleball_backend.pickleball.event.MembershipTierChangedEvent;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 會員首頁快取：以 memberId 保存等級及積分摘要（memberId 由 IdentityResolver 取得），組回應時再向 {@link VoucherCatalogue} 取該等級的優惠券。
+ * 會員資料寫入（積分、等級）或等級設定變更提交後失效；JPQL 批量更新會員等級後需呼叫 {@link #invalidateAll()}。
+ */
+@Service
+@RequiredArgsConstructor
+public class MemberDashboardCache {
+
+    private final VoucherCatalogue voucherCatalogue;
+
+    private final Map<Integer, Summary> summaries = new ConcurrentHashMap<>();
+    private final AtomicLong generation = new AtomicLong();
+
+    public MemberDashboardDto get(Integer memberId) {
+        Summary summary = summaries.get(memberId);
+        return summary != null ? summary.toDto(voucherCatalogue) : null;
+    }
+
+    /**
+     * 讀取會員前先取得 generation，載入期間若有失效則不寫入，避免把舊資料放回快取
+     */
+    public long currentGeneration() {
+        return generation.get();
+    }
+
+    public MemberDashboardDto put(Member member, long startGeneration) {
+        Summary summary = new Summary(member.getTier(), member.getTierPointBalance(), member.getRewardPointBalance());
+        if (generation.get() == startGeneration) {
+            summaries.put(member.getId(), summary);
+        }
+        return summary.toDto(voucherCatalogue);
+    }
+
+    public void invalidate(Integer memberId) {
+        generation.incrementAndGet();
+        summaries.remove(memberId);
+    }
+
+    public void invalidateAll() {
+        generation.incrementAndGet();
+        summaries.clear();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onMemberChanged(MemberChangedEvent event) {
+        invalidate(event.getMemberId());
+    }
+
+    // 等級名稱、福利及積分區間都在摘要中
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onMembershipTierChanged(MembershipTierChangedEvent event) {
+        invalidateAll();
+    }
+
+    private record Summary(Integer tierId, String tierName, int tierPointBalance, int rewardPointBalance,
+                           String benefits, int minPoints, int maxPoints) {
+
+        Summary(MembershipTier tier, int tierPointBalance, int rewardPointBalance) {
+            this(tier.getId(), tier.getTierName(), tierPointBalance, rewardPointBalance,
+                    tier.getBenefits(), tier.getMinPoints(), tier.getMaxPoints());
+        }
+
+        MemberDashboardDto toDto(VoucherCatalogue catalogue) {
+            return new MemberDashboardDto(tierName, tierPointBalance, rewardPointBalance, benefits,
+                    catalogue.redeemableVouchers(tierId), minPoints, maxPoints);
+        }
+    }
+}
@@ -2,9 +2,13 @@ package com.pickleball_backend.pickleball.service;
 
 import com.pickleball_backend.pickleball.dto.*;
 import com.pickleball_backend.pickleball.entity.*;
+import com.pickleball_backend.pickleball.event.MemberPointsChangedEvent;
 import com.pickleball_backend.pickleball.exception.*;
 import com.pickleball_backend.pickleball.repository.*;
+import com.pickleball_backend.pickleball.security.CurrentIdentity;
+import com.pickleball_backend.pickleball.security.IdentityResolver;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -14,9 +18,6 @@ import java.util.Arrays;
 import java.util.List;
 import java.util.UUID;
 import java.util.stream.Collectors;
-import java.util.ArrayList;
-import java.util.Set;
-import java.util.HashSet;
 
 @Service
 @RequiredArgsConstructor
@@ -29,14 +30,23 @@ public class MemberService {
     private final WalletRepository walletRepository;
     private final EmailService emailService;
     private final TierService tierService;
+    private final ApplicationEventPublisher eventPublisher;
+    private final MemberDashboardCache dashboardCache;
+    private final IdentityResolver identityResolver;
 
     public MemberDashboardDto getMemberDashboard() {
-        String username = SecurityContextHolder.getContext().getAuthentication().getName();
-        UserAccount account = userAccountRepository.findByUsername(username)
-                .orElseThrow(() -> new ResourceNotFoundException("User account not found"));
+        CurrentIdentity identity = identityResolver.current();
+        if (identity.memberId() != null) {
+            MemberDashboardDto cached = dashboardCache.get(identity.memberId());
+            if (cached != null) {
+                return cached;
+            }
+        }
 
-        User user = account.getUser();
-        Member member = memberRepository.findByUserId(user.getId());
+        long startGeneration = dashboardCache.currentGeneration();
+        Member member = identity.memberId() != null
+                ? memberRepository.findById(identity.memberId()).orElse(null)
+                : null;
 
         if (member == null) {
             throw new ResourceNotFoundException("Member not found");
@@ -45,7 +55,7 @@ public class MemberService {
         if (member.getTier() == null) {
             // Try to auto-assign tier first
             tierService.recalculateMemberTier(member);
-            member = memberRepository.findByUserId(user.getId()); // Refresh
+            member = memberRepository.findByUserId(identity.userId()); // Refresh
         }
 
         if (member.getTier() == null) {
@@ -58,95 +68,13 @@ public class MemberService {
             memberRepository.save(member);
         }
 
-        if (member.getWallet() == null) {
+        if (identity.walletId() == null && member.getWallet() == null) {
             initializeWallet(member.getId()); // Initialize if missing
+            identityResolver.refresh();
         }
 
-        // Add debug logging
-        System.out.println("=== MemberService Debug ===");
-        System.out.println("Member ID: " + member.getId());
-        System.out.println("Member Tier ID: " + (member.getTier() != null ? member.getTier().getId() : "NULL"));
-        System.out.println("Member Tier Name: " + (member.getTier() != null ? member.getTier().getTierName() : "NULL"));
-        System.out.println("Member Point Balance: " + member.getTierPointBalance());
-
-        // Get vouchers for current tier
-        List<Voucher> tierVouchers = voucherRepository.findByTierIdAndMemberIsNull(member.getTier().getId());
-        
-        // Get vouchers with no tier restriction (available to all users)
-        List<Voucher> noTierVouchers = voucherRepository.findByTierIsNullAndMemberIsNull();
-        
-        // Combine both lists and remove duplicates based on voucher code
-        Set<String> seenCodes = new HashSet<>();
-        List<Voucher> allVouchers = new ArrayList<>();
-        
-        // Add tier vouchers first
-        for (Voucher voucher : tierVouchers) {
-            if (!seenCodes.contains(voucher.getCode())) {
-                allVouchers.add(voucher);
-                seenCodes.add(voucher.getCode());
-            }
-        }
-        
-        // Add no-tier vouchers (only if not already added)
-        for (Voucher voucher : noTierVouchers) {
-            if (!seenCodes.contains(voucher.getCode())) {
-                allVouchers.add(voucher);
-                seenCodes.add(voucher.getCode());
-            }
-        }
-        
-        System.out.println("Found " + tierVouchers.size() + " vouchers for tier " + member.getTier().getId());
-        System.out.println("Found " + noTierVouchers.size() + " vouchers with no tier restriction");
-        System.out.println("Total vouchers: " + allVouchers.size());
-        
-        allVouchers.forEach(v -> {
-            System.out.println("Voucher ID: " + v.getId() + 
-                             ", Code: " + v.getCode() + 
-                             ", Tier: " + (v.getTier() != null ? v.getTier().getTierName() : "NO TIER") +
-                             ", Expiry: " + v.getExpiryDate() + 
-                             ", Points: " + v.getRequestPoints());
-        });
-
-        List<VoucherDto> redeemableVouchers = allVouchers.stream()
-                .filter(v -> {
-                    // Handle null or default dates as never expiring
-                    if (v.getExpiryDate() == null) {
-                        System.out.println("Voucher " + v.getCode() + " has no expiry date - INCLUDED");
-                        return true;
-                    }
-                    if (v.getExpiryDate().equals(LocalDate.of(1970, 1, 1))) {
-                        System.out.println("Voucher " + v.getCode() + " has default expiry date - INCLUDED");
-                        return true;
-                    }
-                    
-                    boolean isExpired = v.getExpiryDate().isBefore(LocalDate.now());
-                    System.out.println("Voucher " + v.getCode() + " expires on " + v.getExpiryDate() + 
-                                     ", today is " + LocalDate.now() + ", isExpired: " + isExpired + 
-                                     (isExpired ? " - EXCLUDED" : " - INCLUDED"));
-                    return !isExpired;
-                })
-                .map(v -> new VoucherDto(
-                        v.getId(),
-                        v.getCode(),
-                        v.getDiscountValue(),  // Changed from getDiscountAmount()
-                        v.getDiscountType(),  // Added discount type
-                        v.getRequestPoints(),
-                        v.getTier() != null ? v.getTier().getTierName() : null,  // Added tierName
-                        v.getExpiryDate()
-                ))
-                .collect(Collectors.toList());
-        
-        System.out.println("After filtering by expiry date: " + redeemableVouchers.size() + " vouchers");
-
-        return new MemberDashboardDto(
-                member.getTier().getTierName(), // 直接返回字符串值
-                member.getTierPointBalance(),
-                member.getRewardPointBalance(),  // 新增 reward points
-                member.getTier().getBenefits(),
-                redeemableVouchers,
-                member.getTier().getMinPoints(),
-                member.getTier().getMaxPoints()
-        );
+        // 可兌換的優惠券由 VoucherCatalogue 依等級提供（已去重並排除過期）
+        return dashboardCache.put(member, startGeneration);
     }
 
     public Integer getMemberIdByUsername(String username) {
@@ -196,11 +124,12 @@ public class MemberService {
         }
 
         // Deduct points
-        member.setTierPointBalance(member.getTierPointBalance() - voucher.getRequestPoints());
+        int oldTierPoints = member.getTierPointBalance();
+        member.setTierPointBalance(oldTierPoints - voucher.getRequestPoints());
         memberRepository.save(member);
 
         // Recalculate tier
-        tierService.recalculateMemberTier(member);
+        eventPublisher.publishEvent(new MemberPointsChangedEvent(member.getId(), oldTierPoints, member.getTierPointBalance()));
 
         // Generate unique voucher code
         String uniqueCode = voucher.getCode() + "-" + UUID.randomUUID().toString().substring(0, 8).toUpperCase();
@@ -237,28 +166,15 @@ public class MemberService {
                 .orElseThrow(() -> new ResourceNotFoundException("User account not found"));
 
         Member member = memberRepository.findByUserId(account.getUser().getId());
-        
-        // Store old tier for comparison
-        String oldTierName = member.getTier() != null ? member.getTier().getTierName() : "NONE";
-        
+
         // Add points to both tier points and reward points
-        member.setTierPointBalance(member.getTierPointBalance() + points);
+        int oldTierPoints = member.getTierPointBalance();
+        member.setTierPointBalance(oldTierPoints + points);
         member.setRewardPointBalance(member.getRewardPointBalance() + points);
         memberRepository.save(member);
 
         // Automatic tier upgrade check (based on tier points)
-        tierService.recalculateMemberTier(member);
-        
-        // Refresh member data to get updated tier
-        member = memberRepository.findByUserId(account.getUser().getId());
-        String newTierName = member.getTier() != null ? member.getTier().getTierName() : "NONE";
-        
-        // Log tier upgrade if it occurred
-        if (!oldTierName.equals(newTierName)) {
-            // Assuming log is available, otherwise remove this line
-            // log.info("Automatic tier upgrade: {} -> {} (Points: {} -> {})", 
-            //         oldTierName, newTierName, member.getTierPointBalance() - points, member.getTierPointBalance());
-        }
+        eventPublisher.publishEvent(new MemberPointsChangedEvent(member.getId(), oldTierPoints, member.getTierPointBalance()));
     }
 
     /**
@@ -283,6 +199,9 @@ public class MemberService {
         member.setTierPointBalance(Math.max(0, currentTierPoints - tierPointsToDeduct));
         member.setRewardPointBalance(Math.max(0, currentRewardPoints - rewardPointsToDeduct));
         memberRepository.save(member);
+        if (tierPointsToDeduct > 0) {
+            eventPublisher.publishEvent(new MemberPointsChangedEvent(member.getId(), currentTierPoints, member.getTierPointBalance()));
+        }
         
         return new PointDeductionResult(tierPointsToDeduct, rewardPointsToDeduct);
     }
@@ -0,0 +1,115 @@
+package com.pickleball_backend.pickleball.service;
+
+import com.pickleball_backend.pickleball.entity.MembershipTier;
+import com.pickleball_backend.pickleball.event.MembershipTierChangedEvent;
+import com.pickleball_backend.pickleball.repository.MembershipTierRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 啟用中會員等級的記憶體快照，依 minPoints 排序，以二分搜尋依積分找出等級。
+ * 快照只保存不可變的 {@link TierRange}，不共用受管理的實體；
+ * 等級新增、修改或刪除提交後失效，下一次查詢時重新載入。
+ */
+@Service
+@Slf4j
+@RequiredArgsConstructor
+public class MembershipTierTable {
+
+    private final MembershipTierRepository tierRepository;
+
+    private final AtomicLong generation = new AtomicLong();
+    private volatile Snapshot snapshot;
+
+    public record TierRange(Integer id, String tierName, int minPoints, int maxPoints) {
+
+        static TierRange of(MembershipTier tier) {
+            return new TierRange(tier.getId(), tier.getTierName(), tier.getMinPoints(), tier.getMaxPoints());
+        }
+
+        public boolean contains(int points) {
+            return points >= minPoints && (maxPoints == Integer.MAX_VALUE || points <= maxPoints);
+        }
+    }
+
+    /**
+     * 依積分找出對應的等級：minPoints <= points <= maxPoints 的等級；
+     * 落在所有等級區間之外時回傳最高等級（與每日 reconcile 相同規則），沒有任何啟用中等級時回傳 null
+     */
+    public TierRange resolve(int points) {
+        Snapshot current = load();
+        int count = current.tiers.size();
+        if (count == 0) {
+            return null;
+        }
+        // 找出最後一個 minPoints <= points 的等級
+        int low = 0;
+        int high = count - 1;
+        int found = -1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            if (current.minPoints[mid] <= points) {
+                found = mid;
+                low = mid + 1;
+            } else {
+                high = mid - 1;
+            }
+        }
+        if (found >= 0 && current.tiers.get(found).contains(points)) {
+            return current.tiers.get(found);
+        }
+        return current.tiers.get(count - 1);
+    }
+
+    public List<TierRange> activeTiers() {
+        return load().tiers;
+    }
+
+    public void invalidate() {
+        generation.incrementAndGet();
+        snapshot = null;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onMembershipTierChanged(MembershipTierChangedEvent event) {
+        invalidate();
+    }
+
+    private Snapshot load() {
+        Snapshot current = snapshot;
+        if (current != null) {
+            return current;
+        }
+        synchronized (this) {
+            if (snapshot != null) {
+                return snapshot;
+            }
+            long startGeneration = generation.get();
+            Snapshot rebuilt = new Snapshot(tierRepository.findAllByActiveTrueOrderByMinPointsAsc());
+            // 載入期間若有等級變更則不寫入快照
+            if (generation.get() == startGeneration) {
+                snapshot = rebuilt;
+            }
+            log.info("Loaded {} active membership tiers", rebuilt.tiers.size());
+            return rebuilt;
+        }
+    }
+
+    private static final class Snapshot {
+        final List<TierRange> tiers;
+        final int[] minPoints;
+
+        Snapshot(List<MembershipTier> tiers) {
+            this.tiers = tiers.stream().map(TierRange::of).toList();
+            this.minPoints = new int[this.tiers.size()];
+            for (int i = 0; i < minPoints.length; i++) {
+                minPoints[i] = this.tiers.get(i).minPoints();
+            }
+        }
+    }
+}
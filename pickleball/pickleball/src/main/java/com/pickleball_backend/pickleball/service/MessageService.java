@@ -17,6 +17,7 @@ import java.util.List;
 import java.util.Optional;
 import java.util.stream.Collectors;
 import java.util.Comparator;
+import java.util.HashMap;
 import java.util.Map;
 import java.util.Objects;
 
@@ -42,6 +43,9 @@ public class MessageService {
     @Autowired
     private CoachRepository coachRepository;
 
+    @Autowired
+    private ImageVariantService imageVariantService;
+
     @Transactional
     public MessageDto sendMessage(String senderUsername, String recipientUsername, String content, String imageUrl) {
         User sender = findUserByUsernameOrEmail(senderUsername)
@@ -104,6 +108,7 @@ public class MessageService {
         dto.setRead(message.isRead());
         dto.setConversationId(message.getConversationId());
         dto.setImageUrl(message.getImageUrl());
+        dto.setImageThumbnailUrl(imageVariantService.variantOf(message.getImageUrl(), ImageVariantService.Variant.CARD));
 
         // 处理发送者信息
         processUserInfo(message.getSender(), dto, true);
@@ -138,6 +143,7 @@ public class MessageService {
 
             // 使用安全的方法获取头像
             dto.setSenderProfileImage(getSafeProfileImage(user));
+            dto.setSenderProfileImageThumbnail(imageVariantService.variantOf(dto.getSenderProfileImage(), ImageVariantService.Variant.AVATAR));
         } else {
             dto.setReceiverUsername(getSafeUsername(user));
         }
@@ -246,17 +252,25 @@ public class MessageService {
                     // Check if other user is a coach
                     boolean isCoach = coachRepository.findById(otherUser.getId()).isPresent();
                     
+                    // 列表只需要小圖：頭像用 64px，最後一則若是圖片附上卡片縮圖
+                    Map<String, Object> lastMessage = new HashMap<>();
+                    lastMessage.put("content", latestMessage.getContent());
+                    lastMessage.put("timestamp", latestMessage.getTimestamp());
+                    if (latestMessage.getImageUrl() != null) {
+                        lastMessage.put("imageThumbnailUrl",
+                                imageVariantService.variantOf(latestMessage.getImageUrl(), ImageVariantService.Variant.CARD));
+                    }
+                    String profileImage = getSafeProfileImage(otherUser);
+
                     return Map.of(
                             "id", conversationId,
-                            "lastMessage", Map.of(
-                                    "content", latestMessage.getContent(),
-                                    "timestamp", latestMessage.getTimestamp()
-                            ),
+                            "lastMessage", lastMessage,
                             "otherUser", Map.of(
                                     "id", otherUser.getId(),
                                     "username", getSafeUsername(otherUser),
                                     "name", otherUser.getName(),
-                                    "profileImage", getSafeProfileImage(otherUser),
+                                    "profileImage", profileImage,
+                                    "profileImageThumbnail", imageVariantService.variantOf(profileImage, ImageVariantService.Variant.AVATAR),
                                     "userType", isCoach ? "COACH" : "USER",
                                     "email", otherUser.getEmail()
                             ),
@@ -285,6 +299,7 @@ public class MessageService {
         dto.setRead(message.isRead());
         dto.setConversationId(message.getConversationId());
         dto.setImageUrl(message.getImageUrl());
+        dto.setImageThumbnailUrl(imageVariantService.variantOf(message.getImageUrl(), ImageVariantService.Variant.CARD));
         return dto;
     }
 }
\ No newline at end of file
@@ -0,0 +1,200 @@
+package com.pickleball_backend.pickleball.service;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * 記憶體內的 OPEN 比賽索引，依比賽日期、venue 分桶，桶內依開始時間排序。
+ * 查詢「venue X（或同州 venue）未來幾天內至少還有 N 個空位」時只走訪範圍內的日期桶，
+ * 依開始時間依序回傳比賽 id 及總數供分頁。沒有 venue 的比賽只出現在不指定 venue 的查詢。
+ * 讀取共用讀鎖，寫入取寫鎖。
+ */
+public class OpenMatchIndex {
+
+    private static final Comparator<Entry> BY_START = Comparator
+            .comparing(Entry::startTime)
+            .thenComparingInt(Entry::matchId);
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private final Map<Integer, Entry> entries = new HashMap<>();
+    // 日期 -> venueId（可為 null）-> 該日該 venue 的比賽
+    private final TreeMap<LocalDate, Map<Integer, NavigableSet<Entry>>> buckets = new TreeMap<>();
+    // 出現過的 venue 所在州，供「附近」查詢；不再有比賽的 venue 只會留下空桶，不影響結果
+    private final Map<String, Set<Integer>> venuesByState = new HashMap<>();
+
+    /**
+     * 新增或更新一筆比賽；沒有開始時間的比賽無法依日期查詢，視為移除
+     */
+    public void put(Entry entry) {
+        lock.writeLock().lock();
+        try {
+            unlink(entries.remove(entry.matchId()));
+            if (entry.startTime() == null) {
+                return;
+            }
+            entries.put(entry.matchId(), entry);
+            buckets.computeIfAbsent(entry.startTime().toLocalDate(), d -> new HashMap<>())
+                    .computeIfAbsent(entry.venueId(), v -> new TreeSet<>(BY_START))
+                    .add(entry);
+            if (entry.venueId() != null && entry.venueState() != null) {
+                venuesByState.computeIfAbsent(entry.venueState(), s -> new HashSet<>()).add(entry.venueId());
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(Integer matchId) {
+        lock.writeLock().lock();
+        try {
+            unlink(entries.remove(matchId));
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * 移除開始時間不晚於 now 的比賽，回傳移除筆數
+     */
+    public int removeStartedBefore(LocalDateTime now) {
+        lock.writeLock().lock();
+        try {
+            int removed = 0;
+            Iterator<Map.Entry<LocalDate, Map<Integer, NavigableSet<Entry>>>> days =
+                    buckets.headMap(now.toLocalDate(), true).entrySet().iterator();
+            while (days.hasNext()) {
+                Map<Integer, NavigableSet<Entry>> venues = days.next().getValue();
+                for (Iterator<NavigableSet<Entry>> it = venues.values().iterator(); it.hasNext(); ) {
+                    NavigableSet<Entry> matches = it.next();
+                    while (!matches.isEmpty() && !matches.first().startTime().isAfter(now)) {
+                        entries.remove(matches.pollFirst().matchId());
+                        removed++;
+                    }
+                    if (matches.isEmpty()) {
+                        it.remove();
+                    }
+                }
+                if (venues.isEmpty()) {
+                    days.remove();
+                }
+            }
+            return removed;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * 依開始時間排序找出 now 之後、until（不含）之前開始的比賽 id。
+     *
+     * @param venueId    null 表示不限 venue
+     * @param venueState 不為 null 時一併納入同州的 venue
+     * @param skillLevel null 表示不限，不分大小寫比對
+     * @param invitation null 表示不限
+     */
+    public Result search(Integer venueId, String venueState, LocalDateTime now, LocalDateTime until,
+                         int minSpots, String skillLevel, Boolean invitation, int offset, int limit) {
+        lock.readLock().lock();
+        try {
+            Set<Integer> venues = null;
+            if (venueId != null || venueState != null) {
+                venues = new HashSet<>();
+                if (venueId != null) {
+                    venues.add(venueId);
+                }
+                if (venueState != null) {
+                    venues.addAll(venuesByState.getOrDefault(venueState, Set.of()));
+                }
+            }
+
+            List<Integer> page = new ArrayList<>(Math.min(limit, 100));
+            int total = 0;
+            List<Entry> day = new ArrayList<>();
+            for (Map<Integer, NavigableSet<Entry>> byVenue
+                    : buckets.subMap(now.toLocalDate(), true, until.toLocalDate(), true).values()) {
+                day.clear();
+                int sources = 0;
+                if (venues == null) {
+                    for (NavigableSet<Entry> matches : byVenue.values()) {
+                        day.addAll(matches);
+                        sources++;
+                    }
+                } else {
+                    for (Integer venue : venues) {
+                        NavigableSet<Entry> matches = byVenue.get(venue);
+                        if (matches != null) {
+                            day.addAll(matches);
+                            sources++;
+                        }
+                    }
+                }
+                if (sources > 1) {
+                    day.sort(BY_START);
+                }
+                for (Entry entry : day) {
+                    if (!entry.startTime().isAfter(now) || !entry.startTime().isBefore(until)
+                            || entry.spots() < minSpots
+                            || (skillLevel != null && !skillLevel.equalsIgnoreCase(entry.skillLevel()))
+                            || (invitation != null && invitation != entry.invitation())) {
+                        continue;
+                    }
+                    if (total >= offset && page.size() < limit) {
+                        page.add(entry.matchId());
+                    }
+                    total++;
+                }
+            }
+            return new Result(page, total);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return entries.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void unlink(Entry entry) {
+        if (entry == null) {
+            return;
+        }
+        LocalDate date = entry.startTime().toLocalDate();
+        Map<Integer, NavigableSet<Entry>> byVenue = buckets.get(date);
+        NavigableSet<Entry> matches = byVenue.get(entry.venueId());
+        matches.remove(entry);
+        if (matches.isEmpty()) {
+            byVenue.remove(entry.venueId());
+            if (byVenue.isEmpty()) {
+                buckets.remove(date);
+            }
+        }
+    }
+
+    /**
+     * spots 為剩餘空位（maxPlayers - currentPlayers）
+     */
+    public record Entry(int matchId, LocalDateTime startTime, Integer venueId, String venueState,
+                        int spots, String skillLevel, boolean invitation) {
+    }
+
+    public record Result(List<Integer> matchIds, int total) {
+    }
+}
@@ -1,64 +1,242 @@
 package com.pickleball_backend.pickleball.service;
 
 import com.pickleball_backend.pickleball.dto.ReceiptRequestDto;
+import com.pickleball_backend.pickleball.exception.ValidationException;
+import com.pickleball_backend.pickleball.repository.BookingRepository;
 import com.lowagie.text.*;
 import com.lowagie.text.pdf.PdfPCell;
 import com.lowagie.text.pdf.PdfPTable;
 import com.lowagie.text.pdf.PdfWriter;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 
 import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
 import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
 import java.time.format.DateTimeFormatter;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
 
+/**
+ * 收據 PDF。字型、日期格式及固定文字只建立一次，所有收據共用；PDF 直接寫入輸出串流，不先整份緩衝。
+ * 批量匯出（某段期間的收據打包成 ZIP）在固定大小的執行緒池平行產生，
+ * 每個請求同時進行中的收據數有上限，依 booking id 順序寫入 ZIP；單次匯出的期間及收據數也有上限，
+ * 開始串流前檢查，讓下載能在非同步逾時（spring.mvc.async.request-timeout）內完成。
+ */
 @Service
+@RequiredArgsConstructor
 public class ReceiptService {
 
+    public static final String COURT_BOOKING = "COURT_BOOKING";
+    public static final int MAX_BULK_DAYS = 93;
+    public static final int MAX_BULK_RECEIPTS = 5000;
+    private static final int RENDER_THREADS = Math.max(2, Math.min(4, Runtime.getRuntime().availableProcessors()));
+    private static final int MAX_IN_FLIGHT = RENDER_THREADS * 4;
+    private static final int BATCH_SIZE = 200;
+
+    // Font 建立後不再修改，可在多個執行緒間共用
+    private static final Font TITLE_FONT = new Font(Font.HELVETICA, 24, Font.BOLD);
+    private static final Font SECTION_FONT = new Font(Font.HELVETICA, 14, Font.BOLD);
+    private static final Font INFO_FONT = new Font(Font.HELVETICA, 10, Font.NORMAL);
+    private static final Font TOTAL_FONT = new Font(Font.HELVETICA, 12, Font.BOLD);
+    private static final Font FOOTER_FONT = new Font(Font.HELVETICA, 10, Font.ITALIC);
+    private static final DateTimeFormatter RECEIPT_DATE = DateTimeFormatter.ofPattern("dd/MM/yyyy");
+    private static final DateTimeFormatter RECEIPT_TIME = DateTimeFormatter.ofPattern("HH:mm");
+    private static final String TITLE = "PICKLEBALL COURT RECEIPT";
+    private static final String THANKS = "Thank you for choosing our pickleball courts!";
+    private static final String CONTACT = "For any questions, please contact our support team.";
+
+    private final BookingRepository bookingRepository;
+
+    private final ExecutorService renderPool = Executors.newFixedThreadPool(RENDER_THREADS, new RenderThreadFactory());
+
     public ByteArrayOutputStream generateReceiptPdf(ReceiptRequestDto receiptRequest) throws Exception {
         ByteArrayOutputStream baos = new ByteArrayOutputStream();
-        Document document = new Document(PageSize.A4);
-        PdfWriter.getInstance(document, baos);
-        
-        document.open();
-        
-        // Add header
-        addHeader(document, receiptRequest);
-        
-        // Add booking details
-        addBookingDetails(document, receiptRequest);
-        
-        // Add payment details
-        addPaymentDetails(document, receiptRequest);
-        
-        // Add footer
-        addFooter(document);
-        
-        document.close();
+        writeReceiptPdf(receiptRequest, baos);
         return baos;
     }
-    
-    private void addHeader(Document document, ReceiptRequestDto receiptRequest) throws Exception {
+
+    /**
+     * 將收據寫入 out，完成後不關閉 out
+     */
+    public void writeReceiptPdf(ReceiptRequestDto receiptRequest, OutputStream out) throws IOException {
+        Document document = new Document(PageSize.A4);
+        try {
+            PdfWriter writer = PdfWriter.getInstance(document, out);
+            writer.setCloseStream(false);
+            document.open();
+            addHeader(document, receiptRequest);
+            addBookingDetails(document, receiptRequest);
+            addPaymentDetails(document, receiptRequest);
+            addFooter(document);
+        } catch (DocumentException e) {
+            throw new IOException("Failed to render receipt " + receiptRequest.getBookingId(), e);
+        } finally {
+            if (document.isOpen()) {
+                document.close();
+            }
+        }
+    }
+
+    /**
+     * 將 [startDate, endDate] 期間（依預訂日期）已付款的場地預訂收據打包成 ZIP 寫入 out。
+     * memberId 為 null 時匯出所有會員的收據。
+     */
+    public void writeReceiptsZip(LocalDate startDate, LocalDate endDate, Integer memberId, OutputStream out) throws IOException {
+        validateRange(startDate, endDate);
+        LocalDateTime from = startDate.atStartOfDay();
+        LocalDateTime to = endDate.plusDays(1).atStartOfDay();
+
+        ZipOutputStream zip = new ZipOutputStream(out);
+        Deque<Future<RenderedReceipt>> inFlight = new ArrayDeque<>();
+        try {
+            int afterId = 0;
+            List<Object[]> rows;
+            do {
+                rows = bookingRepository.findReceiptRows(from, to, memberId, afterId, PageRequest.of(0, BATCH_SIZE));
+                // 日期與開始時間取第一個時段，結束時間取最後一個時段
+                Map<Integer, Object[]> firstSlots = new HashMap<>();
+                Map<Integer, Object[]> lastSlots = new HashMap<>();
+                if (!rows.isEmpty()) {
+                    List<Integer> bookingIds = rows.stream().map(row -> (Integer) row[0]).toList();
+                    for (Object[] slot : bookingRepository.findSlotTimesByBookingIds(bookingIds)) {
+                        firstSlots.putIfAbsent((Integer) slot[0], slot);
+                        lastSlots.put((Integer) slot[0], slot);
+                    }
+                }
+                for (Object[] row : rows) {
+                    ReceiptRequestDto receipt = toReceiptRequest(row, firstSlots.get((Integer) row[0]), lastSlots.get((Integer) row[0]));
+                    inFlight.add(renderPool.submit(() -> render(receipt)));
+                    if (inFlight.size() >= MAX_IN_FLIGHT) {
+                        writeEntry(zip, inFlight.poll());
+                    }
+                }
+                if (!rows.isEmpty()) {
+                    afterId = (Integer) rows.get(rows.size() - 1)[0];
+                }
+            } while (rows.size() == BATCH_SIZE);
+            while (!inFlight.isEmpty()) {
+                writeEntry(zip, inFlight.poll());
+            }
+            zip.finish();
+        } finally {
+            // 中途失敗（例如用戶端中斷下載）時不再產生剩下的收據
+            inFlight.forEach(future -> future.cancel(true));
+        }
+    }
+
+    public static void validateRange(LocalDate startDate, LocalDate endDate) {
+        if (startDate == null || endDate == null || endDate.isBefore(startDate)) {
+            throw new ValidationException("A valid date range is required");
+        }
+        if (ChronoUnit.DAYS.between(startDate, endDate) >= MAX_BULK_DAYS) {
+            throw new ValidationException("Date range cannot exceed " + MAX_BULK_DAYS + " days");
+        }
+    }
+
+    /**
+     * 開始串流前檢查期間及收據數，串流開始後無法再回傳錯誤狀態
+     */
+    public void validateExport(LocalDate startDate, LocalDate endDate, Integer memberId) {
+        validateRange(startDate, endDate);
+        long count = bookingRepository.countReceiptRows(startDate.atStartOfDay(), endDate.plusDays(1).atStartOfDay(), memberId);
+        if (count > MAX_BULK_RECEIPTS) {
+            throw new ValidationException("Too many receipts (" + count + ") in this date range, the limit is "
+                    + MAX_BULK_RECEIPTS + "; please choose a shorter range");
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        renderPool.shutdownNow();
+    }
+
+    private RenderedReceipt render(ReceiptRequestDto receipt) throws IOException {
+        ByteArrayOutputStream pdf = new ByteArrayOutputStream(8 * 1024);
+        writeReceiptPdf(receipt, pdf);
+        return new RenderedReceipt(fileName(receipt), pdf.toByteArray());
+    }
+
+    private static void writeEntry(ZipOutputStream zip, Future<RenderedReceipt> future) throws IOException {
+        RenderedReceipt receipt;
+        try {
+            receipt = future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Receipt export interrupted", e);
+        } catch (ExecutionException e) {
+            throw new IOException("Failed to render receipt", e.getCause());
+        }
+        zip.putNextEntry(new ZipEntry(receipt.fileName()));
+        zip.write(receipt.pdf());
+        zip.closeEntry();
+    }
+
+    public static String fileName(ReceiptRequestDto receipt) {
+        String date = receipt.getBookingDate() != null && receipt.getBookingDate().length() >= 10
+                ? receipt.getBookingDate().substring(0, 10) : "";
+        return "receipt_" + receipt.getBookingId() + (date.isEmpty() ? "" : "_" + date) + ".pdf";
+    }
+
+    // row 欄位見 BookingRepository.findReceiptRows，first / last 為 [bookingId, date, startTime, endTime]
+    private static ReceiptRequestDto toReceiptRequest(Object[] row, Object[] first, Object[] last) {
+        ReceiptRequestDto receipt = new ReceiptRequestDto();
+        receipt.setBookingId(String.valueOf(row[0]));
+        receipt.setBookingType(COURT_BOOKING);
+        receipt.setBookingDate(row[1] != null ? row[1].toString() : null);
+        receipt.setTotalAmount((Double) row[2]);
+        receipt.setOriginalAmount((Double) row[3]);
+        receipt.setDiscountAmount(row[4] != null ? (Double) row[4] : 0.0);
+        receipt.setNumberOfPlayers((Integer) row[5]);
+        receipt.setNumPaddles((Integer) row[6]);
+        receipt.setBuyBallSet((Boolean) row[7]);
+        receipt.setPaymentMethod((String) row[8]);
+        receipt.setPaymentStatus((String) row[9]);
+        receipt.setCourtName((String) row[10]);
+        receipt.setLocation((String) row[11]);
+        receipt.setDate(first != null && first[1] != null ? first[1].toString() : null);
+        receipt.setStartTime(first != null && first[2] != null ? ((LocalTime) first[2]).format(RECEIPT_TIME) : null);
+        receipt.setEndTime(last != null && last[3] != null ? ((LocalTime) last[3]).format(RECEIPT_TIME) : null);
+        receipt.setDuration(row[12] != null ? ((Number) row[12]).doubleValue() : null);
+        return receipt;
+    }
+
+    private void addHeader(Document document, ReceiptRequestDto receiptRequest) throws DocumentException {
         // Title
-        Font titleFont = new Font(Font.HELVETICA, 24, Font.BOLD);
-        Paragraph title = new Paragraph("PICKLEBALL COURT RECEIPT", titleFont);
+        Paragraph title = new Paragraph(TITLE, TITLE_FONT);
         title.setAlignment(Element.ALIGN_CENTER);
         title.setSpacingAfter(20);
         document.add(title);
         
         // Receipt info
-        Font infoFont = new Font(Font.HELVETICA, 10, Font.NORMAL);
         Paragraph receiptInfo = new Paragraph();
-        receiptInfo.add(new Chunk("Receipt #: " + receiptRequest.getBookingId(), infoFont));
-        receiptInfo.add(new Chunk("    Date: " + LocalDate.now().format(DateTimeFormatter.ofPattern("dd/MM/yyyy")), infoFont));
-        receiptInfo.add(new Chunk("    Time: " + java.time.LocalTime.now().format(DateTimeFormatter.ofPattern("HH:mm")), infoFont));
+        receiptInfo.add(new Chunk("Receipt #: " + receiptRequest.getBookingId(), INFO_FONT));
+        receiptInfo.add(new Chunk("    Date: " + LocalDate.now().format(RECEIPT_DATE), INFO_FONT));
+        receiptInfo.add(new Chunk("    Time: " + LocalTime.now().format(RECEIPT_TIME), INFO_FONT));
         receiptInfo.setAlignment(Element.ALIGN_CENTER);
         receiptInfo.setSpacingAfter(20);
         document.add(receiptInfo);
     }
     
-    private void addBookingDetails(Document document, ReceiptRequestDto receiptRequest) throws Exception {
-        Font sectionFont = new Font(Font.HELVETICA, 14, Font.BOLD);
-        Paragraph sectionTitle = new Paragraph("BOOKING DETAILS", sectionFont);
+    private void addBookingDetails(Document document, ReceiptRequestDto receiptRequest) throws DocumentException {
+        Paragraph sectionTitle = new Paragraph("BOOKING DETAILS", SECTION_FONT);
         sectionTitle.setSpacingAfter(10);
         document.add(sectionTitle);
         
@@ -71,7 +249,7 @@ public class ReceiptService {
         addTableRow(table, "Date", receiptRequest.getDate());
         addTableRow(table, "Time", receiptRequest.getStartTime() + " - " + receiptRequest.getEndTime());
         addTableRow(table, "Duration", receiptRequest.getDuration() + " hour(s)");
-        addTableRow(table, "Number of Players", receiptRequest.getNumberOfPlayers().toString());
+        addTableRow(table, "Number of Players", String.valueOf(receiptRequest.getNumberOfPlayers()));
         
         if (receiptRequest.getNumPaddles() != null && receiptRequest.getNumPaddles() > 0) {
             addTableRow(table, "Paddles Rented", receiptRequest.getNumPaddles() + " (RM5 each)");
@@ -85,9 +263,8 @@ public class ReceiptService {
         document.add(new Paragraph(" ")); // Spacing
     }
     
-    private void addPaymentDetails(Document document, ReceiptRequestDto receiptRequest) throws Exception {
-        Font sectionFont = new Font(Font.HELVETICA, 14, Font.BOLD);
-        Paragraph sectionTitle = new Paragraph("PAYMENT DETAILS", sectionFont);
+    private void addPaymentDetails(Document document, ReceiptRequestDto receiptRequest) throws DocumentException {
+        Paragraph sectionTitle = new Paragraph("PAYMENT DETAILS", SECTION_FONT);
         sectionTitle.setSpacingAfter(10);
         document.add(sectionTitle);
         
@@ -98,7 +275,7 @@ public class ReceiptService {
         addTableRow(table, "Payment Status", receiptRequest.getPaymentStatus());
         
         // Add cost breakdown for court bookings
-        if ("COURT_BOOKING".equals(receiptRequest.getBookingType())) {
+        if (COURT_BOOKING.equals(receiptRequest.getBookingType())) {
             double courtRental = receiptRequest.getOriginalAmount() != null ? receiptRequest.getOriginalAmount() : receiptRequest.getTotalAmount();
             double paddleCost = receiptRequest.getNumPaddles() != null ? receiptRequest.getNumPaddles() * 5.0 : 0.0;
             double ballSetCost = receiptRequest.getBuyBallSet() != null && receiptRequest.getBuyBallSet() ? 12.0 : 0.0;
@@ -121,8 +298,7 @@ public class ReceiptService {
             addTableRow(table, "Discount Amount", "-RM" + String.format("%.2f", receiptRequest.getDiscountAmount()));
         }
         
-        Font totalFont = new Font(Font.HELVETICA, 12, Font.BOLD);
-        addTableRow(table, "Total Amount", "RM" + String.format("%.2f", receiptRequest.getTotalAmount()), totalFont);
+        addTableRow(table, "Total Amount", "RM" + String.format("%.2f", receiptRequest.getTotalAmount()), TOTAL_FONT);
         
         if (receiptRequest.getPointsEarned() != null && receiptRequest.getPointsEarned() > 0) {
             addTableRow(table, "Points Earned", "+" + receiptRequest.getPointsEarned());
@@ -131,22 +307,21 @@ public class ReceiptService {
         document.add(table);
     }
     
-    private void addFooter(Document document) throws Exception {
+    private void addFooter(Document document) throws DocumentException {
         document.add(new Paragraph(" ")); // Spacing
         
-        Font footerFont = new Font(Font.HELVETICA, 10, Font.ITALIC);
-        Paragraph footer = new Paragraph("Thank you for choosing our pickleball courts!", footerFont);
+        Paragraph footer = new Paragraph(THANKS, FOOTER_FONT);
         footer.setAlignment(Element.ALIGN_CENTER);
         footer.setSpacingAfter(10);
         document.add(footer);
         
-        Paragraph contact = new Paragraph("For any questions, please contact our support team.", footerFont);
+        Paragraph contact = new Paragraph(CONTACT, FOOTER_FONT);
         contact.setAlignment(Element.ALIGN_CENTER);
         document.add(contact);
     }
     
     private void addTableRow(PdfPTable table, String label, String value) {
-        addTableRow(table, label, value, new Font(Font.HELVETICA, 10, Font.NORMAL));
+        addTableRow(table, label, value, INFO_FONT);
     }
     
     private void addTableRow(PdfPTable table, String label, String value, Font font) {
@@ -159,4 +334,19 @@ public class ReceiptService {
         table.addCell(labelCell);
         table.addCell(valueCell);
     }
+
+    private record RenderedReceipt(String fileName, byte[] pdf) {
+    }
+
+    // 具名的 daemon 執行緒，不阻擋應用程式關閉
+    private static final class RenderThreadFactory implements ThreadFactory {
+        private final AtomicInteger count = new AtomicInteger();
+
+        @Override
+        public Thread newThread(Runnable task) {
+            Thread thread = new Thread(task, "receipt-render-" + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
 }
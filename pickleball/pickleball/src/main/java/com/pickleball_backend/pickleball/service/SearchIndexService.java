@@ -0,0 +1,256 @@
+package com.pickleball_backend.pickleball.service;
+
+import com.pickleball_backend.pickleball.entity.Group;
+import com.pickleball_backend.pickleball.entity.User;
+import com.pickleball_backend.pickleball.event.GroupChangedEvent;
+import com.pickleball_backend.pickleball.event.UserAccountChangedEvent;
+import com.pickleball_backend.pickleball.event.UserChangedEvent;
+import com.pickleball_backend.pickleball.repository.GroupRepository;
+import com.pickleball_backend.pickleball.repository.UserRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+/**
+ * 使用者及群組的搜尋索引（{@link TrigramIndex}），取代 LIKE '%q%' 查詢供輸入提示使用。
+ * 啟動時全量載入；使用者、帳號及群組寫入後標記，每秒批量重新載入被標記的資料；每晚全量重建一次，
+ * 補上 JPQL 批量更新等不會觸發事件的變動。索引尚未載入完成時退回原本的資料庫查詢。
+ * 索引只用來找出候選 id，回傳前仍從資料庫載入並確認狀態。
+ */
+@Service
+@Slf4j
+@RequiredArgsConstructor
+public class SearchIndexService {
+
+    public static final int DEFAULT_LIMIT = 50;
+
+    // 使用者索引欄位：0 username、1 name、2 email
+    private static final int USERNAME = 1;
+    private static final int NAME = 1 << 1;
+    private static final int EMAIL = 1 << 2;
+    // 群組索引欄位：0 name
+    private static final int GROUP_NAME = 1;
+    private static final int ACTIVE = 1;
+    private static final int BATCH_SIZE = 500;
+
+    private final UserRepository userRepository;
+    private final GroupRepository groupRepository;
+
+    // 全量重建時整個換掉；null 表示尚未載入
+    private volatile TrigramIndex<Integer> userIndex;
+    private volatile TrigramIndex<Long> groupIndex;
+
+    private final Set<Integer> dirtyUsers = ConcurrentHashMap.newKeySet();
+    private final Set<Long> dirtyGroups = ConcurrentHashMap.newKeySet();
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        try {
+            rebuild();
+        } catch (RuntimeException e) {
+            log.warn("Search index could not be built at startup, falling back to database search: {}", e.getMessage());
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onUserChanged(UserChangedEvent event) {
+        if (event.getUserId() != null) {
+            dirtyUsers.add(event.getUserId());
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onUserAccountChanged(UserAccountChangedEvent event) {
+        if (event.getUserId() != null) {
+            dirtyUsers.add(event.getUserId());
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onGroupChanged(GroupChangedEvent event) {
+        if (event.getGroupId() != null) {
+            dirtyGroups.add(event.getGroupId());
+        }
+    }
+
+    /**
+     * 依使用者名稱或姓名搜尋，activeOnly 時只回傳帳號狀態為 ACTIVE 的使用者
+     */
+    public List<User> searchUsers(String query, boolean activeOnly, int limit) {
+        TrigramIndex<Integer> index = userIndex;
+        if (index == null) {
+            List<User> users = activeOnly
+                    ? userRepository.searchActiveUsers(query)
+                    : userRepository.findByNameContainingIgnoreCaseOrUserAccount_UsernameContainingIgnoreCase(query, query);
+            return users.size() > limit ? users.subList(0, limit) : users;
+        }
+        List<Integer> ids = index.search(query, USERNAME | NAME, activeOnly ? ACTIVE : 0, limit);
+        if (ids.isEmpty()) {
+            return new ArrayList<>();
+        }
+        List<User> users = inOrder(ids, userRepository.findWithAccountByIdIn(ids), User::getId);
+        if (activeOnly) {
+            // 以資料庫為準，索引可能還沒收到剛發生的停用
+            users.removeIf(user -> user.getUserAccount() == null || !"ACTIVE".equals(user.getUserAccount().getStatus()));
+        }
+        return users;
+    }
+
+    /**
+     * 依姓名或電子郵件找出符合的使用者 id（供管理後台再套用其他篩選及分頁）。
+     * 索引尚未載入或符合筆數超過 maxResults 時回傳 null，由呼叫端退回資料庫查詢。
+     */
+    public List<Integer> findUserIdsByNameOrEmail(String query, int maxResults) {
+        TrigramIndex<Integer> index = userIndex;
+        if (index == null) {
+            return null;
+        }
+        List<Integer> ids = index.search(query, NAME | EMAIL, 0, maxResults + 1);
+        return ids.size() > maxResults ? null : ids;
+    }
+
+    public List<Group> searchGroups(String query, int limit) {
+        TrigramIndex<Long> index = groupIndex;
+        if (index == null) {
+            List<Group> groups = groupRepository.findGroupsByNameContaining(query);
+            return groups.size() > limit ? groups.subList(0, limit) : groups;
+        }
+        List<Long> ids = index.search(query, GROUP_NAME, ACTIVE, limit);
+        if (ids.isEmpty()) {
+            return new ArrayList<>();
+        }
+        List<Group> groups = inOrder(ids, groupRepository.findAllById(ids), Group::getId);
+        groups.removeIf(group -> !Boolean.TRUE.equals(group.getIsActive()));
+        return groups;
+    }
+
+    /**
+     * 只搜尋使用者所屬的群組；成員身分不在索引內，先取較多候選再由資料庫篩選
+     */
+    public List<Group> searchUserGroups(String query, Integer userId, int limit) {
+        TrigramIndex<Long> index = groupIndex;
+        if (index == null) {
+            List<Group> groups = groupRepository.findGroupsByNameContainingAndUserId(query, userId);
+            return groups.size() > limit ? groups.subList(0, limit) : groups;
+        }
+        List<Long> ids = index.search(query, GROUP_NAME, ACTIVE, Integer.MAX_VALUE);
+        List<Group> groups = new ArrayList<>();
+        for (int from = 0; from < ids.size() && groups.size() < limit; from += BATCH_SIZE) {
+            List<Long> batch = ids.subList(from, Math.min(from + BATCH_SIZE, ids.size()));
+            groups.addAll(inOrder(batch, groupRepository.findActiveGroupsByIdInAndUserId(batch, userId), Group::getId));
+        }
+        return groups.size() > limit ? groups.subList(0, limit) : groups;
+    }
+
+    @Scheduled(fixedDelay = 1000)
+    public synchronized void flushChanges() {
+        if (userIndex == null || groupIndex == null || (dirtyUsers.isEmpty() && dirtyGroups.isEmpty())) {
+            return;
+        }
+        Set<Integer> userIds = drain(dirtyUsers);
+        Set<Long> groupIds = drain(dirtyGroups);
+        try {
+            reloadUsers(userIds);
+            reloadGroups(groupIds);
+        } catch (RuntimeException e) {
+            // 放回，下一輪再試
+            dirtyUsers.addAll(userIds);
+            dirtyGroups.addAll(groupIds);
+            log.warn("Failed to refresh search index: {}", e.getMessage());
+        }
+    }
+
+    @Scheduled(cron = "0 45 3 * * ?")
+    public synchronized void rebuild() {
+        long start = System.currentTimeMillis();
+        TrigramIndex<Integer> users = new TrigramIndex<>(3);
+        for (Object[] row : userRepository.findSearchDocuments()) {
+            putUser(users, row);
+        }
+        TrigramIndex<Long> groups = new TrigramIndex<>(1);
+        for (Object[] row : groupRepository.findSearchDocuments()) {
+            putGroup(groups, row);
+        }
+        userIndex = users;
+        groupIndex = groups;
+        log.info("Built search index for {} users and {} groups in {} ms",
+                users.size(), groups.size(), System.currentTimeMillis() - start);
+    }
+
+    private void reloadUsers(Set<Integer> userIds) {
+        List<Integer> ids = new ArrayList<>(userIds);
+        for (int from = 0; from < ids.size(); from += BATCH_SIZE) {
+            List<Integer> batch = ids.subList(from, Math.min(from + BATCH_SIZE, ids.size()));
+            Set<Integer> missing = new HashSet<>(batch);
+            for (Object[] row : userRepository.findSearchDocumentsByIds(batch)) {
+                putUser(userIndex, row);
+                missing.remove((Integer) row[0]);
+            }
+            missing.forEach(userIndex::remove);
+        }
+    }
+
+    private void reloadGroups(Set<Long> groupIds) {
+        List<Long> ids = new ArrayList<>(groupIds);
+        for (int from = 0; from < ids.size(); from += BATCH_SIZE) {
+            List<Long> batch = ids.subList(from, Math.min(from + BATCH_SIZE, ids.size()));
+            Set<Long> missing = new HashSet<>(batch);
+            for (Object[] row : groupRepository.findSearchDocumentsByIds(batch)) {
+                putGroup(groupIndex, row);
+                missing.remove((Long) row[0]);
+            }
+            missing.forEach(groupIndex::remove);
+        }
+    }
+
+    // row: [userId, username, name, email, accountStatus]
+    private static void putUser(TrigramIndex<Integer> index, Object[] row) {
+        int flags = "ACTIVE".equals(row[4]) ? ACTIVE : 0;
+        index.put((Integer) row[0], flags, (String) row[1], (String) row[2], (String) row[3]);
+    }
+
+    // row: [groupId, name, isActive]
+    private static void putGroup(TrigramIndex<Long> index, Object[] row) {
+        int flags = Boolean.TRUE.equals(row[2]) ? ACTIVE : 0;
+        index.put((Long) row[0], flags, (String) row[1]);
+    }
+
+    private static <K, T> List<T> inOrder(List<K> ids, Collection<T> entities, Function<T, K> idOf) {
+        Map<K, T> byId = new HashMap<>();
+        for (T entity : entities) {
+            byId.put(idOf.apply(entity), entity);
+        }
+        List<T> ordered = new ArrayList<>(ids.size());
+        for (K id : ids) {
+            T entity = byId.get(id);
+            if (entity != null) {
+                ordered.add(entity);
+            }
+        }
+        return ordered;
+    }
+
+    private static <T> Set<T> drain(Set<T> source) {
+        Set<T> drained = new HashSet<>();
+        for (Iterator<T> it = source.iterator(); it.hasNext(); ) {
+            drained.add(it.next());
+            it.remove();
+        }
+        return drained;
+    }
+}
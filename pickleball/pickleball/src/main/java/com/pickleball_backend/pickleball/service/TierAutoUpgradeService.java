@@ -8,8 +8,6 @@ import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
-import java.util.List;
-
 @Service
 @Slf4j
 @RequiredArgsConstructor
@@ -19,42 +17,16 @@ public class TierAutoUpgradeService {
     private final TierService tierService;
 
     /**
-     * Scheduled task to check and upgrade member tiers automatically
-     * Runs every hour at the start of the hour
+     * Hourly reconciliation. Tier changes are applied when points change (see
+     * TierServiceImpl#onMemberPointsChanged); this only fixes members whose tier drifted,
+     * e.g. after bulk updates, with one conditional UPDATE per tier.
      */
     @Scheduled(cron = "0 0 * * * *") // Every hour
     @Transactional
     public void autoUpgradeMemberTiers() {
-        log.info("🔄 Starting automatic tier upgrade check...");
-        
         try {
-            List<Member> allMembers = memberRepository.findAll();
-            int upgradedCount = 0;
-            
-            for (Member member : allMembers) {
-                try {
-                    String oldTierName = member.getTier() != null ? member.getTier().getTierName() : "NONE";
-                    
-                    // Trigger tier recalculation
-                    tierService.recalculateMemberTier(member);
-                    
-                    // Refresh member data
-                    member = memberRepository.findByUserId(member.getUser().getId());
-                    String newTierName = member.getTier() != null ? member.getTier().getTierName() : "NONE";
-                    
-                    if (!oldTierName.equals(newTierName)) {
-                        upgradedCount++;
-                        log.info("🎉 Auto-upgraded member {}: {} -> {} (Points: {})", 
-                                member.getUser().getEmail(), oldTierName, newTierName, member.getTierPointBalance());
-                    }
-                } catch (Exception e) {
-                    log.error("Error upgrading tier for member {}: {}", 
-                            member.getId(), e.getMessage());
-                }
-            }
-            
-            log.info("✅ Automatic tier upgrade completed. {} members upgraded.", upgradedCount);
-            
+            int reconciled = tierService.reconcileAllMemberTiers();
+            log.info("✅ Tier reconciliation completed. {} members updated.", reconciled);
         } catch (Exception e) {
             log.error("❌ Error during automatic tier upgrade: {}", e.getMessage());
         }
@@ -81,9 +53,6 @@ public class TierAutoUpgradeService {
             String oldTierName = member.getTier() != null ? member.getTier().getTierName() : "NONE";
             
             tierService.recalculateMemberTier(member);
-            
-            // Refresh member data
-            member = memberRepository.findByUserId(member.getUser().getId());
             String newTierName = member.getTier() != null ? member.getTier().getTierName() : "NONE";
             
             if (!oldTierName.equals(newTierName)) {
@@ -22,4 +22,5 @@ public interface TierService {
     void deleteVoucher(Integer voucherId);
     void toggleTierStatus(Integer tierId, boolean active);
     void recalculateMemberTier(Member member);
+    int reconcileAllMemberTiers();
 }
\ No newline at end of file
@@ -5,6 +5,7 @@ import com.pickleball_backend.pickleball.dto.VoucherDto;
 import com.pickleball_backend.pickleball.entity.MembershipTier;
 import com.pickleball_backend.pickleball.entity.Voucher;
 import com.pickleball_backend.pickleball.entity.Member;
+import com.pickleball_backend.pickleball.event.MemberPointsChangedEvent;
 import com.pickleball_backend.pickleball.exception.ResourceNotFoundException;
 import com.pickleball_backend.pickleball.exception.ValidationException;
 import com.pickleball_backend.pickleball.repository.MemberRepository;
@@ -14,6 +15,7 @@ import lombok.RequiredArgsConstructor;
 import org.hibernate.service.spi.ServiceException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.context.event.EventListener;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import java.util.List;
@@ -26,7 +28,9 @@ public class TierServiceImpl implements TierService {
     private final MembershipTierRepository tierRepository;
     private final VoucherRepository voucherRepository;
     private final MemberRepository memberRepository;
+    private final MemberDashboardCache dashboardCache;
     private final EmailService emailService; // Added for email notifications
+    private final MembershipTierTable tierTable;
 
     // Existing methods with enhancements...
 
@@ -200,54 +204,34 @@ public class TierServiceImpl implements TierService {
     @Override
     @Transactional
     public void recalculateMemberTier(Member member) {
-        List<MembershipTier> activeTiers = tierRepository.findAllByActiveTrueOrderByMinPointsAsc();
-        int userPoints = member.getTierPointBalance();
-        MembershipTier newTier = null;
-
-        // Debug logging
-        logger.info("=== Tier Recalculation Debug ===");
-        logger.info("Member ID: {}", member.getId());
-        logger.info("Member Points: {}", userPoints);
-        logger.info("Current Tier: {}", member.getTier() != null ? member.getTier().getTierName() : "NULL");
-        logger.info("Active Tiers Count: {}", activeTiers.size());
-
-        for (MembershipTier tier : activeTiers) {
-            logger.info("Checking tier: {} (min: {}, max: {})", 
-                tier.getTierName(), tier.getMinPoints(), tier.getMaxPoints());
-            
-            if (userPoints >= tier.getMinPoints() &&
-                    (tier.getMaxPoints() == Integer.MAX_VALUE ||
-                            userPoints <= tier.getMaxPoints())) {
-                newTier = tier;
-                logger.info("Found matching tier: {}", tier.getTierName());
-                break;
-            }
+        MembershipTierTable.TierRange resolved = tierTable.resolve(member.getTierPointBalance());
+        MembershipTier oldTier = member.getTier();
+        if (resolved == null || (oldTier != null && resolved.id().equals(oldTier.getId()))) {
+            return;
         }
-
-        if (newTier == null && !activeTiers.isEmpty()) {
-            newTier = activeTiers.get(activeTiers.size() - 1);
-            logger.info("No matching tier found, using highest tier: {}", newTier.getTierName());
+        MembershipTier newTier = tierRepository.findById(resolved.id()).orElse(null);
+        if (newTier == null) {
+            return;
         }
 
-        logger.info("Selected new tier: {}", newTier != null ? newTier.getTierName() : "NULL");
-        logger.info("Current tier: {}", member.getTier() != null ? member.getTier().getTierName() : "NULL");
-        logger.info("Tiers equal: {}", newTier != null && newTier.equals(member.getTier()));
-
-        if (newTier != null && !newTier.equals(member.getTier())) {
+        // 只在升級時寄信，退款扣分造成的降級不通知
+        if (oldTier == null || newTier.getMinPoints() > oldTier.getMinPoints()) {
             sendTierUpgradeEmail(member, newTier);
-
-            member.setTier(newTier);
-            memberRepository.save(member);
-            logger.info("Updated user {} tier from {} to {}",
-                    member.getUser().getEmail(),
-                    member.getTier() != null ? member.getTier().getTierName() : "NONE",
-                    newTier.getTierName() // 直接使用字符串
-            );
-        } else {
-            logger.info("No tier update needed");
         }
+        member.setTier(newTier);
+        memberRepository.save(member);
+        logger.info("Updated member {} tier from {} to {} (points: {})",
+                member.getId(),
+                oldTier != null ? oldTier.getTierName() : "NONE",
+                newTier.getTierName(),
+                member.getTierPointBalance());
     }
 
+    // 與積分變動在同一交易內同步執行，呼叫端之後讀到的即為新等級
+    @EventListener
+    public void onMemberPointsChanged(MemberPointsChangedEvent event) {
+        memberRepository.findById(event.getMemberId()).ifPresent(this::recalculateMemberTier);
+    }
 
     // Added email notification method
     private void sendTierUpgradeEmail(Member member, MembershipTier newTier) {
@@ -266,27 +250,51 @@ public class TierServiceImpl implements TierService {
 
     private void recalculateAllMembersTiers() {
         try {
-            List<MembershipTier> tiers = tierRepository.findAllOrderedByMinPoints();
-            logger.info("Recalculating tiers for {} membership tiers", tiers.size());
-
-            for (MembershipTier tier : tiers) {
-                try {
-                    int updated = memberRepository.updateMembersTier(
-                            tier.getMinPoints(),
-                            tier.getMaxPoints(),
-                            tier
-                    );
-                    logger.info("Updated {} members to {} tier", updated, tier.getTierName());
-                } catch (Exception e) {
-                    logger.error("Error updating members for tier {}: {}",
-                            tier.getTierName(), e.getMessage());
-                }
-            }
+            reconcileAllMemberTiers();
         } catch (Exception e) {
             logger.error("Error during tier recalculation: {}", e.getMessage());
         }
     }
 
+    /**
+     * 每個等級一條條件式 UPDATE，把積分落在該等級區間但等級不符的會員修正過來；
+     * 積分落在所有區間之外的會員與 {@link MembershipTierTable#resolve} 相同，歸入最高等級
+     */
+    @Override
+    public int reconcileAllMemberTiers() {
+        int total = 0;
+        List<MembershipTier> activeTiers = tierRepository.findAllByActiveTrueOrderByMinPointsAsc();
+        for (MembershipTier tier : activeTiers) {
+            try {
+                int updated = memberRepository.reconcileMembersTier(tier.getMinPoints(), tier.getMaxPoints(), tier);
+                if (updated > 0) {
+                    logger.info("Reconciled {} members to {} tier", updated, tier.getTierName());
+                }
+                total += updated;
+            } catch (Exception e) {
+                logger.error("Error updating members for tier {}: {}",
+                        tier.getTierName(), e.getMessage());
+            }
+        }
+        if (!activeTiers.isEmpty()) {
+            MembershipTier highest = activeTiers.get(activeTiers.size() - 1);
+            try {
+                int updated = memberRepository.reconcileUnrangedMembersTier(highest);
+                if (updated > 0) {
+                    logger.info("Reconciled {} members outside every tier range to {} tier", updated, highest.getTierName());
+                }
+                total += updated;
+            } catch (Exception e) {
+                logger.error("Error updating members outside every tier range: {}", e.getMessage());
+            }
+        }
+        // 批量 UPDATE 不會觸發 MemberChangedEvent
+        if (total > 0) {
+            dashboardCache.invalidateAll();
+        }
+        return total;
+    }
+
     @Override
     @Transactional
     public Voucher updateVoucher(Integer voucherId, VoucherDto voucherDto) {
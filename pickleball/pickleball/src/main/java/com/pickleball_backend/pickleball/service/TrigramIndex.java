@@ -0,0 +1,265 @@
+package com.pickleball_backend.pickleball.service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * 記憶體內的三字元（trigram）子字串索引，取代 LIKE '%q%' 全表掃描。
+ * 每筆文件有數個欄位及一組旗標（例如 ACTIVE），查詢時指定要比對的欄位及必須具備的旗標。
+ * 三字元以上的查詢以倒排表交集找出候選再逐筆確認；一、兩個字元的查詢直接掃描全部文件。
+ * 欄位開頭符合的結果排在前面。讀取共用讀鎖，寫入取寫鎖。
+ */
+public class TrigramIndex<K> {
+
+    private static final int GRAM = 3;
+    private static final int INITIAL_CAPACITY = 1024;
+
+    private final int fieldCount;
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    // 文件以遞增序號存放，更新時舊序號作廢並配發新序號，倒排表因此維持遞增
+    private final Map<K, Integer> ordinals = new HashMap<>();
+    private final Map<String, IntList> postings = new HashMap<>();
+    private Object[] keys = new Object[INITIAL_CAPACITY];
+    private String[][] texts = new String[INITIAL_CAPACITY][];
+    private int[] flags = new int[INITIAL_CAPACITY];
+    private int nextOrdinal;
+    private int removed;
+
+    public TrigramIndex(int fieldCount) {
+        this.fieldCount = fieldCount;
+    }
+
+    /**
+     * 新增或更新一筆文件，fields 依欄位順序傳入（null 視為空字串）
+     */
+    public void put(K key, int docFlags, String... fields) {
+        if (fields.length != fieldCount) {
+            throw new IllegalArgumentException("Expected " + fieldCount + " fields but got " + fields.length);
+        }
+        String[] normalized = new String[fieldCount];
+        Set<String> grams = new LinkedHashSet<>();
+        for (int f = 0; f < fieldCount; f++) {
+            normalized[f] = normalize(fields[f]);
+            addGrams(normalized[f], grams);
+        }
+
+        lock.writeLock().lock();
+        try {
+            discard(ordinals.remove(key));
+            int ordinal = nextOrdinal++;
+            ensureCapacity(ordinal + 1);
+            keys[ordinal] = key;
+            texts[ordinal] = normalized;
+            flags[ordinal] = docFlags;
+            ordinals.put(key, ordinal);
+            for (String gram : grams) {
+                postings.computeIfAbsent(gram, g -> new IntList()).add(ordinal);
+            }
+            compactIfNeeded();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(K key) {
+        lock.writeLock().lock();
+        try {
+            discard(ordinals.remove(key));
+            compactIfNeeded();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return ordinals.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * 找出 fieldMask 指定的任一欄位包含 query（不分大小寫）且具備 requiredFlags 的文件，最多 limit 筆
+     */
+    public List<K> search(String query, int fieldMask, int requiredFlags, int limit) {
+        String q = normalize(query);
+        if (q.isBlank() || limit <= 0) {
+            return List.of();
+        }
+        List<K> prefixMatches = new ArrayList<>();
+        List<K> otherMatches = new ArrayList<>();
+
+        lock.readLock().lock();
+        try {
+            if (q.length() < GRAM) {
+                for (int ordinal = 0; ordinal < nextOrdinal && prefixMatches.size() < limit; ordinal++) {
+                    collect(ordinal, q, fieldMask, requiredFlags, limit, prefixMatches, otherMatches);
+                }
+            } else {
+                IntList[] lists = postingsFor(q);
+                if (lists == null) {
+                    return List.of();
+                }
+                // 從最短的倒排表開始，其餘以二分搜尋確認
+                IntList shortest = lists[0];
+                for (int i = 0; i < shortest.size && prefixMatches.size() < limit; i++) {
+                    int ordinal = shortest.values[i];
+                    boolean inAll = true;
+                    for (int l = 1; l < lists.length && inAll; l++) {
+                        inAll = lists[l].contains(ordinal);
+                    }
+                    if (inAll) {
+                        collect(ordinal, q, fieldMask, requiredFlags, limit, prefixMatches, otherMatches);
+                    }
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        List<K> result = new ArrayList<>(Math.min(limit, prefixMatches.size() + otherMatches.size()));
+        result.addAll(prefixMatches);
+        for (int i = 0; i < otherMatches.size() && result.size() < limit; i++) {
+            result.add(otherMatches.get(i));
+        }
+        return result;
+    }
+
+    @SuppressWarnings("unchecked")
+    private void collect(int ordinal, String q, int fieldMask, int requiredFlags, int limit,
+                         List<K> prefixMatches, List<K> otherMatches) {
+        Object key = keys[ordinal];
+        if (key == null || (flags[ordinal] & requiredFlags) != requiredFlags) {
+            return;
+        }
+        boolean contains = false;
+        String[] fields = texts[ordinal];
+        for (int f = 0; f < fieldCount; f++) {
+            if ((fieldMask & (1 << f)) == 0) {
+                continue;
+            }
+            int at = fields[f].indexOf(q);
+            if (at == 0) {
+                prefixMatches.add((K) key);
+                return;
+            }
+            contains |= at > 0;
+        }
+        if (contains && otherMatches.size() < limit) {
+            otherMatches.add((K) key);
+        }
+    }
+
+    private IntList[] postingsFor(String q) {
+        Set<String> grams = new LinkedHashSet<>();
+        addGrams(q, grams);
+        IntList[] lists = new IntList[grams.size()];
+        int i = 0;
+        for (String gram : grams) {
+            IntList list = postings.get(gram);
+            if (list == null) {
+                return null;
+            }
+            lists[i++] = list;
+        }
+        Arrays.sort(lists, Comparator.comparingInt(list -> list.size));
+        return lists;
+    }
+
+    private void discard(Integer ordinal) {
+        if (ordinal != null) {
+            keys[ordinal] = null;
+            texts[ordinal] = null;
+            removed++;
+        }
+    }
+
+    // 作廢的序號過多時重建倒排表，避免記憶體及查詢時間持續成長
+    private void compactIfNeeded() {
+        if (removed < INITIAL_CAPACITY || removed < ordinals.size()) {
+            return;
+        }
+        Object[] oldKeys = keys;
+        String[][] oldTexts = texts;
+        int[] oldFlags = flags;
+        int oldNext = nextOrdinal;
+
+        keys = new Object[Math.max(INITIAL_CAPACITY, ordinals.size() * 2)];
+        texts = new String[keys.length][];
+        flags = new int[keys.length];
+        nextOrdinal = 0;
+        removed = 0;
+        ordinals.clear();
+        postings.clear();
+
+        Set<String> grams = new LinkedHashSet<>();
+        for (int old = 0; old < oldNext; old++) {
+            if (oldKeys[old] == null) {
+                continue;
+            }
+            int ordinal = nextOrdinal++;
+            keys[ordinal] = oldKeys[old];
+            texts[ordinal] = oldTexts[old];
+            flags[ordinal] = oldFlags[old];
+            @SuppressWarnings("unchecked")
+            K key = (K) oldKeys[old];
+            ordinals.put(key, ordinal);
+            grams.clear();
+            for (String field : oldTexts[old]) {
+                addGrams(field, grams);
+            }
+            for (String gram : grams) {
+                postings.computeIfAbsent(gram, g -> new IntList()).add(ordinal);
+            }
+        }
+    }
+
+    private void ensureCapacity(int capacity) {
+        if (capacity > keys.length) {
+            int newLength = Math.max(capacity, keys.length * 2);
+            keys = Arrays.copyOf(keys, newLength);
+            texts = Arrays.copyOf(texts, newLength);
+            flags = Arrays.copyOf(flags, newLength);
+        }
+    }
+
+    private static void addGrams(String text, Set<String> grams) {
+        for (int i = 0; i + GRAM <= text.length(); i++) {
+            grams.add(text.substring(i, i + GRAM));
+        }
+    }
+
+    private static String normalize(String text) {
+        return text == null ? "" : text.toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * 遞增的 int 倒排表，比 Set&lt;Integer&gt; 省下大量物件
+     */
+    private static final class IntList {
+        private int[] values = new int[4];
+        private int size;
+
+        void add(int value) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size++] = value;
+        }
+
+        boolean contains(int value) {
+            return Arrays.binarySearch(values, 0, size, value) >= 0;
+        }
+    }
+}
@@ -0,0 +1,305 @@
+package com.pickleball_backend.pickleball.service;
+
+import com.pickleball_backend.pickleball.dto.UserStatisticsDto;
+import com.pickleball_backend.pickleball.entity.UserActivityStats;
+import com.pickleball_backend.pickleball.event.UserActivityChangedEvent;
+import com.pickleball_backend.pickleball.exception.ResourceNotFoundException;
+import com.pickleball_backend.pickleball.repository.BookingRepository;
+import com.pickleball_backend.pickleball.repository.FeedbackRepository;
+import com.pickleball_backend.pickleball.repository.UserActivityStatsRepository;
+import com.pickleball_backend.pickleball.repository.UserRepository;
+import com.pickleball_backend.pickleball.repository.UserWarningRepository;
+import com.pickleball_backend.pickleball.repository.WalletRepository;
+import com.pickleball_backend.pickleball.repository.WalletTransactionRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 使用者活動統計（user_activity_stats）：預訂、評價、警告及錢包交易寫入後標記該使用者，
+ * 每隔幾秒以分組查詢批量重算被標記的使用者；每晚全量校正一次，補上 JPQL 批量更新等不會觸發事件的變動。
+ * 管理後台的使用者詳情及等級列表直接讀取預先計算的統計；尚無統計列的使用者在讀取時即時計算但不寫入，
+ * 並標記給下一輪批量重算建立。
+ */
+@Service
+@Slf4j
+@RequiredArgsConstructor
+public class UserActivityStatsService {
+
+    private static final int BATCH_SIZE = 500;
+
+    private final UserActivityStatsRepository statsRepository;
+    private final UserRepository userRepository;
+    private final BookingRepository bookingRepository;
+    private final FeedbackRepository feedbackRepository;
+    private final UserWarningRepository userWarningRepository;
+    private final WalletRepository walletRepository;
+    private final WalletTransactionRepository walletTransactionRepository;
+
+    private final Set<Integer> dirtyUsers = ConcurrentHashMap.newKeySet();
+    private final Set<Integer> dirtyWallets = ConcurrentHashMap.newKeySet();
+
+    // 交易提交後才標記，重算時讀得到這次寫入
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onUserActivityChanged(UserActivityChangedEvent event) {
+        if (event.getUserId() != null) {
+            dirtyUsers.add(event.getUserId());
+        } else if (event.getWalletId() != null) {
+            dirtyWallets.add(event.getWalletId());
+        }
+    }
+
+    @Scheduled(fixedDelay = 5000)
+    @Transactional
+    public void flushChanges() {
+        if (dirtyUsers.isEmpty() && dirtyWallets.isEmpty()) {
+            return;
+        }
+        Set<Integer> userIds = drain(dirtyUsers);
+        Set<Integer> walletIds = drain(dirtyWallets);
+        // 重算失敗時放回，下一輪再試
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                if (status != STATUS_COMMITTED) {
+                    dirtyUsers.addAll(userIds);
+                    dirtyWallets.addAll(walletIds);
+                }
+            }
+        });
+
+        if (!walletIds.isEmpty()) {
+            for (Object[] row : walletRepository.findMemberIdsByWalletIds(walletIds)) {
+                if (row[1] != null) {
+                    userIds.add((Integer) row[1]);
+                }
+            }
+        }
+        recomputeInBatches(new ArrayList<>(userIds));
+        log.debug("Refreshed activity statistics for {} users", userIds.size());
+    }
+
+    @Scheduled(cron = "0 30 3 * * ?")
+    @Transactional
+    public void reconcileAll() {
+        List<Integer> userIds = userRepository.findAllIds();
+        recomputeInBatches(userIds);
+        int removed = statsRepository.deleteOrphans();
+        log.info("Reconciled activity statistics for {} users ({} orphaned rows removed)", userIds.size(), removed);
+    }
+
+    @Transactional(readOnly = true)
+    public UserStatisticsDto getUserStatistics(Integer userId) {
+        List<Object[]> rows = statsRepository.findStatisticsRowByUserId(userId);
+        if (rows.isEmpty()) {
+            throw new ResourceNotFoundException("User", "id", userId);
+        }
+        Object[] row = rows.get(0);
+        UserActivityStats stats = (UserActivityStats) row[9];
+        if (stats == null) {
+            stats = computeMissing(List.of(userId)).get(userId);
+        }
+        return toDto(row, stats, LocalDateTime.now());
+    }
+
+    @Transactional(readOnly = true)
+    public List<UserStatisticsDto> getUsersByTier(String tierName) {
+        List<Object[]> rows = statsRepository.findStatisticsRowsByTierName(tierName);
+        // 尚未計算過的使用者一次即時計算
+        List<Integer> missing = new ArrayList<>();
+        for (Object[] row : rows) {
+            if (row[9] == null) {
+                missing.add((Integer) row[0]);
+            }
+        }
+        Map<Integer, UserActivityStats> computed = missing.isEmpty() ? Map.of() : computeMissing(missing);
+
+        LocalDateTime now = LocalDateTime.now();
+        List<UserStatisticsDto> result = new ArrayList<>(rows.size());
+        for (Object[] row : rows) {
+            UserActivityStats stats = row[9] != null ? (UserActivityStats) row[9] : computed.get((Integer) row[0]);
+            result.add(toDto(row, stats, now));
+        }
+        return result;
+    }
+
+    private Map<Integer, UserActivityStats> recomputeInBatches(List<Integer> userIds) {
+        Map<Integer, UserActivityStats> result = new HashMap<>();
+        for (int from = 0; from < userIds.size(); from += BATCH_SIZE) {
+            result.putAll(recompute(userIds.subList(from, Math.min(from + BATCH_SIZE, userIds.size()))));
+        }
+        return result;
+    }
+
+    /**
+     * 尚無統計列的使用者：即時計算但不寫入，交給下一輪批量重算建立資料列
+     */
+    private Map<Integer, UserActivityStats> computeMissing(List<Integer> userIds) {
+        Map<Integer, UserActivityStats> result = new HashMap<>();
+        for (int from = 0; from < userIds.size(); from += BATCH_SIZE) {
+            Map<Integer, UserActivityStats> batch = new HashMap<>();
+            for (Integer userId : userIds.subList(from, Math.min(from + BATCH_SIZE, userIds.size()))) {
+                UserActivityStats transientStats = new UserActivityStats(userId);
+                reset(transientStats);
+                batch.put(userId, transientStats);
+            }
+            aggregate(batch);
+            result.putAll(batch);
+        }
+        dirtyUsers.addAll(userIds);
+        return result;
+    }
+
+    /**
+     * 以四條分組查詢重算一批使用者的統計並寫回
+     */
+    private Map<Integer, UserActivityStats> recompute(Collection<Integer> userIds) {
+        Map<Integer, UserActivityStats> stats = new HashMap<>();
+        for (UserActivityStats existing : statsRepository.findAllById(userIds)) {
+            stats.put(existing.getUserId(), existing);
+        }
+        List<UserActivityStats> created = new ArrayList<>();
+        for (Integer userId : userIds) {
+            UserActivityStats current = stats.get(userId);
+            if (current == null) {
+                current = new UserActivityStats(userId);
+                stats.put(userId, current);
+                created.add(current);
+            }
+            reset(current);
+        }
+        aggregate(stats);
+
+        // 已存在的資料列由 dirty checking 更新，新資料列才需要 save
+        statsRepository.saveAll(created);
+        return stats;
+    }
+
+    private void aggregate(Map<Integer, UserActivityStats> stats) {
+        List<Integer> userIds = new ArrayList<>(stats.keySet());
+        for (Object[] row : bookingRepository.summarizeBookingsByUsers(userIds)) {
+            UserActivityStats s = stats.get((Integer) row[0]);
+            s.setTotalBookings(((Number) row[1]).longValue());
+            s.setCompletedBookings(toLong(row[2]));
+            s.setCancelledBookings(toLong(row[3]));
+            s.setTotalSpent(((Number) row[4]).doubleValue());
+            s.setLastBookingDate((LocalDateTime) row[5]);
+        }
+        for (Object[] row : feedbackRepository.summarizeFeedbackByUsers(userIds)) {
+            UserActivityStats s = stats.get((Integer) row[0]);
+            s.setTotalFeedbacks(((Number) row[1]).longValue());
+            s.setRatingCount(((Number) row[2]).longValue());
+            s.setRatingSum(((Number) row[3]).longValue());
+            s.setLastFeedbackDate((LocalDateTime) row[4]);
+        }
+        for (Object[] row : userWarningRepository.summarizeWarningsByUsers(userIds)) {
+            UserActivityStats s = stats.get((Integer) row[0]);
+            s.setTotalWarnings(((Number) row[1]).longValue());
+            s.setLastWarningDate((LocalDateTime) row[2]);
+        }
+        for (Object[] row : walletTransactionRepository.summarizeTransactionsByUsers(userIds)) {
+            UserActivityStats s = stats.get((Integer) row[0]);
+            s.setTotalWalletTransactions(((Number) row[1]).longValue());
+            s.setTotalWalletDeposits(((Number) row[2]).doubleValue());
+            s.setTotalWalletWithdrawals(((Number) row[3]).doubleValue());
+        }
+    }
+
+    private static void reset(UserActivityStats s) {
+        s.setTotalBookings(0);
+        s.setCompletedBookings(0);
+        s.setCancelledBookings(0);
+        s.setTotalSpent(0);
+        s.setLastBookingDate(null);
+        s.setTotalFeedbacks(0);
+        s.setRatingCount(0);
+        s.setRatingSum(0);
+        s.setLastFeedbackDate(null);
+        s.setTotalWarnings(0);
+        s.setLastWarningDate(null);
+        s.setTotalWalletTransactions(0);
+        s.setTotalWalletDeposits(0);
+        s.setTotalWalletWithdrawals(0);
+        s.setUpdatedAt(LocalDateTime.now());
+    }
+
+    private UserStatisticsDto toDto(Object[] row, UserActivityStats stats, LocalDateTime now) {
+        if (stats == null) {
+            stats = new UserActivityStats((Integer) row[0]);
+        }
+        LocalDateTime createdAt = (LocalDateTime) row[8];
+        String tierName = (String) row[6];
+        int tierPoints = row[7] != null ? ((Number) row[7]).intValue() : 0;
+        long daysSinceRegistration = createdAt != null ? ChronoUnit.DAYS.between(createdAt, now) : 0;
+
+        LocalDateTime lastBookingDate = stats.getLastBookingDate();
+        LocalDateTime lastFeedbackDate = stats.getLastFeedbackDate();
+        LocalDateTime lastActivity = lastBookingDate;
+        if (lastFeedbackDate != null && (lastActivity == null || lastFeedbackDate.isAfter(lastActivity))) {
+            lastActivity = lastFeedbackDate;
+        }
+
+        return UserStatisticsDto.builder()
+                .userId((Integer) row[0])
+                .username((String) row[1])
+                .name((String) row[2])
+                .email((String) row[3])
+                .userType((String) row[4])
+                .status((String) row[5])
+                .tier(tierName)
+                .pointBalance(tierPoints)
+                .createdAt(createdAt)
+                .totalBookings(stats.getTotalBookings())
+                .completedBookings(stats.getCompletedBookings())
+                .cancelledBookings(stats.getCancelledBookings())
+                .totalSpent((long) stats.getTotalSpent())
+                .totalFeedbacks(stats.getTotalFeedbacks())
+                .totalWarnings(stats.getTotalWarnings())
+                .totalWalletTransactions(stats.getTotalWalletTransactions())
+                .daysSinceRegistration(daysSinceRegistration)
+                .daysSinceLastActivity(lastActivity != null ? ChronoUnit.DAYS.between(lastActivity, now) : 0)
+                .averageBookingsPerMonth(daysSinceRegistration > 0 ? (stats.getTotalBookings() * 30) / daysSinceRegistration : 0)
+                .averageRating(stats.getAverageRating())
+                .totalRatings(stats.getTotalFeedbacks())
+                .currentWalletBalance(row[10] != null ? ((Number) row[10]).doubleValue() : 0.0)
+                .totalWalletDeposits(stats.getTotalWalletDeposits())
+                .totalWalletWithdrawals(stats.getTotalWalletWithdrawals())
+                .currentTier(tierName)
+                .tierPoints(tierPoints)
+                .lastBookingDate(lastBookingDate)
+                .lastFeedbackDate(lastFeedbackDate)
+                .warningCount(stats.getTotalWarnings())
+                .lastWarningDate(stats.getLastWarningDate())
+                .build();
+    }
+
+    private static Set<Integer> drain(Set<Integer> source) {
+        Set<Integer> drained = new HashSet<>();
+        for (Iterator<Integer> it = source.iterator(); it.hasNext(); ) {
+            drained.add(it.next());
+            it.remove();
+        }
+        return drained;
+    }
+
+    private static long toLong(Object value) {
+        return value != null ? ((Number) value).longValue() : 0;
+    }
+}
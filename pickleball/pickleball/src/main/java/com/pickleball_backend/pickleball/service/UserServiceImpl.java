@@ -39,6 +39,7 @@ public class UserServiceImpl implements UserService {
     private final EventOrganizerRepository eventOrganizerRepository;
     private final FriendRequestRepository friendRequestRepository;
     private final VoucherRepository voucherRepository;
+    private final SearchIndexService searchIndexService;
 
     // 你要注入 CoachRepository
     @Autowired
@@ -339,7 +340,7 @@ public class UserServiceImpl implements UserService {
     @Override
     @Transactional
     public List<UserDto> searchUsers(String query) {
-        List<User> users = userRepository.searchActiveUsers(query);
+        List<User> users = searchIndexService.searchUsers(query, true, SearchIndexService.DEFAULT_LIMIT);
         return users.stream()
                 .map(user -> new UserDto(
                         user.getUserAccount() != null ? user.getUserAccount().getUsername() : null,
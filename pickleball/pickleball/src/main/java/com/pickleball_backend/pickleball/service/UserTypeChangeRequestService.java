@@ -6,6 +6,8 @@ import com.pickleball_backend.pickleball.dto.UserTypeChangeRequestStatisticsDto;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 
+import java.io.IOException;
+import java.io.OutputStream;
 import java.util.List;
 
 public interface UserTypeChangeRequestService {
@@ -49,8 +51,11 @@ public interface UserTypeChangeRequestService {
     // Delete request (admin only)
     void deleteRequest(Integer requestId);
     
-    // Export requests to CSV/Excel
+    // Export requests to CSV
     byte[] exportRequests(UserTypeChangeRequestFilterDto filterDto);
+
+    // Stream requests matching the filter to out as CSV or XLSX ("csv" / "xlsx")
+    void exportRequests(UserTypeChangeRequestFilterDto filterDto, String format, OutputStream out) throws IOException;
     
     // Migrate existing requests
     int migrateExistingRequests();
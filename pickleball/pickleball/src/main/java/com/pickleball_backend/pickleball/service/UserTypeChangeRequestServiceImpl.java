@@ -14,17 +14,31 @@ import com.pickleball_backend.pickleball.repository.UserRepository;
 import com.pickleball_backend.pickleball.repository.UserAccountRepository;
 import com.pickleball_backend.pickleball.repository.BookingRepository;
 import lombok.RequiredArgsConstructor;
+import org.apache.poi.ss.usermodel.Cell;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.xssf.streaming.SXSSFWorkbook;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 import org.springframework.util.StringUtils;
 
+import java.io.BufferedWriter;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDateTime;
-import java.time.temporal.ChronoUnit;
 import java.util.List;
 import java.util.stream.Collectors;
 
@@ -33,6 +47,15 @@ import java.util.stream.Collectors;
 public class UserTypeChangeRequestServiceImpl implements UserTypeChangeRequestService {
 
     private static final Logger log = LoggerFactory.getLogger(UserTypeChangeRequestServiceImpl.class);
+
+    // Statistics are only shown on the admin console, so a short-lived copy is good enough
+    private static final long STATISTICS_TTL_MILLIS = 30_000;
+    private static final int EXPORT_BATCH_SIZE = 1000;
+    private static final int XLSX_ROW_WINDOW = 100;
+    private static final String[] EXPORT_HEADERS = {
+            "Request ID", "User ID", "User Name", "User Email", "Current Type", "Requested Type", "Status",
+            "Reason", "Admin Notes", "Processed By", "Processed At", "Created At"
+    };
     
     private final UserTypeChangeRequestRepository requestRepository;
     private final UserRepository userRepository;
@@ -40,6 +63,8 @@ public class UserTypeChangeRequestServiceImpl implements UserTypeChangeRequestSe
     private final BookingRepository bookingRepository;
     private final EmailService emailService;
 
+    private volatile CachedStatistics cachedStatistics;
+
     @Override
     @Transactional
     public UserTypeChangeRequestDto createRequest(Integer userId, String requestedUserType, String requestReason) {
@@ -70,6 +95,7 @@ public class UserTypeChangeRequestServiceImpl implements UserTypeChangeRequestSe
                     .build();
             
             request = requestRepository.save(request);
+            evictStatistics();
             
             // Update user's requestedUserType field for backward compatibility
             user.setRequestedUserType(requestedUserType);
@@ -245,6 +271,7 @@ public class UserTypeChangeRequestServiceImpl implements UserTypeChangeRequestSe
             }
             
             request = requestRepository.save(request);
+            evictStatistics();
             
             log.info("Successfully processed request: {} with action: {}", requestId, action);
             return enrichRequestDto(request);
@@ -299,6 +326,7 @@ public class UserTypeChangeRequestServiceImpl implements UserTypeChangeRequestSe
             userRepository.save(user);
             
             request = requestRepository.save(request);
+            evictStatistics();
             
             // Send cancellation notification
             sendCancellationNotificationEmail(user, reason);
@@ -316,56 +344,31 @@ public class UserTypeChangeRequestServiceImpl implements UserTypeChangeRequestSe
 
     @Override
     public UserTypeChangeRequestStatisticsDto getRequestStatistics() {
+        CachedStatistics cached = cachedStatistics;
+        if (cached != null && System.currentTimeMillis() - cached.computedAt() < STATISTICS_TTL_MILLIS) {
+            return cached.statistics();
+        }
         try {
             log.info("Fetching user type change request statistics");
             
-            long totalRequests = requestRepository.count();
-            long pendingRequests = requestRepository.countByStatus(UserTypeChangeRequest.RequestStatus.PENDING);
-            long approvedRequests = requestRepository.countByStatus(UserTypeChangeRequest.RequestStatus.APPROVED);
-            long rejectedRequests = requestRepository.countByStatus(UserTypeChangeRequest.RequestStatus.REJECTED);
-            long cancelledRequests = requestRepository.countByStatus(UserTypeChangeRequest.RequestStatus.CANCELLED);
-            
-            long coachRequests = requestRepository.countByStatusAndRequestedUserType(
-                    UserTypeChangeRequest.RequestStatus.PENDING, "Coach");
-            long eventOrganizerRequests = requestRepository.countByStatusAndRequestedUserType(
-                    UserTypeChangeRequest.RequestStatus.PENDING, "EventOrganizer");
-            long userRequests = requestRepository.countByStatusAndRequestedUserType(
-                    UserTypeChangeRequest.RequestStatus.PENDING, "User");
-            
-            // Calculate average processing time
-            List<UserTypeChangeRequest> processedRequests = requestRepository.findByStatusOrderByCreatedAtDesc(
-                    UserTypeChangeRequest.RequestStatus.APPROVED);
-            processedRequests.addAll(requestRepository.findByStatusOrderByCreatedAtDesc(
-                    UserTypeChangeRequest.RequestStatus.REJECTED));
-            
-            double averageProcessingTime = processedRequests.stream()
-                    .filter(r -> r.getProcessedAt() != null)
-                    .mapToLong(r -> ChronoUnit.HOURS.between(r.getCreatedAt(), r.getProcessedAt()))
-                    .average()
-                    .orElse(0.0);
-            
-            // Calculate weekly and monthly requests
-            LocalDateTime weekAgo = LocalDateTime.now().minusWeeks(1);
-            LocalDateTime monthAgo = LocalDateTime.now().minusMonths(1);
-            
-            long requestsThisWeek = requestRepository.findByCreatedAtBetweenOrderByCreatedAtDesc(
-                    weekAgo, LocalDateTime.now()).size();
-            long requestsThisMonth = requestRepository.findByCreatedAtBetweenOrderByCreatedAtDesc(
-                    monthAgo, LocalDateTime.now()).size();
-            
-            return UserTypeChangeRequestStatisticsDto.builder()
-                    .totalRequests(totalRequests)
-                    .pendingRequests(pendingRequests)
-                    .approvedRequests(approvedRequests)
-                    .rejectedRequests(rejectedRequests)
-                    .cancelledRequests(cancelledRequests)
-                    .coachRequests(coachRequests)
-                    .eventOrganizerRequests(eventOrganizerRequests)
-                    .userRequests(userRequests)
-                    .averageProcessingTime(averageProcessingTime)
-                    .requestsThisWeek(requestsThisWeek)
-                    .requestsThisMonth(requestsThisMonth)
+            LocalDateTime now = LocalDateTime.now();
+            Object[] row = requestRepository.aggregateStatistics(now, now.minusWeeks(1), now.minusMonths(1)).get(0);
+            
+            UserTypeChangeRequestStatisticsDto statistics = UserTypeChangeRequestStatisticsDto.builder()
+                    .totalRequests(asLong(row[0]))
+                    .pendingRequests(asLong(row[1]))
+                    .approvedRequests(asLong(row[2]))
+                    .rejectedRequests(asLong(row[3]))
+                    .cancelledRequests(asLong(row[4]))
+                    .coachRequests(asLong(row[5]))
+                    .eventOrganizerRequests(asLong(row[6]))
+                    .userRequests(asLong(row[7]))
+                    .averageProcessingTime(row[8] != null ? ((Number) row[8]).doubleValue() : 0.0)
+                    .requestsThisWeek(asLong(row[9]))
+                    .requestsThisMonth(asLong(row[10]))
                     .build();
+            cachedStatistics = new CachedStatistics(statistics, System.currentTimeMillis());
+            return statistics;
                     
         } catch (Exception e) {
             log.error("Error fetching request statistics: {}", e.getMessage(), e);
@@ -373,6 +376,10 @@ public class UserTypeChangeRequestServiceImpl implements UserTypeChangeRequestSe
         }
     }
 
+    private static long asLong(Object value) {
+        return value != null ? ((Number) value).longValue() : 0L;
+    }
+
     @Override
     public boolean hasPendingRequest(Integer userId) {
         try {
@@ -429,6 +436,7 @@ public class UserTypeChangeRequestServiceImpl implements UserTypeChangeRequestSe
                     .orElseThrow(() -> new ResourceNotFoundException("UserTypeChangeRequest", "id", requestId));
             
             requestRepository.delete(request);
+            evictStatistics();
             
             log.info("Successfully deleted request: {}", requestId);
             
@@ -442,9 +450,139 @@ public class UserTypeChangeRequestServiceImpl implements UserTypeChangeRequestSe
 
     @Override
     public byte[] exportRequests(UserTypeChangeRequestFilterDto filterDto) {
-        // TODO: Implement CSV/Excel export functionality
-        log.info("Export functionality not yet implemented");
-        return new byte[0];
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try {
+            exportRequests(filterDto, "csv", out);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return out.toByteArray();
+    }
+
+    /**
+     * Streams matching requests in keyset batches of EXPORT_BATCH_SIZE rows, so memory stays
+     * constant regardless of how many requests match. XLSX uses SXSSF, which keeps only a
+     * small window of rows in memory and spills the rest to a temp file.
+     */
+    @Override
+    public void exportRequests(UserTypeChangeRequestFilterDto filterDto, String format, OutputStream out) throws IOException {
+        UserTypeChangeRequestFilterDto filter = filterDto != null ? filterDto : new UserTypeChangeRequestFilterDto();
+        if ("xlsx".equalsIgnoreCase(format) || "excel".equalsIgnoreCase(format)) {
+            writeXlsx(filter, out);
+        } else if (format == null || "csv".equalsIgnoreCase(format)) {
+            writeCsv(filter, out);
+        } else {
+            throw new ValidationException("Unsupported export format: " + format);
+        }
+    }
+
+    private void writeCsv(UserTypeChangeRequestFilterDto filter, OutputStream out) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        writer.write(String.join(",", EXPORT_HEADERS));
+        writer.write("\r\n");
+        int exported = forEachExportBatch(filter, rows -> {
+            for (Object[] row : rows) {
+                for (int i = 0; i < row.length; i++) {
+                    if (i > 0) {
+                        writer.write(',');
+                    }
+                    writer.write(csvValue(row[i]));
+                }
+                writer.write("\r\n");
+            }
+        });
+        writer.flush();
+        log.info("Exported {} user type change requests as CSV", exported);
+    }
+
+    private void writeXlsx(UserTypeChangeRequestFilterDto filter, OutputStream out) throws IOException {
+        SXSSFWorkbook workbook = new SXSSFWorkbook(XLSX_ROW_WINDOW);
+        try {
+            Sheet sheet = workbook.createSheet("Requests");
+            Row header = sheet.createRow(0);
+            for (int i = 0; i < EXPORT_HEADERS.length; i++) {
+                header.createCell(i).setCellValue(EXPORT_HEADERS[i]);
+            }
+            int[] rowIndex = {1};
+            int exported = forEachExportBatch(filter, rows -> {
+                for (Object[] row : rows) {
+                    Row sheetRow = sheet.createRow(rowIndex[0]++);
+                    for (int i = 0; i < row.length; i++) {
+                        Cell cell = sheetRow.createCell(i);
+                        if (row[i] instanceof Number number) {
+                            cell.setCellValue(number.doubleValue());
+                        } else if (row[i] != null) {
+                            cell.setCellValue(String.valueOf(row[i]));
+                        }
+                    }
+                }
+            });
+            workbook.write(out);
+            log.info("Exported {} user type change requests as XLSX", exported);
+        } finally {
+            workbook.dispose();
+            workbook.close();
+        }
+    }
+
+    // Runs one query per batch; each batch is a short read so no connection is held while writing
+    private int forEachExportBatch(UserTypeChangeRequestFilterDto filter, ExportBatchWriter batchWriter) throws IOException {
+        Integer beforeId = null;
+        int exported = 0;
+        Pageable batch = PageRequest.of(0, EXPORT_BATCH_SIZE);
+        while (true) {
+            List<Object[]> rows = requestRepository.findExportRows(filter.getStatus(),
+                    StringUtils.hasText(filter.getRequestedUserType()) ? filter.getRequestedUserType() : null,
+                    filter.getUserId(), filter.getStartDate(), filter.getEndDate(), beforeId, batch);
+            if (rows.isEmpty()) {
+                return exported;
+            }
+            batchWriter.write(rows);
+            exported += rows.size();
+            if (rows.size() < EXPORT_BATCH_SIZE) {
+                return exported;
+            }
+            beforeId = (Integer) rows.get(rows.size() - 1)[0];
+        }
+    }
+
+    private static String csvValue(Object value) {
+        if (value == null) {
+            return "";
+        }
+        String text = String.valueOf(value);
+        // Spreadsheet apps evaluate cells starting with these as formulas; the leading quote keeps them as text
+        if (!text.isEmpty() && "=+-@\t\r".indexOf(text.charAt(0)) >= 0) {
+            text = "'" + text;
+        }
+        if (text.indexOf(',') >= 0 || text.indexOf('"') >= 0 || text.indexOf('\n') >= 0 || text.indexOf('\r') >= 0) {
+            return '"' + text.replace("\"", "\"\"") + '"';
+        }
+        return text;
+    }
+
+    /**
+     * Drops the cached statistics now and again after the surrounding transaction completes,
+     * so a read that races the commit cannot keep the old counts for the whole TTL
+     */
+    private void evictStatistics() {
+        cachedStatistics = null;
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    cachedStatistics = null;
+                }
+            });
+        }
+    }
+
+    @FunctionalInterface
+    private interface ExportBatchWriter {
+        void write(List<Object[]> rows) throws IOException;
+    }
+
+    private record CachedStatistics(UserTypeChangeRequestStatisticsDto statistics, long computedAt) {
     }
 
     /**
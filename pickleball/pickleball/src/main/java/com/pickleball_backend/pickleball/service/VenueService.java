@@ -5,26 +5,21 @@ import com.pickleball_backend.pickleball.entity.Venue;
 import com.pickleball_backend.pickleball.entity.Court;
 import com.pickleball_backend.pickleball.repository.VenueRepository;
 import com.pickleball_backend.pickleball.repository.CourtRepository;
-import com.pickleball_backend.pickleball.repository.SlotRepository;
-import com.pickleball_backend.pickleball.repository.BookingRepository;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 import java.time.LocalDate;
 import java.time.LocalTime;
-import java.util.ArrayList;
 import java.util.List;
-import java.util.HashSet;
+import java.util.NoSuchElementException;
 
 @Service
 public class VenueService {
+    public static final int PLAYERS_PER_COURT = 4;
+
     @Autowired
     private VenueRepository venueRepository;
     @Autowired
     private CourtRepository courtRepository;
-    @Autowired
-    private SlotRepository slotRepository;
-    @Autowired
-    private BookingRepository bookingRepository;
 
     public Venue createVenue(VenueDto venueDto) {
         // 若需要檢查重複場地，請根據現有欄位自行實作，否則直接建立
@@ -45,29 +40,27 @@ public class VenueService {
     }
 
     /**
-     * 查詢 venue 在指定日期、時間區間、所需人數下的可用 court
+     * 查詢 venue 在指定日期、時間區間內的可用 court：有可用 slot 且沒有與進行中預訂衝突，單一查詢完成。
+     * 直接返回所有可用場地，不根據人數裁剪（活動自動分配場地時依賴這個行為）。
      */
     public List<Court> getAvailableCourts(Integer venueId, LocalDate date, LocalTime startTime, LocalTime endTime, int peopleCount) {
-        List<Court> courts = courtRepository.findByVenueIn(new HashSet<>(List.of(venueRepository.findById(venueId).orElseThrow())));
-        List<Court> availableCourts = new ArrayList<>();
-        for (Court court : courts) {
-            // 查詢該 court 在此時段是否有可用 slot
-            var slots = slotRepository.findByCourtIdAndDateAndIsAvailableTrue(court.getId(), date);
-            boolean hasAvailable = slots.stream().anyMatch(slot ->
-                !slot.getStartTime().isAfter(endTime) && !slot.getEndTime().isBefore(startTime)
-            );
-            
-            // 新增：檢查是否有與現有預訂的衝突
-            boolean hasBookingConflict = bookingRepository.existsActiveBookingForCourtAndTime(
-                court.getId(), date, startTime, endTime
-            );
-            
-            // 只有沒有slot衝突且沒有預訂衝突的場地才可用
-            if (hasAvailable && !hasBookingConflict) {
-                availableCourts.add(court);
-            }
+        List<Court> availableCourts = courtRepository.findAvailableCourtsForVenue(venueId, date, startTime, endTime);
+        // 沒有結果時才確認 venue 是否存在，保持原本找不到 venue 時拋出例外的行為
+        if (availableCourts.isEmpty() && !venueRepository.existsById(venueId)) {
+            throw new NoSuchElementException("Venue not found: " + venueId);
         }
-        // 直接返回所有可用場地，不再根據人數裁剪
         return availableCourts;
     }
+
+    /**
+     * 同上，但可用場地容納不下 peopleCount 人（每個 court PLAYERS_PER_COURT 人）時返回空列表
+     */
+    public List<Court> getAvailableCourtsWithCapacity(Integer venueId, LocalDate date, LocalTime startTime, LocalTime endTime, int peopleCount) {
+        List<Court> availableCourts = getAvailableCourts(venueId, date, startTime, endTime, peopleCount);
+        return availableCourts.size() >= courtsNeeded(peopleCount) ? availableCourts : List.of();
+    }
+
+    public static int courtsNeeded(int peopleCount) {
+        return peopleCount <= 0 ? 0 : (peopleCount + PLAYERS_PER_COURT - 1) / PLAYERS_PER_COURT;
+    }
 }
@@ -0,0 +1,135 @@
+package com.pickleball_backend.pickleball.service;
+
+import com.pickleball_backend.pickleball.dto.VoucherDto;
+import com.pickleball_backend.pickleball.entity.Voucher;
+import com.pickleball_backend.pickleball.event.MembershipTierChangedEvent;
+import com.pickleball_backend.pickleball.event.VoucherChangedEvent;
+import com.pickleball_backend.pickleball.repository.VoucherRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 各等級可兌換優惠券的記憶體快照：等級專屬優惠券在前、不限等級的在後，依優惠券代碼去重並排除已過期的。
+ * 優惠券或等級變更提交後失效，跨日時也重新載入，讓過期判斷維持以當天日期為準。
+ */
+@Service
+@Slf4j
+@RequiredArgsConstructor
+public class VoucherCatalogue {
+
+    // 沿用原本的規則：1970-01-01 視為沒有到期日
+    private static final LocalDate NO_EXPIRY = LocalDate.of(1970, 1, 1);
+
+    private final VoucherRepository voucherRepository;
+
+    private final AtomicLong generation = new AtomicLong();
+    private volatile Snapshot snapshot;
+
+    /**
+     * 指定等級的會員可兌換的優惠券；沒有等級專屬優惠券時回傳不限等級的清單
+     */
+    public List<VoucherDto> redeemableVouchers(Integer tierId) {
+        Snapshot current = load();
+        return current.byTier.getOrDefault(tierId, current.general);
+    }
+
+    public void invalidate() {
+        generation.incrementAndGet();
+        snapshot = null;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onVoucherChanged(VoucherChangedEvent event) {
+        invalidate();
+    }
+
+    // 優惠券清單帶有等級名稱
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onMembershipTierChanged(MembershipTierChangedEvent event) {
+        invalidate();
+    }
+
+    private Snapshot load() {
+        LocalDate today = LocalDate.now();
+        Snapshot current = snapshot;
+        if (current != null && current.validOn.equals(today)) {
+            return current;
+        }
+        synchronized (this) {
+            current = snapshot;
+            if (current != null && current.validOn.equals(today)) {
+                return current;
+            }
+            long startGeneration = generation.get();
+            Snapshot rebuilt = new Snapshot(voucherRepository.findCatalogueVouchers(), today);
+            // 載入期間若有優惠券變更則不寫入快照
+            if (generation.get() == startGeneration) {
+                snapshot = rebuilt;
+            }
+            log.info("Loaded voucher catalogue for {} tiers ({} general vouchers)", rebuilt.byTier.size(), rebuilt.general.size());
+            return rebuilt;
+        }
+    }
+
+    private static final class Snapshot {
+        final LocalDate validOn;
+        final Map<Integer, List<VoucherDto>> byTier;
+        final List<VoucherDto> general;
+
+        Snapshot(List<Voucher> vouchers, LocalDate today) {
+            this.validOn = today;
+            Map<Integer, List<Voucher>> tierVouchers = new LinkedHashMap<>();
+            List<Voucher> generalVouchers = new ArrayList<>();
+            for (Voucher voucher : vouchers) {
+                if (voucher.getTierId() == null) {
+                    generalVouchers.add(voucher);
+                } else {
+                    tierVouchers.computeIfAbsent(voucher.getTierId(), id -> new ArrayList<>()).add(voucher);
+                }
+            }
+
+            this.general = merge(List.of(), generalVouchers, today);
+            Map<Integer, List<VoucherDto>> catalogue = new HashMap<>();
+            tierVouchers.forEach((tierId, list) -> catalogue.put(tierId, merge(list, generalVouchers, today)));
+            this.byTier = Map.copyOf(catalogue);
+        }
+
+        private static List<VoucherDto> merge(List<Voucher> tierVouchers, List<Voucher> generalVouchers, LocalDate today) {
+            Set<String> seenCodes = new HashSet<>();
+            List<VoucherDto> result = new ArrayList<>();
+            for (List<Voucher> source : List.of(tierVouchers, generalVouchers)) {
+                for (Voucher v : source) {
+                    if (!seenCodes.add(v.getCode()) || isExpired(v, today)) {
+                        continue;
+                    }
+                    result.add(new VoucherDto(
+                            v.getId(),
+                            v.getCode(),
+                            v.getDiscountValue(),
+                            v.getDiscountType(),
+                            v.getRequestPoints(),
+                            v.getTier() != null ? v.getTier().getTierName() : null,
+                            v.getExpiryDate()));
+                }
+            }
+            return List.copyOf(result);
+        }
+
+        private static boolean isExpired(Voucher voucher, LocalDate today) {
+            LocalDate expiry = voucher.getExpiryDate();
+            return expiry != null && !expiry.equals(NO_EXPIRY) && expiry.isBefore(today);
+        }
+    }
+}
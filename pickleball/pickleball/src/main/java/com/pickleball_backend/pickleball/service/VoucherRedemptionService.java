@@ -1,6 +1,7 @@
 package com.pickleball_backend.pickleball.service;
 
 import com.pickleball_backend.pickleball.dto.VoucherRedemptionDto;
+import com.pickleball_backend.pickleball.entity.User;
 import com.pickleball_backend.pickleball.entity.VoucherRedemption;
 
 import java.util.List;
@@ -18,6 +19,9 @@ public interface VoucherRedemptionService {
     
     // Use a redeemed voucher
     VoucherRedemptionDto useVoucher(Integer redemptionId);
+
+    // Use a redeemed voucher at checkout; returns null when it cannot be applied
+    VoucherRedemptionDto useVoucherForBooking(User user, Integer redemptionId);
     
     // Get redemption by ID
     VoucherRedemptionDto getRedemptionById(Integer redemptionId);
@@ -2,17 +2,23 @@ package com.pickleball_backend.pickleball.service;
 
 import com.pickleball_backend.pickleball.dto.VoucherRedemptionDto;
 import com.pickleball_backend.pickleball.entity.*;
+import com.pickleball_backend.pickleball.event.VoucherRedemptionChangedEvent;
 import com.pickleball_backend.pickleball.exception.ResourceNotFoundException;
 import com.pickleball_backend.pickleball.exception.ValidationException;
 import com.pickleball_backend.pickleball.repository.*;
+import com.pickleball_backend.pickleball.security.IdentityResolver;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDate;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
 import java.util.UUID;
 import java.util.stream.Collectors;
 
@@ -25,7 +31,11 @@ public class VoucherRedemptionServiceImpl implements VoucherRedemptionService {
     private final VoucherRepository voucherRepository;
     private final UserAccountRepository userAccountRepository;
     private final MemberRepository memberRepository;
+    private final UserRepository userRepository;
+    private final IdentityResolver identityResolver;
     private final EmailService emailService;
+    private final ActiveVoucherCache activeVoucherCache;
+    private final ApplicationEventPublisher eventPublisher;
 
     @Override
     @Transactional
@@ -97,6 +107,7 @@ public class VoucherRedemptionServiceImpl implements VoucherRedemptionService {
         redemption.setStatus(VoucherRedemption.STATUS_ACTIVE);
 
         redemption = redemptionRepository.save(redemption);
+        eventPublisher.publishEvent(new VoucherRedemptionChangedEvent(user.getId()));
 
         // Generate unique voucher code
         String uniqueCode = voucher.getCode() + "-" + UUID.randomUUID().toString().substring(0, 8).toUpperCase();
@@ -126,13 +137,7 @@ public class VoucherRedemptionServiceImpl implements VoucherRedemptionService {
         User user = account.getUser();
 
         List<VoucherRedemption> redemptions = redemptionRepository.findByUserIdOrderByRedemptionDateDesc(user.getId());
-        
-        return redemptions.stream()
-                .map(redemption -> {
-                    Voucher voucher = voucherRepository.findById(redemption.getVoucherId()).orElse(null);
-                    return mapToDto(redemption, voucher, user);
-                })
-                .collect(Collectors.toList());
+        return mapAllToDto(redemptions, user);
     }
 
     @Override
@@ -147,22 +152,14 @@ public class VoucherRedemptionServiceImpl implements VoucherRedemptionService {
         List<String> activeStatuses = List.of(VoucherRedemption.STATUS_ACTIVE, VoucherRedemption.STATUS_RESTORED);
         List<VoucherRedemption> redemptions = redemptionRepository.findByUserIdAndStatusInOrderByRedemptionDateDesc(
                 user.getId(), activeStatuses);
-        
-        return redemptions.stream()
-                .map(redemption -> {
-                    Voucher voucher = voucherRepository.findById(redemption.getVoucherId()).orElse(null);
-                    return mapToDto(redemption, voucher, user);
-                })
-                .collect(Collectors.toList());
+        return mapAllToDto(redemptions, user);
     }
 
     @Override
     @Transactional
     public VoucherRedemptionDto useVoucher(Integer redemptionId) {
-        String username = SecurityContextHolder.getContext().getAuthentication().getName();
-        UserAccount account = userAccountRepository.findByUsername(username)
+        User user = userRepository.findById(identityResolver.current().userId())
                 .orElseThrow(() -> new ResourceNotFoundException("User account not found"));
-        User user = account.getUser();
 
         VoucherRedemption redemption = redemptionRepository.findById(redemptionId)
                 .orElseThrow(() -> new ResourceNotFoundException("Redemption not found"));
@@ -172,21 +169,18 @@ public class VoucherRedemptionServiceImpl implements VoucherRedemptionService {
             throw new ValidationException("You can only use your own vouchers");
         }
 
-        // Check status
-        if (!VoucherRedemption.STATUS_ACTIVE.equals(redemption.getStatus())) {
+        // 條件式 UPDATE 原子地標記為已使用，同時送出的請求只有一筆成功
+        LocalDate today = LocalDate.now();
+        if (redemptionRepository.markUsedIfActive(redemptionId, user.getId(), today) == 0) {
+            if (VoucherRedemption.STATUS_ACTIVE.equals(redemption.getStatus())
+                    && redemption.getExpiryDate() != null && redemption.getExpiryDate().isBefore(today)) {
+                throw new ValidationException("Voucher has expired");
+            }
             throw new ValidationException("Voucher is not active");
         }
-
-        // Check expiry
-        if (redemption.getExpiryDate() != null && redemption.getExpiryDate().isBefore(LocalDate.now())) {
-            redemption.setStatus(VoucherRedemption.STATUS_USED);
-            redemptionRepository.save(redemption);
-            throw new ValidationException("Voucher has expired");
-        }
-
-        // Mark as used
+        // 批量 UPDATE 不會更新已載入的實體
         redemption.setStatus(VoucherRedemption.STATUS_USED);
-        redemption = redemptionRepository.save(redemption);
+        eventPublisher.publishEvent(new VoucherRedemptionChangedEvent(user.getId()));
 
         Voucher voucher = voucherRepository.findById(redemption.getVoucherId()).orElse(null);
         
@@ -195,6 +189,40 @@ public class VoucherRedemptionServiceImpl implements VoucherRedemptionService {
         return mapToDto(redemption, voucher, user);
     }
 
+    /**
+     * 結帳時使用優惠券：折扣從 ActiveVoucherCache 取得，再以條件式 UPDATE 標記為已使用。
+     * 無法使用（不存在、已使用、已過期或不屬於本人）時回傳 null，不拋出例外以免整筆預訂交易被標記為回滾。
+     */
+    @Override
+    @Transactional
+    public VoucherRedemptionDto useVoucherForBooking(User user, Integer redemptionId) {
+        LocalDate today = LocalDate.now();
+        ActiveVoucherCache.ActiveVoucher voucher = activeVoucherCache.find(user.getId(), redemptionId, today);
+        if (voucher == null) {
+            log.warn("Voucher redemption {} is not available for user {}", redemptionId, user.getId());
+            return null;
+        }
+        if (redemptionRepository.markUsedIfActive(redemptionId, user.getId(), today) == 0) {
+            // 快取內容已過時（例如同時在另一筆預訂使用）
+            activeVoucherCache.evict(user.getId());
+            log.warn("Voucher redemption {} was already used or expired", redemptionId);
+            return null;
+        }
+        eventPublisher.publishEvent(new VoucherRedemptionChangedEvent(user.getId()));
+
+        VoucherRedemptionDto dto = new VoucherRedemptionDto();
+        dto.setId(voucher.redemptionId());
+        dto.setVoucherId(voucher.voucherId());
+        dto.setUserId(user.getId());
+        dto.setExpiryDate(voucher.expiryDate());
+        dto.setStatus(VoucherRedemption.STATUS_USED);
+        dto.setUserName(user.getName());
+        dto.setVoucherCode(voucher.voucherCode());
+        dto.setDiscountType(voucher.discountType());
+        dto.setDiscountValue(voucher.discountValue());
+        return dto;
+    }
+
     @Override
     @Transactional(readOnly = true)
     public VoucherRedemptionDto getRedemptionById(Integer redemptionId) {
@@ -253,18 +281,30 @@ public class VoucherRedemptionServiceImpl implements VoucherRedemptionService {
         }
     }
 
+    // 每天凌晨以單一 UPDATE 把過期的 ACTIVE 兌換記錄標記為 USED
     @Override
+    @Scheduled(cron = "0 5 0 * * ?")
     @Transactional
     public void processExpiredRedemptions() {
-        List<VoucherRedemption> expiredRedemptions = redemptionRepository.findExpiredRedemptions(LocalDate.now(), VoucherRedemption.STATUS_ACTIVE);
-        
-        for (VoucherRedemption redemption : expiredRedemptions) {
-            redemption.setStatus(VoucherRedemption.STATUS_USED);
-            redemptionRepository.save(redemption);
-            log.info("Marked redemption {} as expired", redemption.getId());
+        int expired = redemptionRepository.expireActiveRedemptions(LocalDate.now());
+        if (expired > 0) {
+            log.info("Marked {} voucher redemptions as expired", expired);
         }
     }
 
+    // 一次載入列表用到的優惠券，避免逐筆 findById
+    private List<VoucherRedemptionDto> mapAllToDto(List<VoucherRedemption> redemptions, User user) {
+        List<Integer> voucherIds = redemptions.stream()
+                .map(VoucherRedemption::getVoucherId)
+                .distinct()
+                .collect(Collectors.toList());
+        Map<Integer, Voucher> vouchers = voucherRepository.findAllById(voucherIds).stream()
+                .collect(Collectors.toMap(Voucher::getId, Function.identity()));
+        return redemptions.stream()
+                .map(redemption -> mapToDto(redemption, vouchers.get(redemption.getVoucherId()), user))
+                .collect(Collectors.toList());
+    }
+
     private VoucherRedemptionDto mapToDto(VoucherRedemption redemption, Voucher voucher, User user) {
         VoucherRedemptionDto dto = new VoucherRedemptionDto();
         dto.setId(redemption.getId());
@@ -0,0 +1,164 @@
+package com.pickleball_backend.pickleball.service;
+
+import com.pickleball_backend.pickleball.entity.Wallet;
+import com.pickleball_backend.pickleball.entity.WalletTransaction;
+import com.pickleball_backend.pickleball.exception.InsufficientBalanceException;
+import com.pickleball_backend.pickleball.exception.ResourceNotFoundException;
+import com.pickleball_backend.pickleball.exception.ValidationException;
+import com.pickleball_backend.pickleball.repository.WalletRepository;
+import com.pickleball_backend.pickleball.repository.WalletTransactionRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * 錢包帳本：所有餘額變動都以條件式 UPDATE（例如 balance >= :amount）原子完成，
+ * 並在同一交易中寫入一筆 WalletTransaction。UPDATE 取得的資料列鎖讓同一錢包的變動依序執行，
+ * 不會因為先讀後寫而遺失更新。呼叫端不要再自行 setBalance 後 save。
+ */
+@Service
+@RequiredArgsConstructor
+public class WalletLedgerService {
+
+    // 入帳不設上限時使用
+    private static final double NO_LIMIT = Double.MAX_VALUE;
+
+    private final WalletRepository walletRepository;
+    private final WalletTransactionRepository walletTransactionRepository;
+
+    /**
+     * 扣款並計入總支出，餘額不足時拋出 InsufficientBalanceException
+     */
+    @Transactional
+    public WalletTransaction debit(Wallet wallet, double amount, String transactionType,
+                                   String referenceType, Integer referenceId, String description) {
+        requirePositive(amount);
+        int updated = walletRepository.debitIfSufficient(wallet.getId(), amount, amount, LocalDateTime.now());
+        if (updated == 0) {
+            throw new InsufficientBalanceException("Insufficient wallet balance. Available: "
+                    + currentBalance(wallet.getId()) + ", Required: " + amount);
+        }
+        return record(wallet, transactionType, amount, -amount, 0, referenceType, referenceId, description);
+    }
+
+    /**
+     * 扣款但不計入總支出（例如轉入託管帳戶），餘額不足時拋出 InsufficientBalanceException
+     */
+    @Transactional
+    public WalletTransaction withdraw(Wallet wallet, double amount, String transactionType,
+                                      String referenceType, Integer referenceId, String description) {
+        requirePositive(amount);
+        int updated = walletRepository.debitIfSufficient(wallet.getId(), amount, 0, LocalDateTime.now());
+        if (updated == 0) {
+            throw new InsufficientBalanceException("Insufficient wallet balance. Available: "
+                    + currentBalance(wallet.getId()) + ", Required: " + amount);
+        }
+        return record(wallet, transactionType, amount, -amount, 0, referenceType, referenceId, description);
+    }
+
+    /**
+     * 一般入帳（收入、調整等），不影響總儲值及總支出
+     */
+    @Transactional
+    public WalletTransaction credit(Wallet wallet, double amount, String transactionType,
+                                    String referenceType, Integer referenceId, String description) {
+        requirePositive(amount);
+        walletRepository.creditWithinLimit(wallet.getId(), amount, 0, 0, NO_LIMIT, LocalDateTime.now());
+        return record(wallet, transactionType, amount, amount, 0, referenceType, referenceId, description);
+    }
+
+    /**
+     * 退款入帳，同時減少總支出
+     */
+    @Transactional
+    public WalletTransaction refund(Wallet wallet, double amount,
+                                    String referenceType, Integer referenceId, String description) {
+        requirePositive(amount);
+        walletRepository.creditWithinLimit(wallet.getId(), amount, 0, amount, NO_LIMIT, LocalDateTime.now());
+        return record(wallet, "REFUND", amount, amount, 0, referenceType, referenceId, description);
+    }
+
+    /**
+     * 儲值入帳並計入總儲值，入帳後餘額超過 maxBalance 時拋出 ValidationException
+     */
+    @Transactional
+    public WalletTransaction deposit(Wallet wallet, double amount, double maxBalance,
+                                     String referenceType, Integer referenceId, String description) {
+        requirePositive(amount);
+        int updated = walletRepository.creditWithinLimit(wallet.getId(), amount, amount, 0, maxBalance, LocalDateTime.now());
+        if (updated == 0) {
+            throw new ValidationException("Top-up exceeds maximum wallet balance allowed (RM" + maxBalance + ")");
+        }
+        return record(wallet, "DEPOSIT", amount, amount, 0, referenceType, referenceId, description);
+    }
+
+    @Transactional
+    public WalletTransaction freeze(Wallet wallet, double amount,
+                                    String referenceType, Integer referenceId, String description) {
+        requirePositive(amount);
+        if (walletRepository.freezeIfSufficient(wallet.getId(), amount, LocalDateTime.now()) == 0) {
+            throw new InsufficientBalanceException("Insufficient balance to freeze");
+        }
+        return record(wallet, "FREEZE", amount, -amount, amount, referenceType, referenceId, description);
+    }
+
+    @Transactional
+    public WalletTransaction unfreeze(Wallet wallet, double amount,
+                                      String referenceType, Integer referenceId, String description) {
+        requirePositive(amount);
+        if (walletRepository.unfreezeIfSufficient(wallet.getId(), amount, LocalDateTime.now()) == 0) {
+            throw new ValidationException("Insufficient frozen balance to unfreeze");
+        }
+        return record(wallet, "UNFREEZE", amount, amount, -amount, referenceType, referenceId, description);
+    }
+
+    /**
+     * 讀回更新後的數值（此時仍持有資料列鎖），同步到呼叫端的 Wallet 物件並寫入帳本
+     */
+    private WalletTransaction record(Wallet wallet, String transactionType, double amount,
+                                     double balanceDelta, double frozenDelta,
+                                     String referenceType, Integer referenceId, String description) {
+        Object[] row = loadBalances(wallet.getId());
+        double balanceAfter = ((Number) row[0]).doubleValue();
+        double frozenAfter = ((Number) row[1]).doubleValue();
+        wallet.setBalance(balanceAfter);
+        wallet.setFrozenBalance(frozenAfter);
+        wallet.setTotalDeposited(((Number) row[2]).doubleValue());
+        wallet.setTotalSpent(((Number) row[3]).doubleValue());
+
+        WalletTransaction transaction = new WalletTransaction();
+        transaction.setWalletId(wallet.getId());
+        transaction.setTransactionType(transactionType);
+        transaction.setAmount(amount);
+        transaction.setBalanceBefore(balanceAfter - balanceDelta);
+        transaction.setBalanceAfter(balanceAfter);
+        transaction.setFrozenBefore(frozenAfter - frozenDelta);
+        transaction.setFrozenAfter(frozenAfter);
+        transaction.setReferenceType(referenceType);
+        transaction.setReferenceId(referenceId);
+        transaction.setDescription(description);
+        transaction.setStatus("COMPLETED");
+        return walletTransactionRepository.save(transaction);
+    }
+
+    private double currentBalance(Integer walletId) {
+        return ((Number) loadBalances(walletId)[0]).doubleValue();
+    }
+
+    private Object[] loadBalances(Integer walletId) {
+        List<Object[]> rows = walletRepository.findBalances(walletId);
+        if (rows.isEmpty()) {
+            throw new ResourceNotFoundException("Wallet not found");
+        }
+        return rows.get(0);
+    }
+
+    private static void requirePositive(double amount) {
+        if (!(amount > 0)) {
+            throw new ValidationException("Amount must be positive");
+        }
+    }
+}
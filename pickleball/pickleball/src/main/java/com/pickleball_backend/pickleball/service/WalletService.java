@@ -6,6 +6,8 @@ import com.pickleball_backend.pickleball.dto.WalletTransactionDto;
 import com.pickleball_backend.pickleball.entity.*;
 import com.pickleball_backend.pickleball.exception.*;
 import com.pickleball_backend.pickleball.repository.*;
+import com.pickleball_backend.pickleball.security.CurrentIdentity;
+import com.pickleball_backend.pickleball.security.IdentityResolver;
 import lombok.RequiredArgsConstructor;
 import com.pickleball_backend.pickleball.exception.ResourceNotFoundException;
 import org.hibernate.service.spi.ServiceException;
@@ -34,6 +36,8 @@ public class WalletService {
     private final UserAccountRepository userAccountRepository;
     private final MemberRepository memberRepository;
     private final EmailService emailService;
+    private final WalletLedgerService walletLedgerService;
+    private final IdentityResolver identityResolver;
 
     // Wallet balance limit (RM2000)
     private static final double WALLET_LIMIT = 2000.00;
@@ -43,19 +47,20 @@ public class WalletService {
 
     @Transactional
     public Double topUpWallet(TopUpRequestDto request) {
-        // 1. Get authenticated user
-        String username = SecurityContextHolder.getContext().getAuthentication().getName();
-        UserAccount account = userAccountRepository.findByUsername(username)
-                .orElseThrow(() -> new ResourceNotFoundException("User account not found"));
+        // 1. Get authenticated user（同一請求內只解析一次）
+        CurrentIdentity identity = identityResolver.current();
+        String username = identity.username();
 
         // 2. Get member
-        Member member = memberRepository.findByUserId(account.getUser().getId());
+        Member member = identity.memberId() != null
+                ? memberRepository.findById(identity.memberId()).orElse(null)
+                : null;
         if (member == null) {
             throw new ResourceNotFoundException("Member not found");
         }
 
         // 3. Get wallet (create if missing)
-        Wallet wallet = getOrCreateWallet(member);
+        Wallet wallet = getOrCreateWallet(member, identity.walletId());
 
         // 4. Validate wallet status
         if (!"ACTIVE".equals(wallet.getStatus())) {
@@ -65,9 +70,8 @@ public class WalletService {
         // 5. Validate amount
         validateTopUpAmount(request.getAmount());
 
-        // 6. Check wallet limit
-        double newBalance = wallet.getBalance() + request.getAmount();
-        if (newBalance > WALLET_LIMIT) {
+        // 6. Check wallet limit（入帳時會再以條件式 UPDATE 確認）
+        if (wallet.getBalance() + request.getAmount() > WALLET_LIMIT) {
             throw new ValidationException(
                     "Top-up exceeds maximum wallet balance allowed (RM" + WALLET_LIMIT + ")"
             );
@@ -86,15 +90,10 @@ public class WalletService {
                 simulateExternalPayment(payment);
             }
 
-            // 9. Update wallet balance
-            double oldBalance = wallet.getBalance();
-        wallet.setBalance(newBalance);
-            wallet.setTotalDeposited(wallet.getTotalDeposited() + request.getAmount());
-        walletRepository.save(wallet);
-
-            // 10. Create transaction record
-            createWalletTransaction(wallet, "DEPOSIT", request.getAmount(), oldBalance, newBalance, 
-                                  "PAYMENT", payment.getId(), "Top-up via " + request.getSource());
+            // 9-10. 原子入帳（含餘額上限檢查）並寫入交易記錄
+            WalletTransaction deposit = walletLedgerService.deposit(wallet, request.getAmount(), WALLET_LIMIT,
+                    "PAYMENT", payment.getId(), "Top-up via " + request.getSource());
+            double newBalance = deposit.getBalanceAfter();
 
             // 11. Update payment status
         payment.setStatus("COMPLETED");
@@ -103,7 +102,7 @@ public class WalletService {
 
             // 12. Send confirmation email
         emailService.sendTopUpConfirmation(
-                account.getUser().getEmail(),
+                member.getUser().getEmail(),
                 request.getAmount(),
                 newBalance,
                 request.getSource(),
@@ -177,15 +176,15 @@ public class WalletService {
             throw new ValidationException("Unauthorized access to wallet transactions");
         }
 
-        UserAccount account = userAccountRepository.findByUsername(username)
-                .orElseThrow(() -> new ResourceNotFoundException("User account not found"));
-
-        Member member = memberRepository.findByUserId(account.getUser().getId());
-        if (member == null) {
+        CurrentIdentity identity = identityResolver.current();
+        if (identity.memberId() == null) {
             throw new ResourceNotFoundException("Member not found");
         }
+        if (identity.walletId() == null) {
+            throw new ResourceNotFoundException("Wallet not found");
+        }
 
-        Wallet wallet = walletRepository.findByMemberId(member.getId())
+        Wallet wallet = walletRepository.findById(identity.walletId())
                 .orElseThrow(() -> new ResourceNotFoundException("Wallet not found"));
 
         Page<WalletTransaction> transactions = walletTransactionRepository
@@ -210,19 +209,7 @@ public class WalletService {
         Wallet wallet = walletRepository.findById(walletId)
                 .orElseThrow(() -> new ResourceNotFoundException("Wallet not found"));
 
-        if (wallet.getBalance() < amount) {
-            throw new InsufficientBalanceException("Insufficient balance to freeze");
-        }
-
-        double oldBalance = wallet.getBalance();
-        double oldFrozen = wallet.getFrozenBalance();
-
-        wallet.setBalance(oldBalance - amount);
-        wallet.setFrozenBalance(oldFrozen + amount);
-        walletRepository.save(wallet);
-
-        createWalletTransaction(wallet, "FREEZE", amount, oldBalance, wallet.getBalance(), 
-                              oldFrozen, wallet.getFrozenBalance(), referenceType, referenceId, description);
+        walletLedgerService.freeze(wallet, amount, referenceType, referenceId, description);
 
         log.info("Frozen RM{} from wallet {}", amount, walletId);
     }
@@ -232,19 +219,7 @@ public class WalletService {
         Wallet wallet = walletRepository.findById(walletId)
                 .orElseThrow(() -> new ResourceNotFoundException("Wallet not found"));
 
-        if (wallet.getFrozenBalance() < amount) {
-            throw new ValidationException("Insufficient frozen balance to unfreeze");
-        }
-
-        double oldBalance = wallet.getBalance();
-        double oldFrozen = wallet.getFrozenBalance();
-
-        wallet.setBalance(oldBalance + amount);
-        wallet.setFrozenBalance(oldFrozen - amount);
-        walletRepository.save(wallet);
-
-        createWalletTransaction(wallet, "UNFREEZE", amount, oldBalance, wallet.getBalance(), 
-                              oldFrozen, wallet.getFrozenBalance(), referenceType, referenceId, description);
+        walletLedgerService.unfreeze(wallet, amount, referenceType, referenceId, description);
 
         log.info("Unfrozen RM{} from wallet {}", amount, walletId);
     }
@@ -268,11 +243,6 @@ public class WalletService {
         Wallet wallet = walletRepository.findByMemberId(member.getId())
                 .orElseThrow(() -> new ResourceNotFoundException("Wallet not found"));
 
-        double oldBalance = wallet.getBalance();
-        wallet.setBalance(oldBalance + amount);
-        wallet.setTotalSpent(wallet.getTotalSpent() - amount);
-        walletRepository.save(wallet);
-
         // Create refund payment record
         Payment refundPayment = new Payment();
         refundPayment.setAmount(amount);
@@ -284,9 +254,8 @@ public class WalletService {
         refundPayment.setProcessedAt(LocalDateTime.now());
         paymentRepository.save(refundPayment);
 
-        // Create transaction record
-        createWalletTransaction(wallet, "REFUND", amount, oldBalance, wallet.getBalance(), 
-                              "PAYMENT", refundPayment.getId(), "Refund: " + reason);
+        // 原子退款入帳並寫入交易記錄
+        walletLedgerService.refund(wallet, amount, "PAYMENT", refundPayment.getId(), "Refund: " + reason);
 
         // Update original payment
         payment.setStatus("REFUNDED");
@@ -297,14 +266,18 @@ public class WalletService {
     }
 
     // Helper methods
-    private Wallet getOrCreateWallet(Member member) {
-        return walletRepository.findByMemberId(member.getId())
-                .orElseGet(() -> {
+    private Wallet getOrCreateWallet(Member member, Integer walletId) {
+        Optional<Wallet> existing = walletId != null
+                ? walletRepository.findById(walletId)
+                : walletRepository.findByMemberId(member.getId());
+        return existing.orElseGet(() -> {
                     Wallet newWallet = new Wallet();
                     newWallet.setMember(member);
                     newWallet.setBalance(0.00);
                     newWallet.setTotalDeposited(0.00);
-                    return walletRepository.save(newWallet);
+                    Wallet saved = walletRepository.save(newWallet);
+                    identityResolver.refresh();
+                    return saved;
                 });
     }
 
@@ -345,47 +318,6 @@ public class WalletService {
         log.info("Simulating external payment for transaction: {}", payment.getTransactionId());
     }
 
-    private void createWalletTransaction(Wallet wallet, String transactionType, double amount, 
-                                       double balanceBefore, double balanceAfter, 
-                                       String referenceType, Integer referenceId, String description) {
-        WalletTransaction transaction = new WalletTransaction();
-        transaction.setWalletId(wallet.getId());
-        transaction.setTransactionType(transactionType);
-        transaction.setAmount(amount);
-        transaction.setBalanceBefore(balanceBefore);
-        transaction.setBalanceAfter(balanceAfter);
-        transaction.setFrozenBefore(wallet.getFrozenBalance());
-        transaction.setFrozenAfter(wallet.getFrozenBalance());
-        transaction.setReferenceType(referenceType);
-        transaction.setReferenceId(referenceId);
-        transaction.setDescription(description);
-        transaction.setStatus("COMPLETED");
-        transaction.setProcessedAt(LocalDateTime.now());
-        
-        walletTransactionRepository.save(transaction);
-    }
-
-    private void createWalletTransaction(Wallet wallet, String transactionType, double amount, 
-                                       double balanceBefore, double balanceAfter, 
-                                       double frozenBefore, double frozenAfter,
-                                       String referenceType, Integer referenceId, String description) {
-        WalletTransaction transaction = new WalletTransaction();
-        transaction.setWalletId(wallet.getId());
-        transaction.setTransactionType(transactionType);
-        transaction.setAmount(amount);
-        transaction.setBalanceBefore(balanceBefore);
-        transaction.setBalanceAfter(balanceAfter);
-        transaction.setFrozenBefore(frozenBefore);
-        transaction.setFrozenAfter(frozenAfter);
-        transaction.setReferenceType(referenceType);
-        transaction.setReferenceId(referenceId);
-        transaction.setDescription(description);
-        transaction.setStatus("COMPLETED");
-        transaction.setProcessedAt(LocalDateTime.now());
-        
-        walletTransactionRepository.save(transaction);
-    }
-
     private com.pickleball_backend.pickleball.dto.WalletTransactionDto.TransactionDto mapToTransactionDto(WalletTransaction transaction) {
         return com.pickleball_backend.pickleball.dto.WalletTransactionDto.TransactionDto.builder()
                 .id(transaction.getId())
@@ -0,0 +1,51 @@
+package com.pickleball_backend.pickleball.storage;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Path;
+import java.util.Optional;
+
+/**
+ * 上傳檔案的儲存後端。key 為不含目錄的檔名，也就是 /uploads/{key} 的路徑。
+ * 實作：{@link LocalDiskBlobStore}（本機目錄）與 {@link ObjectStoreBlobStore}（S3 相容物件儲存的本機替身）。
+ */
+public interface BlobStore {
+
+    /**
+     * 將暫存檔存成 key，暫存檔會被搬走或刪除。
+     *
+     * @return false 表示 key 已存在（內容定址時內容相同），沿用既有檔案
+     */
+    boolean put(String key, Path source) throws IOException;
+
+    Optional<BlobStat> stat(String key) throws IOException;
+
+    InputStream open(String key) throws IOException;
+
+    /**
+     * 將 [position, position + count) 的內容寫到 target，回傳實際寫出的位元組數
+     */
+    long transferTo(String key, long position, long count, WritableByteChannel target) throws IOException;
+
+    /**
+     * 本機檔案路徑，可交給 servlet 容器的 sendfile；無本機檔案時為 null
+     */
+    Path localPath(String key);
+
+    boolean delete(String key) throws IOException;
+
+    record BlobStat(long size, long lastModified) {
+    }
+
+    /**
+     * key 只能是單一檔名，不能跳出儲存目錄，也不能指向 . 開頭的暫存目錄
+     */
+    static String checkKey(String key) {
+        if (key == null || key.isBlank() || key.startsWith(".")
+                || key.contains("/") || key.contains("\\") || key.indexOf('\0') >= 0) {
+            throw new IllegalArgumentException("Invalid file name: " + key);
+        }
+        return key;
+    }
+}
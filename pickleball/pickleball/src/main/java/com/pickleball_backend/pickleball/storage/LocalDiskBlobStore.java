@@ -0,0 +1,111 @@
+package com.pickleball_backend.pickleball.storage;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.util.Optional;
+
+/**
+ * 檔案直接放在上傳目錄下，檔名即 key；既有的舊檔名照常可用。
+ * 讀取以 {@link FileChannel#transferTo} 輸出，目標為 socket 時由核心直接複製。
+ */
+public class LocalDiskBlobStore implements BlobStore {
+
+    private final Path root;
+
+    public LocalDiskBlobStore(Path root) {
+        this.root = root.toAbsolutePath().normalize();
+    }
+
+    @Override
+    public boolean put(String key, Path source) throws IOException {
+        Path target = resolve(key);
+        if (Files.exists(target)) {
+            Files.deleteIfExists(source);
+            return false;
+        }
+        Files.createDirectories(root);
+        try {
+            // 暫存檔與上傳目錄在同一個檔案系統時為原子搬移，讀者不會看到寫一半的檔案
+            Files.move(source, target, StandardCopyOption.ATOMIC_MOVE);
+        } catch (FileAlreadyExistsException e) {
+            Files.deleteIfExists(source);
+            return false;
+        } catch (IOException e) {
+            if (Files.exists(target)) {
+                Files.deleteIfExists(source);
+                return false;
+            }
+            Files.move(source, target);
+        }
+        makeReadable(target);
+        return true;
+    }
+
+    @Override
+    public Optional<BlobStat> stat(String key) throws IOException {
+        try {
+            BasicFileAttributes attributes = Files.readAttributes(resolve(key), BasicFileAttributes.class);
+            if (!attributes.isRegularFile()) {
+                return Optional.empty();
+            }
+            return Optional.of(new BlobStat(attributes.size(), attributes.lastModifiedTime().toMillis()));
+        } catch (NoSuchFileException e) {
+            return Optional.empty();
+        }
+    }
+
+    @Override
+    public InputStream open(String key) throws IOException {
+        return Files.newInputStream(resolve(key));
+    }
+
+    @Override
+    public long transferTo(String key, long position, long count, WritableByteChannel target) throws IOException {
+        try (FileChannel channel = FileChannel.open(resolve(key), StandardOpenOption.READ)) {
+            long end = Math.min(position + count, channel.size());
+            long written = 0;
+            // transferTo 可能一次寫不完
+            while (position + written < end) {
+                long n = channel.transferTo(position + written, end - position - written, target);
+                if (n <= 0) {
+                    break;
+                }
+                written += n;
+            }
+            return written;
+        }
+    }
+
+    @Override
+    public Path localPath(String key) {
+        return resolve(key);
+    }
+
+    @Override
+    public boolean delete(String key) throws IOException {
+        return Files.deleteIfExists(resolve(key));
+    }
+
+    // 暫存檔建立時只有擁有者可讀，改成與一般上傳檔相同，讓前端代理也能直接讀取
+    private static void makeReadable(Path file) throws IOException {
+        try {
+            Files.setPosixFilePermissions(file, PosixFilePermissions.fromString("rw-r--r--"));
+        } catch (UnsupportedOperationException e) {
+            // 非 POSIX 檔案系統
+        }
+    }
+
+    private Path resolve(String key) {
+        return root.resolve(BlobStore.checkKey(key));
+    }
+}
@@ -0,0 +1,112 @@
+package com.pickleball_backend.pickleball.storage;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.SeekableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.Optional;
+
+/**
+ * S3 相容物件儲存的本機替身，用來在沒有物件儲存的環境開發與測試同一套流程：
+ * 物件放在 bucket 目錄下依 key 前兩碼分層；PUT 先寫到暫存再改名，完成前讀不到（對應 S3 的原子上傳），
+ * 已存在的 key 不覆寫（對應 If-None-Match: *）；讀取只透過串流及 Range，不提供本機路徑，因此不走 sendfile。
+ */
+public class ObjectStoreBlobStore implements BlobStore {
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final Path bucket;
+    private final Path incoming;
+
+    public ObjectStoreBlobStore(Path root, String bucketName) {
+        this.bucket = root.toAbsolutePath().normalize().resolve(BlobStore.checkKey(bucketName));
+        this.incoming = bucket.resolve(".incoming");
+    }
+
+    @Override
+    public boolean put(String key, Path source) throws IOException {
+        Path target = objectPath(key);
+        try {
+            if (Files.exists(target)) {
+                return false;
+            }
+            // 與原始檔分開複製一份，上傳端的暫存檔不會變成物件本身
+            Files.createDirectories(incoming);
+            Path part = Files.createTempFile(incoming, "put-", ".part");
+            try {
+                Files.copy(source, part, StandardCopyOption.REPLACE_EXISTING);
+                Files.createDirectories(target.getParent());
+                Files.move(part, target, StandardCopyOption.ATOMIC_MOVE);
+                return true;
+            } catch (FileAlreadyExistsException e) {
+                return false;
+            } finally {
+                Files.deleteIfExists(part);
+            }
+        } finally {
+            Files.deleteIfExists(source);
+        }
+    }
+
+    @Override
+    public Optional<BlobStat> stat(String key) throws IOException {
+        try {
+            BasicFileAttributes attributes = Files.readAttributes(objectPath(key), BasicFileAttributes.class);
+            return Optional.of(new BlobStat(attributes.size(), attributes.lastModifiedTime().toMillis()));
+        } catch (NoSuchFileException e) {
+            return Optional.empty();
+        }
+    }
+
+    @Override
+    public InputStream open(String key) throws IOException {
+        return Files.newInputStream(objectPath(key));
+    }
+
+    @Override
+    public long transferTo(String key, long position, long count, WritableByteChannel target) throws IOException {
+        // GET 加 Range：只讀指定範圍，經由緩衝區轉寄
+        try (SeekableByteChannel channel = Files.newByteChannel(objectPath(key), StandardOpenOption.READ)) {
+            channel.position(position);
+            ByteBuffer buffer = ByteBuffer.allocate((int) Math.min(BUFFER_SIZE, Math.max(count, 1)));
+            long written = 0;
+            while (written < count) {
+                buffer.clear();
+                buffer.limit((int) Math.min(buffer.capacity(), count - written));
+                int n = channel.read(buffer);
+                if (n < 0) {
+                    break;
+                }
+                buffer.flip();
+                while (buffer.hasRemaining()) {
+                    written += target.write(buffer);
+                }
+            }
+            return written;
+        }
+    }
+
+    @Override
+    public Path localPath(String key) {
+        return null;
+    }
+
+    @Override
+    public boolean delete(String key) throws IOException {
+        return Files.deleteIfExists(objectPath(key));
+    }
+
+    private Path objectPath(String key) {
+        BlobStore.checkKey(key);
+        String prefix = key.length() >= 2 ? key.substring(0, 2) : "_";
+        return bucket.resolve(prefix).resolve(key);
+    }
+}
@@ -0,0 +1,35 @@
+-- 同一位會員在同一場比賽的重複 join request：保留 id 最小的一筆，其餘刪除，
+-- 之後 ddl-auto=update 才能建立 uk_joinrequest_member_match。
+-- 由 JoinRequestDedupeInitializer 在 EntityManagerFactory 建立前執行；沒有重複時不會有任何變動。
+
+-- 1. 以保留下來的 join request 重新計算受影響比賽的人數（主辦人算 1 人）
+UPDATE friendlymatch m
+SET m.current_players = 1 + (
+    SELECT COUNT(*) FROM joinrequest jr
+    WHERE jr.match_id = m.id
+      AND jr.status = 'APPROVED'
+      AND (m.organizer_id IS NULL OR jr.member_id <> m.organizer_id)
+      AND NOT EXISTS (SELECT 1 FROM joinrequest k
+                      WHERE k.match_id = jr.match_id AND k.member_id = jr.member_id AND k.id < jr.id))
+WHERE m.id IN (
+    SELECT d.match_id FROM joinrequest d
+    JOIN joinrequest k ON k.match_id = d.match_id AND k.member_id = d.member_id AND k.id < d.id);
+
+-- 2. 人數減少後未滿的比賽重新開放，規則與退出時釋出名額相同
+UPDATE friendlymatch m
+SET m.status = 'OPEN'
+WHERE m.status = 'FULL'
+  AND m.current_players < m.max_players
+  AND (m.payment_status IS NULL OR m.payment_status <> 'PAID')
+  AND m.id IN (
+    SELECT d.match_id FROM joinrequest d
+    JOIN joinrequest k ON k.match_id = d.match_id AND k.member_id = d.member_id AND k.id < d.id);
+
+-- 3. 刪除重複的 join request；MySQL 不能在 DELETE 的子查詢直接讀同一張表，
+--    DISTINCT 讓衍生資料表先實體化
+DELETE FROM joinrequest
+WHERE id IN (
+    SELECT dup.id FROM (
+        SELECT DISTINCT d.id FROM joinrequest d
+        JOIN joinrequest k ON k.match_id = d.match_id AND k.member_id = d.member_id AND k.id < d.id
+    ) dup);
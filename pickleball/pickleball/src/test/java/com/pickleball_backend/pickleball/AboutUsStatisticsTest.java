@@ -0,0 +1,84 @@
+package com.pickleball_backend.pickleball;
+
+import com.pickleball_backend.pickleball.controller.AboutUsController;
+import com.pickleball_backend.pickleball.dto.AboutUsStatisticsDto;
+import com.pickleball_backend.pickleball.repository.BookingRepository;
+import com.pickleball_backend.pickleball.repository.CourtRepository;
+import com.pickleball_backend.pickleball.repository.FeedbackRepository;
+import com.pickleball_backend.pickleball.repository.UserRepository;
+import com.pickleball_backend.pickleball.service.AboutUsServiceImpl;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.reset;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * About Us 統計：第一次重算失敗時不回傳全為 0 的結果，也不讓錯誤回應被公開快取；
+ * 失敗後短時間內的請求不再查詢資料庫。
+ */
+public class AboutUsStatisticsTest {
+
+    private CourtRepository courtRepository;
+    private AboutUsServiceImpl service;
+    private AboutUsController controller;
+
+    @BeforeEach
+    public void setUp() {
+        courtRepository = mock(CourtRepository.class);
+        UserRepository userRepository = mock(UserRepository.class);
+        FeedbackRepository feedbackRepository = mock(FeedbackRepository.class);
+        BookingRepository bookingRepository = mock(BookingRepository.class);
+        when(userRepository.count()).thenReturn(12L);
+        when(feedbackRepository.findAverageRating()).thenReturn(4.5);
+        when(bookingRepository.countByStatus("COMPLETED")).thenReturn(7L);
+        service = new AboutUsServiceImpl(courtRepository, userRepository, feedbackRepository, bookingRepository);
+        controller = new AboutUsController(service);
+    }
+
+    @Test
+    public void failedFirstLoadIsNotServedOrCached() {
+        when(courtRepository.countByIsArchivedFalseOrIsArchivedIsNull())
+                .thenThrow(new DataAccessResourceFailureException("database down"));
+        service.onApplicationReady();
+
+        ResponseEntity<AboutUsStatisticsDto> response = controller.getAboutUsStatistics();
+        assertEquals(HttpStatus.SERVICE_UNAVAILABLE, response.getStatusCode());
+        assertNull(response.getBody());
+        assertEquals("no-store", response.getHeaders().getCacheControl());
+        assertEquals("30", response.getHeaders().getFirst(HttpHeaders.RETRY_AFTER));
+        // 剛失敗過，請求不再觸發查詢
+        verify(courtRepository, times(1)).countByIsArchivedFalseOrIsArchivedIsNull();
+
+        // 下一輪重算成功後才回傳並允許快取
+        reset(courtRepository);
+        when(courtRepository.countByIsArchivedFalseOrIsArchivedIsNull()).thenReturn(3L);
+        service.refreshStatistics();
+        response = controller.getAboutUsStatistics();
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(3, response.getBody().getActiveCourts());
+        assertEquals(12, response.getBody().getTotalMembers());
+        assertEquals("max-age=300, public", response.getHeaders().getCacheControl());
+    }
+
+    @Test
+    public void laterFailuresKeepThePreviousSnapshot() {
+        when(courtRepository.countByIsArchivedFalseOrIsArchivedIsNull()).thenReturn(3L);
+        service.onApplicationReady();
+
+        reset(courtRepository);
+        when(courtRepository.countByIsArchivedFalseOrIsArchivedIsNull())
+                .thenThrow(new DataAccessResourceFailureException("database down"));
+        service.refreshStatistics();
+
+        assertEquals(3, service.getAboutUsStatistics().getActiveCourts());
+    }
+}
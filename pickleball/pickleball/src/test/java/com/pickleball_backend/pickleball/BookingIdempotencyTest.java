@@ -0,0 +1,244 @@
+package com.pickleball_backend.pickleball;
+
+import com.pickleball_backend.pickleball.dto.BookingRequestDto;
+import com.pickleball_backend.pickleball.dto.BookingResponseDto;
+import com.pickleball_backend.pickleball.entity.Booking;
+import com.pickleball_backend.pickleball.entity.Member;
+import com.pickleball_backend.pickleball.entity.User;
+import com.pickleball_backend.pickleball.entity.UserAccount;
+import com.pickleball_backend.pickleball.entity.Wallet;
+import com.pickleball_backend.pickleball.exception.ConflictException;
+import com.pickleball_backend.pickleball.repository.BookingRepository;
+import com.pickleball_backend.pickleball.repository.MemberRepository;
+import com.pickleball_backend.pickleball.repository.UserAccountRepository;
+import com.pickleball_backend.pickleball.repository.UserRepository;
+import com.pickleball_backend.pickleball.repository.WalletRepository;
+import com.pickleball_backend.pickleball.security.CurrentIdentity;
+import com.pickleball_backend.pickleball.security.IdentityResolver;
+import com.pickleball_backend.pickleball.service.BookingService;
+import com.pickleball_backend.pickleball.service.EmailService;
+import com.pickleball_backend.pickleball.service.FriendlyMatchService;
+import com.pickleball_backend.pickleball.service.MemberService;
+import com.pickleball_backend.pickleball.service.VoucherRedemptionService;
+import com.pickleball_backend.pickleball.service.WalletLedgerService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.domain.EntityScan;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.when;
+
+/**
+ * 場地結帳的冪等鍵：重送同一請求回傳原本的預訂，不再扣款；
+ * 同一冪等鍵的請求同時送達時，後到的交易在唯一鍵上失敗，回傳 ConflictException 且扣款一併回滾。
+ */
+@DataJpaTest
+@ActiveProfiles("test")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+public class BookingIdempotencyTest {
+
+    private static final double INITIAL_BALANCE = 100.0;
+    private static final LocalDate DATE = LocalDate.now().plusDays(2);
+
+    @Configuration
+    @EntityScan(basePackageClasses = Booking.class)
+    @EnableJpaRepositories(basePackageClasses = BookingRepository.class)
+    @Import({BookingService.class, WalletLedgerService.class})
+    static class Config {
+    }
+
+    @MockitoBean
+    private EmailService emailService;
+
+    @MockitoBean
+    private FriendlyMatchService friendlyMatchService;
+
+    @MockitoBean
+    private VoucherRedemptionService voucherRedemptionService;
+
+    @MockitoBean
+    private MemberService memberService;
+
+    @MockitoBean
+    private IdentityResolver identityResolver;
+
+    @Autowired
+    private BookingService bookingService;
+
+    @Autowired
+    private WalletLedgerService walletLedgerService;
+
+    @Autowired
+    private WalletRepository walletRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private MemberRepository memberRepository;
+
+    @Autowired
+    private UserAccountRepository userAccountRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private Member member;
+    private Integer walletId;
+
+    @BeforeEach
+    public void setUp() {
+        jdbcTemplate.update("DELETE FROM bookingslot");
+        jdbcTemplate.update("DELETE FROM booking");
+        jdbcTemplate.update("DELETE FROM payment");
+        jdbcTemplate.update("DELETE FROM slot");
+        jdbcTemplate.update("DELETE FROM court");
+        jdbcTemplate.update("DELETE FROM venue");
+        jdbcTemplate.update("DELETE FROM wallet_transaction");
+        jdbcTemplate.update("DELETE FROM wallet");
+
+        member = createMember("booker-" + System.nanoTime());
+        Wallet wallet = new Wallet();
+        wallet.setMember(member);
+        wallet = walletRepository.save(wallet);
+        walletId = wallet.getId();
+        walletLedgerService.credit(wallet, INITIAL_BALANCE, "DEPOSIT", "TEST", null, "Initial balance");
+        when(identityResolver.current()).thenReturn(new CurrentIdentity(
+                1, "booker", "ACTIVE", member.getUser().getId(), member.getId(), walletId));
+
+        jdbcTemplate.update("INSERT INTO venue (id, name, location, state) VALUES (1, 'Arena', 'Main St', 'KL')");
+        jdbcTemplate.update("INSERT INTO court (id, name, location, venue_id, is_archived, peak_hourly_price, off_peak_hourly_price) VALUES "
+                + "(1, 'Court A', 'Hall 1', 1, false, 30, 20)");
+        jdbcTemplate.update("INSERT INTO slot (id, court_id, date, start_time, end_time, is_available, duration_hours) VALUES "
+                        + "(1, 1, ?, ?, ?, true, 1), (2, 1, ?, ?, ?, true, 1)",
+                DATE, LocalTime.of(10, 0), LocalTime.of(11, 0), DATE, LocalTime.of(14, 0), LocalTime.of(15, 0));
+    }
+
+    @Test
+    public void replayedCheckoutReturnsTheOriginalBooking() {
+        BookingResponseDto first = bookingService.bookCourt(request(1, "checkout-1"));
+        assertEquals(INITIAL_BALANCE - 20, balance(), 0.001);
+
+        // 重送（即使內容不同）回傳同一筆預訂，不再扣款、不再建立付款或時段
+        BookingResponseDto replay = bookingService.bookCourt(request(2, " checkout-1 "));
+        assertEquals(first.getBookingId(), replay.getBookingId());
+        assertEquals(1, replay.getDurationHours());
+        assertEquals(INITIAL_BALANCE - 20, replay.getWalletBalance(), 0.001);
+        assertEquals(INITIAL_BALANCE - 20, balance(), 0.001);
+        assertEquals(1, count("SELECT COUNT(*) FROM booking"));
+        assertEquals(1, count("SELECT COUNT(*) FROM payment"));
+        assertEquals(1, count("SELECT COUNT(*) FROM wallet_transaction WHERE transaction_type = 'PAYMENT'"));
+        assertEquals(1, count("SELECT COUNT(*) FROM slot WHERE is_available = true"));
+
+        // 沒有冪等鍵的請求照常建立新的預訂
+        bookingService.bookCourt(request(2, null));
+        assertEquals(2, count("SELECT COUNT(*) FROM booking"));
+        assertEquals(INITIAL_BALANCE - 40, balance(), 0.001);
+    }
+
+    @Test
+    public void concurrentCheckoutWithSameKeyConflictsAndRollsBackDebit() throws Exception {
+        // 另一個交易已寫入同一冪等鍵但尚未提交：結帳時查不到，扣款後在唯一鍵上等待，對方提交後失敗
+        CountDownLatch inserted = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            Future<?> other = executor.submit(() -> new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+                jdbcTemplate.update("INSERT INTO payment (id, amount, max_retries, retry_count, created_at) VALUES (900, 20, 0, 0, CURRENT_TIMESTAMP)");
+                jdbcTemplate.update("INSERT INTO booking (id, member_id, payment_id, status, total_amount, idempotency_key) "
+                        + "VALUES (900, ?, 900, 'CONFIRMED', 20, 'checkout-2')", member.getId());
+                inserted.countDown();
+                try {
+                    release.await(10, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }));
+            assertTrue(inserted.await(10, TimeUnit.SECONDS));
+
+            Thread releaser = new Thread(() -> {
+                try {
+                    Thread.sleep(300);
+                } catch (InterruptedException ignored) {
+                }
+                release.countDown();
+            });
+            releaser.start();
+            assertThrows(ConflictException.class, () -> bookingService.bookCourt(request(1, "checkout-2")));
+            other.get(10, TimeUnit.SECONDS);
+        } finally {
+            release.countDown();
+            executor.shutdown();
+        }
+
+        // 扣款、付款、時段都回滾，只留下另一個交易的預訂
+        assertEquals(INITIAL_BALANCE, balance(), 0.001);
+        assertEquals(0, count("SELECT COUNT(*) FROM wallet_transaction WHERE transaction_type = 'PAYMENT'"));
+        assertEquals(List.of(900), jdbcTemplate.queryForList("SELECT id FROM booking", Integer.class));
+        assertEquals(0, count("SELECT COUNT(*) FROM bookingslot"));
+        assertEquals(2, count("SELECT COUNT(*) FROM slot WHERE is_available = true"));
+    }
+
+    private BookingRequestDto request(int slotId, String idempotencyKey) {
+        BookingRequestDto request = new BookingRequestDto();
+        request.setSlotIds(List.of(slotId));
+        request.setPurpose("Practice");
+        request.setNumberOfPlayers(4);
+        request.setNumPaddles(0);
+        request.setBuyBallSet(false);
+        request.setUseWallet(true);
+        request.setIdempotencyKey(idempotencyKey);
+        return request;
+    }
+
+    private double balance() {
+        return walletRepository.findById(walletId).orElseThrow().getBalance();
+    }
+
+    private int count(String sql) {
+        return jdbcTemplate.queryForObject(sql, Integer.class);
+    }
+
+    // Member 以 user_id 為主鍵（@MapsId），需與 User 在同一個交易中建立
+    private Member createMember(String username) {
+        return new TransactionTemplate(transactionManager).execute(status -> {
+            User user = new User();
+            user.setName(username);
+            user.setEmail(username + "@test.com");
+            user = userRepository.save(user);
+            UserAccount account = new UserAccount();
+            account.setUsername(username);
+            account.setUser(user);
+            userAccountRepository.save(account);
+            Member member = new Member();
+            member.setUser(user);
+            return memberRepository.save(member);
+        });
+    }
+}
@@ -0,0 +1,372 @@
+package com.pickleball_backend.pickleball;
+
+import com.pickleball_backend.pickleball.controller.FileDownloadController;
+import com.pickleball_backend.pickleball.exception.ConflictException;
+import com.pickleball_backend.pickleball.repository.StoredFileRepository;
+import com.pickleball_backend.pickleball.service.ChunkedUploadService;
+import com.pickleball_backend.pickleball.service.FileStorageService;
+import com.pickleball_backend.pickleball.service.ImageVariantService;
+import com.pickleball_backend.pickleball.storage.BlobStore;
+import com.pickleball_backend.pickleball.storage.LocalDiskBlobStore;
+import com.pickleball_backend.pickleball.storage.ObjectStoreBlobStore;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import javax.imageio.ImageIO;
+import java.awt.Color;
+import java.awt.GradientPaint;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.Channels;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.clearInvocations;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * 以本機目錄及 S3 相容替身兩種後端跑同一組流程：內容定址去重、範圍讀取、
+ * 中斷後續傳的分段上傳、圖片縮圖，以及 /uploads 的 Range、ETag 與快取標頭。
+ */
+public class FileStorageTest {
+
+    @TempDir
+    Path tempDir;
+
+    @ParameterizedTest
+    @ValueSource(strings = {"local", "object"})
+    public void blobStoreStoresReadsAndDeduplicates(String backend) throws Exception {
+        BlobStore store = blobStore(backend);
+        byte[] content = randomBytes(200_000);
+
+        assertTrue(store.put("photo.png", stage(content)));
+        Path duplicate = stage(content);
+        assertFalse(store.put("photo.png", duplicate));
+        assertFalse(Files.exists(duplicate));
+
+        assertEquals(content.length, store.stat("photo.png").orElseThrow().size());
+        assertTrue(store.stat("missing.png").isEmpty());
+        assertArrayEquals(content, read(store, "photo.png", 0, content.length));
+        assertArrayEquals(Arrays.copyOfRange(content, 1_000, 71_000), read(store, "photo.png", 1_000, 70_000));
+        // 超過結尾只讀到結尾
+        assertArrayEquals(Arrays.copyOfRange(content, 199_990, 200_000), read(store, "photo.png", 199_990, 100));
+        try (InputStream in = store.open("photo.png")) {
+            assertArrayEquals(content, in.readAllBytes());
+        }
+
+        assertThrows(IllegalArgumentException.class, () -> store.stat("../photo.png"));
+        assertThrows(IllegalArgumentException.class, () -> store.stat(".staging"));
+        assertTrue(store.delete("photo.png"));
+        assertTrue(store.stat("photo.png").isEmpty());
+        assertEquals("local".equals(backend), store.localPath("x.png") != null);
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"local", "object"})
+    public void identicalUploadsShareOneContentAddressedFile(String backend) throws Exception {
+        BlobStore store = blobStore(backend);
+        StoredFileRepository repository = mock(StoredFileRepository.class);
+        // 第一次上傳時尚無紀錄，第二次加一；兩次刪除後歸零
+        when(repository.incrementRefCount(anyString())).thenReturn(0, 1);
+        when(repository.decrementRefCount(anyString())).thenReturn(1);
+        when(repository.deleteIfUnreferenced(anyString())).thenReturn(0, 1);
+        FileStorageService storage = storage(store, repository);
+
+        byte[] content = randomBytes(50_000);
+        String first = storage.store(new MockMultipartFile("file", "a.JPG", "image/jpeg", content));
+        String second = storage.store(new MockMultipartFile("file", "copy.jpg", "image/jpeg", content));
+
+        assertEquals(sha256(content) + ".jpg", first);
+        assertEquals(first, second);
+        assertTrue(FileStorageService.isContentAddressed(first));
+        assertArrayEquals(content, read(store, first, 0, content.length));
+        try (var staged = Files.list(tempDir.resolve("staging"))) {
+            assertEquals(0, staged.count());
+        }
+
+        storage.delete(first);
+        assertTrue(store.stat(first).isPresent());
+        storage.delete(first);
+        assertTrue(store.stat(first).isEmpty());
+
+        assertThrows(RuntimeException.class,
+                () -> storage.store(new MockMultipartFile("file", "run.exe", "application/octet-stream", content)));
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"local", "object"})
+    public void chunkedUploadResumesAfterInterruption(String backend) throws Exception {
+        BlobStore store = blobStore(backend);
+        StoredFileRepository repository = mock(StoredFileRepository.class);
+        FileStorageService storage = storage(store, repository);
+        ChunkedUploadService uploads = new ChunkedUploadService(storage);
+
+        byte[] content = randomBytes(1_000_000);
+        ChunkedUploadService.UploadStatus created = uploads.create("alice", "court.png", content.length);
+        String id = created.uploadId();
+        assertEquals(0, created.offset());
+
+        assertEquals(300_000, uploads.append(id, "alice", 0, slice(content, 0, 300_000)).offset());
+        // offset 不符時拒絕
+        assertThrows(ConflictException.class, () -> uploads.append(id, "alice", 0, slice(content, 0, 10)));
+        // 其他使用者看不到
+        assertThrows(RuntimeException.class, () -> uploads.status(id, "bob"));
+
+        // 傳輸中斷：已收到的部分保留，用戶端查詢 offset 後續傳
+        InputStream broken = new InterruptedStream(slice(content, 300_000, content.length), 150_000);
+        long written = uploads.append(id, "alice", 300_000, broken).offset();
+        long offset = uploads.status(id, "alice").offset();
+        assertEquals(written, offset);
+        assertTrue(offset > 300_000 && offset <= 450_000, "offset " + offset);
+
+        assertThrows(ConflictException.class, () -> uploads.complete(id, "alice"));
+        assertEquals(content.length, uploads.append(id, "alice", offset, slice(content, (int) offset, content.length)).offset());
+        // 超過宣告大小
+        assertThrows(RuntimeException.class, () -> uploads.append(id, "alice", content.length, slice(content, 0, 1)));
+
+        String filename = uploads.complete(id, "alice");
+        assertEquals(sha256(content) + ".png", filename);
+        assertArrayEquals(content, read(store, filename, 0, content.length));
+
+        // 完成後由 session 持有檔案，直到使用端取走
+        ChunkedUploadService.UploadStatus completed = uploads.status(id, "alice");
+        assertEquals(content.length, completed.offset());
+        assertEquals(filename, completed.filename());
+        assertEquals(filename, uploads.complete(id, "alice"));
+        assertThrows(ConflictException.class, () -> uploads.append(id, "alice", content.length, slice(content, 0, 1)));
+        assertThrows(RuntimeException.class, () -> uploads.claim(id, "bob"));
+        assertEquals(filename, uploads.claim(id, "alice"));
+        assertThrows(RuntimeException.class, () -> uploads.status(id, "alice"));
+        assertThrows(RuntimeException.class, () -> uploads.claim(id, "alice"));
+    }
+
+    @Test
+    public void openUploadSessionsAreCappedPerOwner() {
+        FileStorageService storage = storage(blobStore("local"), mock(StoredFileRepository.class));
+        ChunkedUploadService uploads = new ChunkedUploadService(storage);
+
+        List<String> ids = new ArrayList<>();
+        for (int i = 0; i < ChunkedUploadService.MAX_SESSIONS_PER_OWNER; i++) {
+            ids.add(uploads.create("carol", "court.png", 10).uploadId());
+        }
+        assertThrows(ConflictException.class, () -> uploads.create("carol", "court.png", 10));
+        // 其他使用者不受影響
+        uploads.create("dave", "court.png", 10);
+
+        uploads.abort(ids.get(0), "carol");
+        uploads.create("carol", "court.png", 10);
+
+        // 重新啟動後由暫存目錄重建
+        ChunkedUploadService restarted = new ChunkedUploadService(storage);
+        restarted.loadSessions();
+        assertThrows(ConflictException.class, () -> restarted.create("carol", "court.png", 10));
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"local", "object"})
+    public void downloadsSupportRangeEtagAndCaching(String backend) throws Exception {
+        BlobStore store = blobStore(backend);
+        byte[] content = randomBytes(100_000);
+        String key = sha256(content) + ".png";
+        store.put(key, stage(content));
+        store.put("legacy_photo.png", stage(content));
+        MockMvc mvc = MockMvcBuilders.standaloneSetup(new FileDownloadController(store)).build();
+        String etag = "\"" + sha256(content) + "\"";
+
+        MvcResult full = mvc.perform(get("/uploads/" + key))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, etag))
+                .andExpect(header().string(HttpHeaders.CACHE_CONTROL, "max-age=31536000, public, immutable"))
+                .andExpect(header().string(HttpHeaders.ACCEPT_RANGES, "bytes"))
+                .andExpect(header().string(HttpHeaders.CONTENT_TYPE, "image/png"))
+                .andReturn();
+        assertArrayEquals(content, full.getResponse().getContentAsByteArray());
+
+        mvc.perform(get("/uploads/" + key).header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified());
+
+        MvcResult partial = mvc.perform(get("/uploads/" + key).header(HttpHeaders.RANGE, "bytes=1000-1999"))
+                .andExpect(status().isPartialContent())
+                .andExpect(header().string(HttpHeaders.CONTENT_RANGE, "bytes 1000-1999/100000"))
+                .andExpect(header().longValue(HttpHeaders.CONTENT_LENGTH, 1000))
+                .andReturn();
+        assertArrayEquals(Arrays.copyOfRange(content, 1000, 2000), partial.getResponse().getContentAsByteArray());
+
+        MvcResult suffix = mvc.perform(get("/uploads/" + key).header(HttpHeaders.RANGE, "bytes=-500"))
+                .andExpect(status().isPartialContent())
+                .andReturn();
+        assertArrayEquals(Arrays.copyOfRange(content, 99_500, 100_000), suffix.getResponse().getContentAsByteArray());
+
+        mvc.perform(get("/uploads/" + key).header(HttpHeaders.RANGE, "bytes=200000-"))
+                .andExpect(status().isRequestedRangeNotSatisfiable())
+                .andExpect(header().string(HttpHeaders.CONTENT_RANGE, "bytes */100000"));
+        // If-Range 不符時回傳完整內容
+        mvc.perform(get("/uploads/" + key).header(HttpHeaders.RANGE, "bytes=0-9").header(HttpHeaders.IF_RANGE, "\"other\""))
+                .andExpect(status().isOk())
+                .andExpect(header().longValue(HttpHeaders.CONTENT_LENGTH, content.length));
+
+        mvc.perform(get("/uploads/missing.png")).andExpect(status().isNotFound());
+        mvc.perform(get("/uploads/legacy_photo.png"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.CACHE_CONTROL, "max-age=3600, public"));
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"local", "object"})
+    public void imageUploadsGetThumbnailVariants(String backend) throws Exception {
+        BlobStore store = spy(blobStore(backend));
+        String staging = tempDir.resolve("staging").toString();
+        ImageVariantService variants = new ImageVariantService(store, staging);
+        StoredFileRepository repository = mock(StoredFileRepository.class);
+        when(repository.deleteIfUnreferenced(anyString())).thenReturn(1);
+        FileStorageService storage = new FileStorageService(store, repository, variants, staging);
+
+        String photo = storage.store(new MockMultipartFile("file", "court.jpg", "image/jpeg", encode(image(3000, 2000, false), "jpg")));
+        String icon = storage.store(new MockMultipartFile("file", "icon.png", "image/png", encode(image(200, 100, true), "png")));
+        String banner = storage.store(new MockMultipartFile("file", "banner.png", "image/png", encode(image(400, 50, true), "png")));
+        // 背景產生；直接同步再跑一次確認結果一致
+        variants.generate(photo);
+        variants.generate(icon);
+        variants.generate(banner);
+
+        assertEquals("/uploads/" + photo.substring(0, 64) + "_320.jpg",
+                variants.variantOf("/uploads/" + photo, ImageVariantService.Variant.CARD));
+        assertDimensions(store, photo.substring(0, 64) + "_64.jpg", 64, 64);
+        assertDimensions(store, photo.substring(0, 64) + "_320.jpg", 320, 213);
+        assertDimensions(store, photo.substring(0, 64) + "_1024.jpg", 1024, 683);
+        assertTrue(store.stat(photo.substring(0, 64) + "_320.jpg").orElseThrow().size() < store.stat(photo).orElseThrow().size() / 10);
+
+        // 原圖比尺寸小時不放大，沿用原圖且不再檢查檔案；PNG 保留透明
+        clearInvocations(store);
+        assertEquals(icon, variants.variantOf(icon, ImageVariantService.Variant.CARD));
+        verify(store, never()).stat(anyString());
+        assertDimensions(store, icon.substring(0, 64) + "_64.png", 64, 64);
+        try (InputStream in = store.open(icon.substring(0, 64) + "_64.png")) {
+            assertTrue(ImageIO.read(in).getColorModel().hasAlpha());
+        }
+        // 正方形以短邊比較：短邊 50 不產生頭像，長邊 400 仍產生卡片
+        assertEquals(banner, variants.variantOf(banner, ImageVariantService.Variant.AVATAR));
+        assertTrue(store.stat(banner.substring(0, 64) + "_64.png").isEmpty());
+        assertDimensions(store, banner.substring(0, 64) + "_320.png", 320, 40);
+        // 舊檔名沒有縮圖
+        assertEquals("/uploads/legacy_photo.jpg", variants.variantOf("/uploads/legacy_photo.jpg", ImageVariantService.Variant.CARD));
+
+        // 原圖不再被引用時縮圖一併刪除
+        storage.delete(photo);
+        assertTrue(store.stat(photo).isEmpty());
+        assertTrue(store.stat(photo.substring(0, 64) + "_320.jpg").isEmpty());
+        variants.shutdown();
+    }
+
+    private FileStorageService storage(BlobStore store, StoredFileRepository repository) {
+        String staging = tempDir.resolve("staging").toString();
+        return new FileStorageService(store, repository, new ImageVariantService(store, staging), staging);
+    }
+
+    private static BufferedImage image(int width, int height, boolean alpha) {
+        BufferedImage image = new BufferedImage(width, height, alpha ? BufferedImage.TYPE_INT_ARGB : BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = image.createGraphics();
+        g.setPaint(new GradientPaint(0, 0, new Color(30, 120, 60, alpha ? 80 : 255), width, height, Color.ORANGE));
+        g.fillRect(0, 0, width, height);
+        g.dispose();
+        return image;
+    }
+
+    private static byte[] encode(BufferedImage image, String format) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ImageIO.write(image, format, out);
+        return out.toByteArray();
+    }
+
+    private static void assertDimensions(BlobStore store, String key, int width, int height) throws IOException {
+        try (InputStream in = store.open(key)) {
+            BufferedImage image = ImageIO.read(in);
+            assertEquals(width, image.getWidth(), key);
+            assertEquals(height, image.getHeight(), key);
+        }
+    }
+
+    private BlobStore blobStore(String backend) {
+        return "local".equals(backend)
+                ? new LocalDiskBlobStore(tempDir.resolve("uploads"))
+                : new ObjectStoreBlobStore(tempDir.resolve("objects"), "uploads");
+    }
+
+    private Path stage(byte[] content) throws IOException {
+        Path dir = Files.createDirectories(tempDir.resolve("incoming"));
+        return Files.write(Files.createTempFile(dir, "blob", ".tmp"), content);
+    }
+
+    private static byte[] read(BlobStore store, String key, long position, long count) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        store.transferTo(key, position, count, Channels.newChannel(out));
+        return out.toByteArray();
+    }
+
+    private static InputStream slice(byte[] content, int from, int to) {
+        return new ByteArrayInputStream(content, from, to - from);
+    }
+
+    private static byte[] randomBytes(int length) {
+        byte[] bytes = new byte[length];
+        new Random(length).nextBytes(bytes);
+        return bytes;
+    }
+
+    private static String sha256(byte[] content) throws Exception {
+        return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(content));
+    }
+
+    // 讀到 failAfter 個位元組後拋出例外，模擬連線中斷
+    private static class InterruptedStream extends InputStream {
+        private final InputStream delegate;
+        private long remaining;
+
+        InterruptedStream(InputStream delegate, long failAfter) {
+            this.delegate = delegate;
+            this.remaining = failAfter;
+        }
+
+        @Override
+        public int read() throws IOException {
+            byte[] one = new byte[1];
+            return read(one, 0, 1) < 0 ? -1 : one[0] & 0xff;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            if (remaining <= 0) {
+                throw new IOException("Connection reset");
+            }
+            int n = delegate.read(b, off, (int) Math.min(len, remaining));
+            remaining -= n;
+            return n;
+        }
+    }
+}
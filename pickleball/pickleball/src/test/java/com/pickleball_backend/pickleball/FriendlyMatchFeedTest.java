@@ -0,0 +1,249 @@
+package com.pickleball_backend.pickleball;
+
+import com.pickleball_backend.pickleball.config.JoinRequestDedupeInitializer;
+import com.pickleball_backend.pickleball.dto.FriendlyMatchInvitationDto;
+import com.pickleball_backend.pickleball.entity.FriendlyMatch;
+import com.pickleball_backend.pickleball.entity.Member;
+import com.pickleball_backend.pickleball.entity.User;
+import com.pickleball_backend.pickleball.entity.UserAccount;
+import com.pickleball_backend.pickleball.repository.FriendlyMatchRepository;
+import com.pickleball_backend.pickleball.repository.MemberRepository;
+import com.pickleball_backend.pickleball.repository.UserAccountRepository;
+import com.pickleball_backend.pickleball.repository.UserRepository;
+import com.pickleball_backend.pickleball.service.EmailService;
+import com.pickleball_backend.pickleball.service.FriendlyMatchDataMigration;
+import com.pickleball_backend.pickleball.service.FriendlyMatchService;
+import com.pickleball_backend.pickleball.service.MatchDiscoveryService;
+import com.pickleball_backend.pickleball.service.WalletLedgerService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.domain.EntityScan;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 比賽列表投影（邀請型比賽經由 booking 的 slot 找到球場）及啟動時的舊資料修正；
+ * 修正只計算實際補上的資料，第二次執行不應再有任何修正；
+ * 唯一鍵建立前的重複 join request 清除及人數重算。
+ */
+@DataJpaTest
+@ActiveProfiles("test")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+public class FriendlyMatchFeedTest {
+
+    private static final LocalDate DATE = LocalDate.now().plusDays(3);
+
+    @Configuration
+    @EntityScan(basePackageClasses = FriendlyMatch.class)
+    @EnableJpaRepositories(basePackageClasses = FriendlyMatchRepository.class)
+    @Import({FriendlyMatchService.class, FriendlyMatchDataMigration.class})
+    static class Config {
+    }
+
+    @MockitoBean
+    private EmailService emailService;
+
+    @MockitoBean
+    private WalletLedgerService walletLedgerService;
+
+    @MockitoBean
+    private MatchDiscoveryService matchDiscoveryService;
+
+    @Autowired
+    private FriendlyMatchService friendlyMatchService;
+
+    @Autowired
+    private FriendlyMatchDataMigration migration;
+
+    @Autowired
+    private FriendlyMatchRepository matchRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private MemberRepository memberRepository;
+
+    @Autowired
+    private UserAccountRepository userAccountRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private DataSource dataSource;
+
+    private Integer organizerId;
+
+    @BeforeEach
+    public void setUp() {
+        jdbcTemplate.update("DELETE FROM joinrequest");
+        jdbcTemplate.update("DELETE FROM friendlymatch");
+        jdbcTemplate.update("DELETE FROM bookingslot");
+        jdbcTemplate.update("DELETE FROM booking");
+        jdbcTemplate.update("DELETE FROM payment");
+        jdbcTemplate.update("DELETE FROM slot");
+        jdbcTemplate.update("DELETE FROM court");
+        jdbcTemplate.update("DELETE FROM venue");
+        organizerId = createMember("host").getId();
+
+        jdbcTemplate.update("INSERT INTO venue (id, name, location, state) VALUES (1, 'Arena', 'Main St', 'KL')");
+        jdbcTemplate.update("INSERT INTO court (id, name, location, venue_id, is_archived, peak_hourly_price) VALUES "
+                + "(1, 'Court A', 'Hall 1', 1, false, 30), (2, 'Court B', 'Hall 2', 1, false, 30)");
+        // Court B 10:00-12:00 兩個 slot 由 booking 1 預訂；booking 2 的 slot 沒有時間
+        jdbcTemplate.update("INSERT INTO slot (id, court_id, date, start_time, end_time, is_available, duration_hours) VALUES "
+                        + "(1, 2, ?, ?, ?, false, 1), (2, 2, ?, ?, ?, false, 1), (3, 2, ?, NULL, NULL, false, 1)",
+                DATE, LocalTime.of(10, 0), LocalTime.of(11, 0), DATE, LocalTime.of(11, 0), LocalTime.of(12, 0), DATE);
+        jdbcTemplate.update("INSERT INTO payment (id, amount, max_retries, retry_count, created_at) VALUES (1, 60, 0, 0, CURRENT_TIMESTAMP)");
+        jdbcTemplate.update("INSERT INTO booking (id, member_id, payment_id, status, total_amount) VALUES "
+                + "(1, ?, 1, 'CONFIRMED', 60), (2, ?, 1, 'CONFIRMED', 0)", organizerId, organizerId);
+        jdbcTemplate.update("INSERT INTO bookingslot (booking_id, slot_id, status, timestamp) VALUES "
+                + "(1, 1, 'BOOKED', CURRENT_TIMESTAMP), (1, 2, 'BOOKED', CURRENT_TIMESTAMP), (2, 3, 'BOOKED', CURRENT_TIMESTAMP)");
+    }
+
+    @Test
+    public void feedRowsResolveCourtThroughBookingSlots() {
+        insertMatch(1, null, 1, false, DATE.atTime(8, 0), DATE.atTime(9, 0), 15.0, "OPEN");
+        insertMatch(2, 1, null, true, DATE.atTime(10, 0), DATE.atTime(12, 0), 0.0, "OPEN");
+        insertMatch(3, null, 1, false, DATE.atTime(14, 0), DATE.atTime(15, 0), 15.0, "CANCELLED");
+        jdbcTemplate.update("INSERT INTO joinrequest (match_id, member_id, status, request_date) VALUES (1, ?, 'APPROVED', CURRENT_TIMESTAMP)",
+                organizerId);
+
+        Page<FriendlyMatchInvitationDto> upcoming = friendlyMatchService.getMatchFeed(FriendlyMatchService.FEED_UPCOMING, null, PageRequest.of(0, 10));
+        assertEquals(2, upcoming.getTotalElements());
+        List<FriendlyMatchInvitationDto> rows = upcoming.getContent();
+        assertEquals(List.of(1, 2), rows.stream().map(FriendlyMatchInvitationDto::getId).toList());
+
+        FriendlyMatchInvitationDto direct = rows.get(0);
+        assertEquals("Court A", direct.getCourtName());
+        assertEquals("Hall 1", direct.getCourtLocation());
+        assertEquals("Arena", direct.getVenueName());
+        assertEquals("host", direct.getOrganizerUsername());
+        assertEquals(organizerId, direct.getOrganizerId());
+        assertNull(direct.getBookingId());
+        assertEquals(1, direct.getJoinRequests().size());
+
+        // 邀請型比賽沒有 courtId，球場來自 booking 的 slot
+        FriendlyMatchInvitationDto invitation = rows.get(1);
+        assertEquals(1, invitation.getBookingId());
+        assertEquals("Court B", invitation.getCourtName());
+        assertEquals("Arena", invitation.getVenueName());
+        assertEquals("CONFIRMED", invitation.getBookingStatus());
+        assertEquals(DATE, invitation.getSlotDate());
+        assertTrue(invitation.getJoinRequests().isEmpty());
+
+        Page<FriendlyMatchInvitationDto> mine = friendlyMatchService.getMatchFeed(FriendlyMatchService.FEED_MINE, organizerId, PageRequest.of(0, 2));
+        assertEquals(3, mine.getTotalElements());
+        assertEquals(List.of(3, 2), mine.getContent().stream().map(FriendlyMatchInvitationDto::getId).toList());
+    }
+
+    @Test
+    public void migrationCountsOnlyRowsItRepairs() {
+        // 缺少時間、可由 slot 補上
+        insertMatch(1, 1, null, true, null, null, 0.0, "OPEN");
+        // booking 的 slot 沒有時間，無法補上
+        insertMatch(2, 2, null, true, null, null, 0.0, "OPEN");
+        // 有球場但沒有價格
+        insertMatch(3, null, 1, false, DATE.atTime(18, 0), DATE.atTime(20, 0), null, "OPEN");
+        jdbcTemplate.update("UPDATE friendlymatch SET duration_hours = 2 WHERE id = 3");
+
+        // 1 筆時間、3 筆主辦人 join request、1 筆價格
+        assertEquals(5, migration.repair());
+
+        FriendlyMatch repaired = matchRepository.findById(1).orElseThrow();
+        assertEquals(DATE.atTime(10, 0), repaired.getStartTime());
+        assertEquals(DATE.atTime(12, 0), repaired.getEndTime());
+        FriendlyMatch unrepairable = matchRepository.findById(2).orElseThrow();
+        assertNull(unrepairable.getStartTime());
+        assertEquals(60.0, matchRepository.findById(3).orElseThrow().getPrice());
+
+        // 無法修正的資料不會在每次啟動時再被算一次
+        assertEquals(0, migration.repair());
+    }
+
+    @Test
+    public void duplicateJoinRequestsAreRemovedBeforeTheUniqueKey() {
+        Integer player = createMember("player").getId();
+        Integer other = createMember("other").getId();
+        insertMatch(1, null, 1, false, DATE.atTime(8, 0), DATE.atTime(9, 0), 15.0, "FULL");
+        insertMatch(2, null, 1, false, DATE.atTime(10, 0), DATE.atTime(11, 0), 15.0, "OPEN");
+        // 唯一鍵建立前的舊資料：player 在比賽 1 重複加入三次，佔了 4 人中的 3 個名額
+        jdbcTemplate.update("UPDATE friendlymatch SET current_players = 4 WHERE id = 1");
+        jdbcTemplate.update("UPDATE friendlymatch SET current_players = 2 WHERE id = 2");
+        jdbcTemplate.execute("ALTER TABLE joinrequest DROP CONSTRAINT uk_joinrequest_member_match");
+        try {
+            jdbcTemplate.update("INSERT INTO joinrequest (id, match_id, member_id, status, request_date) VALUES "
+                            + "(1, 1, ?, 'APPROVED', CURRENT_TIMESTAMP), (2, 1, ?, 'APPROVED', CURRENT_TIMESTAMP), "
+                            + "(3, 1, ?, 'APPROVED', CURRENT_TIMESTAMP), (4, 1, ?, 'APPROVED', CURRENT_TIMESTAMP), "
+                            + "(5, 1, ?, 'APPROVED', CURRENT_TIMESTAMP), (6, 2, ?, 'APPROVED', CURRENT_TIMESTAMP)",
+                    organizerId, player, player, player, other, player);
+
+            assertTrue(new JoinRequestDedupeInitializer(dataSource).initializeDatabase());
+
+            assertEquals(List.of(1, 2, 5, 6), jdbcTemplate.queryForList("SELECT id FROM joinrequest ORDER BY id", Integer.class));
+            // 主辦人 + player + other，未滿時重新開放
+            assertEquals(3, jdbcTemplate.queryForObject("SELECT current_players FROM friendlymatch WHERE id = 1", Integer.class));
+            assertEquals("OPEN", jdbcTemplate.queryForObject("SELECT status FROM friendlymatch WHERE id = 1", String.class));
+            // 沒有重複的比賽不變
+            assertEquals(2, jdbcTemplate.queryForObject("SELECT current_players FROM friendlymatch WHERE id = 2", Integer.class));
+
+            // 第二次執行不會再有任何變動
+            assertTrue(new JoinRequestDedupeInitializer(dataSource).initializeDatabase());
+            assertEquals(4, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM joinrequest", Integer.class));
+            assertEquals(3, jdbcTemplate.queryForObject("SELECT current_players FROM friendlymatch WHERE id = 1", Integer.class));
+        } finally {
+            jdbcTemplate.update("DELETE FROM joinrequest");
+            jdbcTemplate.execute("ALTER TABLE joinrequest ADD CONSTRAINT uk_joinrequest_member_match UNIQUE (member_id, match_id)");
+        }
+    }
+
+    private void insertMatch(int id, Integer bookingId, Integer courtId, boolean invitation,
+                             LocalDateTime start, LocalDateTime end, Double price, String status) {
+        jdbcTemplate.update("INSERT INTO friendlymatch (id, booking_id, court_id, organizer_id, is_invitation, start_time, end_time, "
+                        + "max_players, current_players, price, status, payment_status, invitation_type) "
+                        + "VALUES (?, ?, ?, ?, ?, ?, ?, 4, 1, ?, ?, 'PENDING', 'FRIENDLY_MATCH_INVITE')",
+                id, bookingId, courtId, organizerId, invitation, start, end, price, status);
+    }
+
+    // Member 以 user_id 為主鍵（@MapsId），需與 User 在同一個交易中建立
+    private Member createMember(String username) {
+        return new TransactionTemplate(transactionManager).execute(status -> {
+            User user = new User();
+            user.setName(username);
+            user.setEmail(username + "-" + System.nanoTime() + "@test.com");
+            user = userRepository.save(user);
+            UserAccount account = new UserAccount();
+            account.setUsername(username);
+            account.setUser(user);
+            userAccountRepository.save(account);
+            Member member = new Member();
+            member.setUser(user);
+            return memberRepository.save(member);
+        });
+    }
+}
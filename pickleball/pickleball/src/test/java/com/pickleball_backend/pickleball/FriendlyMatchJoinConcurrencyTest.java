@@ -0,0 +1,245 @@
+package com.pickleball_backend.pickleball;
+
+import com.pickleball_backend.pickleball.entity.FriendlyMatch;
+import com.pickleball_backend.pickleball.entity.JoinRequest;
+import com.pickleball_backend.pickleball.entity.Member;
+import com.pickleball_backend.pickleball.entity.User;
+import com.pickleball_backend.pickleball.exception.ValidationException;
+import com.pickleball_backend.pickleball.repository.FriendlyMatchRepository;
+import com.pickleball_backend.pickleball.repository.JoinRequestRepository;
+import com.pickleball_backend.pickleball.repository.MemberRepository;
+import com.pickleball_backend.pickleball.repository.UserRepository;
+import com.pickleball_backend.pickleball.service.EmailService;
+import com.pickleball_backend.pickleball.service.FriendlyMatchService;
+import com.pickleball_backend.pickleball.service.MatchDiscoveryService;
+import com.pickleball_backend.pickleball.service.WalletLedgerService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.domain.EntityScan;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 多執行緒同時加入快滿的友誼賽，確認條件式佔位不會超過 maxPlayers、額滿時設為 FULL，
+ * 同一位會員同時送出多次只佔一個名額，退出後名額釋出，並記錄加入的吞吐量。
+ */
+@DataJpaTest
+@ActiveProfiles("test")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+public class FriendlyMatchJoinConcurrencyTest {
+
+    private static final Logger log = LoggerFactory.getLogger(FriendlyMatchJoinConcurrencyTest.class);
+
+    private static final int THREADS = 16;
+    private static final int ROUNDS = 20;
+    private static final int MAX_PLAYERS = 8;
+    private static final int OPEN_SEATS = 2;
+    private static final int JOINS_PER_THREAD = 25;
+
+    @Configuration
+    @EntityScan(basePackageClasses = FriendlyMatch.class)
+    @EnableJpaRepositories(basePackageClasses = FriendlyMatchRepository.class)
+    @Import(FriendlyMatchService.class)
+    static class Config {
+    }
+
+    @MockitoBean
+    private EmailService emailService;
+
+    @MockitoBean
+    private WalletLedgerService walletLedgerService;
+
+    @MockitoBean
+    private MatchDiscoveryService matchDiscoveryService;
+
+    @Autowired
+    private FriendlyMatchService friendlyMatchService;
+
+    @Autowired
+    private FriendlyMatchRepository matchRepository;
+
+    @Autowired
+    private JoinRequestRepository joinRequestRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private MemberRepository memberRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private Member organizer;
+    private final List<Integer> players = new ArrayList<>();
+
+    @BeforeEach
+    public void setUp() {
+        organizer = createMember("organizer");
+        players.clear();
+        for (int i = 0; i < THREADS * JOINS_PER_THREAD; i++) {
+            players.add(createMember("player" + i).getId());
+        }
+    }
+
+    @Test
+    public void concurrentJoinsNeverExceedMaxPlayers() throws Exception {
+        for (int round = 0; round < ROUNDS; round++) {
+            Integer matchId = createMatch(MAX_PLAYERS, MAX_PLAYERS - OPEN_SEATS).getId();
+            AtomicInteger rejected = new AtomicInteger();
+            List<Integer> joined = runConcurrently(THREADS, 1, (thread, i) -> {
+                try {
+                    return friendlyMatchService.sendJoinRequest(matchId, players.get(thread)).getId();
+                } catch (ValidationException e) {
+                    rejected.incrementAndGet();
+                    return null;
+                }
+            });
+
+            assertEquals(OPEN_SEATS, joined.size(), "round " + round + " seated " + joined.size() + " players");
+            assertEquals(THREADS - OPEN_SEATS, rejected.get());
+            FriendlyMatch match = matchRepository.findById(matchId).orElseThrow();
+            assertEquals(MAX_PLAYERS, match.getCurrentPlayers());
+            assertEquals("FULL", match.getStatus());
+        }
+
+        // 退出後名額釋出，比賽重新開放，下一位可以加入
+        Integer matchId = createMatch(MAX_PLAYERS, MAX_PLAYERS - 1).getId();
+        JoinRequest last = friendlyMatchService.sendJoinRequest(matchId, players.get(0));
+        assertEquals("FULL", matchRepository.findById(matchId).orElseThrow().getStatus());
+        assertThrows(ValidationException.class, () -> friendlyMatchService.sendJoinRequest(matchId, players.get(1)));
+        friendlyMatchService.cancelJoinRequest(last.getId(), players.get(0));
+        FriendlyMatch reopened = matchRepository.findById(matchId).orElseThrow();
+        assertEquals(MAX_PLAYERS - 1, reopened.getCurrentPlayers());
+        assertEquals("OPEN", reopened.getStatus());
+        friendlyMatchService.sendJoinRequest(matchId, players.get(1));
+        assertEquals(MAX_PLAYERS, matchRepository.findById(matchId).orElseThrow().getCurrentPlayers());
+        // 同一位會員不能重複加入
+        assertThrows(ValidationException.class, () -> friendlyMatchService.sendJoinRequest(matchId, players.get(1)));
+    }
+
+    @Test
+    public void concurrentJoinsBySameMemberTakeOneSeat() throws Exception {
+        for (int round = 0; round < ROUNDS; round++) {
+            Integer matchId = createMatch(MAX_PLAYERS, 1).getId();
+            Integer memberId = players.get(round);
+            AtomicInteger rejected = new AtomicInteger();
+            List<Integer> joined = runConcurrently(THREADS, 1, (thread, i) -> {
+                try {
+                    return friendlyMatchService.sendJoinRequest(matchId, memberId).getId();
+                } catch (ValidationException e) {
+                    rejected.incrementAndGet();
+                    return null;
+                }
+            });
+
+            assertEquals(1, joined.size(), "round " + round + " seated the same member " + joined.size() + " times");
+            assertEquals(THREADS - 1, rejected.get());
+            FriendlyMatch match = matchRepository.findById(matchId).orElseThrow();
+            assertEquals(2, match.getCurrentPlayers());
+            assertEquals("OPEN", match.getStatus());
+            assertEquals(1, joinRequestRepository.findRowsByMatchIds(List.of(matchId)).size());
+        }
+    }
+
+    @Test
+    public void concurrentJoinThroughput() throws Exception {
+        int joins = THREADS * JOINS_PER_THREAD;
+        Integer matchId = createMatch(joins + 1, 1).getId();
+
+        long startNanos = System.nanoTime();
+        List<Integer> joined = runConcurrently(THREADS, JOINS_PER_THREAD, (thread, i) ->
+                friendlyMatchService.sendJoinRequest(matchId, players.get(thread * JOINS_PER_THREAD + i)).getId());
+        long elapsedNanos = System.nanoTime() - startNanos;
+
+        log.info("Friendly match join stress: {} joins on one match by {} threads in {} ms, {} joins/s",
+                joins, THREADS, elapsedNanos / 1_000_000, Math.round(joins / (elapsedNanos / 1e9)));
+
+        assertEquals(joins, joined.size());
+        FriendlyMatch match = matchRepository.findById(matchId).orElseThrow();
+        assertEquals(joins + 1, match.getCurrentPlayers());
+        assertEquals("FULL", match.getStatus());
+        assertEquals(joins, joinRequestRepository.findRowsByMatchIds(List.of(matchId)).size());
+    }
+
+    private FriendlyMatch createMatch(int maxPlayers, int currentPlayers) {
+        FriendlyMatch match = new FriendlyMatch();
+        match.setOrganizer(organizer);
+        match.setMaxPlayers(maxPlayers);
+        match.setCurrentPlayers(currentPlayers);
+        match.setStartTime(LocalDateTime.now().plusDays(2));
+        match.setEndTime(LocalDateTime.now().plusDays(2).plusHours(2));
+        return matchRepository.save(match);
+    }
+
+    // Member 以 user_id 為主鍵（@MapsId），需與 User 在同一個交易中建立
+    private Member createMember(String name) {
+        return new TransactionTemplate(transactionManager).execute(status -> {
+            User user = new User();
+            user.setName(name);
+            user.setEmail(name + "-" + System.nanoTime() + "@test.com");
+            Member member = new Member();
+            member.setUser(userRepository.save(user));
+            return memberRepository.save(member);
+        });
+    }
+
+    private interface Join {
+        Integer attempt(int thread, int iteration);
+    }
+
+    // 所有執行緒同時開始，回傳成功加入的 join request id
+    private static List<Integer> runConcurrently(int threads, int iterations, Join join) throws Exception {
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<List<Integer>>> futures = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                int thread = t;
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    List<Integer> ids = new ArrayList<>();
+                    for (int i = 0; i < iterations; i++) {
+                        Integer id = join.attempt(thread, i);
+                        if (id != null) {
+                            ids.add(id);
+                        }
+                    }
+                    return ids;
+                }));
+            }
+            start.countDown();
+            List<Integer> joined = new ArrayList<>();
+            for (Future<List<Integer>> future : futures) {
+                joined.addAll(future.get());
+            }
+            return joined;
+        } finally {
+            executor.shutdown();
+        }
+    }
+}
@@ -0,0 +1,128 @@
+package com.pickleball_backend.pickleball;
+
+import com.pickleball_backend.pickleball.config.GroupTopicSubscriptionInterceptor;
+import com.pickleball_backend.pickleball.config.JwtChannelInterceptor;
+import com.pickleball_backend.pickleball.repository.GroupMemberRepository;
+import com.pickleball_backend.pickleball.security.JwtAuthFilter;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessagingException;
+import org.springframework.messaging.simp.stomp.StompCommand;
+import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+
+import java.security.Principal;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * 群組主題只有成員能訂閱：含樣式的訂閱（/topic/**、/topic/*&#47;42）、非數字的群組 id、
+ * 未登入的 SUBSCRIBE / SEND、客戶端直接送到 /topic 都要被拒絕；沒有有效 JWT 的 CONNECT 也一樣。
+ */
+public class GroupTopicSubscriptionTest {
+
+    private static final Principal ALICE = new UsernamePasswordAuthenticationToken("alice", null, List.of());
+
+    private GroupMemberRepository groupMemberRepository;
+    private GroupTopicSubscriptionInterceptor interceptor;
+
+    @BeforeEach
+    public void setUp() {
+        groupMemberRepository = mock(GroupMemberRepository.class);
+        when(groupMemberRepository.isUsernameMemberOfGroup(42L, "alice")).thenReturn(true);
+        interceptor = new GroupTopicSubscriptionInterceptor(groupMemberRepository);
+    }
+
+    @Test
+    public void membersSubscribeToTheirGroupOnly() {
+        Message<?> own = stomp(StompCommand.SUBSCRIBE, "/topic/groups/42", ALICE);
+        assertSame(own, interceptor.preSend(own, null));
+
+        assertThrows(MessagingException.class,
+                () -> interceptor.preSend(stomp(StompCommand.SUBSCRIBE, "/topic/groups/7", ALICE), null));
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"/topic/**", "/topic/*/42", "/topic/groups/*", "/topic/groups/4?", "/topic/groups/{id}", "/topic/group?/42"})
+    public void patternSubscriptionsAreRejected(String destination) {
+        assertThrows(MessagingException.class,
+                () -> interceptor.preSend(stomp(StompCommand.SUBSCRIBE, destination, ALICE), null));
+        verify(groupMemberRepository, never()).isUsernameMemberOfGroup(anyLong(), anyString());
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"/topic/groups/+42", "/topic/groups/42/", "/topic/groups/42/extra", "/topic/groups/"})
+    public void nonNumericGroupIdsAreRejected(String destination) {
+        assertThrows(MessagingException.class,
+                () -> interceptor.preSend(stomp(StompCommand.SUBSCRIBE, destination, ALICE), null));
+    }
+
+    @Test
+    public void anonymousSubscribeAndSendAreRejected() {
+        assertThrows(MessagingException.class,
+                () -> interceptor.preSend(stomp(StompCommand.SUBSCRIBE, "/topic/groups/42", null), null));
+        assertThrows(MessagingException.class,
+                () -> interceptor.preSend(stomp(StompCommand.SUBSCRIBE, "/topic/public", null), null));
+        assertThrows(MessagingException.class,
+                () -> interceptor.preSend(stomp(StompCommand.SEND, "/app/chat.send", null), null));
+    }
+
+    @Test
+    public void clientsCannotSendToTopics() {
+        assertThrows(MessagingException.class,
+                () -> interceptor.preSend(stomp(StompCommand.SEND, "/topic/groups/42", ALICE), null));
+        assertThrows(MessagingException.class,
+                () -> interceptor.preSend(stomp(StompCommand.SEND, "/topic", ALICE), null));
+
+        Message<?> app = stomp(StompCommand.SEND, "/app/chat.send", ALICE);
+        assertSame(app, interceptor.preSend(app, null));
+        Message<?> other = stomp(StompCommand.SUBSCRIBE, "/user/queue/messages", ALICE);
+        assertSame(other, interceptor.preSend(other, null));
+    }
+
+    @Test
+    public void connectRequiresValidToken() {
+        JwtAuthFilter jwtAuthFilter = mock(JwtAuthFilter.class);
+        Authentication auth = new UsernamePasswordAuthenticationToken("alice", null, List.of());
+        when(jwtAuthFilter.isValid("good")).thenReturn(true);
+        when(jwtAuthFilter.getAuthentication("good")).thenReturn(auth);
+        JwtChannelInterceptor jwtInterceptor = new JwtChannelInterceptor(jwtAuthFilter);
+
+        assertThrows(MessagingException.class, () -> jwtInterceptor.preSend(connect(null), null));
+        assertThrows(MessagingException.class, () -> jwtInterceptor.preSend(connect("good"), null));
+        assertThrows(MessagingException.class, () -> jwtInterceptor.preSend(connect("Bearer bad"), null));
+
+        Message<?> connected = jwtInterceptor.preSend(connect("Bearer good"), null);
+        assertSame(auth, StompHeaderAccessor.wrap(connected).getUser());
+    }
+
+    private static Message<byte[]> stomp(StompCommand command, String destination, Principal user) {
+        StompHeaderAccessor accessor = StompHeaderAccessor.create(command);
+        accessor.setDestination(destination);
+        accessor.setSubscriptionId("sub-0");
+        accessor.setUser(user);
+        accessor.setLeaveMutable(true);
+        return MessageBuilder.createMessage(new byte[0], accessor.getMessageHeaders());
+    }
+
+    private static Message<byte[]> connect(String authorization) {
+        StompHeaderAccessor accessor = StompHeaderAccessor.create(StompCommand.CONNECT);
+        if (authorization != null) {
+            accessor.setNativeHeader("Authorization", authorization);
+        }
+        accessor.setLeaveMutable(true);
+        return MessageBuilder.createMessage(new byte[0], accessor.getMessageHeaders());
+    }
+}
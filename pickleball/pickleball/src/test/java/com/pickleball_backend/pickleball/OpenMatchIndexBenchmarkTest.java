@@ -0,0 +1,149 @@
+package com.pickleball_backend.pickleball;
+
+import com.pickleball_backend.pickleball.service.OpenMatchIndex;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 以 5 萬筆未來 60 天內的合成比賽建立探索索引，確認篩選、排序及分頁與逐筆比對一致；
+ * 「venue 附近三天內至少一個空位」查詢的延遲只在 -Pbenchmark 時量測並記錄。
+ */
+public class OpenMatchIndexBenchmarkTest {
+
+    private static final Logger log = LoggerFactory.getLogger(OpenMatchIndexBenchmarkTest.class);
+
+    private static final int MATCHES = 50_000;
+    private static final int VENUES = 200;
+    private static final int QUERIES = 5_000;
+    private static final int PAGE_SIZE = 20;
+    private static final String[] STATES = {"KL", "Selangor", "Penang", "Johor", "Perak"};
+    private static final String[] SKILLS = {"Beginner", "Intermediate", "Advanced", null};
+    private static final LocalDateTime NOW = LocalDateTime.of(2099, 1, 1, 9, 30);
+
+    @Test
+    public void searchMatchesBruteForce() {
+        Random random = new Random(7);
+        Map<Integer, OpenMatchIndex.Entry> entries = new HashMap<>();
+        OpenMatchIndex index = new OpenMatchIndex();
+        build(random, entries, index);
+        assertEquals(MATCHES - 1_000, index.size());
+
+        // 不分頁時結果必須與逐筆比對完全相同，分頁須依序切出同一份結果
+        for (int i = 0; i < 200; i++) {
+            int venueId = 1 + random.nextInt(VENUES);
+            boolean nearby = i % 2 == 0;
+            int days = 1 + random.nextInt(7);
+            int minSpots = random.nextInt(3);
+            String skill = i % 5 == 0 ? SKILLS[random.nextInt(3)] : null;
+            Boolean invitation = i % 7 == 0 ? Boolean.TRUE : null;
+            String state = nearby ? stateOf(venueId) : null;
+            LocalDateTime until = NOW.plusDays(days);
+
+            List<Integer> expected = entries.values().stream()
+                    .filter(e -> e.venueId() != null && (e.venueId() == venueId || (state != null && state.equals(e.venueState()))))
+                    .filter(e -> e.startTime().isAfter(NOW) && e.startTime().isBefore(until))
+                    .filter(e -> e.spots() >= minSpots)
+                    .filter(e -> skill == null || skill.equalsIgnoreCase(e.skillLevel()))
+                    .filter(e -> invitation == null || invitation == e.invitation())
+                    .sorted(Comparator.comparing(OpenMatchIndex.Entry::startTime).thenComparingInt(OpenMatchIndex.Entry::matchId))
+                    .map(OpenMatchIndex.Entry::matchId)
+                    .toList();
+            OpenMatchIndex.Result all = index.search(venueId, state, NOW, until, minSpots, skill, invitation, 0, Integer.MAX_VALUE);
+            assertEquals(expected, all.matchIds());
+            assertEquals(expected.size(), all.total());
+
+            List<Integer> paged = new ArrayList<>();
+            for (int offset = 0; offset < expected.size(); offset += PAGE_SIZE) {
+                OpenMatchIndex.Result page = index.search(venueId, state, NOW, until, minSpots, skill, invitation, offset, PAGE_SIZE);
+                assertEquals(expected.size(), page.total());
+                paged.addAll(page.matchIds());
+            }
+            assertEquals(expected, paged);
+        }
+
+        // 已開始的比賽移除後不再出現
+        LocalDateTime later = NOW.plusDays(2);
+        int started = (int) entries.values().stream().filter(e -> !e.startTime().isAfter(later)).count();
+        assertEquals(started, index.removeStartedBefore(later));
+        assertEquals(entries.size() - started, index.size());
+        assertEquals(0, index.search(null, null, NOW, later, 0, null, null, 0, PAGE_SIZE).total());
+    }
+
+    @Test
+    @Tag("benchmark")
+    public void nearbyQueryLatency() {
+        Random random = new Random(7);
+        OpenMatchIndex index = new OpenMatchIndex();
+        long buildMillis = build(random, new HashMap<>(), index);
+        LocalDateTime later = NOW.plusDays(2);
+        index.removeStartedBefore(later);
+
+        // 暖機後量測
+        int[] venueIds = new int[QUERIES];
+        for (int i = 0; i < QUERIES; i++) {
+            venueIds[i] = 1 + random.nextInt(VENUES);
+        }
+        for (int venueId : venueIds) {
+            index.search(venueId, stateOf(venueId), later, later.plusDays(3), 1, null, null, 0, PAGE_SIZE);
+        }
+        long[] micros = new long[QUERIES];
+        for (int i = 0; i < QUERIES; i++) {
+            long start = System.nanoTime();
+            OpenMatchIndex.Result result = index.search(venueIds[i], stateOf(venueIds[i]), later, later.plusDays(3),
+                    1, null, null, 0, PAGE_SIZE);
+            micros[i] = (System.nanoTime() - start) / 1_000;
+            assertTrue(result.matchIds().size() <= PAGE_SIZE);
+        }
+        Arrays.sort(micros);
+        log.info("Match discovery benchmark: {} matches indexed in {} ms, {} nearby 3-day queries p50 {} us, p99 {} us, max {} us",
+                MATCHES, buildMillis, QUERIES, micros[QUERIES / 2], micros[QUERIES * 99 / 100], micros[QUERIES - 1]);
+    }
+
+    // 建立索引後再加入、退出（名額變動）、改期及移除前 2000 筆，回傳建立時間（毫秒）
+    private static long build(Random random, Map<Integer, OpenMatchIndex.Entry> entries, OpenMatchIndex index) {
+        long buildStart = System.nanoTime();
+        for (int id = 1; id <= MATCHES; id++) {
+            OpenMatchIndex.Entry entry = randomEntry(random, id);
+            entries.put(id, entry);
+            index.put(entry);
+        }
+        long buildMillis = (System.nanoTime() - buildStart) / 1_000_000;
+
+        for (int id = 1; id <= 2_000; id++) {
+            if (id % 2 == 0) {
+                entries.remove(id);
+                index.remove(id);
+            } else {
+                OpenMatchIndex.Entry entry = randomEntry(random, id);
+                entries.put(id, entry);
+                index.put(entry);
+            }
+        }
+        return buildMillis;
+    }
+
+    private static OpenMatchIndex.Entry randomEntry(Random random, int id) {
+        // 約 2% 的比賽找不到 venue
+        Integer venueId = random.nextInt(50) == 0 ? null : 1 + random.nextInt(VENUES);
+        LocalDateTime start = NOW.plusMinutes(random.nextInt(60 * 24 * 60));
+        return new OpenMatchIndex.Entry(id, start, venueId, venueId != null ? stateOf(venueId) : null,
+                random.nextInt(4), SKILLS[random.nextInt(SKILLS.length)], random.nextInt(4) == 0);
+    }
+
+    private static String stateOf(int venueId) {
+        return STATES[venueId % STATES.length];
+    }
+}
@@ -0,0 +1,213 @@
+package com.pickleball_backend.pickleball;
+
+import com.lowagie.text.pdf.PdfReader;
+import com.lowagie.text.pdf.parser.PdfTextExtractor;
+import com.pickleball_backend.pickleball.dto.ReceiptRequestDto;
+import com.pickleball_backend.pickleball.entity.Booking;
+import com.pickleball_backend.pickleball.exception.ValidationException;
+import com.pickleball_backend.pickleball.repository.BookingRepository;
+import com.pickleball_backend.pickleball.service.ReceiptService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.domain.EntityScan;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.spy;
+
+/**
+ * 收據批量匯出：跨批次依 booking id 順序寫入 ZIP、時段起訖取第一及最後一個時段、
+ * 期間及筆數上限在串流前檢查，以及下載中斷後不再產生剩下的收據。
+ */
+@DataJpaTest
+@ActiveProfiles("test")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+public class ReceiptExportTest {
+
+    private static final LocalDate DAY = LocalDate.of(2025, 3, 10);
+
+    @Configuration
+    @EntityScan(basePackageClasses = Booking.class)
+    @EnableJpaRepositories(basePackageClasses = BookingRepository.class)
+    @Import(ReceiptService.class)
+    static class Config {
+    }
+
+    @Autowired
+    private ReceiptService receiptService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    public void setUp() {
+        jdbcTemplate.update("DELETE FROM bookingslot");
+        jdbcTemplate.update("DELETE FROM booking");
+        jdbcTemplate.update("DELETE FROM payment");
+        jdbcTemplate.update("DELETE FROM slot");
+        jdbcTemplate.update("DELETE FROM court");
+        jdbcTemplate.update("DELETE FROM venue");
+        jdbcTemplate.update("DELETE FROM member");
+        jdbcTemplate.update("DELETE FROM user");
+
+        jdbcTemplate.update("INSERT INTO user (id, uuid, name) VALUES (1, RANDOM_UUID(), 'Alice'), (2, RANDOM_UUID(), 'Bob')");
+        jdbcTemplate.update("INSERT INTO member (user_id) VALUES (1), (2)");
+        jdbcTemplate.update("INSERT INTO venue (id, name, location, state) VALUES (1, 'Arena', 'Main St', 'KL')");
+        jdbcTemplate.update("INSERT INTO court (id, name, location, venue_id, is_archived, peak_hourly_price) VALUES "
+                + "(1, 'Court A', 'Hall 1', 1, false, 30)");
+        jdbcTemplate.update("INSERT INTO payment (id, amount, status, payment_method, max_retries, retry_count, created_at) VALUES "
+                + "(1, 20, 'COMPLETED', 'WALLET', 0, 0, CURRENT_TIMESTAMP), (2, 20, 'PENDING', 'WALLET', 0, 0, CURRENT_TIMESTAMP)");
+    }
+
+    @Test
+    public void zipEntriesFollowBookingIdsAcrossBatches() throws Exception {
+        // 超過一批（200 筆），id 與預訂時間的順序相反
+        List<Object[]> bookings = new ArrayList<>();
+        for (int id = 1; id <= 205; id++) {
+            bookings.add(new Object[]{id, id % 2 == 0 ? 1 : 2, 1, DAY.atTime(20, 0).minusMinutes(id)});
+        }
+        // 未付款及期間外的預訂不匯出
+        bookings.add(new Object[]{206, 1, 2, DAY.atTime(9, 0)});
+        bookings.add(new Object[]{207, 1, 1, DAY.plusDays(1).atTime(9, 0)});
+        insertBookings(bookings);
+
+        Map<String, byte[]> all = unzip(export(null));
+        List<String> expected = IntStream.rangeClosed(1, 205).mapToObj(id -> "receipt_" + id + "_" + DAY + ".pdf").toList();
+        assertEquals(expected, new ArrayList<>(all.keySet()));
+
+        Map<String, byte[]> mine = unzip(export(1));
+        assertEquals(102, mine.size());
+        assertTrue(mine.keySet().stream().allMatch(name -> Integer.parseInt(name.split("_")[1]) % 2 == 0));
+    }
+
+    @Test
+    public void receiptTimesComeFromFirstAndLastSlot() throws Exception {
+        insertBookings(List.<Object[]>of(new Object[]{1, 1, 1, DAY.atTime(9, 0)}));
+        // slot id 與時間順序不同：11:00、10:00、12:00 開始
+        jdbcTemplate.update("INSERT INTO slot (id, court_id, date, start_time, end_time, is_available, duration_hours) VALUES "
+                        + "(1, 1, ?, ?, ?, false, 1), (2, 1, ?, ?, ?, false, 1), (3, 1, ?, ?, ?, false, 1)",
+                DAY, LocalTime.of(11, 0), LocalTime.of(12, 0),
+                DAY, LocalTime.of(10, 0), LocalTime.of(11, 0),
+                DAY, LocalTime.of(12, 0), LocalTime.of(13, 0));
+        jdbcTemplate.update("INSERT INTO bookingslot (booking_id, slot_id, status, timestamp) VALUES "
+                + "(1, 1, 'BOOKED', CURRENT_TIMESTAMP), (1, 2, 'BOOKED', CURRENT_TIMESTAMP), (1, 3, 'BOOKED', CURRENT_TIMESTAMP)");
+
+        byte[] pdf = unzip(export(1)).get("receipt_1_" + DAY + ".pdf");
+        String text = new PdfTextExtractor(new PdfReader(pdf)).getTextFromPage(1);
+        assertTrue(text.contains("10:00 - 13:00"), text);
+        assertTrue(text.contains("Court A"), text);
+        assertTrue(text.contains("3.0 hour(s)"), text);
+    }
+
+    @Test
+    public void rangeAndSizeAreCheckedBeforeStreaming() {
+        receiptService.validateExport(DAY, DAY.plusDays(ReceiptService.MAX_BULK_DAYS - 1), null);
+        assertThrows(ValidationException.class,
+                () -> receiptService.validateExport(DAY, DAY.plusDays(ReceiptService.MAX_BULK_DAYS), null));
+        assertThrows(ValidationException.class, () -> receiptService.validateExport(DAY, DAY.minusDays(1), null));
+        assertThrows(ValidationException.class, () -> receiptService.validateExport(null, DAY, null));
+        assertThrows(ValidationException.class,
+                () -> receiptService.writeReceiptsZip(DAY, DAY.plusDays(ReceiptService.MAX_BULK_DAYS), null, new ByteArrayOutputStream()));
+
+        List<Object[]> bookings = new ArrayList<>();
+        for (int id = 1; id <= ReceiptService.MAX_BULK_RECEIPTS + 1; id++) {
+            bookings.add(new Object[]{id, id <= 10 ? 1 : 2, 1, DAY.atTime(9, 0)});
+        }
+        insertBookings(bookings);
+        receiptService.validateExport(DAY, DAY, 1);
+        assertThrows(ValidationException.class, () -> receiptService.validateExport(DAY, DAY, null));
+    }
+
+    @Test
+    public void abortedDownloadStopsRendering() throws Exception {
+        List<Object[]> bookings = new ArrayList<>();
+        for (int id = 1; id <= 60; id++) {
+            bookings.add(new Object[]{id, 1, 1, DAY.atTime(9, 0)});
+        }
+        insertBookings(bookings);
+
+        // 第一份收據立即完成，其餘每份需要一段時間，讓中斷時仍有收據在產生或排隊
+        ReceiptService service = spy(receiptService);
+        AtomicInteger started = new AtomicInteger();
+        doAnswer(invocation -> {
+            if (started.incrementAndGet() > 1) {
+                Thread.sleep(500);
+            }
+            return invocation.callRealMethod();
+        }).when(service).writeReceiptPdf(any(ReceiptRequestDto.class), any(OutputStream.class));
+
+        // 用戶端在第一筆寫入時就中斷
+        OutputStream disconnected = new OutputStream() {
+            @Override
+            public void write(int b) throws IOException {
+                throw new IOException("Broken pipe");
+            }
+
+            @Override
+            public void write(byte[] b, int off, int len) throws IOException {
+                throw new IOException("Broken pipe");
+            }
+        };
+        assertThrows(IOException.class, () -> service.writeReceiptsZip(DAY, DAY, 1, disconnected));
+        // 第一份收據在冷啟動時可能較慢，中斷前已開始的份數不固定，以中斷當下為基準
+        int startedAtAbort = started.get();
+
+        // 未取消時排隊中的收據（每個執行緒 4 份）會在前一份完成後繼續產生；
+        // 取消後最多只有各執行緒正在取出的那一份會開始，且立即被中斷
+        Thread.sleep(1500);
+        int threads = Math.max(2, Math.min(4, Runtime.getRuntime().availableProcessors()));
+        assertTrue(started.get() <= startedAtAbort + threads,
+                "rendered after abort: " + (started.get() - startedAtAbort));
+    }
+
+    private byte[] export(Integer memberId) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        receiptService.writeReceiptsZip(DAY, DAY, memberId, out);
+        return out.toByteArray();
+    }
+
+    // 保留寫入順序
+    private static Map<String, byte[]> unzip(byte[] zip) throws IOException {
+        Map<String, byte[]> entries = new LinkedHashMap<>();
+        try (ZipInputStream in = new ZipInputStream(new ByteArrayInputStream(zip))) {
+            ZipEntry entry;
+            while ((entry = in.getNextEntry()) != null) {
+                entries.put(entry.getName(), in.readAllBytes());
+            }
+        }
+        return entries;
+    }
+
+    // [id, memberId, paymentId, bookingDate]
+    private void insertBookings(List<Object[]> bookings) {
+        jdbcTemplate.batchUpdate("INSERT INTO booking (id, member_id, payment_id, booking_date, status, total_amount, original_amount, discount_amount) "
+                + "VALUES (?, ?, ?, ?, 'CONFIRMED', 20, 20, 0)", bookings);
+    }
+}
@@ -0,0 +1,152 @@
+package com.pickleball_backend.pickleball;
+
+import com.pickleball_backend.pickleball.service.TrigramIndex;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 以 10 萬筆合成使用者建立搜尋索引，確認結果與逐筆比對一致；
+ * 建立時間及輸入提示查詢（1 至 6 個字元）的延遲只在 -Pbenchmark 時量測並記錄。
+ */
+public class TrigramIndexBenchmarkTest {
+
+    private static final Logger log = LoggerFactory.getLogger(TrigramIndexBenchmarkTest.class);
+
+    private static final int USERS = 100_000;
+    private static final int QUERIES = 5_000;
+    private static final int LIMIT = 20;
+    private static final int FIELDS = 1 | 2 | 4;
+    private static final int ACTIVE = 1;
+
+    private static final String[] SYLLABLES = {
+            "an", "bel", "chen", "da", "el", "fa", "gor", "han", "li", "ming", "na", "ong",
+            "pei", "qi", "ra", "si", "tan", "wei", "xin", "yu", "zhi", "kar", "lo", "mar"
+    };
+
+    @Test
+    public void searchMatchesBruteForce() {
+        Fixture fixture = new Fixture();
+        TrigramIndex<Integer> index = fixture.index;
+
+        // 更新及刪除後，舊內容不能再被搜尋到
+        assertEquals(USERS - 1_000, index.size());
+
+        // 不限筆數時結果必須與逐筆比對完全相同
+        for (int i = 0; i < 200; i++) {
+            String query = fixture.queries.get(i);
+            Set<Integer> expected = new HashSet<>();
+            for (int id = 0; id < USERS; id++) {
+                if (fixture.docs[id] != null && fixture.active[id] && matches(fixture.docs[id], query)) {
+                    expected.add(id);
+                }
+            }
+            Set<Integer> actual = new HashSet<>(index.search(query, FIELDS, ACTIVE, Integer.MAX_VALUE));
+            assertEquals(expected, actual, "query '" + query + "'");
+        }
+        assertEquals(LIMIT, index.search("renamed user", FIELDS, 0, LIMIT).size());
+        assertTrue(index.search("renamed0", FIELDS, 0, LIMIT).isEmpty());
+        for (String query : fixture.queries) {
+            assertTrue(index.search(query, FIELDS, ACTIVE, LIMIT).size() <= LIMIT);
+        }
+    }
+
+    @Test
+    @Tag("benchmark")
+    public void typeaheadLatency() {
+        Fixture fixture = new Fixture();
+        List<String> queries = fixture.queries;
+
+        // 暖機後量測
+        for (String query : queries) {
+            fixture.index.search(query, FIELDS, ACTIVE, LIMIT);
+        }
+        long[] micros = new long[QUERIES];
+        for (int i = 0; i < QUERIES; i++) {
+            long start = System.nanoTime();
+            fixture.index.search(queries.get(i), FIELDS, ACTIVE, LIMIT);
+            micros[i] = (System.nanoTime() - start) / 1_000;
+        }
+        Arrays.sort(micros);
+        log.info("Search index benchmark: {} users indexed in {} ms, {} typeahead queries p50 {} us, p99 {} us, max {} us",
+                USERS, fixture.buildMillis, QUERIES, micros[QUERIES / 2], micros[QUERIES * 99 / 100], micros[QUERIES - 1]);
+    }
+
+    // 固定亂數種子的合成資料：建立索引後更新或刪除前 2000 筆，查詢取自其餘使用者欄位的片段
+    private static final class Fixture {
+        final String[][] docs = new String[USERS][];
+        final boolean[] active = new boolean[USERS];
+        final TrigramIndex<Integer> index = new TrigramIndex<>(3);
+        final List<String> queries = new ArrayList<>(QUERIES);
+        final long buildMillis;
+
+        Fixture() {
+            Random random = new Random(42);
+            long buildStart = System.nanoTime();
+            for (int id = 0; id < USERS; id++) {
+                String name = capitalize(word(random)) + " " + capitalize(word(random));
+                String username = word(random) + id;
+                String email = username + "@" + word(random) + ".com";
+                docs[id] = new String[]{username, name, email};
+                active[id] = random.nextInt(10) != 0;
+                index.put(id, active[id] ? ACTIVE : 0, username, name, email);
+            }
+            buildMillis = (System.nanoTime() - buildStart) / 1_000_000;
+
+            for (int id = 0; id < 2_000; id++) {
+                if (id % 2 == 0) {
+                    docs[id] = null;
+                    index.remove(id);
+                } else {
+                    docs[id] = new String[]{"renamed" + id, "Renamed User", "renamed" + id + "@example.com"};
+                    index.put(id, active[id] ? ACTIVE : 0, docs[id]);
+                }
+            }
+
+            while (queries.size() < QUERIES) {
+                String[] doc = docs[2_000 + random.nextInt(USERS - 2_000)];
+                String field = doc[random.nextInt(3)].toLowerCase(Locale.ROOT);
+                int length = 1 + random.nextInt(Math.min(6, field.length()));
+                int from = random.nextInt(field.length() - length + 1);
+                String query = field.substring(from, from + length);
+                // 空白查詢直接回傳空結果，不列入比較
+                if (!query.isBlank()) {
+                    queries.add(query);
+                }
+            }
+        }
+    }
+
+    private static boolean matches(String[] doc, String query) {
+        for (String field : doc) {
+            if (field.toLowerCase(Locale.ROOT).contains(query)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static String word(Random random) {
+        StringBuilder word = new StringBuilder();
+        int parts = 2 + random.nextInt(2);
+        for (int i = 0; i < parts; i++) {
+            word.append(SYLLABLES[random.nextInt(SYLLABLES.length)]);
+        }
+        return word.toString();
+    }
+
+    private static String capitalize(String word) {
+        return Character.toUpperCase(word.charAt(0)) + word.substring(1);
+    }
+}
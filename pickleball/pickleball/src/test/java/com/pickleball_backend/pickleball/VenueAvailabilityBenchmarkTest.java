@@ -0,0 +1,204 @@
+package com.pickleball_backend.pickleball;
+
+import com.pickleball_backend.pickleball.entity.Court;
+import com.pickleball_backend.pickleball.entity.Slot;
+import com.pickleball_backend.pickleball.repository.BookingRepository;
+import com.pickleball_backend.pickleball.repository.CourtRepository;
+import com.pickleball_backend.pickleball.repository.SlotRepository;
+import com.pickleball_backend.pickleball.repository.VenueRepository;
+import com.pickleball_backend.pickleball.service.VenueService;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.domain.EntityScan;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.ComponentScan;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.FilterType;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 40 個球場的 venue：比較單一可用球場查詢與原本逐球場查詢（每個球場兩條查詢）的結果及 SQL 數量；
+ * 兩者的耗時只在 -Pbenchmark 時量測並記錄。
+ */
+@DataJpaTest(properties = {
+        // 以 Hibernate 統計計算每次查詢送出的 SQL 數
+        "spring.jpa.properties.hibernate.generate_statistics=true",
+        "logging.level.org.hibernate.engine.internal.StatisticalLoggingSessionEventListener=OFF"
+})
+@ActiveProfiles("test")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+public class VenueAvailabilityBenchmarkTest {
+
+    private static final Logger log = LoggerFactory.getLogger(VenueAvailabilityBenchmarkTest.class);
+
+    private static final int COURTS = 40;
+    private static final int WARMUP = 20;
+    private static final int ITERATIONS = 200;
+    private static final LocalDate DATE = LocalDate.of(2099, 1, 1);
+    private static final LocalTime START = LocalTime.of(10, 0);
+    private static final LocalTime END = LocalTime.of(11, 0);
+
+    @Configuration
+    @EntityScan(basePackageClasses = Court.class)
+    @EnableJpaRepositories(basePackageClasses = CourtRepository.class,
+            includeFilters = @ComponentScan.Filter(type = FilterType.ASSIGNABLE_TYPE,
+                    classes = {CourtRepository.class, VenueRepository.class, SlotRepository.class, BookingRepository.class}))
+    @Import(VenueService.class)
+    static class Config {
+    }
+
+    @Autowired
+    private VenueService venueService;
+
+    @Autowired
+    private CourtRepository courtRepository;
+
+    @Autowired
+    private SlotRepository slotRepository;
+
+    @Autowired
+    private BookingRepository bookingRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private final List<Integer> expected = new ArrayList<>();
+
+    @BeforeEach
+    public void setUp() {
+        jdbcTemplate.update("DELETE FROM bookingslot");
+        jdbcTemplate.update("DELETE FROM booking");
+        jdbcTemplate.update("DELETE FROM payment");
+        jdbcTemplate.update("DELETE FROM member");
+        jdbcTemplate.update("DELETE FROM user");
+        jdbcTemplate.update("DELETE FROM slot");
+        jdbcTemplate.update("DELETE FROM court");
+        jdbcTemplate.update("DELETE FROM venue");
+        jdbcTemplate.update("INSERT INTO venue (id, name, location) VALUES (1, 'Arena', 'Main St'), (2, 'Annex', 'Side St')");
+        // 預訂必須有會員及付款
+        jdbcTemplate.update("INSERT INTO user (id, uuid, name) VALUES (1, RANDOM_UUID(), 'Player')");
+        jdbcTemplate.update("INSERT INTO member (user_id) VALUES (1)");
+        jdbcTemplate.update("INSERT INTO payment (id, amount, max_retries, retry_count, created_at) VALUES (1, 20, 0, 0, CURRENT_TIMESTAMP)");
+
+        int slotId = 1;
+        int bookingId = 1;
+        for (int court = 1; court <= COURTS + 5; court++) {
+            // 最後 5 個球場屬於另一個 venue，不應出現在結果中
+            int venueId = court <= COURTS ? 1 : 2;
+            jdbcTemplate.update("INSERT INTO court (id, name, venue_id, is_archived) VALUES (?, ?, ?, false)",
+                    court, "Court " + court, venueId);
+            boolean slotsOpen = court % 5 != 0;
+            for (int hour = 8; hour < 16; hour++, slotId++) {
+                jdbcTemplate.update("INSERT INTO slot (id, court_id, date, start_time, end_time, is_available, duration_hours) "
+                                + "VALUES (?, ?, ?, ?, ?, ?, 1)",
+                        slotId, court, DATE, LocalTime.of(hour, 0), LocalTime.of(hour + 1, 0), slotsOpen);
+                if (hour == 10 && (court % 3 == 0 || court % 7 == 0)) {
+                    // 每 3 個球場有一筆已確認的預訂；每 7 個球場有一筆已取消的預訂，不算衝突
+                    String status = court % 3 == 0 ? "CONFIRMED" : "CANCELLED";
+                    jdbcTemplate.update("INSERT INTO booking (id, member_id, payment_id, status, total_amount) VALUES (?, 1, 1, ?, 20)", bookingId, status);
+                    jdbcTemplate.update("INSERT INTO bookingslot (booking_id, slot_id, status, timestamp) VALUES (?, ?, 'BOOKED', CURRENT_TIMESTAMP)", bookingId, slotId);
+                    bookingId++;
+                }
+            }
+            if (venueId == 1 && slotsOpen && court % 3 != 0) {
+                expected.add(court);
+            }
+        }
+    }
+
+    @Test
+    public void singleQueryMatchesPerCourtLoopWithOneStatement() {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.setStatisticsEnabled(true);
+
+        List<Integer> singleQuery = ids(venueService.getAvailableCourts(1, DATE, START, END, 0));
+        List<Integer> perCourt = ids(perCourtLoop());
+        assertEquals(expected, singleQuery);
+        assertEquals(expected, perCourt);
+
+        statistics.clear();
+        venueService.getAvailableCourts(1, DATE, START, END, 0);
+        assertEquals(1, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    @Tag("benchmark")
+    public void singleQueryVersusPerCourtLoopLatency() {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.setStatisticsEnabled(true);
+        statistics.clear();
+        venueService.getAvailableCourts(1, DATE, START, END, 0);
+        long singleStatements = statistics.getPrepareStatementCount();
+        statistics.clear();
+        perCourtLoop();
+        long loopStatements = statistics.getPrepareStatementCount();
+
+        long singleMicros = time(() -> venueService.getAvailableCourts(1, DATE, START, END, 0));
+        long loopMicros = time(this::perCourtLoop);
+        log.info("Venue availability ({} courts): single query {} statement(s), {} us/search; per-court loop {} statements, {} us/search",
+                COURTS, singleStatements, singleMicros, loopStatements, loopMicros);
+    }
+
+    @Test
+    public void capacityFilterRequiresEnoughCourts() {
+        int seats = expected.size() * VenueService.PLAYERS_PER_COURT;
+        assertEquals(expected.size(), venueService.getAvailableCourtsWithCapacity(1, DATE, START, END, seats).size());
+        assertTrue(venueService.getAvailableCourtsWithCapacity(1, DATE, START, END, seats + 1).isEmpty());
+        assertEquals(expected.size(), venueService.getAvailableCourtsWithCapacity(1, DATE, START, END, 0).size());
+    }
+
+    // 原本 VenueService 的做法：每個球場查一次 slot、一次預訂衝突
+    private List<Court> perCourtLoop() {
+        List<Court> available = new ArrayList<>();
+        for (Court court : courtRepository.findByVenueId(1)) {
+            List<Slot> slots = slotRepository.findByCourtIdAndDateAndIsAvailableTrue(court.getId(), DATE);
+            boolean hasAvailable = slots.stream().anyMatch(slot ->
+                    !slot.getStartTime().isAfter(END) && !slot.getEndTime().isBefore(START));
+            boolean hasConflict = bookingRepository.existsActiveBookingForCourtAndTime(court.getId(), DATE, START, END);
+            if (hasAvailable && !hasConflict) {
+                available.add(court);
+            }
+        }
+        return available;
+    }
+
+    private static long time(Supplier<List<Court>> search) {
+        for (int i = 0; i < WARMUP; i++) {
+            search.get();
+        }
+        long start = System.nanoTime();
+        for (int i = 0; i < ITERATIONS; i++) {
+            search.get();
+        }
+        return (System.nanoTime() - start) / ITERATIONS / 1_000;
+    }
+
+    private static List<Integer> ids(List<Court> courts) {
+        return courts.stream().map(Court::getId).sorted().toList();
+    }
+}
@@ -0,0 +1,182 @@
+package com.pickleball_backend.pickleball;
+
+import com.pickleball_backend.pickleball.dto.VoucherRedemptionDto;
+import com.pickleball_backend.pickleball.entity.User;
+import com.pickleball_backend.pickleball.entity.UserAccount;
+import com.pickleball_backend.pickleball.entity.Voucher;
+import com.pickleball_backend.pickleball.entity.VoucherRedemption;
+import com.pickleball_backend.pickleball.exception.ValidationException;
+import com.pickleball_backend.pickleball.repository.MemberRepository;
+import com.pickleball_backend.pickleball.repository.UserAccountRepository;
+import com.pickleball_backend.pickleball.repository.UserRepository;
+import com.pickleball_backend.pickleball.repository.VoucherRedemptionRepository;
+import com.pickleball_backend.pickleball.repository.VoucherRepository;
+import com.pickleball_backend.pickleball.security.IdentityResolver;
+import com.pickleball_backend.pickleball.service.ActiveVoucherCache;
+import com.pickleball_backend.pickleball.service.EmailService;
+import com.pickleball_backend.pickleball.service.VoucherRedemptionService;
+import com.pickleball_backend.pickleball.service.VoucherRedemptionServiceImpl;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.domain.EntityScan;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.ComponentScan;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.FilterType;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 多執行緒同時使用同一張已兌換的優惠券，確認條件式 UPDATE 只讓其中一筆成功。
+ */
+@DataJpaTest
+@ActiveProfiles("test")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+public class VoucherClaimConcurrencyTest {
+
+    private static final int THREADS = 12;
+    private static final int ROUNDS = 20;
+
+    @Configuration
+    @EntityScan(basePackageClasses = Voucher.class)
+    @EnableJpaRepositories(basePackageClasses = VoucherRepository.class,
+            includeFilters = @ComponentScan.Filter(type = FilterType.ASSIGNABLE_TYPE,
+                    classes = {VoucherRepository.class, VoucherRedemptionRepository.class, UserRepository.class,
+                            UserAccountRepository.class, MemberRepository.class}))
+    @Import({VoucherRedemptionServiceImpl.class, ActiveVoucherCache.class, IdentityResolver.class})
+    static class Config {
+    }
+
+    @MockitoBean
+    private EmailService emailService;
+
+    @Autowired
+    private VoucherRedemptionService voucherRedemptionService;
+
+    @Autowired
+    private VoucherRepository voucherRepository;
+
+    @Autowired
+    private VoucherRedemptionRepository redemptionRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private UserAccountRepository userAccountRepository;
+
+    private User user;
+    private Voucher voucher;
+    private String username;
+
+    @BeforeEach
+    public void setUp() {
+        User newUser = new User();
+        newUser.setName("Voucher Tester");
+        newUser.setEmail("voucher-" + System.nanoTime() + "@test.com");
+        user = userRepository.save(newUser);
+
+        username = "voucher-tester-" + user.getId();
+        UserAccount account = new UserAccount();
+        account.setUsername(username);
+        account.setUser(user);
+        userAccountRepository.save(account);
+
+        Voucher newVoucher = new Voucher();
+        newVoucher.setCode("TEN-" + user.getId());
+        newVoucher.setDiscountType("percentage");
+        newVoucher.setDiscountValue(10.0);
+        newVoucher.setRequestPoints(0);
+        voucher = voucherRepository.save(newVoucher);
+    }
+
+    @Test
+    public void concurrentCheckoutsApplyVoucherExactlyOnce() throws Exception {
+        for (int round = 0; round < ROUNDS; round++) {
+            Integer redemptionId = createActiveRedemption();
+            List<VoucherRedemptionDto> results = runConcurrently(
+                    () -> voucherRedemptionService.useVoucherForBooking(user, redemptionId));
+
+            long applied = results.stream().filter(r -> r != null).count();
+            assertEquals(1, applied, "round " + round + " applied the voucher " + applied + " times");
+            assertEquals(VoucherRedemption.STATUS_USED, redemptionRepository.findById(redemptionId).orElseThrow().getStatus());
+        }
+        // 已使用的優惠券重送時不會再次套用
+        Integer redemptionId = createActiveRedemption();
+        assertNotNull(voucherRedemptionService.useVoucherForBooking(user, redemptionId));
+        assertNull(voucherRedemptionService.useVoucherForBooking(user, redemptionId));
+    }
+
+    @Test
+    public void concurrentUseRequestsSucceedExactlyOnce() throws Exception {
+        for (int round = 0; round < ROUNDS; round++) {
+            Integer redemptionId = createActiveRedemption();
+            List<VoucherRedemptionDto> results = runConcurrently(() -> {
+                SecurityContextHolder.getContext().setAuthentication(
+                        new UsernamePasswordAuthenticationToken(username, null, List.of()));
+                try {
+                    return voucherRedemptionService.useVoucher(redemptionId);
+                } catch (ValidationException e) {
+                    return null;
+                } finally {
+                    SecurityContextHolder.clearContext();
+                }
+            });
+
+            long succeeded = results.stream().filter(r -> r != null).count();
+            assertEquals(1, succeeded, "round " + round + " used the voucher " + succeeded + " times");
+        }
+    }
+
+    private Integer createActiveRedemption() {
+        VoucherRedemption redemption = new VoucherRedemption();
+        redemption.setVoucherId(voucher.getId());
+        redemption.setUserId(user.getId());
+        redemption.setRedemptionDate(LocalDate.now());
+        redemption.setExpiryDate(LocalDate.now().plusDays(30));
+        redemption.setStatus(VoucherRedemption.STATUS_ACTIVE);
+        return redemptionRepository.save(redemption).getId();
+    }
+
+    private List<VoucherRedemptionDto> runConcurrently(Callable<VoucherRedemptionDto> task) throws Exception {
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        try {
+            List<Future<VoucherRedemptionDto>> futures = new ArrayList<>();
+            for (int t = 0; t < THREADS; t++) {
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    return task.call();
+                }));
+            }
+            start.countDown();
+            List<VoucherRedemptionDto> results = new ArrayList<>();
+            for (Future<VoucherRedemptionDto> future : futures) {
+                results.add(future.get());
+            }
+            return results;
+        } finally {
+            executor.shutdown();
+        }
+    }
+}
@@ -0,0 +1,151 @@
+package com.pickleball_backend.pickleball;
+
+import com.pickleball_backend.pickleball.entity.Wallet;
+import com.pickleball_backend.pickleball.entity.WalletTransaction;
+import com.pickleball_backend.pickleball.exception.InsufficientBalanceException;
+import com.pickleball_backend.pickleball.exception.ValidationException;
+import com.pickleball_backend.pickleball.repository.WalletRepository;
+import com.pickleball_backend.pickleball.repository.WalletTransactionRepository;
+import com.pickleball_backend.pickleball.service.WalletLedgerService;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.domain.EntityScan;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.ComponentScan;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.FilterType;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 多執行緒同時對同一個錢包扣款、入帳、凍結及解凍，
+ * 確認帳本依序銜接、帳本總和等於錢包餘額，並記錄吞吐量。
+ */
+@DataJpaTest
+@ActiveProfiles("test")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+public class WalletLedgerConcurrencyTest {
+
+    private static final Logger log = LoggerFactory.getLogger(WalletLedgerConcurrencyTest.class);
+
+    private static final int THREADS = 8;
+    private static final int OPERATIONS_PER_THREAD = 250;
+    private static final double INITIAL_BALANCE = 500.00;
+
+    @Configuration
+    @EntityScan(basePackageClasses = Wallet.class)
+    @EnableJpaRepositories(basePackageClasses = WalletRepository.class,
+            includeFilters = @ComponentScan.Filter(type = FilterType.ASSIGNABLE_TYPE,
+                    classes = {WalletRepository.class, WalletTransactionRepository.class}))
+    @Import(WalletLedgerService.class)
+    static class Config {
+    }
+
+    @Autowired
+    private WalletLedgerService walletLedgerService;
+
+    @Autowired
+    private WalletRepository walletRepository;
+
+    @Autowired
+    private WalletTransactionRepository walletTransactionRepository;
+
+    @Test
+    public void concurrentMutationsKeepLedgerAndBalanceInSync() throws Exception {
+        Wallet wallet = walletRepository.save(new Wallet());
+        Integer walletId = wallet.getId();
+        walletLedgerService.credit(wallet, INITIAL_BALANCE, "DEPOSIT", "TEST", null, "Initial balance");
+
+        AtomicInteger rejected = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int t = 0; t < THREADS; t++) {
+            futures.add(executor.submit(() -> {
+                start.await();
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                for (int i = 0; i < OPERATIONS_PER_THREAD; i++) {
+                    Wallet handle = new Wallet();
+                    handle.setId(walletId);
+                    double amount = 1 + random.nextInt(40);
+                    try {
+                        switch (random.nextInt(5)) {
+                            case 0, 1 -> walletLedgerService.debit(handle, amount, "PAYMENT", "TEST", i, "Debit");
+                            case 2 -> walletLedgerService.refund(handle, amount, "TEST", i, "Refund");
+                            case 3 -> walletLedgerService.freeze(handle, amount, "TEST", i, "Freeze");
+                            default -> walletLedgerService.unfreeze(handle, amount, "TEST", i, "Unfreeze");
+                        }
+                    } catch (InsufficientBalanceException | ValidationException e) {
+                        rejected.incrementAndGet();
+                    }
+                }
+                return null;
+            }));
+        }
+
+        long startNanos = System.nanoTime();
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        long elapsedNanos = System.nanoTime() - startNanos;
+        executor.shutdown();
+
+        int attempted = THREADS * OPERATIONS_PER_THREAD;
+        log.info("Wallet ledger stress: {} operations ({} rejected) on one wallet by {} threads in {} ms, {} ops/s",
+                attempted, rejected.get(), THREADS, elapsedNanos / 1_000_000, Math.round(attempted / (elapsedNanos / 1e9)));
+
+        Wallet reloaded = walletRepository.findById(walletId).orElseThrow();
+        List<WalletTransaction> ledger = new ArrayList<>(walletTransactionRepository.findByWallet_Id(walletId));
+        ledger.sort(Comparator.comparing(WalletTransaction::getId));
+
+        // 每筆成功的變動都有一筆帳本記錄
+        assertEquals(1 + attempted - rejected.get(), ledger.size());
+
+        double balance = 0;
+        double frozen = 0;
+        for (WalletTransaction entry : ledger) {
+            // 資料列鎖讓同一錢包的變動依序執行：每筆的變動前數值必須等於上一筆的變動後數值
+            assertEquals(balance, entry.getBalanceBefore(), 0.001, "ledger gap before entry " + entry.getId());
+            assertEquals(frozen, entry.getFrozenBefore(), 0.001, "frozen gap before entry " + entry.getId());
+            switch (entry.getTransactionType()) {
+                case "PAYMENT" -> balance -= entry.getAmount();
+                case "FREEZE" -> {
+                    balance -= entry.getAmount();
+                    frozen += entry.getAmount();
+                }
+                case "UNFREEZE" -> {
+                    balance += entry.getAmount();
+                    frozen -= entry.getAmount();
+                }
+                default -> balance += entry.getAmount();
+            }
+            assertEquals(balance, entry.getBalanceAfter(), 0.001);
+            assertEquals(frozen, entry.getFrozenAfter(), 0.001);
+            assertTrue(entry.getBalanceAfter() >= 0, "balance went negative");
+            assertTrue(entry.getFrozenAfter() >= 0, "frozen balance went negative");
+        }
+
+        assertEquals(balance, reloaded.getBalance(), 0.001);
+        assertEquals(frozen, reloaded.getFrozenBalance(), 0.001);
+    }
+}